@@ -1,5 +1,6 @@
 package com.flixmate.flixmate.api.config;
 
+import com.flixmate.flixmate.api.controller.CheckInController;
 import com.flixmate.flixmate.api.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -26,6 +27,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Waiting room polls are authenticated by their queue token; skip the user lookup
+        if ("GET".equals(request.getMethod())
+                && request.getRequestURI().startsWith(request.getContextPath() + "/api/waiting-room/")
+                && request.getRequestURI().endsWith("/status")) {
+            return true;
+        }
+        // Likewise door scans carrying a gate key
+        return "POST".equals(request.getMethod())
+                && request.getHeader(CheckInController.GATE_KEY_HEADER) != null
+                && request.getRequestURI().startsWith(request.getContextPath() + "/api/check-in/");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
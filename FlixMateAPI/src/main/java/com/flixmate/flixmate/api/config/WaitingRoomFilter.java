@@ -0,0 +1,88 @@
+package com.flixmate.flixmate.api.config;
+
+import com.flixmate.flixmate.api.service.AdmissionDeniedException;
+import com.flixmate.flixmate.api.service.WaitingRoomService;
+import com.flixmate.flixmate.api.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns away booking requests for showtimes with an open waiting room unless
+ * they carry an admitted queue token. Runs ahead of the JWT filter and only
+ * reads the token signatures, so rejected requests never load the user, parse
+ * the body or take a database connection. {@code POST /api/bookings/multi}
+ * names its showtimes in the body, so the booking controller checks it.
+ */
+@Component
+public class WaitingRoomFilter extends OncePerRequestFilter {
+
+    private static final Pattern BOOKING_PATH = Pattern.compile("^/api/bookings/(\\d+)(/best-available|/with-discount)?/?$");
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Matcher matcher = BOOKING_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (!matcher.matches()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Integer showtimeId;
+        try {
+            showtimeId = Integer.valueOf(matcher.group(1));
+        } catch (NumberFormatException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!waitingRoomService.isOpen(showtimeId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String username = null;
+        String authorizationHeader = request.getHeader("Authorization");
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            try {
+                username = jwtUtil.extractUsername(authorizationHeader.substring(7));
+            } catch (Exception e) {
+                // Left to the JWT filter and security rules to reject
+            }
+        }
+        if (username == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            waitingRoomService.checkAdmission(showtimeId, username, request.getHeader(WaitingRoomService.TOKEN_HEADER));
+        } catch (AdmissionDeniedException denied) {
+            response.setStatus(denied.getStatus());
+            if (denied.getRetryAfterSeconds() > 0) {
+                response.setHeader("Retry-After", String.valueOf(denied.getRetryAfterSeconds()));
+            }
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write(denied.getMessage());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
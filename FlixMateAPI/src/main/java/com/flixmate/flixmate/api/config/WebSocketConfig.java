@@ -0,0 +1,66 @@
+package com.flixmate.flixmate.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket for live seat maps. Clients connect to {@code /ws},
+ * receive a snapshot from {@code /app/showtimes/{id}/seats} and then deltas
+ * on {@code /topic/showtimes/{id}/seats}. Clients subscribe to the topic
+ * first and apply the deltas that arrive before the snapshot after it.
+ *
+ * Each session gets a bounded send buffer and send time; a client that cannot
+ * keep up is disconnected instead of holding up delivery to everyone else.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Value("${flixmate.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${flixmate.ws.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${flixmate.ws.broker-threads:4}")
+    private int brokerThreads;
+
+    @Value("${flixmate.ws.outbound-threads:16}")
+    private int outboundThreads;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+        // Deltas for a showtime must reach each client in the order they were published
+        registry.setPreservePublishOrder(true);
+        // Fan-out runs on broker threads, never on the booking request that changed the seats
+        registry.configureBrokerChannel().taskExecutor()
+                .corePoolSize(brokerThreads)
+                .maxPoolSize(brokerThreads);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimit);
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+}
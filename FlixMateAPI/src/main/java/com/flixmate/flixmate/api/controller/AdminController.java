@@ -5,18 +5,26 @@ import com.flixmate.flixmate.api.entity.Payment;
 import com.flixmate.flixmate.api.entity.Movie;
 import com.flixmate.flixmate.api.entity.ShowTime;
 import com.flixmate.flixmate.api.entity.CinemaHall;
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.entity.ShowtimeCancellationJob;
 import com.flixmate.flixmate.api.repository.UserRepository;
 import com.flixmate.flixmate.api.repository.BookingRepository;
 import com.flixmate.flixmate.api.repository.PaymentRepository;
 import com.flixmate.flixmate.api.repository.MovieRepository;
 import com.flixmate.flixmate.api.repository.CinemaHallRepository;
+import com.flixmate.flixmate.api.repository.ShowTimeRepository;
 import com.flixmate.flixmate.api.service.ReportService;
 import com.flixmate.flixmate.api.service.MovieManagementService;
+import com.flixmate.flixmate.api.service.PaymentTotals;
+import com.flixmate.flixmate.api.service.SeatInventoryService;
+import com.flixmate.flixmate.api.service.SeatMapEngine;
+import com.flixmate.flixmate.api.service.ShowtimeCancellationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +42,9 @@ public class AdminController {
     
     @Autowired
     private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentTotals paymentTotals;
     
     @Autowired
     private MovieRepository movieRepository;
@@ -47,6 +58,18 @@ public class AdminController {
     @Autowired
     private MovieManagementService movieManagementService;
 
+    @Autowired
+    private ShowtimeCancellationService showtimeCancellationService;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers() {
         try {
@@ -70,11 +93,8 @@ public class AdminController {
     @GetMapping("/revenue")
     public ResponseEntity<?> getRevenue() {
         try {
-            // Calculate total revenue from payments
-            Double totalRevenue = paymentRepository.findAll().stream()
-                    .filter(payment -> "SUCCESS".equals(payment.getStatus()))
-                    .mapToDouble(payment -> payment.getAmount() != null ? payment.getAmount() : 0.0)
-                    .sum();
+            // Running total, maintained as payments change
+            Double totalRevenue = paymentTotals.get("SUCCESS").getAmount();
             
             Map<String, Object> response = new HashMap<>();
             response.put("revenue", totalRevenue);
@@ -94,21 +114,14 @@ public class AdminController {
             
             // User stats
             long totalUsers = userRepository.count();
-            long adminUsers = userRepository.findAll().stream()
-                    .filter(user -> user.getStatus() != null && "admin".equals(user.getStatus().getStatusName()))
-                    .count();
+            long adminUsers = userRepository.countByStatus_StatusName("admin");
             
             // Booking stats
             long totalBookings = bookingRepository.count();
-            long confirmedBookings = bookingRepository.findAll().stream()
-                    .filter(booking -> "CONFIRMED".equals(booking.getStatus()))
-                    .count();
+            long confirmedBookings = bookingRepository.countByStatus("CONFIRMED");
             
             // Revenue stats
-            Double totalRevenue = paymentRepository.findAll().stream()
-                    .filter(payment -> "SUCCESS".equals(payment.getStatus()))
-                    .mapToDouble(payment -> payment.getAmount() != null ? payment.getAmount() : 0.0)
-                    .sum();
+            Double totalRevenue = paymentTotals.get("SUCCESS").getAmount();
             
             stats.put("totalUsers", totalUsers);
             stats.put("adminUsers", adminUsers);
@@ -226,16 +239,11 @@ public class AdminController {
             dashboard.put("payments", paymentRepository.count());
             
             // Recent activity (last 10 bookings)
-            List<com.flixmate.flixmate.api.entity.Booking> recentBookings = bookingRepository.findAll().stream()
-                    .limit(10)
-                    .toList();
+            List<com.flixmate.flixmate.api.entity.Booking> recentBookings = bookingRepository.findTop10ByOrderByBookingIdDesc();
             dashboard.put("recentBookings", recentBookings);
             
             // Revenue summary
-            Double totalRevenue = paymentRepository.findAll().stream()
-                    .filter(payment -> "SUCCESS".equals(payment.getStatus()))
-                    .mapToDouble(payment -> payment.getAmount() != null ? payment.getAmount() : 0.0)
-                    .sum();
+            Double totalRevenue = paymentTotals.get("SUCCESS").getAmount();
             dashboard.put("totalRevenue", totalRevenue);
             
             return ResponseEntity.ok(dashboard);
@@ -343,6 +351,21 @@ public class AdminController {
         }
     }
     
+    // Body: {"layout": "..."} in the HallLayoutParser format; rebuilds the hall's seats
+    @PutMapping("/cinema-halls/{hallId}/layout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateCinemaHallLayout(@PathVariable Integer hallId, @RequestBody Map<String, String> body) {
+        try {
+            CinemaHall hall = cinemaHallRepository.findById(hallId)
+                .orElseThrow(() -> new IllegalArgumentException("Cinema hall not found with ID: " + hallId));
+            List<Seat> seats = seatInventoryService.applyHallLayout(hall, body.get("layout"));
+            seatMapEngine.invalidateHall(hallId);
+            return ResponseEntity.ok(Map.of("hallId", hallId, "seats", seats.size()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to update cinema hall layout: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/cinema-halls/{hallId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteCinemaHall(@PathVariable Integer hallId) {
@@ -484,6 +507,48 @@ public class AdminController {
         }
     }
 
+    // Body: seat type -> price, e.g. {"PREMIUM": 18.5}; types left out use the base price and multipliers
+    @PutMapping("/showtimes/{showtimeId}/prices")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateShowtimePrices(@PathVariable Integer showtimeId, @RequestBody Map<String, Double> prices) {
+        try {
+            ShowTime showtime = showTimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new IllegalArgumentException("Showtime not found with ID: " + showtimeId));
+            seatMapEngine.setPrices(showtime, prices);
+            return ResponseEntity.ok(seatMapEngine.availability(showtimeId, null).getPrices());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to update showtime prices: " + e.getMessage());
+        }
+    }
+
+    // Cancels every booking of the showtime in the background; poll the returned job for progress
+    @PostMapping("/showtimes/{showtimeId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> cancelShowtime(@PathVariable Integer showtimeId,
+                                            @RequestParam(required = false) String reason,
+                                            Principal principal) {
+        try {
+            ShowtimeCancellationJob job = showtimeCancellationService.cancelShowtime(showtimeId, reason,
+                    principal != null ? principal.getName() : null);
+            return ResponseEntity.accepted().body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to cancel showtime: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/showtimes/{showtimeId}/cancellations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ShowtimeCancellationJob>> getShowtimeCancellations(@PathVariable Integer showtimeId) {
+        return ResponseEntity.ok(showtimeCancellationService.getJobsForShowtime(showtimeId));
+    }
+
+    @GetMapping("/showtime-cancellations/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ShowtimeCancellationJob> getShowtimeCancellation(@PathVariable Integer jobId) {
+        ShowtimeCancellationJob job = showtimeCancellationService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
     // Initialize database with sample data
     @PostMapping("/init-data")
     public ResponseEntity<?> initializeData() {
@@ -1,11 +1,16 @@
 package com.flixmate.flixmate.api.controller;
 
 import com.flixmate.flixmate.api.service.AdminReportsService;
+import com.flixmate.flixmate.api.service.ReportExportService;
+import com.flixmate.flixmate.api.service.SalesRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -16,6 +21,12 @@ public class AdminReportsController {
     @Autowired
     private AdminReportsService adminReportsService;
 
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private ReportExportService reportExportService;
+
     @PostMapping("/sales")
     public ResponseEntity<?> generateSalesReport(@RequestBody Map<String, Object> request) {
         try {
@@ -84,21 +95,51 @@ public class AdminReportsController {
         }
     }
 
-    @GetMapping("/sales/export")
-    public ResponseEntity<?> exportSalesReport(@RequestParam String format) {
+    // Rebuilds the sales rollups behind these reports for a range of days, in the background
+    @PostMapping("/rollups/backfill")
+    public ResponseEntity<?> backfillSalesRollups(@RequestParam String from, @RequestParam String to) {
         try {
-            // For now, return a simple response
-            // In a real implementation, you would generate actual PDF/Excel files
-            return ResponseEntity.ok(Map.of(
-                "message", "Sales report export functionality will be implemented",
-                "format", format
+            LocalDate start = LocalDate.parse(from);
+            LocalDate end = LocalDate.parse(to);
+            salesRollupService.backfill(start, end);
+            return ResponseEntity.accepted().body(Map.of(
+                "message", "Sales rollup backfill started",
+                "from", start.toString(),
+                "to", end.toString()
             ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Failed to start sales rollup backfill",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/sales/export")
+    public ResponseEntity<?> exportSalesReport(@RequestParam String format,
+                                               @RequestParam(required = false) String startDate,
+                                               @RequestParam(required = false) String endDate) {
+        LocalDate to;
+        LocalDate from;
+        String exportFormat = format.toLowerCase();
+        try {
+            to = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
+            from = startDate != null ? LocalDate.parse(startDate) : to.minusDays(29);
+            reportExportService.validate(ReportExportService.SALES, exportFormat, from, to);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", "Failed to export sales report",
                 "message", e.getMessage()
             ));
         }
+
+        StreamingResponseBody body = out ->
+            reportExportService.export(ReportExportService.SALES, exportFormat, from, to, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_TYPE, reportExportService.contentType(exportFormat))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + reportExportService.fileName(ReportExportService.SALES, exportFormat, from, to) + "\"")
+            .body(body);
     }
 
     @GetMapping("/popular-movies/export")
@@ -2,15 +2,24 @@ package com.flixmate.flixmate.api.controller;
 
 import com.flixmate.flixmate.api.entity.Booking;
 import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.model.ShowtimeSeatSelection;
+import com.flixmate.flixmate.api.service.AdmissionDeniedException;
+import com.flixmate.flixmate.api.service.BookingSequencer;
 import com.flixmate.flixmate.api.service.BookingService;
+import com.flixmate.flixmate.api.service.IdempotencyService;
+import com.flixmate.flixmate.api.service.WaitingRoomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -19,6 +28,15 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingSequencer bookingSequencer;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
     @GetMapping
     public ResponseEntity<String> getAllBookings() {
         return ResponseEntity.badRequest().body("Please specify a showtime ID. Use /api/bookings/{showtimeId} to create a booking or /api/bookings/user to get user bookings.");
@@ -35,7 +53,14 @@ public class BookingController {
     @PostMapping("/{showtimeId}")
     public ResponseEntity<?> createBooking(@AuthenticationPrincipal UserDetails userDetails,
                                            @PathVariable Integer showtimeId,
-                                           @RequestBody Set<Integer> seatIds) {
+                                           @RequestBody Set<Integer> seatIds,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("booking", username(userDetails), idempotencyKey,
+                showtimeId + ":" + sorted(seatIds),
+                () -> createBooking(userDetails, showtimeId, seatIds));
+    }
+
+    private ResponseEntity<?> createBooking(UserDetails userDetails, Integer showtimeId, Set<Integer> seatIds) {
         System.out.println("=== BOOKING CONTROLLER: createBooking ===");
         System.out.println("User: " + (userDetails != null ? userDetails.getUsername() : "NULL"));
         System.out.println("Showtime ID: " + showtimeId);
@@ -47,7 +72,7 @@ public class BookingController {
         }
         
         try {
-            Booking booking = bookingService.createBooking(userDetails.getUsername(), showtimeId, seatIds);
+            Booking booking = bookingSequencer.book(userDetails.getUsername(), showtimeId, seatIds);
             System.out.println("Booking created successfully with ID: " + booking.getBookingId());
             return ResponseEntity.ok(booking);
         } catch (Exception ex) {
@@ -73,6 +98,41 @@ public class BookingController {
         }
     }
 
+    // Books seats in several showtimes at once, all or nothing; one booking per showtime
+    @PostMapping("/multi")
+    public ResponseEntity<?> createMultiShowtimeBooking(@AuthenticationPrincipal UserDetails userDetails,
+                                                       @RequestBody List<ShowtimeSeatSelection> selections,
+                                                       @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                       @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String queueTokens) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        // The waiting room filter only sees showtime ids in the path, so the showtimes in the body are checked here
+        try {
+            waitingRoomService.checkAdmission(
+                    selections.stream().map(ShowtimeSeatSelection::getShowtimeId).filter(Objects::nonNull).toList(),
+                    userDetails.getUsername(), queueTokens);
+        } catch (AdmissionDeniedException denied) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(denied.getStatus());
+            if (denied.getRetryAfterSeconds() > 0) {
+                response.header("Retry-After", String.valueOf(denied.getRetryAfterSeconds()));
+            }
+            return response.body(denied.getMessage());
+        }
+        return idempotencyService.execute("multi-booking", userDetails.getUsername(), idempotencyKey,
+                fingerprint(selections),
+                () -> createMultiShowtimeBooking(userDetails, selections));
+    }
+
+    private ResponseEntity<?> createMultiShowtimeBooking(UserDetails userDetails, List<ShowtimeSeatSelection> selections) {
+        try {
+            List<Booking> bookings = bookingService.createMultiShowtimeBooking(userDetails.getUsername(), selections);
+            return ResponseEntity.ok(bookings);
+        } catch (Exception ex) {
+            return ResponseEntity.badRequest().body("Error creating bookings: " + ex.getMessage());
+        }
+    }
+
     @GetMapping("/available/{showtimeId}")
     public ResponseEntity<?> getAvailableSeats(@PathVariable Integer showtimeId) {
         System.out.println("=== AVAILABLE SEATS API CALL START ===");
@@ -83,14 +143,6 @@ public class BookingController {
             List<Seat> seats = bookingService.getAvailableSeats(showtimeId);
             System.out.println("Found " + seats.size() + " available seats");
             
-            // Log seat details
-            for (Seat seat : seats) {
-                System.out.println("Seat ID: " + seat.getSeatId() + 
-                                 ", Row: " + seat.getRow() + 
-                                 ", Number: " + seat.getNumber() + 
-                                 ", Status: " + seat.getStatus());
-            }
-            
             return ResponseEntity.ok(seats);
         } catch (Exception ex) {
             System.err.println("=== AVAILABLE SEATS API ERROR ===");
@@ -107,6 +159,32 @@ public class BookingController {
         }
     }
 
+    // Box office / kiosk mode: the server picks the best block of adjacent seats
+    @PostMapping("/{showtimeId}/best-available")
+    public ResponseEntity<?> createBestAvailableBooking(@AuthenticationPrincipal UserDetails userDetails,
+                                                       @PathVariable Integer showtimeId,
+                                                       @RequestParam Integer quantity,
+                                                       @RequestParam(required = false) String preferredRow,
+                                                       @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        return idempotencyService.execute("best-available", userDetails.getUsername(), idempotencyKey,
+                showtimeId + ":" + quantity + ":" + preferredRow,
+                () -> createBestAvailableBooking(userDetails, showtimeId, quantity, preferredRow));
+    }
+
+    private ResponseEntity<?> createBestAvailableBooking(UserDetails userDetails, Integer showtimeId,
+                                                         Integer quantity, String preferredRow) {
+        try {
+            Booking booking = bookingService.createBestAvailableBooking(
+                    userDetails.getUsername(), showtimeId, quantity, preferredRow);
+            return ResponseEntity.ok(booking);
+        } catch (Exception ex) {
+            return ResponseEntity.badRequest().body("Error creating booking: " + ex.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookingById(@PathVariable Integer id) {
         try {
@@ -167,14 +245,38 @@ public class BookingController {
         }
     }
     
+    // Cancels some seats of a booking, refunding their share if it was paid
+    @PostMapping("/{id}/cancel-seats")
+    public ResponseEntity<?> cancelSeats(@AuthenticationPrincipal UserDetails userDetails,
+                                         @PathVariable Integer id,
+                                         @RequestBody Set<Integer> seatIds,
+                                         @RequestParam(required = false) String reason) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        try {
+            return ResponseEntity.ok(bookingService.cancelSeats(userDetails.getUsername(), id, seatIds, reason));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
     @PostMapping("/{showtimeId}/with-discount")
     public ResponseEntity<?> createBookingWithDiscount(@AuthenticationPrincipal UserDetails userDetails,
                                                       @PathVariable Integer showtimeId,
-                                                      @RequestBody BookingRequest request) {
+                                                      @RequestBody BookingRequest request,
+                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         if (userDetails == null) {
             return ResponseEntity.status(401).body("User not authenticated");
         }
-        
+        return idempotencyService.execute("booking-discount", userDetails.getUsername(), idempotencyKey,
+                showtimeId + ":" + sorted(request.getSeatIds()) + ":" + request.getDiscountCode()
+                        + ":" + request.getLoyaltyPointsToRedeem(),
+                () -> createBookingWithDiscount(userDetails, showtimeId, request));
+    }
+
+    private ResponseEntity<?> createBookingWithDiscount(UserDetails userDetails, Integer showtimeId,
+                                                        BookingRequest request) {
         try {
             Booking booking = bookingService.createBookingWithDiscount(
                 userDetails.getUsername(), 
@@ -197,6 +299,24 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getBookingHistory(userDetails.getUsername()));
     }
     
+    private static String username(UserDetails userDetails) {
+        return userDetails != null ? userDetails.getUsername() : null;
+    }
+
+    private static Set<Integer> sorted(Set<Integer> seatIds) {
+        return seatIds != null ? new TreeSet<>(seatIds) : Set.of();
+    }
+
+    private static String fingerprint(List<ShowtimeSeatSelection> selections) {
+        if (selections == null) {
+            return "";
+        }
+        return selections.stream()
+                .sorted(Comparator.comparing(ShowtimeSeatSelection::getShowtimeId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .map(selection -> selection.getShowtimeId() + ":" + sorted(selection.getSeatIds()))
+                .collect(Collectors.joining(";"));
+    }
+
     // Inner class for booking request
     public static class BookingRequest {
         private Set<Integer> seatIds;
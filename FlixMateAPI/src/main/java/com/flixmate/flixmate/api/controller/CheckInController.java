@@ -0,0 +1,64 @@
+package com.flixmate.flixmate.api.controller;
+
+import com.flixmate.flixmate.api.model.CheckInResult;
+import com.flixmate.flixmate.api.service.TicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Door check-in. Scanners send the gate key header so a scan never loads a
+ * user; admins signed in with a JWT can scan too.
+ */
+@RestController
+@RequestMapping("/api/check-in")
+public class CheckInController {
+
+    public static final String GATE_KEY_HEADER = "X-Gate-Key";
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Value("${flixmate.tickets.gate-key:}")
+    private String gateKey;
+
+    @PostMapping("/{showtimeId}")
+    public ResponseEntity<?> checkIn(@PathVariable Integer showtimeId,
+                                     @RequestParam String code,
+                                     @RequestParam(required = false) String gate,
+                                     @RequestHeader(value = GATE_KEY_HEADER, required = false) String key) {
+        if (!authorized(key)) {
+            return ResponseEntity.status(401).body("A valid gate key is required");
+        }
+        CheckInResult result = ticketService.checkIn(showtimeId, code, gate);
+        return TicketService.ADMITTED.equals(result.getStatus())
+                ? ResponseEntity.ok(result)
+                : ResponseEntity.status(409).body(result);
+    }
+
+    @GetMapping("/{showtimeId}")
+    public ResponseEntity<?> getAdmittedCount(@PathVariable Integer showtimeId,
+                                              @RequestHeader(value = GATE_KEY_HEADER, required = false) String key) {
+        if (!authorized(key)) {
+            return ResponseEntity.status(401).body("A valid gate key is required");
+        }
+        return ResponseEntity.ok(Map.of("showtimeId", showtimeId, "admitted", ticketService.admittedCount(showtimeId)));
+    }
+
+    private boolean authorized(String key) {
+        if (key != null) {
+            return !gateKey.isBlank() && MessageDigest.isEqual(
+                    gateKey.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -1,12 +1,22 @@
 package com.flixmate.flixmate.api.controller;
 
 import com.flixmate.flixmate.api.entity.Payment;
+import com.flixmate.flixmate.api.entity.Refund;
+import com.flixmate.flixmate.api.model.PaymentStatus;
+import com.flixmate.flixmate.api.service.IdempotencyService;
+import com.flixmate.flixmate.api.service.PaymentGatewayRouter;
+import com.flixmate.flixmate.api.service.PaymentGatewayUnavailableException;
+import com.flixmate.flixmate.api.service.PaymentOutboxService;
 import com.flixmate.flixmate.api.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -18,15 +28,74 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentGatewayRouter paymentGatewayRouter;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    // A retried payment with the same Idempotency-Key gets the first attempt's response instead of charging again
     @PostMapping
-    public ResponseEntity<?> processPayment(@RequestBody PaymentRequest request) {
+    public ResponseEntity<?> processPayment(@AuthenticationPrincipal UserDetails userDetails,
+                                            @RequestBody PaymentRequest request,
+                                            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payment", userDetails != null ? userDetails.getUsername() : null, idempotencyKey,
+                request.getBookingId() + ":" + request.getPaymentMethod() + ":" + request.getAmount(),
+                () -> processPayment(request));
+    }
+
+    private ResponseEntity<?> processPayment(PaymentRequest request) {
         try {
             Payment payment = paymentService.processPayment(request.getBookingId(), request.getPaymentMethod(), request.getAmount());
             return ResponseEntity.ok(payment);
+        } catch (PaymentGatewayUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body("Payment failed: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Payment failed: " + e.getMessage());
+        }
+    }
+
+    // Accepts the payment and returns 202 straight away; the result is pushed on the payment's topic or polled via the Location header
+    @PostMapping("/async")
+    public ResponseEntity<?> submitPayment(@AuthenticationPrincipal UserDetails userDetails,
+                                           @RequestBody PaymentRequest request,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (!paymentOutboxService.isAccepting()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body("Payment queue is full, please retry shortly");
+        }
+        return idempotencyService.execute("payment-async", userDetails != null ? userDetails.getUsername() : null, idempotencyKey,
+                request.getBookingId() + ":" + request.getPaymentMethod() + ":" + request.getAmount(),
+                () -> submitPayment(request));
+    }
+
+    private ResponseEntity<?> submitPayment(PaymentRequest request) {
+        try {
+            Payment payment = paymentOutboxService.submitPayment(request.getBookingId(), request.getPaymentMethod(), request.getAmount());
+            PaymentStatus status = paymentOutboxService.getStatus(payment.getPaymentId());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/payments/" + payment.getPaymentId() + "/status"))
+                    .body(status);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Payment failed: " + e.getMessage());
         }
     }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<PaymentStatus> getPaymentStatus(@PathVariable Integer id) {
+        PaymentStatus status = paymentOutboxService.getStatus(id);
+        if (status != null) {
+            return ResponseEntity.ok(status);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
     
     // Inner class for payment request
     public static class PaymentRequest {
@@ -49,6 +118,12 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getPaymentLogs());
     }
 
+    @GetMapping("/gateways")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getGatewayHealth() {
+        return ResponseEntity.ok(paymentGatewayRouter.getGatewayHealth());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Payment> getPaymentById(@PathVariable Integer id) {
         Payment payment = paymentService.getPaymentById(id);
@@ -94,6 +169,12 @@ public class PaymentController {
         }
     }
 
+    @GetMapping("/{id}/refunds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Refund>> getRefunds(@PathVariable Integer id) {
+        return ResponseEntity.ok(paymentService.getRefunds(id));
+    }
+
     @GetMapping("/user/{email}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> getUserPaymentLogs(@PathVariable String email) {
@@ -107,8 +188,14 @@ public class PaymentController {
 
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getPaymentStatistics() {
+    public ResponseEntity<?> getPaymentStatistics(@RequestParam(required = false) String startDate,
+                                                  @RequestParam(required = false) String endDate) {
         try {
+            // With a range, break it down per day and status; without one, return the running totals
+            if (startDate != null && endDate != null) {
+                return ResponseEntity.ok(paymentService.getPaymentStatistics(
+                        LocalDateTime.parse(startDate), LocalDateTime.parse(endDate)));
+            }
             Map<String, Object> statistics = paymentService.getPaymentStatistics();
             return ResponseEntity.ok(statistics);
         } catch (Exception e) {
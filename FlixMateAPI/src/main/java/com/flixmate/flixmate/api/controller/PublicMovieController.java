@@ -3,15 +3,21 @@ package com.flixmate.flixmate.api.controller;
 import com.flixmate.flixmate.api.entity.Movie;
 import com.flixmate.flixmate.api.entity.ShowTime;
 import com.flixmate.flixmate.api.entity.PromotionalBanner;
+import com.flixmate.flixmate.api.model.SeatLayout;
+import com.flixmate.flixmate.api.service.SeatMapEngine;
+import com.flixmate.flixmate.api.util.SeatMapCodec;
 import com.flixmate.flixmate.api.service.MovieService;
 import com.flixmate.flixmate.api.service.ShowTimeService;
 import com.flixmate.flixmate.api.service.PromotionalBannerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/public")
@@ -27,6 +33,9 @@ public class PublicMovieController {
     @Autowired
     private PromotionalBannerService bannerService;
 
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
     @GetMapping("/movies")
     public ResponseEntity<?> getAllMovies() {
         System.out.println("=== PUBLIC MOVIES API CALL START ===");
@@ -134,20 +143,45 @@ public class PublicMovieController {
                 return ResponseEntity.notFound().build();
             }
 
-            // Return basic seat availability info (without seat details)
-            Map<String, Object> seatInfo = Map.of(
-                "showtimeId", showtimeId,
-                "totalSeats", 100, // Mock total seats
-                "availableSeats", 85, // Mock available seats
-                "occupiedSeats", 15 // Mock occupied seats
-            );
-            return ResponseEntity.ok(seatInfo);
+            // Return seat counts only (without seat details)
+            return ResponseEntity.ok(seatMapEngine.availability(showtimeId, null));
         } catch (Exception e) {
             System.err.println("Error fetching seat availability: " + e.getMessage());
             return ResponseEntity.badRequest().body("Failed to fetch seat availability: " + e.getMessage());
         }
     }
 
+    @GetMapping("/showtimes/{showtimeId}/layout")
+    public ResponseEntity<?> getShowtimeSeatLayout(@PathVariable Integer showtimeId,
+                                                   @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            SeatLayout layout = seatMapEngine.layout(showtimeId);
+            String eTag = "\"" + layout.getLayoutVersion() + "\"";
+            CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+            if (eTag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(layout);
+        } catch (Exception e) {
+            System.err.println("Error fetching seat layout: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Failed to fetch seat layout: " + e.getMessage());
+        }
+    }
+
+    // Compact availability: one bit (bitmap) or one run length (rle) per seat, in layout order
+    @GetMapping("/showtimes/{showtimeId}/seatmap")
+    public ResponseEntity<?> getShowtimeSeatMap(@PathVariable Integer showtimeId,
+                                                @RequestParam(defaultValue = SeatMapCodec.BITMAP) String encoding) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(seatMapEngine.availability(showtimeId, encoding));
+        } catch (Exception e) {
+            System.err.println("Error fetching seat map: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Failed to fetch seat map: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/banners")
     public ResponseEntity<?> getPromotionalBanners() {
         try {
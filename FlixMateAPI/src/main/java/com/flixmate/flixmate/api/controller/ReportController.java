@@ -1,15 +1,25 @@
 package com.flixmate.flixmate.api.controller;
 
 import com.flixmate.flixmate.api.entity.Report;
+import com.flixmate.flixmate.api.model.ReportJob;
+import com.flixmate.flixmate.api.service.ReportExportService;
+import com.flixmate.flixmate.api.service.ReportJobService;
 import com.flixmate.flixmate.api.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -18,6 +28,12 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
     @GetMapping("/revenue")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Report> generateRevenueReport(@AuthenticationPrincipal UserDetails userDetails) {
@@ -36,6 +52,35 @@ public class ReportController {
         return ResponseEntity.ok(reportService.generateTicketSalesReport(userDetails.getUsername()));
     }
 
+    /**
+     * Streams bookings, payments or sales for a date range as CSV or XLSX.
+     * Rows are written to the response while they are read, so the export
+     * size is not limited by memory.
+     */
+    @GetMapping("/export/{type}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportReport(@PathVariable String type,
+                                          @RequestParam(defaultValue = "csv") String format,
+                                          @RequestParam String from,
+                                          @RequestParam String to) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+            reportExportService.validate(type, format, fromDate, toDate);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to export report: " + e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> reportExportService.export(type, format, fromDate, toDate, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, reportExportService.contentType(format))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + reportExportService.fileName(type, format, fromDate, toDate) + "\"")
+                .body(body);
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Report>> getAllReports(@AuthenticationPrincipal UserDetails userDetails) {
@@ -92,22 +137,51 @@ public class ReportController {
     @PostMapping("/movie-performance")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> generateMoviePerformanceReport(@AuthenticationPrincipal UserDetails userDetails) {
-        try {
-            Report report = reportService.generateMoviePerformanceReport(userDetails.getUsername());
-            return ResponseEntity.ok(report);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to generate movie performance report: " + e.getMessage());
-        }
+        return submitReportJob(userDetails.getUsername(), "MOVIE_PERFORMANCE", Map.of());
     }
 
     @PostMapping("/user-activity")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> generateUserActivityReport(@AuthenticationPrincipal UserDetails userDetails) {
+        return submitReportJob(userDetails.getUsername(), "USER_ACTIVITY", Map.of());
+    }
+
+    // Queues any report type; parameters such as date, year and month are passed as request parameters
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> submitReportJob(@AuthenticationPrincipal UserDetails userDetails,
+                                             @RequestParam String type,
+                                             @RequestParam Map<String, String> params) {
+        return submitReportJob(userDetails.getUsername(), type, params);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportJob> getReportJob(@PathVariable String jobId) {
+        ReportJob job = reportJobService.getJob(jobId);
+        if (job != null) {
+            return ResponseEntity.ok(job);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // 200 with the finished job when a recent report was reused, otherwise 202 with the job to poll
+    private ResponseEntity<?> submitReportJob(String email, String type, Map<String, String> params) {
         try {
-            Report report = reportService.generateUserActivityReport(userDetails.getUsername());
-            return ResponseEntity.ok(report);
+            ReportJob job = reportJobService.submit(email, type, params);
+            if (ReportJobService.COMPLETED.equals(job.getStatus())) {
+                return ResponseEntity.ok(job);
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/reports/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body("Report queue is full, please retry shortly");
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to generate user activity report: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Failed to submit report: " + e.getMessage());
         }
     }
 
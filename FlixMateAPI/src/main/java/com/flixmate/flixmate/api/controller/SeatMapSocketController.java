@@ -0,0 +1,21 @@
+package com.flixmate.flixmate.api.controller;
+
+import com.flixmate.flixmate.api.model.SeatMapSnapshot;
+import com.flixmate.flixmate.api.service.SeatMapEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class SeatMapSocketController {
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
+    // Answered once, straight to the subscribing client; updates follow on /topic/showtimes/{id}/seats
+    @SubscribeMapping("/showtimes/{showtimeId}/seats")
+    public SeatMapSnapshot subscribeSeatMap(@DestinationVariable Integer showtimeId) {
+        return seatMapEngine.snapshot(showtimeId);
+    }
+}
@@ -0,0 +1,96 @@
+package com.flixmate.flixmate.api.controller;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.Ticket;
+import com.flixmate.flixmate.api.service.BookingService;
+import com.flixmate.flixmate.api.service.PdfRenderService;
+import com.flixmate.flixmate.api.service.TicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/tickets")
+public class TicketController {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private PdfRenderService pdfRenderService;
+
+    @GetMapping("/booking/{bookingId}")
+    public ResponseEntity<?> getTickets(@AuthenticationPrincipal UserDetails userDetails,
+                                        @PathVariable Integer bookingId) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        Booking booking = bookingService.getBookingById(bookingId);
+        if (booking == null || !canView(userDetails, booking)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ticketService.getTickets(booking));
+    }
+
+    @GetMapping(value = "/{ticketId}/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQrCode(@AuthenticationPrincipal UserDetails userDetails,
+                                            @PathVariable Integer ticketId,
+                                            @RequestParam(defaultValue = "300") int size) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).build();
+        }
+        Ticket ticket = ticketService.getTicket(ticketId);
+        Booking booking = ticket != null ? bookingService.getBookingById(ticket.getBookingId()) : null;
+        if (booking == null || !canView(userDetails, booking) || !TicketService.ISSUED.equals(ticket.getStatus())) {
+            return ResponseEntity.notFound().build();
+        }
+        byte[] png = ticketService.renderQrCode(ticket.getCode(), Math.max(100, Math.min(size, 1000)));
+        return ResponseEntity.ok().contentType(MediaType.IMAGE_PNG).body(png);
+    }
+
+    // Rendered on the PDF workers; the request thread is released while it waits
+    @GetMapping("/booking/{bookingId}/pdf")
+    public CompletableFuture<ResponseEntity<byte[]>> getTicketsPdf(@AuthenticationPrincipal UserDetails userDetails,
+                                                                   @PathVariable Integer bookingId) {
+        if (userDetails == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).build());
+        }
+        Booking booking = bookingService.getBookingById(bookingId);
+        if (booking == null || !canView(userDetails, booking) || !"CONFIRMED".equals(booking.getStatus())) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        PdfRenderService.TicketSheet sheet = pdfRenderService.loadTicketSheet(bookingId);
+        if (sheet == null || !sheet.hasTickets()) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        return pdfRenderService.renderTickets(sheet)
+                .thenApply(pdf -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"tickets-" + bookingId + ".pdf\"")
+                        .body(pdf))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+                    }
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
+    }
+
+    private boolean canView(UserDetails userDetails, Booking booking) {
+        return booking.getUser().getEmail().equals(userDetails.getUsername())
+                || userDetails.getAuthorities().stream().anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.flixmate.flixmate.api.controller;
+
+import com.flixmate.flixmate.api.model.QueueStatus;
+import com.flixmate.flixmate.api.service.AdmissionDeniedException;
+import com.flixmate.flixmate.api.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+public class WaitingRoomController {
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @PostMapping("/{showtimeId}/join")
+    public ResponseEntity<?> join(@AuthenticationPrincipal UserDetails userDetails,
+                                  @PathVariable Integer showtimeId) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        try {
+            return ResponseEntity.ok(waitingRoomService.join(showtimeId, userDetails.getUsername()));
+        } catch (AdmissionDeniedException denied) {
+            return denied(denied);
+        }
+    }
+
+    // Polled while waiting; authenticated by the queue token alone so polls never load the user
+    @GetMapping("/{showtimeId}/status")
+    public ResponseEntity<?> status(@PathVariable Integer showtimeId,
+                                    @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String token) {
+        try {
+            QueueStatus status = waitingRoomService.status(showtimeId, token);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!status.isAdmitted()) {
+                response.header("Retry-After", String.valueOf(Math.min(30, Math.max(1, status.getEstimatedWaitSeconds()))));
+            }
+            return response.body(status);
+        } catch (AdmissionDeniedException denied) {
+            return denied(denied);
+        }
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<QueueStatus>> getOpenRooms() {
+        return ResponseEntity.ok(waitingRoomService.openRooms());
+    }
+
+    @PostMapping("/{showtimeId}/open")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> open(@PathVariable Integer showtimeId,
+                                       @RequestParam(required = false) Integer admitPerMinute,
+                                       @RequestParam(required = false) Integer burst) {
+        try {
+            waitingRoomService.open(showtimeId, admitPerMinute, burst);
+            return ResponseEntity.ok("Waiting room opened");
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{showtimeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> close(@PathVariable Integer showtimeId) {
+        if (waitingRoomService.close(showtimeId)) {
+            return ResponseEntity.ok("Waiting room closed");
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<?> denied(AdmissionDeniedException denied) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(denied.getStatus());
+        if (denied.getRetryAfterSeconds() > 0) {
+            response.header("Retry-After", String.valueOf(denied.getRetryAfterSeconds()));
+        }
+        return response.body(denied.getMessage());
+    }
+}
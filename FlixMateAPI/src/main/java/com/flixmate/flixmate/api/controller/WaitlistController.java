@@ -0,0 +1,54 @@
+package com.flixmate.flixmate.api.controller;
+
+import com.flixmate.flixmate.api.model.WaitlistStatus;
+import com.flixmate.flixmate.api.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @PostMapping("/{showtimeId}")
+    public ResponseEntity<?> join(@AuthenticationPrincipal UserDetails userDetails,
+                                  @PathVariable Integer showtimeId,
+                                  @RequestParam(defaultValue = "1") int quantity,
+                                  @RequestParam(required = false) String seatType) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        try {
+            return ResponseEntity.ok(waitlistService.join(userDetails.getUsername(), showtimeId, quantity, seatType));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @GetMapping("/{showtimeId}")
+    public ResponseEntity<?> getStatus(@AuthenticationPrincipal UserDetails userDetails,
+                                       @PathVariable Integer showtimeId) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        WaitlistStatus status = waitlistService.getStatus(userDetails.getUsername(), showtimeId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{showtimeId}")
+    public ResponseEntity<?> leave(@AuthenticationPrincipal UserDetails userDetails,
+                                   @PathVariable Integer showtimeId) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        if (waitlistService.leave(userDetails.getUsername(), showtimeId)) {
+            return ResponseEntity.ok("Left the waitlist");
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
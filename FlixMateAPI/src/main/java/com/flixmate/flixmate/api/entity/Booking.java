@@ -29,7 +29,11 @@ public class Booking {
     private Double totalAmount;
 
     @Column(name = "status", nullable = false)
-    private String status; // e.g., "CONFIRMED", "CANCELLED"
+    private String status; // e.g., "PENDING", "CONFIRMED", "CANCELLED", "EXPIRED"
+
+    @Column(name = "hold_expires_at")
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime holdExpiresAt; // when the seat hold of an unpaid booking runs out
 
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "user_id", nullable = false)
@@ -58,6 +62,8 @@ public class Booking {
     public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    public LocalDateTime getHoldExpiresAt() { return holdExpiresAt; }
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) { this.holdExpiresAt = holdExpiresAt; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
     public ShowTime getShowtime() { return showtime; }
@@ -20,6 +20,9 @@ public class CinemaHall {
     @Column(name = "capacity", nullable = false)
     private Integer capacity;
 
+    @Column(name = "layout", length = 8000)
+    private String layout; // see HallLayoutParser; null means a plain 10-seat-per-row grid
+
     // Getters, setters, constructors
     public Integer getHallId() { return hallId; }
     public void setHallId(Integer hallId) { this.hallId = hallId; }
@@ -31,6 +34,8 @@ public class CinemaHall {
     public void setLocation(String location) { this.location = location; }
     public Integer getCapacity() { return capacity; }
     public void setCapacity(Integer capacity) { this.capacity = capacity; }
+    public String getLayout() { return layout; }
+    public void setLayout(String layout) { this.layout = layout; }
 
     public CinemaHall() {}
     public CinemaHall(String name, String location, Integer capacity) {
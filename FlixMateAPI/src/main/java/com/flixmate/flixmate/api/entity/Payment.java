@@ -1,12 +1,15 @@
 package com.flixmate.flixmate.api.entity;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.flixmate.flixmate.api.service.PaymentTotalsListener;
 import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments")
+@EntityListeners(PaymentTotalsListener.class)
 public class Payment {
 
     @Id
@@ -50,6 +53,25 @@ public class Payment {
     @JoinColumn(name = "booking_id", nullable = false)
     private Booking booking;
 
+    // Row state as last loaded or written, so listeners can see what an update changed
+    @Transient
+    private String persistedStatus;
+
+    @Transient
+    private Double persistedAmount;
+
+    @Transient
+    private Double persistedRefundAmount;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedState() {
+        persistedStatus = status;
+        persistedAmount = amount;
+        persistedRefundAmount = refundAmount;
+    }
+
     // Getters, setters, constructors
     public Integer getPaymentId() { return paymentId; }
     public void setPaymentId(Integer paymentId) { this.paymentId = paymentId; }
@@ -75,6 +97,12 @@ public class Payment {
     public void setReceiptUrl(String receiptUrl) { this.receiptUrl = receiptUrl; }
     public Booking getBooking() { return booking; }
     public void setBooking(Booking booking) { this.booking = booking; }
+    @JsonIgnore
+    public String getPersistedStatus() { return persistedStatus; }
+    @JsonIgnore
+    public Double getPersistedAmount() { return persistedAmount; }
+    @JsonIgnore
+    public Double getPersistedRefundAmount() { return persistedRefundAmount; }
 
     public Payment() {}
     public Payment(String transactionId, LocalDateTime paymentDate, String paymentMethod, Double amount, String status, Booking booking) {
@@ -0,0 +1,74 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment accepted for asynchronous processing. The row is written in the
+ * same transaction as the PENDING payment, so a payment is never accepted
+ * without a record of the gateway call still owed for it.
+ */
+@Entity
+@Table(name = "payment_outbox", indexes = {
+    @Index(name = "idx_payment_outbox_status", columnList = "status, updated_at")
+})
+public class PaymentOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Integer outboxId;
+
+    @Column(name = "payment_id", nullable = false, unique = true)
+    private Integer paymentId;
+
+    @Column(name = "booking_id", nullable = false)
+    private Integer bookingId;
+
+    @Column(name = "status", nullable = false)
+    private String status; // PENDING, PROCESSING, DONE or FAILED
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime updatedAt;
+
+    // Getters, setters, constructors
+    public Integer getOutboxId() { return outboxId; }
+    public void setOutboxId(Integer outboxId) { this.outboxId = outboxId; }
+    public Integer getPaymentId() { return paymentId; }
+    public void setPaymentId(Integer paymentId) { this.paymentId = paymentId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public PaymentOutbox() {}
+    public PaymentOutbox(Integer paymentId, Integer bookingId, String status, LocalDateTime createdAt) {
+        this.paymentId = paymentId;
+        this.bookingId = bookingId;
+        this.status = status;
+        this.attempts = 0;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+}
@@ -0,0 +1,82 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One refund against a payment. A payment can have several: one per partial
+ * seat cancellation, plus possibly a final full refund. {@code seatIds} lists
+ * the cancelled seats for seat-level refunds and is null otherwise.
+ */
+@Entity
+@Table(name = "refunds",
+    indexes = {
+        @Index(name = "idx_refund_payment", columnList = "payment_id"),
+        @Index(name = "idx_refund_booking", columnList = "booking_id")
+    })
+public class Refund {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "refund_id")
+    private Integer refundId;
+
+    @Column(name = "payment_id", nullable = false)
+    private Integer paymentId;
+
+    @Column(name = "booking_id", nullable = false)
+    private Integer bookingId;
+
+    @Column(name = "amount", nullable = false)
+    private Double amount;
+
+    @Column(name = "seat_count")
+    private Integer seatCount;
+
+    @Column(name = "seat_ids")
+    private String seatIds; // comma separated, e.g. "12,13"
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Column(name = "refund_date", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime refundDate;
+
+    @Column(name = "status", nullable = false)
+    private String status; // e.g., "PROCESSED"
+
+    // Getters, setters, constructors
+    public Integer getRefundId() { return refundId; }
+    public void setRefundId(Integer refundId) { this.refundId = refundId; }
+    public Integer getPaymentId() { return paymentId; }
+    public void setPaymentId(Integer paymentId) { this.paymentId = paymentId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+    public Integer getSeatCount() { return seatCount; }
+    public void setSeatCount(Integer seatCount) { this.seatCount = seatCount; }
+    public String getSeatIds() { return seatIds; }
+    public void setSeatIds(String seatIds) { this.seatIds = seatIds; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+    public LocalDateTime getRefundDate() { return refundDate; }
+    public void setRefundDate(LocalDateTime refundDate) { this.refundDate = refundDate; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Refund() {}
+    public Refund(Integer paymentId, Integer bookingId, Double amount, Integer seatCount, String seatIds, String reason) {
+        this.paymentId = paymentId;
+        this.bookingId = bookingId;
+        this.amount = amount;
+        this.seatCount = seatCount;
+        this.seatIds = seatIds;
+        this.reason = reason;
+        this.refundDate = LocalDateTime.now();
+        this.status = "PROCESSED";
+    }
+}
@@ -20,6 +20,9 @@ public class Report {
     @Column(name = "data", nullable = false)
     private String data; // JSON or text representation of report
 
+    @Column(name = "params", length = 500)
+    private String params; // Canonical parameters of reports built by a job, used to find cached results
+
     @Column(name = "generated_date", nullable = false)
     @Convert(converter = LocalDateTimeStringAttributeConverter.class)
     private LocalDateTime generatedDate;
@@ -35,6 +38,8 @@ public class Report {
     public void setType(String type) { this.type = type; }
     public String getData() { return data; }
     public void setData(String data) { this.data = data; }
+    public String getParams() { return params; }
+    public void setParams(String params) { this.params = params; }
     public LocalDateTime getGeneratedDate() { return generatedDate; }
     public void setGeneratedDate(LocalDateTime generatedDate) { this.generatedDate = generatedDate; }
     public User getUser() { return user; }
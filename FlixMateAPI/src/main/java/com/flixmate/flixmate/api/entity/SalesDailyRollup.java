@@ -0,0 +1,72 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Sales of one movie in one hall on one day; the sum of that day's
+ * {@link SalesHourlyRollup} rows, kept separately so long-range charts read
+ * one row per movie, hall and day.
+ */
+@Entity
+@Table(name = "sales_daily_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uq_sales_daily_key", columnNames = {"sales_date", "movie_id", "hall_id"}))
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "movie_id", nullable = false)
+    private Integer movieId;
+
+    @Column(name = "hall_id", nullable = false)
+    private Integer hallId;
+
+    @Column(name = "revenue", nullable = false)
+    private Double revenue;
+
+    @Column(name = "refunded", nullable = false)
+    private Double refunded;
+
+    @Column(name = "tickets", nullable = false)
+    private Integer tickets;
+
+    @Column(name = "bookings", nullable = false)
+    private Integer bookings;
+
+    // Getters, setters, constructors
+    public Long getRollupId() { return rollupId; }
+    public void setRollupId(Long rollupId) { this.rollupId = rollupId; }
+    public LocalDate getSalesDate() { return salesDate; }
+    public void setSalesDate(LocalDate salesDate) { this.salesDate = salesDate; }
+    public Integer getMovieId() { return movieId; }
+    public void setMovieId(Integer movieId) { this.movieId = movieId; }
+    public Integer getHallId() { return hallId; }
+    public void setHallId(Integer hallId) { this.hallId = hallId; }
+    public Double getRevenue() { return revenue; }
+    public void setRevenue(Double revenue) { this.revenue = revenue; }
+    public Double getRefunded() { return refunded; }
+    public void setRefunded(Double refunded) { this.refunded = refunded; }
+    public Integer getTickets() { return tickets; }
+    public void setTickets(Integer tickets) { this.tickets = tickets; }
+    public Integer getBookings() { return bookings; }
+    public void setBookings(Integer bookings) { this.bookings = bookings; }
+
+    public SalesDailyRollup() {}
+    public SalesDailyRollup(LocalDate salesDate, Integer movieId, Integer hallId, Double revenue, Double refunded,
+                            Integer tickets, Integer bookings) {
+        this.salesDate = salesDate;
+        this.movieId = movieId;
+        this.hallId = hallId;
+        this.revenue = revenue;
+        this.refunded = refunded;
+        this.tickets = tickets;
+        this.bookings = bookings;
+    }
+}
@@ -0,0 +1,74 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sales of one movie in one hall during one hour, by the time the payment
+ * was made. Revenue and refunds are gross amounts of payments that went
+ * through; refunds stay with the hour of the sale.
+ */
+@Entity
+@Table(name = "sales_hourly_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uq_sales_hourly_key", columnNames = {"bucket_hour", "movie_id", "hall_id"}))
+public class SalesHourlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "bucket_hour", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime bucketHour;
+
+    @Column(name = "movie_id", nullable = false)
+    private Integer movieId;
+
+    @Column(name = "hall_id", nullable = false)
+    private Integer hallId;
+
+    @Column(name = "revenue", nullable = false)
+    private Double revenue;
+
+    @Column(name = "refunded", nullable = false)
+    private Double refunded;
+
+    @Column(name = "tickets", nullable = false)
+    private Integer tickets;
+
+    @Column(name = "bookings", nullable = false)
+    private Integer bookings;
+
+    // Getters, setters, constructors
+    public Long getRollupId() { return rollupId; }
+    public void setRollupId(Long rollupId) { this.rollupId = rollupId; }
+    public LocalDateTime getBucketHour() { return bucketHour; }
+    public void setBucketHour(LocalDateTime bucketHour) { this.bucketHour = bucketHour; }
+    public Integer getMovieId() { return movieId; }
+    public void setMovieId(Integer movieId) { this.movieId = movieId; }
+    public Integer getHallId() { return hallId; }
+    public void setHallId(Integer hallId) { this.hallId = hallId; }
+    public Double getRevenue() { return revenue; }
+    public void setRevenue(Double revenue) { this.revenue = revenue; }
+    public Double getRefunded() { return refunded; }
+    public void setRefunded(Double refunded) { this.refunded = refunded; }
+    public Integer getTickets() { return tickets; }
+    public void setTickets(Integer tickets) { this.tickets = tickets; }
+    public Integer getBookings() { return bookings; }
+    public void setBookings(Integer bookings) { this.bookings = bookings; }
+
+    public SalesHourlyRollup() {}
+    public SalesHourlyRollup(LocalDateTime bucketHour, Integer movieId, Integer hallId, Double revenue, Double refunded,
+                             Integer tickets, Integer bookings) {
+        this.bucketHour = bucketHour;
+        this.movieId = movieId;
+        this.hallId = hallId;
+        this.revenue = revenue;
+        this.refunded = refunded;
+        this.tickets = tickets;
+        this.bookings = bookings;
+    }
+}
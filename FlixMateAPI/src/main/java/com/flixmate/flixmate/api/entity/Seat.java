@@ -23,6 +23,15 @@ public class Seat {
     @Column(name = "status", nullable = false)
     private String status; // e.g., "AVAILABLE", "RESERVED"
 
+    @Column(name = "seat_type")
+    private String seatType; // STANDARD, PREMIUM, WHEELCHAIR or COUPLE; null means STANDARD
+
+    @Column(name = "section_name")
+    private String section;
+
+    @Column(name = "grid_position")
+    private Integer position; // grid column including aisles; null means the seat number
+
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hall_id", nullable = false)
@@ -37,6 +46,12 @@ public class Seat {
     public void setNumber(Integer number) { this.number = number; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    public String getSeatType() { return seatType; }
+    public void setSeatType(String seatType) { this.seatType = seatType; }
+    public String getSection() { return section; }
+    public void setSection(String section) { this.section = section; }
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
     public CinemaHall getCinemaHall() { return cinemaHall; }
     public void setCinemaHall(CinemaHall cinemaHall) { this.cinemaHall = cinemaHall; }
 
@@ -0,0 +1,112 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk showtime cancellation. Bookings are processed in booking
+ * id order and {@code lastBookingId} is committed with each page, so a job
+ * interrupted by a crash resumes after the last completed page.
+ */
+@Entity
+@Table(name = "showtime_cancellation_jobs",
+    indexes = {
+        @Index(name = "idx_cancellation_job_showtime", columnList = "showtime_id"),
+        @Index(name = "idx_cancellation_job_status", columnList = "status")
+    })
+public class ShowtimeCancellationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Integer jobId;
+
+    @Column(name = "showtime_id", nullable = false)
+    private Integer showtimeId;
+
+    @Column(name = "status", nullable = false)
+    private String status; // RUNNING, COMPLETED or FAILED
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @Column(name = "total_bookings")
+    private Integer totalBookings;
+
+    @Column(name = "processed_bookings")
+    private Integer processedBookings;
+
+    @Column(name = "refund_count")
+    private Integer refundCount;
+
+    @Column(name = "refunded_amount")
+    private Double refundedAmount;
+
+    @Column(name = "last_booking_id")
+    private Integer lastBookingId;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime completedAt;
+
+    // Getters, setters, constructors
+    public Integer getJobId() { return jobId; }
+    public void setJobId(Integer jobId) { this.jobId = jobId; }
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+    public String getRequestedBy() { return requestedBy; }
+    public void setRequestedBy(String requestedBy) { this.requestedBy = requestedBy; }
+    public Integer getTotalBookings() { return totalBookings; }
+    public void setTotalBookings(Integer totalBookings) { this.totalBookings = totalBookings; }
+    public Integer getProcessedBookings() { return processedBookings; }
+    public void setProcessedBookings(Integer processedBookings) { this.processedBookings = processedBookings; }
+    public Integer getRefundCount() { return refundCount; }
+    public void setRefundCount(Integer refundCount) { this.refundCount = refundCount; }
+    public Double getRefundedAmount() { return refundedAmount; }
+    public void setRefundedAmount(Double refundedAmount) { this.refundedAmount = refundedAmount; }
+    public Integer getLastBookingId() { return lastBookingId; }
+    public void setLastBookingId(Integer lastBookingId) { this.lastBookingId = lastBookingId; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public ShowtimeCancellationJob() {}
+    public ShowtimeCancellationJob(Integer showtimeId, String reason, String requestedBy, Integer totalBookings) {
+        this.showtimeId = showtimeId;
+        this.reason = reason;
+        this.requestedBy = requestedBy;
+        this.totalBookings = totalBookings;
+        this.processedBookings = 0;
+        this.refundCount = 0;
+        this.refundedAmount = 0.0;
+        this.lastBookingId = 0;
+        this.status = "RUNNING";
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Price of one seat type for one showtime, overriding the default of the
+ * showtime's base price times the seat type's multiplier.
+ */
+@Entity
+@Table(name = "showtime_prices",
+    uniqueConstraints = @UniqueConstraint(name = "uq_showtime_price_type", columnNames = {"showtime_id", "seat_type"}))
+public class ShowtimePrice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "price_id")
+    private Integer priceId;
+
+    @Column(name = "showtime_id", nullable = false)
+    private Integer showtimeId;
+
+    @Column(name = "seat_type", nullable = false)
+    private String seatType;
+
+    @Column(name = "price", nullable = false)
+    private Double price;
+
+    // Getters, setters, constructors
+    public Integer getPriceId() { return priceId; }
+    public void setPriceId(Integer priceId) { this.priceId = priceId; }
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public String getSeatType() { return seatType; }
+    public void setSeatType(String seatType) { this.seatType = seatType; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public ShowtimePrice() {}
+    public ShowtimePrice(Integer showtimeId, String seatType, Double price) {
+        this.showtimeId = showtimeId;
+        this.seatType = seatType;
+        this.price = price;
+    }
+}
@@ -0,0 +1,60 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Seat inventory row for a single showtime. Seat availability is tracked here
+ * rather than on the hall-level {@link Seat}, so reserving A5 for one showtime
+ * leaves A5 free for every other showtime in the same hall.
+ */
+@Entity
+@Table(name = "showtime_seats",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uq_showtime_seat", columnNames = {"showtime_id", "seat_id"})
+    },
+    indexes = {
+        @Index(name = "idx_showtime_status", columnList = "showtime_id, status"),
+        @Index(name = "idx_showtime_seat_booking", columnList = "booking_id")
+    })
+public class ShowtimeSeat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "showtime_seat_id")
+    private Integer showtimeSeatId;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "showtime_id", nullable = false)
+    private ShowTime showtime;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "seat_id", nullable = false)
+    private Seat seat;
+
+    @Column(name = "status", nullable = false)
+    private String status; // e.g., "AVAILABLE", "RESERVED"
+
+    @Column(name = "booking_id")
+    private Integer bookingId; // Booking currently holding the seat, null when available
+
+    // Getters, setters, constructors
+    public Integer getShowtimeSeatId() { return showtimeSeatId; }
+    public void setShowtimeSeatId(Integer showtimeSeatId) { this.showtimeSeatId = showtimeSeatId; }
+    public ShowTime getShowtime() { return showtime; }
+    public void setShowtime(ShowTime showtime) { this.showtime = showtime; }
+    public Seat getSeat() { return seat; }
+    public void setSeat(Seat seat) { this.seat = seat; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+
+    public ShowtimeSeat() {}
+    public ShowtimeSeat(ShowTime showtime, Seat seat, String status) {
+        this.showtime = showtime;
+        this.seat = seat;
+        this.status = status;
+    }
+}
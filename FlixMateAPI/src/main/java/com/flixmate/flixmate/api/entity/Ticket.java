@@ -0,0 +1,70 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One admission ticket per seat of a confirmed booking. {@code code} is the
+ * signed payload shown as the ticket's QR code; it is checked at the door
+ * without reading this table.
+ */
+@Entity
+@Table(name = "tickets",
+    uniqueConstraints = @UniqueConstraint(name = "uq_ticket_booking_seat", columnNames = {"booking_id", "seat_id"}),
+    indexes = {
+        @Index(name = "idx_ticket_status", columnList = "status")
+    })
+public class Ticket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ticket_id")
+    private Integer ticketId;
+
+    @Column(name = "booking_id", nullable = false)
+    private Integer bookingId;
+
+    @Column(name = "showtime_id", nullable = false)
+    private Integer showtimeId;
+
+    @Column(name = "seat_id", nullable = false)
+    private Integer seatId;
+
+    @Column(name = "code", nullable = false)
+    private String code;
+
+    @Column(name = "status", nullable = false)
+    private String status; // ISSUED or VOID
+
+    @Column(name = "issued_at", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime issuedAt;
+
+    // Getters, setters, constructors
+    public Integer getTicketId() { return ticketId; }
+    public void setTicketId(Integer ticketId) { this.ticketId = ticketId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public Integer getSeatId() { return seatId; }
+    public void setSeatId(Integer seatId) { this.seatId = seatId; }
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDateTime getIssuedAt() { return issuedAt; }
+    public void setIssuedAt(LocalDateTime issuedAt) { this.issuedAt = issuedAt; }
+
+    public Ticket() {}
+    public Ticket(Integer bookingId, Integer showtimeId, Integer seatId, String code) {
+        this.bookingId = bookingId;
+        this.showtimeId = showtimeId;
+        this.seatId = seatId;
+        this.code = code;
+        this.status = "ISSUED";
+        this.issuedAt = LocalDateTime.now();
+    }
+}
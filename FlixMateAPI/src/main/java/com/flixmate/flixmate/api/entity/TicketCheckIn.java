@@ -0,0 +1,58 @@
+package com.flixmate.flixmate.api.entity;
+
+import jakarta.persistence.*;
+import com.flixmate.flixmate.api.util.LocalDateTimeStringAttributeConverter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ticket scanned at the door. Written in batches from the check-in
+ * service's in-memory buffer; the unique key stops a ticket being admitted
+ * twice even across restarts.
+ */
+@Entity
+@Table(name = "ticket_checkins",
+    uniqueConstraints = @UniqueConstraint(name = "uq_checkin_booking_seat", columnNames = {"booking_id", "seat_id"}),
+    indexes = {
+        @Index(name = "idx_checkin_showtime", columnList = "showtime_id"),
+        @Index(name = "idx_checkin_time", columnList = "checked_in_at")
+    })
+public class TicketCheckIn {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "checkin_id")
+    private Integer checkInId;
+
+    @Column(name = "booking_id", nullable = false)
+    private Integer bookingId;
+
+    @Column(name = "showtime_id", nullable = false)
+    private Integer showtimeId;
+
+    @Column(name = "seat_id", nullable = false)
+    private Integer seatId;
+
+    @Column(name = "gate")
+    private String gate;
+
+    @Column(name = "checked_in_at", nullable = false)
+    @Convert(converter = LocalDateTimeStringAttributeConverter.class)
+    private LocalDateTime checkedInAt;
+
+    // Getters, setters, constructors
+    public Integer getCheckInId() { return checkInId; }
+    public void setCheckInId(Integer checkInId) { this.checkInId = checkInId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public Integer getSeatId() { return seatId; }
+    public void setSeatId(Integer seatId) { this.seatId = seatId; }
+    public String getGate() { return gate; }
+    public void setGate(String gate) { this.gate = gate; }
+    public LocalDateTime getCheckedInAt() { return checkedInAt; }
+    public void setCheckedInAt(LocalDateTime checkedInAt) { this.checkedInAt = checkedInAt; }
+
+    public TicketCheckIn() {}
+}
@@ -0,0 +1,27 @@
+package com.flixmate.flixmate.api.model;
+
+public class CheckInResult {
+    private String status; // ADMITTED, ALREADY_ADMITTED, WRONG_SHOWTIME, VOID or INVALID
+    private Integer showtimeId;
+    private Integer bookingId;
+    private Integer seatId;
+    private Integer admittedCount;
+
+    // Getters, setters, and no-args constructor
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public Integer getSeatId() { return seatId; }
+    public void setSeatId(Integer seatId) { this.seatId = seatId; }
+    public Integer getAdmittedCount() { return admittedCount; }
+    public void setAdmittedCount(Integer admittedCount) { this.admittedCount = admittedCount; }
+
+    public CheckInResult() {}
+    public CheckInResult(String status, Integer showtimeId) {
+        this.status = status;
+        this.showtimeId = showtimeId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.flixmate.flixmate.api.model;
+
+/**
+ * Outcome of a payment gateway call. A FAILED result is a definite decline;
+ * a gateway that could not be reached throws instead.
+ */
+public class GatewayResult {
+    private final String status;
+    private final String gatewayResponse;
+    private final String failureReason;
+
+    public GatewayResult(String status, String gatewayResponse, String failureReason) {
+        this.status = status;
+        this.gatewayResponse = gatewayResponse;
+        this.failureReason = failureReason;
+    }
+
+    public static GatewayResult success(String gatewayResponse) {
+        return new GatewayResult("SUCCESS", gatewayResponse, null);
+    }
+
+    public static GatewayResult failed(String gatewayResponse, String failureReason) {
+        return new GatewayResult("FAILED", gatewayResponse, failureReason);
+    }
+
+    public String getStatus() { return status; }
+    public String getGatewayResponse() { return gatewayResponse; }
+    public String getFailureReason() { return failureReason; }
+}
@@ -0,0 +1,55 @@
+package com.flixmate.flixmate.api.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment row as it was before and after one insert, update or delete,
+ * published as an application event once the write is flushed. The old
+ * status is null for an insert and the new status null for a delete.
+ */
+public class PaymentChange {
+    private Integer paymentId;
+    private Integer bookingId;
+    private LocalDateTime paymentDate;
+    private String oldStatus;
+    private Double oldAmount;
+    private Double oldRefundAmount;
+    private String newStatus;
+    private Double newAmount;
+    private Double newRefundAmount;
+
+    // Getters, setters, and no-args constructor
+    public Integer getPaymentId() { return paymentId; }
+    public void setPaymentId(Integer paymentId) { this.paymentId = paymentId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public LocalDateTime getPaymentDate() { return paymentDate; }
+    public void setPaymentDate(LocalDateTime paymentDate) { this.paymentDate = paymentDate; }
+    public String getOldStatus() { return oldStatus; }
+    public void setOldStatus(String oldStatus) { this.oldStatus = oldStatus; }
+    public Double getOldAmount() { return oldAmount; }
+    public void setOldAmount(Double oldAmount) { this.oldAmount = oldAmount; }
+    public Double getOldRefundAmount() { return oldRefundAmount; }
+    public void setOldRefundAmount(Double oldRefundAmount) { this.oldRefundAmount = oldRefundAmount; }
+    public String getNewStatus() { return newStatus; }
+    public void setNewStatus(String newStatus) { this.newStatus = newStatus; }
+    public Double getNewAmount() { return newAmount; }
+    public void setNewAmount(Double newAmount) { this.newAmount = newAmount; }
+    public Double getNewRefundAmount() { return newRefundAmount; }
+    public void setNewRefundAmount(Double newRefundAmount) { this.newRefundAmount = newRefundAmount; }
+
+    public PaymentChange() {}
+    public PaymentChange(Integer paymentId, Integer bookingId, LocalDateTime paymentDate,
+                         String oldStatus, Double oldAmount, Double oldRefundAmount,
+                         String newStatus, Double newAmount, Double newRefundAmount) {
+        this.paymentId = paymentId;
+        this.bookingId = bookingId;
+        this.paymentDate = paymentDate;
+        this.oldStatus = oldStatus;
+        this.oldAmount = oldAmount;
+        this.oldRefundAmount = oldRefundAmount;
+        this.newStatus = newStatus;
+        this.newAmount = newAmount;
+        this.newRefundAmount = newRefundAmount;
+    }
+}
@@ -0,0 +1,33 @@
+package com.flixmate.flixmate.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * State of a payment for clients waiting on an asynchronous payment, either
+ * by polling or on {@code /topic/payments/{transactionId}}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentStatus {
+    private Integer paymentId;
+    private String transactionId;
+    private Integer bookingId;
+    private String status;
+    private String gatewayResponse;
+    private String failureReason;
+
+    // Getters, setters, and no-args constructor
+    public Integer getPaymentId() { return paymentId; }
+    public void setPaymentId(Integer paymentId) { this.paymentId = paymentId; }
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    public Integer getBookingId() { return bookingId; }
+    public void setBookingId(Integer bookingId) { this.bookingId = bookingId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getGatewayResponse() { return gatewayResponse; }
+    public void setGatewayResponse(String gatewayResponse) { this.gatewayResponse = gatewayResponse; }
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+
+    public PaymentStatus() {}
+}
@@ -0,0 +1,32 @@
+package com.flixmate.flixmate.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A user's place in the waiting room of a showtime. {@code token} is only
+ * returned when joining; it has to be sent back in the {@code X-Queue-Token}
+ * header when polling and when booking.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueueStatus {
+    private Integer showtimeId;
+    private boolean waitingRoomOpen;
+    private String token;
+    private Long position;
+    private Long estimatedWaitSeconds;
+    private boolean admitted;
+
+    // Getters, setters, and no-args constructor
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public boolean isWaitingRoomOpen() { return waitingRoomOpen; }
+    public void setWaitingRoomOpen(boolean waitingRoomOpen) { this.waitingRoomOpen = waitingRoomOpen; }
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+    public Long getEstimatedWaitSeconds() { return estimatedWaitSeconds; }
+    public void setEstimatedWaitSeconds(Long estimatedWaitSeconds) { this.estimatedWaitSeconds = estimatedWaitSeconds; }
+    public boolean isAdmitted() { return admitted; }
+    public void setAdmitted(boolean admitted) { this.admitted = admitted; }
+}
@@ -0,0 +1,57 @@
+package com.flixmate.flixmate.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * State of a report job as seen by the admin polling it. Jobs are updated by
+ * the worker running them and read by request threads, hence the volatile
+ * fields. Once COMPLETED, {@code reportId} points at the stored report.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportJob {
+    private String jobId;
+    private String type;
+    private Map<String, String> params;
+    private volatile String status;
+    private volatile int progress;
+    private volatile Integer reportId;
+    private volatile boolean cached;
+    private volatile String error;
+    private LocalDateTime submittedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @JsonIgnore
+    private final CompletableFuture<ReportJob> completion = new CompletableFuture<>();
+
+    // Getters, setters, and no-args constructor
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Map<String, String> getParams() { return params; }
+    public void setParams(Map<String, String> params) { this.params = params; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getProgress() { return progress; }
+    public void setProgress(int progress) { this.progress = progress; }
+    public Integer getReportId() { return reportId; }
+    public void setReportId(Integer reportId) { this.reportId = reportId; }
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    /** Completes with this job once it has finished, successfully or not. */
+    public CompletableFuture<ReportJob> whenFinished() { return completion; }
+
+    public ReportJob() {}
+}
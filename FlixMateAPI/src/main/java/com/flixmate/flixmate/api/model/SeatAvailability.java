@@ -0,0 +1,54 @@
+package com.flixmate.flixmate.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Seat counts of a showtime and, optionally, its availability encoded with
+ * {@link com.flixmate.flixmate.api.util.SeatMapCodec} against the layout
+ * identified by {@code layoutVersion}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatAvailability {
+    private Integer showtimeId;
+    private String layoutVersion;
+    private String encoding;
+    private String data;
+    private Integer totalSeats;
+    private Integer availableSeats;
+    private Integer occupiedSeats;
+    private Integer heldSeats;
+    private Integer reservedSeats;
+    private Integer soldSeats;
+    private Map<String, Double> prices; // per seat type present in the hall
+    private Double priceMultiplier; // current dynamic pricing factor, already applied to prices
+
+    // Getters, setters, and no-args constructor
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public String getLayoutVersion() { return layoutVersion; }
+    public void setLayoutVersion(String layoutVersion) { this.layoutVersion = layoutVersion; }
+    public String getEncoding() { return encoding; }
+    public void setEncoding(String encoding) { this.encoding = encoding; }
+    public String getData() { return data; }
+    public void setData(String data) { this.data = data; }
+    public Integer getTotalSeats() { return totalSeats; }
+    public void setTotalSeats(Integer totalSeats) { this.totalSeats = totalSeats; }
+    public Integer getAvailableSeats() { return availableSeats; }
+    public void setAvailableSeats(Integer availableSeats) { this.availableSeats = availableSeats; }
+    public Integer getOccupiedSeats() { return occupiedSeats; }
+    public void setOccupiedSeats(Integer occupiedSeats) { this.occupiedSeats = occupiedSeats; }
+    public Integer getHeldSeats() { return heldSeats; }
+    public void setHeldSeats(Integer heldSeats) { this.heldSeats = heldSeats; }
+    public Integer getReservedSeats() { return reservedSeats; }
+    public void setReservedSeats(Integer reservedSeats) { this.reservedSeats = reservedSeats; }
+    public Integer getSoldSeats() { return soldSeats; }
+    public void setSoldSeats(Integer soldSeats) { this.soldSeats = soldSeats; }
+    public Map<String, Double> getPrices() { return prices; }
+    public void setPrices(Map<String, Double> prices) { this.prices = prices; }
+    public Double getPriceMultiplier() { return priceMultiplier; }
+    public void setPriceMultiplier(Double priceMultiplier) { this.priceMultiplier = priceMultiplier; }
+
+    public SeatAvailability() {}
+}
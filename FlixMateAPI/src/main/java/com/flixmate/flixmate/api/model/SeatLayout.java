@@ -0,0 +1,69 @@
+package com.flixmate.flixmate.api.model;
+
+import java.util.List;
+
+/**
+ * Seat layout of a showtime's hall. Positions in the compact availability
+ * formats refer to seats in the order they appear here, row by row.
+ * {@code positions} are grid columns, so gaps between them are aisles.
+ */
+public class SeatLayout {
+    private Integer hallId;
+    private String layoutVersion;
+    private Integer totalSeats;
+    private List<LayoutRow> rows;
+
+    // Getters, setters, and no-args constructor
+    public Integer getHallId() { return hallId; }
+    public void setHallId(Integer hallId) { this.hallId = hallId; }
+    public String getLayoutVersion() { return layoutVersion; }
+    public void setLayoutVersion(String layoutVersion) { this.layoutVersion = layoutVersion; }
+    public Integer getTotalSeats() { return totalSeats; }
+    public void setTotalSeats(Integer totalSeats) { this.totalSeats = totalSeats; }
+    public List<LayoutRow> getRows() { return rows; }
+    public void setRows(List<LayoutRow> rows) { this.rows = rows; }
+
+    public SeatLayout() {}
+    public SeatLayout(Integer hallId, String layoutVersion, Integer totalSeats, List<LayoutRow> rows) {
+        this.hallId = hallId;
+        this.layoutVersion = layoutVersion;
+        this.totalSeats = totalSeats;
+        this.rows = rows;
+    }
+
+    public static class LayoutRow {
+        private String row;
+        private String section;
+        private List<Integer> numbers;
+        private List<Integer> seatIds;
+        private List<String> seatTypes;
+        private List<Integer> positions;
+
+        public String getRow() { return row; }
+        public void setRow(String row) { this.row = row; }
+        public String getSection() { return section; }
+        public void setSection(String section) { this.section = section; }
+        public List<Integer> getNumbers() { return numbers; }
+        public void setNumbers(List<Integer> numbers) { this.numbers = numbers; }
+        public List<Integer> getSeatIds() { return seatIds; }
+        public void setSeatIds(List<Integer> seatIds) { this.seatIds = seatIds; }
+        public List<String> getSeatTypes() { return seatTypes; }
+        public void setSeatTypes(List<String> seatTypes) { this.seatTypes = seatTypes; }
+        public List<Integer> getPositions() { return positions; }
+        public void setPositions(List<Integer> positions) { this.positions = positions; }
+
+        public LayoutRow() {}
+        public LayoutRow(String row, List<Integer> numbers, List<Integer> seatIds) {
+            this.row = row;
+            this.numbers = numbers;
+            this.seatIds = seatIds;
+        }
+        public LayoutRow(String row, String section, List<Integer> numbers, List<Integer> seatIds,
+                         List<String> seatTypes, List<Integer> positions) {
+            this(row, numbers, seatIds);
+            this.section = section;
+            this.seatTypes = seatTypes;
+            this.positions = positions;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.flixmate.flixmate.api.model;
+
+import java.util.List;
+
+/**
+ * Full seat map of a showtime, sent once when a client subscribes.
+ */
+public class SeatMapSnapshot {
+    private Integer showtimeId;
+    private List<SeatView> seats;
+
+    // Getters, setters, and no-args constructor
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public List<SeatView> getSeats() { return seats; }
+    public void setSeats(List<SeatView> seats) { this.seats = seats; }
+
+    public SeatMapSnapshot() {}
+    public SeatMapSnapshot(Integer showtimeId, List<SeatView> seats) {
+        this.showtimeId = showtimeId;
+        this.seats = seats;
+    }
+
+    public static class SeatView {
+        private Integer seatId;
+        private String row;
+        private Integer number;
+        private String status;
+
+        public Integer getSeatId() { return seatId; }
+        public void setSeatId(Integer seatId) { this.seatId = seatId; }
+        public String getRow() { return row; }
+        public void setRow(String row) { this.row = row; }
+        public Integer getNumber() { return number; }
+        public void setNumber(Integer number) { this.number = number; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public SeatView() {}
+        public SeatView(Integer seatId, String row, Integer number, String status) {
+            this.seatId = seatId;
+            this.row = row;
+            this.number = number;
+            this.status = status;
+        }
+    }
+}
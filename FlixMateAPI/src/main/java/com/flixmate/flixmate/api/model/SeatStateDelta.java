@@ -0,0 +1,40 @@
+package com.flixmate.flixmate.api.model;
+
+import java.util.List;
+
+/**
+ * Seat state changes for one showtime, pushed to seat map subscribers.
+ * Also published as an application event by the seat map engine.
+ */
+public class SeatStateDelta {
+    private Integer showtimeId;
+    private List<SeatChange> changes;
+
+    // Getters, setters, and no-args constructor
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public List<SeatChange> getChanges() { return changes; }
+    public void setChanges(List<SeatChange> changes) { this.changes = changes; }
+
+    public SeatStateDelta() {}
+    public SeatStateDelta(Integer showtimeId, List<SeatChange> changes) {
+        this.showtimeId = showtimeId;
+        this.changes = changes;
+    }
+
+    public static class SeatChange {
+        private Integer seatId;
+        private String status;
+
+        public Integer getSeatId() { return seatId; }
+        public void setSeatId(Integer seatId) { this.seatId = seatId; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public SeatChange() {}
+        public SeatChange(Integer seatId, String status) {
+            this.seatId = seatId;
+            this.status = status;
+        }
+    }
+}
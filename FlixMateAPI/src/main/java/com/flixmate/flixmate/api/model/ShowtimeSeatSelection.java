@@ -0,0 +1,23 @@
+package com.flixmate.flixmate.api.model;
+
+import java.util.Set;
+
+/**
+ * The seats picked for one showtime of a multi-showtime booking.
+ */
+public class ShowtimeSeatSelection {
+    private Integer showtimeId;
+    private Set<Integer> seatIds;
+
+    // Getters, setters, and no-args constructor
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public Set<Integer> getSeatIds() { return seatIds; }
+    public void setSeatIds(Set<Integer> seatIds) { this.seatIds = seatIds; }
+
+    public ShowtimeSeatSelection() {}
+    public ShowtimeSeatSelection(Integer showtimeId, Set<Integer> seatIds) {
+        this.showtimeId = showtimeId;
+        this.seatIds = seatIds;
+    }
+}
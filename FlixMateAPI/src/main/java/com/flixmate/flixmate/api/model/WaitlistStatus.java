@@ -0,0 +1,28 @@
+package com.flixmate.flixmate.api.model;
+
+import java.time.LocalDateTime;
+
+public class WaitlistStatus {
+    private Integer showtimeId;
+    private Integer quantity;
+    private String seatType;
+    private Integer position;
+    private Integer waiting;
+    private LocalDateTime joinedAt;
+
+    // Getters, setters, and no-args constructor
+    public Integer getShowtimeId() { return showtimeId; }
+    public void setShowtimeId(Integer showtimeId) { this.showtimeId = showtimeId; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public String getSeatType() { return seatType; }
+    public void setSeatType(String seatType) { this.seatType = seatType; }
+    public Integer getPosition() { return position; }
+    public void setPosition(Integer position) { this.position = position; }
+    public Integer getWaiting() { return waiting; }
+    public void setWaiting(Integer waiting) { this.waiting = waiting; }
+    public LocalDateTime getJoinedAt() { return joinedAt; }
+    public void setJoinedAt(LocalDateTime joinedAt) { this.joinedAt = joinedAt; }
+
+    public WaitlistStatus() {}
+}
@@ -2,17 +2,43 @@ package com.flixmate.flixmate.api.repository;
 
 import com.flixmate.flixmate.api.entity.Booking;
 import com.flixmate.flixmate.api.entity.ShowTime;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
     List<Booking> findByUserEmail(String email);
     List<Booking> findByShowtime(ShowTime showtime);
+    long countByStatus(String status);
+    List<Booking> findTop10ByOrderByBookingIdDesc();
+
+    /**
+     * [bookingId, bookingDate, user email, movie title, hall name, showtime start,
+     * totalSeats, totalAmount, status] of bookings made from (inclusive) to
+     * (exclusive), read through a cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.bookingId, b.bookingDate, b.user.email, b.showtime.movie.title, b.showtime.cinemaHall.name, " +
+           "b.showtime.startTime, b.totalSeats, b.totalAmount, b.status FROM Booking b " +
+           "WHERE b.bookingDate >= :from AND b.bookingDate < :to ORDER BY b.bookingId")
+    Stream<Object[]> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** [movieId, hallId, totalSeats] of the booking, without loading it. */
+    @Query("SELECT b.showtime.movie.movieId, b.showtime.cinemaHall.hallId, b.totalSeats FROM Booking b WHERE b.bookingId = :bookingId")
+    List<Object[]> findSalesKey(@Param("bookingId") Integer bookingId);
     
     @Modifying
     @Query("UPDATE Booking b SET b.status = 'CANCELLED' WHERE b.showtime.movie.movieId = :movieId")
@@ -22,6 +48,42 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
     @Query("DELETE FROM Booking b WHERE b.showtime.movie.movieId = :movieId")
     int deleteBookingsForMovie(@Param("movieId") Integer movieId);
     
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'EXPIRED' WHERE b.bookingId = :bookingId AND b.status IN :statuses")
+    int expireBooking(@Param("bookingId") Integer bookingId, @Param("statuses") Collection<String> statuses);
+    
+    /**
+     * One page of a showtime's open bookings after {@code afterBookingId}, as
+     * [bookingId, user email, status] rows so paging does not load the
+     * bookings' eager associations.
+     */
+    @Query("SELECT b.bookingId, b.user.email, b.status FROM Booking b " +
+           "WHERE b.showtime.showtimeId = :showtimeId AND b.bookingId > :afterBookingId AND b.status NOT IN :closedStatuses " +
+           "ORDER BY b.bookingId")
+    List<Object[]> findOpenBookingPage(@Param("showtimeId") Integer showtimeId, @Param("afterBookingId") Integer afterBookingId,
+                                       @Param("closedStatuses") Collection<String> closedStatuses, Pageable page);
+
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.showtime.showtimeId = :showtimeId AND b.status NOT IN :closedStatuses")
+    long countOpenBookings(@Param("showtimeId") Integer showtimeId, @Param("closedStatuses") Collection<String> closedStatuses);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CANCELLED' WHERE b.bookingId IN :bookingIds AND b.status NOT IN :closedStatuses")
+    int cancelBookings(@Param("bookingIds") Collection<Integer> bookingIds, @Param("closedStatuses") Collection<String> closedStatuses);
+
+    @Query("SELECT COALESCE(SUM(b.totalAmount), 0) FROM Booking b WHERE b.status = :status")
+    Double sumTotalAmountByStatus(@Param("status") String status);
+
+    @Query("SELECT COALESCE(SUM(b.totalSeats), 0) FROM Booking b WHERE b.status = :status")
+    Long sumTotalSeatsByStatus(@Param("status") String status);
+
+    /** [movie title, total amount] of bookings with the given status, one row per movie. */
+    @Query("SELECT b.showtime.movie.title, SUM(b.totalAmount) FROM Booking b WHERE b.status = :status " +
+           "GROUP BY b.showtime.movie.title ORDER BY SUM(b.totalAmount) DESC")
+    List<Object[]> sumTotalAmountByMovieTitle(@Param("status") String status);
+
+    @Query("SELECT COUNT(DISTINCT b.user.userId) FROM Booking b")
+    long countDistinctUsers();
+
     List<Booking> findByBookingDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     List<Booking> findByStatus(String status);
     List<Booking> findByUserEmailAndStatus(String email, String status);
@@ -1,7 +1,18 @@
 package com.flixmate.flixmate.api.repository;
 
 import com.flixmate.flixmate.api.entity.CinemaHall;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface CinemaHallRepository extends JpaRepository<CinemaHall, Integer> {
+
+    /** Loads the hall and locks its row until the transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM CinemaHall h WHERE h.hallId = :hallId")
+    Optional<CinemaHall> lockById(@Param("hallId") Integer hallId);
 }
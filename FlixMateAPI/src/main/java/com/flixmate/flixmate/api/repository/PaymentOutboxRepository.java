@@ -0,0 +1,43 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.PaymentOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, Integer> {
+    Optional<PaymentOutbox> findByPaymentId(Integer paymentId);
+    boolean existsByBookingIdAndStatusIn(Integer bookingId, Collection<String> statuses);
+
+    @Query("SELECT o.outboxId FROM PaymentOutbox o WHERE o.status = :status AND o.updatedAt < :before ORDER BY o.outboxId")
+    List<Integer> findIdsByStatusUpdatedBefore(@Param("status") String status, @Param("before") LocalDateTime before);
+
+    /**
+     * Claims a pending entry for one worker; returns 0 if another worker or
+     * the sweeper got there first.
+     */
+    @Modifying
+    @Query("UPDATE PaymentOutbox o SET o.status = 'PROCESSING', o.attempts = o.attempts + 1, o.updatedAt = :now " +
+           "WHERE o.outboxId = :outboxId AND o.status = 'PENDING'")
+    int claim(@Param("outboxId") Integer outboxId, @Param("now") LocalDateTime now);
+
+    /**
+     * Puts an entry whose worker stopped responding back in the queue.
+     */
+    @Modifying
+    @Query("UPDATE PaymentOutbox o SET o.status = 'PENDING', o.updatedAt = :now " +
+           "WHERE o.outboxId = :outboxId AND o.status = 'PROCESSING' AND o.updatedAt < :before")
+    int requeue(@Param("outboxId") Integer outboxId, @Param("before") LocalDateTime before, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PaymentOutbox o SET o.status = :status, o.lastError = :lastError, o.updatedAt = :now " +
+           "WHERE o.outboxId = :outboxId AND o.status = 'PROCESSING'")
+    int finish(@Param("outboxId") Integer outboxId, @Param("status") String status,
+               @Param("lastError") String lastError, @Param("now") LocalDateTime now);
+}
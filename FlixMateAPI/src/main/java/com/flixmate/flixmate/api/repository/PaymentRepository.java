@@ -1,14 +1,76 @@
 package com.flixmate.flixmate.api.repository;
 
 import com.flixmate.flixmate.api.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     List<Payment> findAll();
     List<Payment> findByBooking_User_Email(String email);
     List<Payment> findByPaymentDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     List<Payment> findByStatus(String status);
+    Optional<Payment> findFirstByBooking_BookingIdAndStatus(Integer bookingId, String status);
+    Optional<Payment> findFirstByOrderByPaymentIdAsc();
+
+    /**
+     * One page, in payment id order after {@code afterPaymentId}, of
+     * [paymentId, paymentDate, amount, refundAmount, movieId, hallId, totalSeats]
+     * for payments in the statuses made from (inclusive) to (exclusive).
+     */
+    @Query("SELECT p.paymentId, p.paymentDate, p.amount, p.refundAmount, " +
+           "p.booking.showtime.movie.movieId, p.booking.showtime.cinemaHall.hallId, p.booking.totalSeats " +
+           "FROM Payment p WHERE p.paymentDate >= :from AND p.paymentDate < :to AND p.status IN :statuses " +
+           "AND p.paymentId > :afterPaymentId ORDER BY p.paymentId")
+    List<Object[]> findSalesPage(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                 @Param("statuses") Collection<String> statuses,
+                                 @Param("afterPaymentId") Integer afterPaymentId, Pageable page);
+
+    /** [paymentId, bookingId, amount, refundAmount, paymentDate] of the successful payments for the bookings. */
+    @Query("SELECT p.paymentId, p.booking.bookingId, p.amount, p.refundAmount, p.paymentDate FROM Payment p " +
+           "WHERE p.booking.bookingId IN :bookingIds AND p.status = 'SUCCESS'")
+    List<Object[]> findRefundablePayments(@Param("bookingIds") Collection<Integer> bookingIds);
+
+    /** [status, count, sum of amount, sum of refundAmount] per payment status. */
+    @Query("SELECT p.status, COUNT(p), COALESCE(SUM(p.amount), 0), COALESCE(SUM(p.refundAmount), 0) " +
+           "FROM Payment p GROUP BY p.status")
+    List<Object[]> aggregateByStatus();
+
+    /**
+     * [day as yyyy-MM-dd, status, count, sum of amount, sum of refundAmount] per
+     * day and status for payments from start (inclusive) to end (exclusive).
+     * Bounds are ISO date-times as the payment date converter writes them;
+     * the day is cut from the date's text so the query works whether the
+     * column is a DATETIME2 or a string.
+     */
+    @Query(value = "SELECT SUBSTRING(CAST(payment_date AS VARCHAR(30)), 1, 10) AS payment_day, status, COUNT(*), " +
+                   "COALESCE(SUM(amount), 0), COALESCE(SUM(refund_amount), 0) FROM payments " +
+                   "WHERE payment_date >= :start AND payment_date < :end " +
+                   "GROUP BY SUBSTRING(CAST(payment_date AS VARCHAR(30)), 1, 10), status ORDER BY payment_day",
+           nativeQuery = true)
+    List<Object[]> aggregateByDayAndStatus(@Param("start") String start, @Param("end") String end);
+
+    /**
+     * [paymentId, transactionId, paymentDate, bookingId, paymentMethod, amount,
+     * status, refundAmount, refundDate] of payments made from (inclusive) to
+     * (exclusive), read through a cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.paymentId, p.transactionId, p.paymentDate, p.booking.bookingId, p.paymentMethod, p.amount, " +
+           "p.status, p.refundAmount, p.refundDate FROM Payment p " +
+           "WHERE p.paymentDate >= :from AND p.paymentDate < :to ORDER BY p.paymentId")
+    Stream<Object[]> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
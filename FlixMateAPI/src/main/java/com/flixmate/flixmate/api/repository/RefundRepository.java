@@ -0,0 +1,11 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.Refund;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RefundRepository extends JpaRepository<Refund, Integer> {
+    List<Refund> findByPaymentId(Integer paymentId);
+    List<Refund> findByBookingId(Integer bookingId);
+}
@@ -4,8 +4,11 @@ import com.flixmate.flixmate.api.entity.Report;
 import com.flixmate.flixmate.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReportRepository extends JpaRepository<Report, Integer> {
     List<Report> findByUser(User user);
+    Optional<Report> findFirstByTypeAndParamsAndGeneratedDateAfterOrderByGeneratedDateDesc(String type, String params, LocalDateTime after);
 }
@@ -20,5 +20,8 @@ public interface ReviewRepository extends JpaRepository<Review, Integer> {
     
     @Query("SELECT r FROM Review r JOIN FETCH r.user u JOIN FETCH r.movie m WHERE r.isReported = true")
     List<Review> findReportedReviewsWithUserAndMovie();
-}
 
+    /** [movieId, average rating] of every reviewed movie. */
+    @Query("SELECT r.movie.movieId, AVG(r.rating) FROM Review r GROUP BY r.movie.movieId")
+    List<Object[]> averageRatingByMovie();
+}
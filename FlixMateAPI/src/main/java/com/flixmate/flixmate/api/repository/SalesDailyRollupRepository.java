@@ -0,0 +1,62 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.SalesDailyRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Ranges are inclusive of both days. Sums come back as
+ * [key, revenue, refunded, tickets, bookings].
+ */
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    /** Adds to an existing row; returns 0 if the row does not exist yet. */
+    @Modifying
+    @Query("UPDATE SalesDailyRollup r SET r.revenue = r.revenue + :revenue, r.refunded = r.refunded + :refunded, " +
+           "r.tickets = r.tickets + :tickets, r.bookings = r.bookings + :bookings " +
+           "WHERE r.salesDate = :salesDate AND r.movieId = :movieId AND r.hallId = :hallId")
+    int increment(@Param("salesDate") LocalDate salesDate, @Param("movieId") Integer movieId,
+                  @Param("hallId") Integer hallId, @Param("revenue") Double revenue, @Param("refunded") Double refunded,
+                  @Param("tickets") Integer tickets, @Param("bookings") Integer bookings);
+
+    @Modifying
+    @Query("DELETE FROM SalesDailyRollup r WHERE r.salesDate = :salesDate")
+    int deleteBySalesDate(@Param("salesDate") LocalDate salesDate);
+
+    @Query("SELECT r.salesDate, SUM(r.revenue), SUM(r.refunded), SUM(r.tickets), SUM(r.bookings) " +
+           "FROM SalesDailyRollup r WHERE r.salesDate BETWEEN :start AND :end " +
+           "GROUP BY r.salesDate ORDER BY r.salesDate")
+    List<Object[]> sumByDate(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT r.movieId, SUM(r.revenue), SUM(r.refunded), SUM(r.tickets), SUM(r.bookings) " +
+           "FROM SalesDailyRollup r WHERE r.salesDate BETWEEN :start AND :end GROUP BY r.movieId")
+    List<Object[]> sumByMovie(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT r.hallId, SUM(r.revenue), SUM(r.refunded), SUM(r.tickets), SUM(r.bookings) " +
+           "FROM SalesDailyRollup r WHERE r.salesDate BETWEEN :start AND :end GROUP BY r.hallId")
+    List<Object[]> sumByHall(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    /**
+     * [salesDate, movie title, hall name, revenue, refunded, tickets, bookings]
+     * per rollup row in the range, read through a cursor. Must be consumed
+     * inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.salesDate, m.title, h.name, r.revenue, r.refunded, r.tickets, r.bookings " +
+           "FROM SalesDailyRollup r LEFT JOIN Movie m ON m.movieId = r.movieId " +
+           "LEFT JOIN CinemaHall h ON h.hallId = r.hallId " +
+           "WHERE r.salesDate BETWEEN :start AND :end ORDER BY r.salesDate, m.title, h.name")
+    Stream<Object[]> streamForExport(@Param("start") LocalDate start, @Param("end") LocalDate end);
+}
@@ -0,0 +1,32 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.SalesHourlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesHourlyRollupRepository extends JpaRepository<SalesHourlyRollup, Long> {
+
+    /** Adds to an existing row; returns 0 if the row does not exist yet. */
+    @Modifying
+    @Query("UPDATE SalesHourlyRollup r SET r.revenue = r.revenue + :revenue, r.refunded = r.refunded + :refunded, " +
+           "r.tickets = r.tickets + :tickets, r.bookings = r.bookings + :bookings " +
+           "WHERE r.bucketHour = :bucketHour AND r.movieId = :movieId AND r.hallId = :hallId")
+    int increment(@Param("bucketHour") LocalDateTime bucketHour, @Param("movieId") Integer movieId,
+                  @Param("hallId") Integer hallId, @Param("revenue") Double revenue, @Param("refunded") Double refunded,
+                  @Param("tickets") Integer tickets, @Param("bookings") Integer bookings);
+
+    @Modifying
+    @Query("DELETE FROM SalesHourlyRollup r WHERE r.bucketHour >= :from AND r.bucketHour < :to")
+    int deleteByBucketHourRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /** [bucketHour, revenue, refunded, tickets, bookings] per hour from (inclusive) to (exclusive). */
+    @Query("SELECT r.bucketHour, SUM(r.revenue), SUM(r.refunded), SUM(r.tickets), SUM(r.bookings) " +
+           "FROM SalesHourlyRollup r WHERE r.bucketHour >= :from AND r.bucketHour < :to " +
+           "GROUP BY r.bucketHour ORDER BY r.bucketHour")
+    List<Object[]> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
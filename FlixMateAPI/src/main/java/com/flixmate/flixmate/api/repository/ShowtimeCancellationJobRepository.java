@@ -0,0 +1,13 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.ShowtimeCancellationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ShowtimeCancellationJobRepository extends JpaRepository<ShowtimeCancellationJob, Integer> {
+    List<ShowtimeCancellationJob> findByStatus(String status);
+    Optional<ShowtimeCancellationJob> findFirstByShowtimeIdAndStatus(Integer showtimeId, String status);
+    List<ShowtimeCancellationJob> findByShowtimeIdOrderByJobIdDesc(Integer showtimeId);
+}
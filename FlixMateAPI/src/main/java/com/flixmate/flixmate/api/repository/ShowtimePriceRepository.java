@@ -0,0 +1,17 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.ShowtimePrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ShowtimePriceRepository extends JpaRepository<ShowtimePrice, Integer> {
+    List<ShowtimePrice> findByShowtimeId(Integer showtimeId);
+
+    @Modifying
+    @Query("DELETE FROM ShowtimePrice p WHERE p.showtimeId = :showtimeId")
+    int deleteByShowtimeId(@Param("showtimeId") Integer showtimeId);
+}
@@ -0,0 +1,64 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.entity.ShowtimeSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ShowtimeSeatRepository extends JpaRepository<ShowtimeSeat, Integer> {
+    List<ShowtimeSeat> findByShowtime_ShowtimeId(Integer showtimeId);
+    boolean existsByShowtime_ShowtimeId(Integer showtimeId);
+    boolean existsBySeat_CinemaHall_HallId(Integer hallId);
+    long countByShowtime_ShowtimeIdAndStatus(Integer showtimeId, String status);
+
+    @Query("SELECT ss.seat FROM ShowtimeSeat ss WHERE ss.showtime.showtimeId = :showtimeId AND ss.status = :status")
+    List<Seat> findSeatsByShowtimeAndStatus(@Param("showtimeId") Integer showtimeId, @Param("status") String status);
+
+    @Query("SELECT ss FROM ShowtimeSeat ss JOIN FETCH ss.seat s WHERE ss.showtime.showtimeId = :showtimeId AND s.seatId IN :seatIds")
+    List<ShowtimeSeat> findByShowtimeAndSeatIds(@Param("showtimeId") Integer showtimeId, @Param("seatIds") Collection<Integer> seatIds);
+
+    /**
+     * Reserves every requested seat that is still available in one statement.
+     * Callers compare the returned count with the number of requested seats.
+     */
+    @Modifying
+    @Query("UPDATE ShowtimeSeat ss SET ss.status = 'RESERVED', ss.bookingId = :bookingId " +
+           "WHERE ss.showtime.showtimeId = :showtimeId AND ss.seat.seatId IN :seatIds AND ss.status = 'AVAILABLE'")
+    int reserveIfAvailable(@Param("showtimeId") Integer showtimeId, @Param("seatIds") Collection<Integer> seatIds,
+                           @Param("bookingId") Integer bookingId);
+
+    @Modifying
+    @Query("UPDATE ShowtimeSeat ss SET ss.status = 'AVAILABLE', ss.bookingId = NULL WHERE ss.bookingId = :bookingId")
+    int releaseSeatsForBooking(@Param("bookingId") Integer bookingId);
+
+    @Modifying
+    @Query("UPDATE ShowtimeSeat ss SET ss.status = 'AVAILABLE', ss.bookingId = NULL " +
+           "WHERE ss.bookingId = :bookingId AND ss.seat.seatId IN :seatIds")
+    int releaseSeatsForBooking(@Param("bookingId") Integer bookingId, @Param("seatIds") Collection<Integer> seatIds);
+
+    /** Takes a cancelled showtime's unsold seats off sale. */
+    @Modifying
+    @Query("UPDATE ShowtimeSeat ss SET ss.status = 'CANCELLED' WHERE ss.showtime.showtimeId = :showtimeId AND ss.status = 'AVAILABLE'")
+    int closeAvailableSeats(@Param("showtimeId") Integer showtimeId);
+
+    @Modifying
+    @Query("UPDATE ShowtimeSeat ss SET ss.status = 'CANCELLED', ss.bookingId = NULL WHERE ss.bookingId IN :bookingIds")
+    int closeSeatsForBookings(@Param("bookingIds") Collection<Integer> bookingIds);
+
+    @Modifying
+    @Query("UPDATE ShowtimeSeat ss SET ss.status = 'SOLD' WHERE ss.bookingId = :bookingId")
+    int markSoldForBooking(@Param("bookingId") Integer bookingId);
+
+    @Modifying
+    @Query("DELETE FROM ShowtimeSeat ss WHERE ss.showtime.showtimeId = :showtimeId")
+    int deleteByShowtimeId(@Param("showtimeId") Integer showtimeId);
+
+    @Modifying
+    @Query("DELETE FROM ShowtimeSeat ss WHERE ss.showtime.showtimeId IN (SELECT s.showtimeId FROM ShowTime s WHERE s.movie.movieId = :movieId)")
+    int deleteByMovieId(@Param("movieId") Integer movieId);
+}
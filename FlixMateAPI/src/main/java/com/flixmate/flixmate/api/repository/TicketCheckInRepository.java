@@ -0,0 +1,12 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.TicketCheckIn;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TicketCheckInRepository extends JpaRepository<TicketCheckIn, Integer> {
+    List<TicketCheckIn> findByCheckedInAtAfter(LocalDateTime since);
+    long countByShowtimeId(Integer showtimeId);
+}
@@ -0,0 +1,25 @@
+package com.flixmate.flixmate.api.repository;
+
+import com.flixmate.flixmate.api.entity.Ticket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TicketRepository extends JpaRepository<Ticket, Integer> {
+    List<Ticket> findByBookingId(Integer bookingId);
+
+    /** [bookingId, seatId] of every ticket with the status. */
+    @Query("SELECT t.bookingId, t.seatId FROM Ticket t WHERE t.status = :status")
+    List<Object[]> findKeysByStatus(@Param("status") String status);
+
+    @Query("SELECT t.bookingId, t.seatId FROM Ticket t WHERE t.bookingId IN :bookingIds AND t.status = 'ISSUED'")
+    List<Object[]> findIssuedKeysForBookings(@Param("bookingIds") Collection<Integer> bookingIds);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = 'VOID' WHERE t.bookingId IN :bookingIds AND t.status = 'ISSUED'")
+    int voidTicketsForBookings(@Param("bookingIds") Collection<Integer> bookingIds);
+}
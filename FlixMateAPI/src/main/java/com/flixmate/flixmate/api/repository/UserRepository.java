@@ -12,5 +12,6 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByUserName(String userName);
     boolean existsByEmail(String email);
     boolean existsByUserName(String userName);
+    long countByStatus_StatusName(String statusName);
 }
 
@@ -1,69 +1,107 @@
 package com.flixmate.flixmate.api.service;
 
+import com.flixmate.flixmate.api.entity.CinemaHall;
+import com.flixmate.flixmate.api.entity.Movie;
 import com.flixmate.flixmate.api.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
+/**
+ * Admin charts, read from the sales rollups kept by {@link SalesRollupService}
+ * so a chart sums at most one row per movie, hall and day in its range
+ * instead of scanning bookings. Revenue figures are net of refunds.
+ */
 @Service
 public class AdminReportsService {
 
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("MMM dd");
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy");
+
     @Autowired
-    private BookingRepository bookingRepository;
-    
+    private SalesDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private SalesHourlyRollupRepository hourlyRollupRepository;
+
     @Autowired
     private PaymentRepository paymentRepository;
-    
+
     @Autowired
     private MovieRepository movieRepository;
-    
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
     @Autowired
-    private UserRepository userRepository;
+    private ReviewRepository reviewRepository;
 
     public Map<String, Object> generateSalesReport(String period, String startDate, String endDate) {
         try {
-            // Mock data for demonstration - in real implementation, query actual data
             Map<String, Object> report = new HashMap<>();
-            
-            // Generate sample data based on period
             List<String> labels = new ArrayList<>();
             List<Double> revenueData = new ArrayList<>();
-            
+            List<Integer> ticketData = new ArrayList<>();
+
             LocalDate start = LocalDate.parse(startDate);
             LocalDate end = LocalDate.parse(endDate);
-            
-            if ("daily".equals(period)) {
-                for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-                    labels.add(date.format(DateTimeFormatter.ofPattern("MMM dd")));
-                    revenueData.add(Math.random() * 1000 + 500); // Random revenue between 500-1500
+
+            if ("hourly".equals(period)) {
+                LocalDateTime from = start.atStartOfDay();
+                for (LocalDateTime hour = from; hour.isBefore(end.plusDays(1).atStartOfDay()); hour = hour.plusHours(1)) {
+                    labels.add(hour.format(DateTimeFormatter.ofPattern("MMM dd HH:00")));
+                    revenueData.add(0.0);
+                    ticketData.add(0);
                 }
-            } else if ("weekly".equals(period)) {
-                for (LocalDate date = start; !date.isAfter(end); date = date.plusWeeks(1)) {
-                    labels.add("Week of " + date.format(DateTimeFormatter.ofPattern("MMM dd")));
-                    revenueData.add(Math.random() * 5000 + 2000); // Random revenue between 2000-7000
+                for (Object[] row : hourlyRollupRepository.sumByHour(from, end.plusDays(1).atStartOfDay())) {
+                    int index = (int) ChronoUnit.HOURS.between(from, (LocalDateTime) row[0]);
+                    revenueData.set(index, revenueData.get(index) + num(row[1]) - num(row[2]));
+                    ticketData.set(index, ticketData.get(index) + (int) num(row[3]));
                 }
-            } else { // monthly
-                for (LocalDate date = start; !date.isAfter(end); date = date.plusMonths(1)) {
-                    labels.add(date.format(DateTimeFormatter.ofPattern("MMM yyyy")));
-                    revenueData.add(Math.random() * 20000 + 10000); // Random revenue between 10000-30000
+            } else {
+                for (LocalDate date = start; !date.isAfter(end); date = step(date, period)) {
+                    labels.add(label(date, period));
+                    revenueData.add(0.0);
+                    ticketData.add(0);
                 }
             }
-            
-            double totalRevenue = revenueData.stream().mapToDouble(Double::doubleValue).sum();
-            int totalBookings = (int) (Math.random() * 100 + 50); // Random bookings between 50-150
-            double averageTicketPrice = totalRevenue / totalBookings;
-            double growthRate = Math.random() * 20 - 10; // Random growth rate between -10% to +10%
-            
-            report.put("totalRevenue", Math.round(totalRevenue * 100.0) / 100.0);
-            report.put("totalBookings", totalBookings);
-            report.put("averageTicketPrice", Math.round(averageTicketPrice * 100.0) / 100.0);
-            report.put("growthRate", Math.round(growthRate * 100.0) / 100.0);
+
+            // Totals always come from the daily rollups, which also back the other periods
+            SalesSum total = new SalesSum();
+            for (Object[] row : dailyRollupRepository.sumByDate(start, end)) {
+                total.add(row);
+                if (!"hourly".equals(period)) {
+                    int index = bucketIndex(start, (LocalDate) row[0], period);
+                    revenueData.set(index, revenueData.get(index) + num(row[1]) - num(row[2]));
+                    ticketData.set(index, ticketData.get(index) + (int) num(row[3]));
+                }
+            }
+            revenueData.replaceAll(AdminReportsService::round2);
+
+            // Growth against the window of the same length right before this one
+            long days = ChronoUnit.DAYS.between(start, end) + 1;
+            SalesSum previous = new SalesSum();
+            dailyRollupRepository.sumByDate(start.minusDays(days), start.minusDays(1)).forEach(previous::add);
+            double growthRate = previous.netRevenue() > 0
+                    ? (total.netRevenue() - previous.netRevenue()) / previous.netRevenue() * 100
+                    : 0.0;
+
+            report.put("totalRevenue", round2(total.netRevenue()));
+            report.put("totalRefunded", round2(total.refunded));
+            report.put("totalBookings", total.bookings);
+            report.put("totalTickets", total.tickets);
+            report.put("averageTicketPrice", total.tickets > 0 ? round2(total.netRevenue() / total.tickets) : 0.0);
+            report.put("growthRate", round2(growthRate));
             report.put("labels", labels);
             report.put("revenueData", revenueData);
-            
+            report.put("ticketData", ticketData);
+
             return report;
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate sales report: " + e.getMessage());
@@ -72,34 +110,48 @@ public class AdminReportsService {
 
     public Map<String, Object> generatePopularMoviesReport(Integer topN, String sortBy, String period) {
         try {
-            // Mock data for demonstration
-            List<String> movieTitles = Arrays.asList(
-                "The Matrix", "Inception", "Avatar", "Titanic", "Avengers: Endgame",
-                "The Dark Knight", "Pulp Fiction", "Forrest Gump", "The Lion King", "Spirited Away"
-            );
-            
+            int limit = topN != null && topN > 0 ? topN : 10;
+            LocalDate end = LocalDate.now();
+            LocalDate start = windowStart(period, end);
+
+            Map<Integer, Number> scores = new HashMap<>();
+            if ("rating".equals(sortBy)) {
+                for (Object[] row : reviewRepository.averageRatingByMovie()) {
+                    scores.put((Integer) row[0], Math.round(num(row[1]) * 10.0) / 10.0);
+                }
+            } else {
+                for (Object[] row : dailyRollupRepository.sumByMovie(start, end)) {
+                    if ("bookings".equals(sortBy)) {
+                        scores.put((Integer) row[0], Integer.valueOf((int) num(row[4])));
+                    } else {
+                        scores.put((Integer) row[0], Double.valueOf(round2(num(row[1]) - num(row[2]))));
+                    }
+                }
+            }
+
+            List<Integer> ranked = scores.keySet().stream()
+                    .sorted(Comparator.comparingDouble((Integer id) -> scores.get(id).doubleValue()).reversed())
+                    .limit(limit)
+                    .toList();
+            Map<Integer, String> titles = new HashMap<>();
+            for (Movie movie : movieRepository.findAllById(ranked)) {
+                titles.put(movie.getMovieId(), movie.getTitle());
+            }
+
             List<String> labels = new ArrayList<>();
             List<Object> values = new ArrayList<>();
-            
-            for (int i = 0; i < Math.min(topN, movieTitles.size()); i++) {
-                labels.add(movieTitles.get(i));
-                
-                if ("revenue".equals(sortBy)) {
-                    values.add(Math.round((Math.random() * 50000 + 10000) * 100.0) / 100.0);
-                } else if ("bookings".equals(sortBy)) {
-                    values.add((int) (Math.random() * 500 + 100));
-                } else { // rating
-                    values.add(Math.round((Math.random() * 2 + 3) * 10.0) / 10.0);
-                }
+            for (Integer movieId : ranked) {
+                labels.add(titles.getOrDefault(movieId, "Movie " + movieId));
+                values.add(scores.get(movieId));
             }
-            
+
             Map<String, Object> report = new HashMap<>();
-            report.put("topN", topN);
+            report.put("topN", limit);
             report.put("sortBy", sortBy);
             report.put("period", period);
             report.put("labels", labels);
             report.put("values", values);
-            
+
             return report;
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate popular movies report: " + e.getMessage());
@@ -108,21 +160,33 @@ public class AdminReportsService {
 
     public Map<String, Object> generatePaymentReport(String status, String startDate, String endDate) {
         try {
-            // Mock data for demonstration
-            int totalPayments = (int) (Math.random() * 200 + 100);
-            int successCount = (int) (totalPayments * 0.85); // 85% success rate
-            int failedCount = (int) (totalPayments * 0.10); // 10% failed
-            int pendingCount = totalPayments - successCount - failedCount; // 5% pending
-            
-            double successRate = (double) successCount / totalPayments * 100;
-            
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
+
+            // Payment outcomes are not part of the sales rollups; this groups the range in the database
+            Map<String, Long> counts = new HashMap<>();
+            DateTimeFormatter bound = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+            for (Object[] row : paymentRepository.aggregateByDayAndStatus(
+                    start.atStartOfDay().format(bound), end.plusDays(1).atStartOfDay().format(bound))) {
+                counts.merge((String) row[1], ((Number) row[2]).longValue(), Long::sum);
+            }
+
+            long totalPayments = counts.values().stream().mapToLong(Long::longValue).sum();
+            long successCount = counts.getOrDefault("SUCCESS", 0L);
+            double successRate = totalPayments > 0 ? (double) successCount / totalPayments * 100 : 0.0;
+
             Map<String, Object> report = new HashMap<>();
             report.put("totalPayments", totalPayments);
             report.put("successCount", successCount);
-            report.put("failedCount", failedCount);
-            report.put("pendingCount", pendingCount);
-            report.put("successRate", Math.round(successRate * 100.0) / 100.0);
-            
+            report.put("failedCount", counts.getOrDefault("FAILED", 0L));
+            report.put("pendingCount", counts.getOrDefault("PENDING", 0L));
+            report.put("refundedCount", counts.getOrDefault("REFUNDED", 0L));
+            report.put("successRate", round2(successRate));
+            if (status != null && !status.isBlank()) {
+                report.put("status", status);
+                report.put("statusCount", counts.getOrDefault(status, 0L));
+            }
+
             return report;
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate payment report: " + e.getMessage());
@@ -131,52 +195,144 @@ public class AdminReportsService {
 
     public Map<String, Object> generateTrendsReport(String trendType, String period, String startDate) {
         try {
-            // Mock data for demonstration
             List<String> labels = new ArrayList<>();
             List<Integer> values = new ArrayList<>();
-            
+
             LocalDate start = LocalDate.parse(startDate);
-            
+            // 7 days, 4 weeks or 6 months from the start date
+            LocalDate end = "daily".equals(period) ? start.plusDays(6)
+                    : "weekly".equals(period) ? start.plusWeeks(4).minusDays(1)
+                    : start.plusMonths(6).minusDays(1);
+
             if ("time".equals(trendType)) {
-                if ("daily".equals(period)) {
-                    for (int i = 0; i < 7; i++) {
-                        labels.add(start.plusDays(i).format(DateTimeFormatter.ofPattern("MMM dd")));
-                        values.add((int) (Math.random() * 50 + 20));
-                    }
-                } else if ("weekly".equals(period)) {
-                    for (int i = 0; i < 4; i++) {
-                        labels.add("Week " + (i + 1));
-                        values.add((int) (Math.random() * 200 + 100));
-                    }
-                } else { // monthly
-                    for (int i = 0; i < 6; i++) {
-                        labels.add(start.plusMonths(i).format(DateTimeFormatter.ofPattern("MMM yyyy")));
-                        values.add((int) (Math.random() * 800 + 400));
-                    }
+                for (LocalDate date = start; !date.isAfter(end); date = step(date, period)) {
+                    labels.add("weekly".equals(period) ? "Week " + (labels.size() + 1) : label(date, period));
+                    values.add(0);
+                }
+                for (Object[] row : dailyRollupRepository.sumByDate(start, end)) {
+                    int index = bucketIndex(start, (LocalDate) row[0], period);
+                    values.set(index, values.get(index) + (int) num(row[4]));
+                }
+            } else if ("hour".equals(trendType)) {
+                // Bookings by hour of day across the window
+                for (int hour = 0; hour < 24; hour++) {
+                    labels.add(String.format("%02d:00", hour));
+                    values.add(0);
+                }
+                for (Object[] row : hourlyRollupRepository.sumByHour(start.atStartOfDay(), end.plusDays(1).atStartOfDay())) {
+                    int hour = ((LocalDateTime) row[0]).getHour();
+                    values.set(hour, values.get(hour) + (int) num(row[4]));
                 }
             } else if ("movie".equals(trendType)) {
-                List<String> movies = Arrays.asList("The Matrix", "Inception", "Avatar", "Titanic", "Avengers");
-                for (String movie : movies) {
-                    labels.add(movie);
-                    values.add((int) (Math.random() * 100 + 50));
+                Map<Integer, Integer> bookings = bookingsByKey(dailyRollupRepository.sumByMovie(start, end));
+                Map<Integer, String> titles = new HashMap<>();
+                for (Movie movie : movieRepository.findAllById(bookings.keySet())) {
+                    titles.put(movie.getMovieId(), movie.getTitle());
                 }
+                bookings.entrySet().stream()
+                        .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                        .limit(5)
+                        .forEach(e -> {
+                            labels.add(titles.getOrDefault(e.getKey(), "Movie " + e.getKey()));
+                            values.add(e.getValue());
+                        });
             } else { // hall
-                List<String> halls = Arrays.asList("Hall A", "Hall B", "Hall C", "Hall D", "Hall E");
-                for (String hall : halls) {
-                    labels.add(hall);
-                    values.add((int) (Math.random() * 80 + 30));
+                Map<Integer, Integer> bookings = bookingsByKey(dailyRollupRepository.sumByHall(start, end));
+                for (CinemaHall hall : cinemaHallRepository.findAll()) {
+                    labels.add(hall.getName());
+                    values.add(bookings.getOrDefault(hall.getHallId(), 0));
                 }
             }
-            
+
             Map<String, Object> report = new HashMap<>();
             report.put("trendType", trendType);
             report.put("period", period);
             report.put("labels", labels);
             report.put("values", values);
-            
+
             return report;
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate trends report: " + e.getMessage());
         }
     }
+
+    private static LocalDate step(LocalDate date, String period) {
+        if ("daily".equals(period)) {
+            return date.plusDays(1);
+        } else if ("weekly".equals(period)) {
+            return date.plusWeeks(1);
+        }
+        return date.plusMonths(1);
+    }
+
+    private static String label(LocalDate date, String period) {
+        if ("daily".equals(period)) {
+            return date.format(DAY_LABEL);
+        } else if ("weekly".equals(period)) {
+            return "Week of " + date.format(DAY_LABEL);
+        }
+        return date.format(MONTH_LABEL);
+    }
+
+    /**
+     * Index of the chart bucket holding the date, matching the labels built with {@link #step}.
+     */
+    private static int bucketIndex(LocalDate start, LocalDate date, String period) {
+        if ("daily".equals(period)) {
+            return (int) ChronoUnit.DAYS.between(start, date);
+        } else if ("weekly".equals(period)) {
+            return (int) (ChronoUnit.DAYS.between(start, date) / 7);
+        }
+        return (int) ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(date));
+    }
+
+    private static LocalDate windowStart(String period, LocalDate end) {
+        if (period == null) {
+            return LocalDate.of(1970, 1, 1);
+        }
+        switch (period) {
+            case "day", "daily": return end;
+            case "week", "weekly": return end.minusWeeks(1).plusDays(1);
+            case "month", "monthly": return end.minusMonths(1).plusDays(1);
+            case "year", "yearly": return end.minusYears(1).plusDays(1);
+            default: return LocalDate.of(1970, 1, 1);
+        }
+    }
+
+    private static Map<Integer, Integer> bookingsByKey(List<Object[]> rows) {
+        Map<Integer, Integer> bookings = new HashMap<>();
+        for (Object[] row : rows) {
+            bookings.put((Integer) row[0], (int) num(row[4]));
+        }
+        return bookings;
+    }
+
+    private static double num(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Running sum of rollup rows of [key, revenue, refunded, tickets, bookings].
+     */
+    private static class SalesSum {
+        private double revenue;
+        private double refunded;
+        private long tickets;
+        private long bookings;
+
+        void add(Object[] row) {
+            revenue += num(row[1]);
+            refunded += num(row[2]);
+            tickets += (long) num(row[3]);
+            bookings += (long) num(row[4]);
+        }
+
+        double netRevenue() {
+            return revenue - refunded;
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.flixmate.flixmate.api.service;
+
+/**
+ * Thrown by the waiting room when a request may not go through yet, with the
+ * HTTP status to answer with and, where it makes sense, when to try again.
+ */
+public class AdmissionDeniedException extends RuntimeException {
+
+    private final int status;
+    private final long retryAfterSeconds;
+
+    public AdmissionDeniedException(int status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
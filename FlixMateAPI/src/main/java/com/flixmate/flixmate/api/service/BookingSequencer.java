@@ -0,0 +1,206 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional single-writer pipeline for seat bookings, enabled with
+ * {@code flixmate.booking.sequencer.enabled}. Booking commands are partitioned
+ * by showtime into a fixed number of shards; each shard has a bounded queue and
+ * exactly one consumer thread, so all bookings for a showtime are applied one
+ * after another. Seat conflicts are then settled on the in-memory seat map
+ * before any database work, and the commands that queued up for a showtime
+ * while the previous batch was committing are written together in one
+ * transaction ({@link BookingService#createBookingBatch}).
+ *
+ * If a group commit fails, its commands are retried one by one through the
+ * normal per-request path so one bad command cannot fail its neighbours.
+ * When the sequencer is disabled, {@link #book} simply calls
+ * {@link BookingService#createBooking} on the caller's thread.
+ */
+@Service
+public class BookingSequencer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSequencer.class);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Value("${flixmate.booking.sequencer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${flixmate.booking.sequencer.shards:4}")
+    private int shardCount;
+
+    @Value("${flixmate.booking.sequencer.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${flixmate.booking.sequencer.max-batch:50}")
+    private int maxBatch;
+
+    @Value("${flixmate.booking.sequencer.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    private List<BlockingQueue<BookingCommand>> queues = List.of();
+    private final List<Thread> workers = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        List<BlockingQueue<BookingCommand>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<BookingCommand> queue = new ArrayBlockingQueue<>(queueCapacity);
+            shards.add(queue);
+            Thread worker = new Thread(() -> consume(queue), "booking-sequencer-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        queues = shards;
+        workers.forEach(Thread::start);
+        log.info("Booking sequencer started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates a booking, through the shard of its showtime when the sequencer
+     * is enabled. Blocks until the booking is committed or rejected.
+     */
+    public Booking book(String email, Integer showtimeId, Set<Integer> seatIds) {
+        if (!enabled || showtimeId == null) {
+            return bookingService.createBooking(email, showtimeId, seatIds);
+        }
+        BookingCommand command = new BookingCommand(email, showtimeId, seatIds);
+        if (!queues.get(Math.floorMod(showtimeId, queues.size())).offer(command)) {
+            throw new RuntimeException("Too many booking requests for this showtime, please try again");
+        }
+        Booking booking;
+        try {
+            booking = command.result.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // Skipped if still queued; if it is already being written the unpaid hold will expire
+            command.result.cancel(false);
+            throw new RuntimeException("Booking request timed out, please try again");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for booking");
+        }
+        if (command.confirmationPending) {
+            // Sent on the caller's thread so mail delivery never holds up the shard
+            bookingService.sendBookingConfirmation(booking);
+        }
+        return booking;
+    }
+
+    private void consume(BlockingQueue<BookingCommand> queue) {
+        List<BookingCommand> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            batch.removeIf(command -> command.result.isDone());
+
+            // A shard serves several showtimes; each one's commands are committed together
+            Map<Integer, List<BookingCommand>> byShowtime = new LinkedHashMap<>();
+            for (BookingCommand command : batch) {
+                byShowtime.computeIfAbsent(command.showtimeId, id -> new ArrayList<>()).add(command);
+            }
+            byShowtime.forEach(this::commit);
+            batch.clear();
+        }
+    }
+
+    private void commit(Integer showtimeId, List<BookingCommand> commands) {
+        try {
+            bookingService.createBookingBatch(showtimeId, commands);
+            commands.forEach(command -> command.confirmationPending = command.booking != null);
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} bookings for showtime {} failed, retrying one by one: {}",
+                    commands.size(), showtimeId, e.getMessage());
+            for (BookingCommand command : commands) {
+                command.booking = null;
+                command.failure = null;
+                try {
+                    command.booking = bookingService.createBooking(command.email, showtimeId, command.seatIds);
+                } catch (RuntimeException rejected) {
+                    command.failure = rejected;
+                }
+            }
+        }
+        for (BookingCommand command : commands) {
+            if (command.booking != null) {
+                command.result.complete(command.booking);
+            } else {
+                command.result.completeExceptionally(command.failure != null
+                        ? command.failure : new RuntimeException("Booking was not processed"));
+            }
+        }
+    }
+
+    /**
+     * One queued booking request and, once its batch has run, its outcome.
+     */
+    public static class BookingCommand {
+        private final String email;
+        private final Integer showtimeId;
+        private final Set<Integer> seatIds;
+        private final CompletableFuture<Booking> result = new CompletableFuture<>();
+        private Booking booking;
+        private RuntimeException failure;
+        private boolean confirmationPending;
+
+        public BookingCommand(String email, Integer showtimeId, Set<Integer> seatIds) {
+            this.email = email;
+            this.showtimeId = showtimeId;
+            this.seatIds = seatIds;
+        }
+
+        public String getEmail() { return email; }
+        public Integer getShowtimeId() { return showtimeId; }
+        public Set<Integer> getSeatIds() { return seatIds; }
+        public Booking getBooking() { return booking; }
+        public RuntimeException getFailure() { return failure; }
+
+        void succeeded(Booking booking) {
+            this.booking = booking;
+        }
+
+        void failed(RuntimeException failure) {
+            this.failure = failure;
+        }
+    }
+}
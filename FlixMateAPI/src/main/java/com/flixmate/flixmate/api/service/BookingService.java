@@ -1,15 +1,23 @@
 package com.flixmate.flixmate.api.service;
 
 import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.model.ShowtimeSeatSelection;
 import com.flixmate.flixmate.api.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
@@ -24,7 +32,19 @@ public class BookingService {
     private ShowTimeRepository showTimeRepository;
 
     @Autowired
-    private SeatRepository seatRepository;
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
+    @Autowired
+    private SeatHoldManager seatHoldManager;
+
+    @Value("${flixmate.booking.max-group-size:20}")
+    private int maxGroupSize;
+
+    @Value("${flixmate.booking.max-showtimes-per-request:10}")
+    private int maxShowtimesPerRequest;
 
     @Autowired
     private EmailService emailService;
@@ -35,10 +55,17 @@ public class BookingService {
     @Autowired
     private DiscountCodeService discountCodeService;
 
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TicketService ticketService;
+
     public List<Booking> getUserBookings(String email) {
         return bookingRepository.findByUserEmail(email);
     }
 
+    @Transactional
     public Booking createBooking(String email, Integer showtimeId, Set<Integer> seatIds) {
         System.out.println("=== BOOKING SERVICE: createBooking ===");
         System.out.println("Email: " + email);
@@ -56,55 +83,17 @@ public class BookingService {
                              " (Movie: " + (showtime.getMovie() != null ? showtime.getMovie().getTitle() : "NULL") + 
                              ", Hall: " + (showtime.getCinemaHall() != null ? showtime.getCinemaHall().getHallId() : "NULL") + ")");
 
-            Set<Seat> seats = new HashSet<>();
-            for (Integer seatId : seatIds) {
-                System.out.println("Looking for seat with ID: " + seatId);
-                Seat seat = seatRepository.findById(seatId).orElse(null);
-                
-                if (seat == null) {
-                    // Seat doesn't exist in database, create it dynamically
-                    System.out.println("Seat not found in database, creating dynamically for seat ID: " + seatId);
-                    seat = createDynamicSeat(seatId, showtime.getCinemaHall());
-                    if (seat == null) {
-                        throw new RuntimeException("Unable to create seat with ID: " + seatId + ". Please refresh the page and select seats again.");
-                    }
-                }
-                
-                if (!"AVAILABLE".equals(seat.getStatus())) {
-                    throw new RuntimeException("Seat " + seatId + " (Row: " + seat.getRow() + seat.getNumber() + ") is not available");
-                }
-                seats.add(seat);
-                System.out.println("Added seat: " + seatId + " (Row: " + seat.getRow() + ", Number: " + seat.getNumber() + ")");
+            if (seatIds == null || seatIds.isEmpty()) {
+                throw new RuntimeException("Please select at least one seat");
             }
 
-            Double totalAmount = showtime.getPrice() * seatIds.size();
+            Double totalAmount = seatMapEngine.priceOf(showtime, seatIds);
             System.out.println("Total amount: " + totalAmount);
             
-            Booking booking = new Booking(
-                    LocalDateTime.now(), seatIds.size(), totalAmount, "PENDING", user, showtime, seats
-            );
-            System.out.println("Created booking object");
+            // Claim the seats in memory first so conflicting requests fail before touching the database
+            seatMapEngine.holdSeats(showtime, seatIds);
 
-            for (Seat seat : seats) {
-                seat.setStatus("RESERVED");
-                seatRepository.save(seat);
-                System.out.println("Reserved seat: " + seat.getSeatId());
-            }
-
-            System.out.println("Saving booking to database...");
-            Booking savedBooking = bookingRepository.save(booking);
-            System.out.println("Booking saved successfully with ID: " + savedBooking.getBookingId());
-            
-            try {
-                emailService.sendBookingConfirmation(email, savedBooking.getBookingId().toString(),
-                        showtime.getMovie().getTitle(), showtime.getStartTime().toString());
-                System.out.println("Confirmation email sent");
-            } catch (Exception emailError) {
-                System.err.println("Failed to send confirmation email: " + emailError.getMessage());
-                // Don't fail the booking for email issues
-            }
-            
-            return savedBooking;
+            return saveHeldBooking(user, showtime, seatIds, totalAmount);
         } catch (Exception e) {
             System.err.println("=== BOOKING SERVICE ERROR: createBooking ===");
             System.err.println("Error Type: " + e.getClass().getSimpleName());
@@ -119,45 +108,228 @@ public class BookingService {
         }
     }
 
-    public List<Seat> getAvailableSeats(Integer showtimeId) {
-        System.out.println("=== BOOKING SERVICE: getAvailableSeats ===");
+    /**
+     * Books seats in several showtimes at once, e.g. a movie marathon or a family
+     * split across halls: one booking per showtime, all or nothing. The user and
+     * the showtimes are each loaded with a single query and every showtime's
+     * seats are reserved with one bulk update; if any seat is taken the whole
+     * transaction rolls back and the in-memory holds are released with it.
+     *
+     * @return the bookings, in the order the showtimes were requested
+     */
+    @Transactional
+    public List<Booking> createMultiShowtimeBooking(String email, List<ShowtimeSeatSelection> selections) {
+        System.out.println("=== BOOKING SERVICE: createMultiShowtimeBooking ===");
+        System.out.println("Email: " + email);
+        System.out.println("Showtimes: " + (selections != null ? selections.size() : 0));
+
+        if (selections == null || selections.isEmpty()) {
+            throw new RuntimeException("Please select seats for at least one showtime");
+        }
+        if (selections.size() > maxShowtimesPerRequest) {
+            throw new RuntimeException("Please book at most " + maxShowtimesPerRequest + " showtimes at once");
+        }
+        // Sorted so concurrent multi-showtime bookings reserve showtimes in the same order
+        Map<Integer, Set<Integer>> seatsByShowtime = new TreeMap<>();
+        for (ShowtimeSeatSelection selection : selections) {
+            if (selection.getShowtimeId() == null) {
+                throw new RuntimeException("Showtime ID is required");
+            }
+            if (selection.getSeatIds() == null || selection.getSeatIds().isEmpty()) {
+                throw new RuntimeException("Please select at least one seat for showtime " + selection.getShowtimeId());
+            }
+            if (seatsByShowtime.put(selection.getShowtimeId(), new LinkedHashSet<>(selection.getSeatIds())) != null) {
+                throw new RuntimeException("Showtime " + selection.getShowtimeId() + " is listed more than once");
+            }
+        }
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Map<Integer, ShowTime> showtimes = new HashMap<>();
+        for (ShowTime showtime : showTimeRepository.findAllById(seatsByShowtime.keySet())) {
+            showtimes.put(showtime.getShowtimeId(), showtime);
+        }
+        for (Integer showtimeId : seatsByShowtime.keySet()) {
+            if (!showtimes.containsKey(showtimeId)) {
+                throw new RuntimeException("Showtime " + showtimeId + " not found");
+            }
+        }
+
+        Map<Integer, Booking> bookings = new HashMap<>();
+        for (Map.Entry<Integer, Set<Integer>> entry : seatsByShowtime.entrySet()) {
+            ShowTime showtime = showtimes.get(entry.getKey());
+            Set<Integer> seatIds = entry.getValue();
+            seatMapEngine.holdSeats(showtime, seatIds);
+            bookings.put(entry.getKey(), persistHeldBooking(user, showtime, seatIds, seatMapEngine.priceOf(showtime, seatIds)));
+        }
+
+        // Everything is reserved; holds only start once the transaction commits
+        List<Booking> result = new ArrayList<>(selections.size());
+        for (ShowtimeSeatSelection selection : selections) {
+            Booking booking = bookings.get(selection.getShowtimeId());
+            seatHoldManager.startHold(booking);
+            sendBookingConfirmation(booking);
+            result.add(booking);
+        }
+        System.out.println("Created " + result.size() + " bookings for " + email);
+        return result;
+    }
+
+    /**
+     * Books the best block of {@code quantity} adjacent seats instead of seats
+     * picked one by one, e.g. for box-office and kiosk sales to groups.
+     */
+    @Transactional
+    public Booking createBestAvailableBooking(String email, Integer showtimeId, int quantity, String preferredRow) {
+        System.out.println("=== BOOKING SERVICE: createBestAvailableBooking ===");
+        System.out.println("Email: " + email);
         System.out.println("Showtime ID: " + showtimeId);
-        
+        System.out.println("Quantity: " + quantity + ", Preferred row: " + preferredRow);
+
         try {
-            System.out.println("Looking up showtime with ID: " + showtimeId);
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
             ShowTime showtime = showTimeRepository.findById(showtimeId)
                     .orElseThrow(() -> new RuntimeException("Showtime not found"));
-            System.out.println("Found showtime - Start: " + showtime.getStartTime() + 
-                             ", Hall ID: " + (showtime.getCinemaHall() != null ? showtime.getCinemaHall().getHallId() : "NULL"));
-            
-            if (showtime.getCinemaHall() == null) {
-                System.err.println("ERROR: Showtime has NULL cinema hall!");
-                throw new RuntimeException("Showtime has no associated cinema hall");
+
+            if (quantity <= 0 || quantity > maxGroupSize) {
+                throw new RuntimeException("Please request between 1 and " + maxGroupSize + " seats");
             }
-            
-            Integer hallId = showtime.getCinemaHall().getHallId();
-            System.out.println("Querying seats for hall ID: " + hallId + " with status: AVAILABLE");
-            
-            List<Seat> seats = seatRepository.findByCinemaHall_HallIdAndStatus(hallId, "AVAILABLE");
-            System.out.println("Found " + seats.size() + " available seats");
-            
-            // If no seats found, create them dynamically
-            if (seats.isEmpty()) {
-                System.out.println("No seats found in database, creating them dynamically for hall ID: " + hallId);
-                seats = createSeatsForHall(showtime.getCinemaHall());
-                System.out.println("Created " + seats.size() + " seats dynamically");
+
+            Set<Integer> seatIds = new LinkedHashSet<>(seatMapEngine.holdBestAvailable(showtime, quantity, preferredRow));
+            System.out.println("Allocated seats: " + seatIds);
+
+            return saveHeldBooking(user, showtime, seatIds, seatMapEngine.priceOf(showtime, seatIds));
+        } catch (Exception e) {
+            System.err.println("=== BOOKING SERVICE ERROR: createBestAvailableBooking ===");
+            System.err.println("Error Type: " + e.getClass().getSimpleName());
+            System.err.println("Error Message: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    /**
+     * Books seats for a waitlisted user: the best block of adjacent seats if
+     * there is one, otherwise any free seats. A user who asked for a seat type
+     * (e.g. wheelchair spaces) only gets seats of that type; otherwise
+     * wheelchair spaces and couple seats are never picked. The booking is held
+     * exclusively for {@code holdSeconds}; if it is not paid by then the seats
+     * go to the next person on the waitlist.
+     */
+    @Transactional
+    public Booking createWaitlistBooking(String email, Integer showtimeId, int quantity, String seatType, long holdSeconds) {
+        System.out.println("=== BOOKING SERVICE: createWaitlistBooking ===");
+        System.out.println("Email: " + email + ", Showtime ID: " + showtimeId + ", Quantity: " + quantity + ", Seat type: " + seatType);
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        ShowTime showtime = showTimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new RuntimeException("Showtime not found"));
+
+        List<Integer> held;
+        if (seatType != null) {
+            held = seatMapEngine.holdAnyAvailable(showtime, quantity, seatType);
+        } else {
+            try {
+                held = seatMapEngine.holdBestAvailable(showtime, quantity, null);
+            } catch (SeatUnavailableException noAdjacentBlock) {
+                held = seatMapEngine.holdAnyAvailable(showtime, quantity);
             }
-            
-            // Log each seat
-            for (Seat seat : seats) {
-                System.out.println("Seat - ID: " + seat.getSeatId() + 
-                                 ", Row: " + seat.getRow() + 
-                                 ", Number: " + seat.getNumber() + 
-                                 ", Status: " + seat.getStatus() +
-                                 ", Hall: " + (seat.getCinemaHall() != null ? seat.getCinemaHall().getHallId() : "NULL"));
+        }
+        Booking booking = persistHeldBooking(user, showtime, new LinkedHashSet<>(held), seatMapEngine.priceOf(showtime, held));
+        seatHoldManager.startHold(booking, holdSeconds);
+        return booking;
+    }
+
+    /**
+     * Books a batch of commands for one showtime in a single transaction; this is
+     * the group commit of {@link BookingSequencer}. Commands are applied in order
+     * against the in-memory seat map, so a command that loses a seat to an earlier
+     * one fails on its own without touching the database and without affecting
+     * the rest of the batch. Each command's outcome is recorded on the command and
+     * only becomes final when this method returns; if it throws, nothing of the
+     * batch was committed.
+     */
+    @Transactional
+    public void createBookingBatch(Integer showtimeId, List<BookingSequencer.BookingCommand> commands) {
+        System.out.println("=== BOOKING SERVICE: createBookingBatch ===");
+        System.out.println("Showtime ID: " + showtimeId + ", Commands: " + commands.size());
+
+        ShowTime showtime = showTimeRepository.findById(showtimeId).orElse(null);
+        Map<String, User> users = new HashMap<>();
+        for (BookingSequencer.BookingCommand command : commands) {
+            Set<Integer> seatIds = command.getSeatIds();
+            User user;
+            try {
+                if (showtime == null) {
+                    throw new RuntimeException("Showtime not found");
+                }
+                user = users.computeIfAbsent(command.getEmail(), email -> userRepository.findByEmail(email).orElse(null));
+                if (user == null) {
+                    throw new RuntimeException("User not found");
+                }
+                if (seatIds == null || seatIds.isEmpty()) {
+                    throw new RuntimeException("Please select at least one seat");
+                }
+                seatMapEngine.holdSeats(showtime, seatIds);
+            } catch (RuntimeException rejected) {
+                // Nothing was written for this command, so the rest of the batch goes ahead
+                command.failed(rejected);
+                continue;
             }
-            
-            return seats;
+            // A database failure from here on rolls back the whole batch
+            Booking booking = persistHeldBooking(user, showtime, seatIds, seatMapEngine.priceOf(showtime, seatIds));
+            seatHoldManager.startHold(booking);
+            command.succeeded(booking);
+        }
+    }
+
+    /**
+     * Persists a PENDING booking for seats already held in the seat map, reserves
+     * them in the database and starts the payment hold.
+     */
+    private Booking saveHeldBooking(User user, ShowTime showtime, Set<Integer> seatIds, Double totalAmount) {
+        Booking savedBooking = persistHeldBooking(user, showtime, seatIds, totalAmount);
+        // Seats stay reserved only until the hold runs out unless the booking is paid
+        seatHoldManager.startHold(savedBooking);
+        sendBookingConfirmation(savedBooking);
+        return savedBooking;
+    }
+
+    private Booking persistHeldBooking(User user, ShowTime showtime, Set<Integer> seatIds, Double totalAmount) {
+        Booking booking = new Booking(
+                LocalDateTime.now(), seatIds.size(), totalAmount, "PENDING", user, showtime, new HashSet<>()
+        );
+
+        System.out.println("Saving booking to database...");
+        Booking savedBooking = bookingRepository.save(booking);
+
+        // Reserve the seats for this showtime only; the transaction rolls the booking back if any seat is taken
+        Set<Seat> seats = reserveSeats(showtime, seatIds, savedBooking.getBookingId());
+        seats.forEach(seat -> System.out.println("Reserved seat: " + seat.getSeatId() + " (Row: " + seat.getRow() + ", Number: " + seat.getNumber() + ")"));
+        savedBooking.setSeats(seats);
+        savedBooking = bookingRepository.save(savedBooking);
+        System.out.println("Booking saved successfully with ID: " + savedBooking.getBookingId());
+
+        return savedBooking;
+    }
+
+    public void sendBookingConfirmation(Booking booking) {
+        try {
+            emailService.sendBookingConfirmation(booking.getUser().getEmail(), booking.getBookingId().toString(),
+                    booking.getShowtime().getMovie().getTitle(), booking.getShowtime().getStartTime().toString());
+            System.out.println("Confirmation email sent");
+        } catch (Exception emailError) {
+            System.err.println("Failed to send confirmation email: " + emailError.getMessage());
+            // Don't fail the booking for email issues
+        }
+    }
+
+    public List<Seat> getAvailableSeats(Integer showtimeId) {
+        try {
+            // Answered from the in-memory seat map; the database is only read when the map is (re)loaded
+            return seatMapEngine.getAvailableSeats(showtimeId);
         } catch (Exception e) {
             System.err.println("=== BOOKING SERVICE ERROR: getAvailableSeats ===");
             System.err.println("Error Type: " + e.getClass().getSimpleName());
@@ -169,62 +341,41 @@ public class BookingService {
             throw e;
         }
     }
-    
-    private Seat createDynamicSeat(Integer seatId, CinemaHall cinemaHall) {
+
+    /**
+     * Proportional share of what was actually charged for the booking that falls
+     * on some of its seats, by list price so a premium seat counts for more;
+     * discounts are shared pro rata.
+     */
+    private double chargedShare(Booking booking, Set<Integer> bookedSeatIds, Set<Integer> seatIds) {
+        if (seatIds.isEmpty()) {
+            return 0.0;
+        }
+        ShowTime showtime = booking.getShowtime();
+        double listPrice = seatMapEngine.priceOf(showtime, bookedSeatIds);
+        double fraction = listPrice > 0
+                ? seatMapEngine.priceOf(showtime, seatIds) / listPrice
+                : (double) seatIds.size() / bookedSeatIds.size();
+        return Math.round(booking.getTotalAmount() * fraction * 100) / 100.0;
+    }
+
+    private Set<Seat> swapSeats(ShowTime showtime, Integer bookingId, Set<Integer> added, Set<Integer> removed) {
         try {
-            // Calculate row and number from seat ID
-            // Assuming seat ID format: hallId * 1000 + seatNumber
-            int seatNumber = seatId % 1000;
-            int rowIndex = (seatNumber - 1) / 10; // Assuming 10 seats per row
-            int seatInRow = ((seatNumber - 1) % 10) + 1;
-            
-            String row = String.valueOf((char) ('A' + rowIndex));
-            
-            Seat seat = new Seat();
-            seat.setSeatId(seatId);
-            seat.setRow(row);
-            seat.setNumber(seatInRow);
-            seat.setStatus("AVAILABLE");
-            seat.setCinemaHall(cinemaHall);
-            
-            // Save the seat to database
-            seat = seatRepository.save(seat);
-            System.out.println("Created dynamic seat: " + seatId + " (Row: " + row + ", Number: " + seatInRow + ")");
-            return seat;
-        } catch (Exception e) {
-            System.err.println("Error creating dynamic seat: " + e.getMessage());
-            return null;
+            return seatInventoryService.swapSeats(showtime, bookingId, added, removed);
+        } catch (SeatUnavailableException conflict) {
+            seatMapEngine.invalidate(showtime.getShowtimeId());
+            throw conflict;
         }
     }
-    
-    private List<Seat> createSeatsForHall(CinemaHall cinemaHall) {
-        List<Seat> seats = new ArrayList<>();
-        int capacity = cinemaHall.getCapacity() != null ? cinemaHall.getCapacity() : 100;
-        int seatsPerRow = 10;
-        int totalRows = (int) Math.ceil((double) capacity / seatsPerRow);
-        
-        for (int rowIndex = 0; rowIndex < totalRows; rowIndex++) {
-            String row = String.valueOf((char) ('A' + rowIndex));
-            int seatsInThisRow = Math.min(seatsPerRow, capacity - (rowIndex * seatsPerRow));
-            
-            for (int seatNum = 1; seatNum <= seatsInThisRow; seatNum++) {
-                int seatId = cinemaHall.getHallId() * 1000 + (rowIndex * seatsPerRow + seatNum);
-                
-                Seat seat = new Seat();
-                seat.setSeatId(seatId);
-                seat.setRow(row);
-                seat.setNumber(seatNum);
-                seat.setStatus("AVAILABLE");
-                seat.setCinemaHall(cinemaHall);
-                
-                seats.add(seat);
-            }
+
+    private Set<Seat> reserveSeats(ShowTime showtime, Set<Integer> seatIds, Integer bookingId) {
+        try {
+            return seatInventoryService.reserveSeats(showtime, seatIds, bookingId);
+        } catch (SeatUnavailableException conflict) {
+            // The database disagrees with the in-memory map, so reload it after the rollback
+            seatMapEngine.invalidate(showtime.getShowtimeId());
+            throw conflict;
         }
-        
-        // Save all seats to database
-        seats = seatRepository.saveAll(seats);
-        System.out.println("Created " + seats.size() + " seats for hall " + cinemaHall.getHallId());
-        return seats;
     }
 
     public Booking getBookingById(Integer id) {
@@ -251,6 +402,7 @@ public class BookingService {
         }
     }
 
+    @Transactional
     public boolean updateBooking(String email, Integer bookingId, Set<Integer> newSeatIds) {
         try {
             System.out.println("=== BOOKING SERVICE: updateBooking ===");
@@ -268,34 +420,56 @@ public class BookingService {
             if (!booking.getUser().getEmail().equals(email)) {
                 throw new RuntimeException("You can only update your own bookings");
             }
+            String status = booking.getStatus();
+            if ("CANCELLED".equals(status) || "REFUNDED".equals(status) || SeatHoldManager.EXPIRED.equals(status)) {
+                throw new RuntimeException("Booking is " + status.toLowerCase());
+            }
+            boolean paid = "CONFIRMED".equals(status);
+            if (newSeatIds == null || newSeatIds.isEmpty()) {
+                throw new RuntimeException("Please select at least one seat");
+            }
 
-            // Release old seats
-            if (booking.getSeats() != null) {
-                for (Seat seat : booking.getSeats()) {
-                    seat.setStatus("AVAILABLE");
-                    seatRepository.save(seat);
-                }
+            // Only the seats that change are touched; seats the customer keeps stay reserved throughout
+            Set<Integer> oldSeatIds = booking.getSeats().stream().map(Seat::getSeatId).collect(Collectors.toSet());
+            Set<Integer> added = new HashSet<>(newSeatIds);
+            added.removeAll(oldSeatIds);
+            Set<Integer> removed = new HashSet<>(oldSeatIds);
+            removed.removeAll(newSeatIds);
+            System.out.println("Seats added: " + added + ", removed: " + removed);
+            if (added.isEmpty() && removed.isEmpty()) {
+                return true;
+            }
+            // A paid booking has no hold to carry unpaid seats, so extra seats are a booking of their own
+            if (paid && !added.isEmpty()) {
+                throw new RuntimeException("Seats cannot be added to a paid booking, please book them separately");
             }
 
-            // Reserve new seats
-            Set<Seat> newSeats = new HashSet<>();
-            for (Integer seatId : newSeatIds) {
-                Seat seat = seatRepository.findById(seatId)
-                        .orElseThrow(() -> new RuntimeException("Seat not found"));
-                if (!"AVAILABLE".equals(seat.getStatus())) {
-                    throw new RuntimeException("Seat " + seatId + " is not available");
-                }
-                seat.setStatus("RESERVED");
-                seatRepository.save(seat);
-                newSeats.add(seat);
+            ShowTime showtime = booking.getShowtime();
+            if (!added.isEmpty()) {
+                seatMapEngine.holdSeats(showtime, added);
+            }
+            Set<Seat> addedSeats = swapSeats(showtime, booking.getBookingId(), added, removed);
+            if (!removed.isEmpty()) {
+                seatMapEngine.releaseSeats(showtime.getShowtimeId(), removed);
+            }
+            if (paid) {
+                ticketService.voidTickets(booking.getBookingId(), removed);
             }
 
-            // Update booking
-            booking.setSeats(newSeats);
-            booking.setTotalSeats(newSeatIds.size());
-            booking.setTotalAmount(booking.getShowtime().getPrice() * newSeatIds.size());
-            booking.setStatus("UPDATED"); // Mark as updated
-            bookingRepository.save(booking);
+            // Update booking; removed seats take their share of what was charged with them, added seats
+            // cost the current price, so earlier discounts stay on the seats that are kept
+            double removedShare = chargedShare(booking, oldSeatIds, removed);
+            booking.getSeats().removeIf(seat -> removed.contains(seat.getSeatId()));
+            booking.getSeats().addAll(addedSeats);
+            booking.setTotalSeats(booking.getSeats().size());
+            booking.setTotalAmount(booking.getTotalAmount() - removedShare + seatMapEngine.priceOf(showtime, added));
+            // A paid booking stays CONFIRMED, so it cannot be charged again and later updates are refunded too
+            booking.setStatus(paid ? "CONFIRMED" : "UPDATED");
+            Booking saved = bookingRepository.save(booking);
+            if (paid) {
+                Refund refund = paymentService.refundSeats(saved, removed, removedShare, "Seats removed from booking");
+                System.out.println("Refunded " + (refund != null ? refund.getAmount() : 0.0) + " for removed seats");
+            }
             
             System.out.println("Booking updated successfully");
             return true;
@@ -309,6 +483,7 @@ public class BookingService {
         }
     }
 
+    @Transactional
     public boolean deleteBooking(String email, Integer bookingId) {
         try {
             System.out.println("=== BOOKING SERVICE: deleteBooking ===");
@@ -326,14 +501,16 @@ public class BookingService {
                 throw new RuntimeException("You can only delete your own bookings");
             }
 
-            // Release seats first
+            // Stop the hold timer, then release seats
+            seatHoldManager.claimHold(booking.getBookingId());
+            seatInventoryService.releaseSeats(booking.getBookingId());
             if (booking.getSeats() != null) {
-                for (Seat seat : booking.getSeats()) {
-                    seat.setStatus("AVAILABLE");
-                    seatRepository.save(seat);
-                }
+                seatMapEngine.releaseSeats(booking.getShowtime().getShowtimeId(),
+                        booking.getSeats().stream().map(Seat::getSeatId).toList());
             }
 
+            ticketService.voidTickets(booking.getBookingId(), null);
+
             // Instead of deleting, mark as cancelled to avoid foreign key constraint issues
             booking.setStatus("CANCELLED");
             bookingRepository.save(booking);
@@ -350,6 +527,67 @@ public class BookingService {
         }
     }
     
+    /**
+     * Cancels some seats of a booking, e.g. when one person of a group drops
+     * out. The seats are freed in one bulk update, the booking keeps the rest
+     * and shrinks by the cancelled seats' share of what was charged, and a paid
+     * booking gets that share refunded, all in one transaction.
+     */
+    @Transactional
+    public Booking cancelSeats(String email, Integer bookingId, Set<Integer> seatIds, String reason) {
+        try {
+            System.out.println("=== BOOKING SERVICE: cancelSeats ===");
+            System.out.println("Email: " + email);
+            System.out.println("Booking ID: " + bookingId);
+            System.out.println("Seat IDs: " + seatIds);
+
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new RuntimeException("Booking not found"));
+            if (!booking.getUser().getEmail().equals(email)) {
+                throw new RuntimeException("You can only cancel your own bookings");
+            }
+            String status = booking.getStatus();
+            if ("CANCELLED".equals(status) || "REFUNDED".equals(status) || SeatHoldManager.EXPIRED.equals(status)) {
+                throw new RuntimeException("Booking is " + status.toLowerCase());
+            }
+            if (seatIds == null || seatIds.isEmpty()) {
+                throw new RuntimeException("Please select at least one seat to cancel");
+            }
+            Set<Integer> bookedSeatIds = booking.getSeats().stream().map(Seat::getSeatId).collect(Collectors.toSet());
+            if (!bookedSeatIds.containsAll(seatIds)) {
+                throw new RuntimeException("Only seats of this booking can be cancelled");
+            }
+            if (seatIds.size() >= bookedSeatIds.size()) {
+                throw new RuntimeException("To cancel every seat, cancel the whole booking");
+            }
+
+            if (seatInventoryService.releaseSeats(bookingId, seatIds) != seatIds.size()) {
+                throw new RuntimeException("Seats could not be released for this booking");
+            }
+            seatMapEngine.releaseSeats(booking.getShowtime().getShowtimeId(), seatIds);
+            ticketService.voidTickets(bookingId, seatIds);
+
+            double share = chargedShare(booking, bookedSeatIds, seatIds);
+            booking.getSeats().removeIf(seat -> seatIds.contains(seat.getSeatId()));
+            booking.setTotalSeats(booking.getSeats().size());
+            booking.setTotalAmount(booking.getTotalAmount() - share);
+            Booking saved = bookingRepository.save(booking);
+
+            Refund refund = paymentService.refundSeats(saved, seatIds, share, reason);
+            System.out.println(refund != null
+                    ? "Refunded " + refund.getAmount() + " for " + seatIds.size() + " seat(s)"
+                    : "Booking was not paid, nothing to refund");
+            return saved;
+        } catch (Exception e) {
+            System.err.println("=== BOOKING SERVICE ERROR: cancelSeats ===");
+            System.err.println("Error Type: " + e.getClass().getSimpleName());
+            System.err.println("Error Message: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Failed to cancel seats: " + e.getMessage());
+        }
+    }
+
+    @Transactional
     public Booking createBookingWithDiscount(String email, Integer showtimeId, Set<Integer> seatIds, 
                                            String discountCode, Integer loyaltyPointsToRedeem) {
         System.out.println("=== BOOKING SERVICE: createBookingWithDiscount ===");
@@ -366,17 +604,11 @@ public class BookingService {
             ShowTime showtime = showTimeRepository.findById(showtimeId)
                     .orElseThrow(() -> new RuntimeException("Showtime not found"));
 
-            Set<Seat> seats = new HashSet<>();
-            for (Integer seatId : seatIds) {
-                Seat seat = seatRepository.findById(seatId)
-                        .orElseThrow(() -> new RuntimeException("Seat not found"));
-                if (!"AVAILABLE".equals(seat.getStatus())) {
-                    throw new RuntimeException("Seat " + seatId + " is not available");
-                }
-                seats.add(seat);
+            if (seatIds == null || seatIds.isEmpty()) {
+                throw new RuntimeException("Please select at least one seat");
             }
 
-            Double baseAmount = showtime.getPrice() * seatIds.size();
+            Double baseAmount = seatMapEngine.priceOf(showtime, seatIds);
             Double totalDiscount = 0.0;
             
             // Apply discount code if provided
@@ -402,15 +634,14 @@ public class BookingService {
             Double finalAmount = Math.max(0, baseAmount - totalDiscount);
             
             Booking booking = new Booking(
-                    LocalDateTime.now(), seatIds.size(), finalAmount, "PENDING", user, showtime, seats
+                    LocalDateTime.now(), seatIds.size(), finalAmount, "PENDING", user, showtime, new HashSet<>()
             );
 
-            for (Seat seat : seats) {
-                seat.setStatus("RESERVED");
-                seatRepository.save(seat);
-            }
-
+            seatMapEngine.holdSeats(showtime, seatIds);
             Booking savedBooking = bookingRepository.save(booking);
+            savedBooking.setSeats(reserveSeats(showtime, seatIds, savedBooking.getBookingId()));
+            savedBooking = bookingRepository.save(savedBooking);
+            seatHoldManager.startHold(savedBooking);
             
             // Add loyalty points for the purchase
             loyaltyPointsService.addPointsForPurchase(email, finalAmount);
@@ -0,0 +1,104 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.util.PricingRules;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Yield management: scales a showtime's seat prices by the configured
+ * {@link PricingRules} from its occupancy, the time left until it starts and
+ * its day of week. Occupancy comes from the in-memory seat maps, never from
+ * bookings, and a {@link Quote} is only re-evaluated once one of its inputs
+ * crosses a rule threshold.
+ */
+@Service
+public class DynamicPricingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(DynamicPricingEngine.class);
+
+    @Value("${flixmate.pricing.rules:}")
+    private String rulesSource;
+
+    @Value("${flixmate.pricing.min-multiplier:0.5}")
+    private double minMultiplier;
+
+    @Value("${flixmate.pricing.max-multiplier:2.0}")
+    private double maxMultiplier;
+
+    private volatile PricingRules rules = PricingRules.NONE;
+
+    @PostConstruct
+    public void compileRules() {
+        rules = PricingRules.compile(rulesSource);
+        if (!rules.isEmpty()) {
+            log.info("Dynamic pricing enabled with {} rule(s)", rules.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return !rules.isEmpty();
+    }
+
+    /**
+     * Quote for a showtime at the given occupancy. Returns {@code previous}
+     * itself when neither occupancy nor time to start left its band.
+     *
+     * @param occupancy share of seats that are not free, 0 to 1
+     * @param previous  the showtime's last quote, or null
+     */
+    public Quote quote(LocalDateTime startTime, double occupancy, Quote previous) {
+        PricingRules current = rules;
+        double hours = hoursUntil(startTime);
+        int occupancyBand = current.occupancyBand(occupancy);
+        int hoursBand = current.hoursBand(hours);
+        if (previous != null && previous.rules == current
+                && previous.occupancyBand == occupancyBand && previous.hoursBand == hoursBand) {
+            return previous;
+        }
+        double multiplier = current.evaluate(occupancy, hours, startTime != null ? startTime.getDayOfWeek() : null);
+        multiplier = Math.max(minMultiplier, Math.min(maxMultiplier, multiplier));
+        return new Quote(current, occupancy, occupancyBand, hoursBand, multiplier);
+    }
+
+    /**
+     * The quote with the clock moved on and occupancy unchanged; cheap enough
+     * for every price read.
+     */
+    public Quote refresh(LocalDateTime startTime, Quote quote) {
+        return quote(startTime, quote.occupancy, quote);
+    }
+
+    private static double hoursUntil(LocalDateTime startTime) {
+        if (startTime == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Duration.between(LocalDateTime.now(), startTime).toMinutes() / 60.0;
+    }
+
+    /**
+     * A showtime's price multiplier and the bands it is valid for.
+     */
+    public static final class Quote {
+        private final PricingRules rules;
+        private final double occupancy;
+        private final int occupancyBand;
+        private final int hoursBand;
+        private final double multiplier;
+
+        Quote(PricingRules rules, double occupancy, int occupancyBand, int hoursBand, double multiplier) {
+            this.rules = rules;
+            this.occupancy = occupancy;
+            this.occupancyBand = occupancyBand;
+            this.hoursBand = hoursBand;
+            this.multiplier = multiplier;
+        }
+
+        public double getMultiplier() { return multiplier; }
+    }
+}
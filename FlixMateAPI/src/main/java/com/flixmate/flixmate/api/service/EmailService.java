@@ -5,9 +5,14 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.MailException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
 @Service
 public class EmailService {
 
@@ -40,6 +45,47 @@ public class EmailService {
             log.warn("Failed to send schedule change email: {}", ex.getMessage());
         }
     }
-}
 
+    public void sendWaitlistOffer(String to, String bookingId, String movieTitle, String showTime, long holdMinutes) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("FlixMate Waitlist: Seats Available");
+        message.setText("Seats have become available for " + movieTitle + " at " + showTime + ". They are held for you in booking "
+                + bookingId + " for the next " + holdMinutes + " minutes; complete the payment to keep them.");
+        try {
+            mailSender.send(message);
+        } catch (MailException ex) {
+            log.warn("Failed to send waitlist offer email: {}", ex.getMessage());
+        }
+    }
+
+    public void sendShowtimeCancellation(String to, String movieTitle, String showTime, Double refundAmount) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("FlixMate Showtime Cancelled");
+        String refund = refundAmount != null && refundAmount > 0
+                ? " A refund of " + String.format("%.2f", refundAmount) + " has been issued to your original payment method."
+                : "";
+        message.setText("We are sorry, the showing of " + movieTitle + " at " + showTime + " has been cancelled and your booking has been cancelled." + refund);
+        try {
+            mailSender.send(message);
+        } catch (MailException ex) {
+            log.warn("Failed to send showtime cancellation email: {}", ex.getMessage());
+        }
+    }
 
+    public void sendTickets(String to, String bookingId, String movieTitle, String showTime, byte[] ticketsPdf) {
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            helper.setTo(to);
+            helper.setSubject("FlixMate Tickets: " + movieTitle);
+            helper.setText("Your tickets for " + movieTitle + " at " + showTime + " (booking " + bookingId
+                    + ") are attached. Show them at the entrance, printed or on your phone. Enjoy your movie!");
+            helper.addAttachment("tickets-" + bookingId + ".pdf", new ByteArrayResource(ticketsPdf), "application/pdf");
+            mailSender.send(message);
+        } catch (MailException | MessagingException ex) {
+            log.warn("Failed to send tickets email: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.flixmate.flixmate.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried requests that carry an {@code Idempotency-Key} header.
+ * The first request with a key runs normally and its response is kept for
+ * {@code flixmate.idempotency.ttl-minutes}; retries with the same key get that
+ * response replayed. A retry that arrives while the original is still running
+ * waits for it instead of running a second time.
+ *
+ * Keys are scoped per endpoint and per user, and bound to a fingerprint of
+ * the request so a key reused for a different request is rejected.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Value("${flixmate.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${flixmate.idempotency.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${flixmate.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code action} once per key. Without a key the action simply runs.
+     *
+     * @param scope       endpoint the key belongs to, e.g. "booking"
+     * @param user        caller the key belongs to, may be null
+     * @param fingerprint summary of the request body and parameters
+     */
+    public ResponseEntity<?> execute(String scope, String user, String key, String fingerprint,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String storeKey = scope + ":" + (user != null ? user : "") + ":" + key.trim();
+        Entry created = new Entry(fingerprint);
+        Entry existing = entries.putIfAbsent(storeKey, created);
+        if (existing != null && existing.isExpired(ttlMinutes)) {
+            entries.remove(storeKey, existing);
+            existing = entries.putIfAbsent(storeKey, created);
+        }
+
+        if (existing == null) {
+            evictIfNeeded();
+            try {
+                ResponseEntity<?> response = action.get();
+                created.response.complete(response);
+                return response;
+            } catch (RuntimeException e) {
+                // Unexpected failures are not recorded, so the client may retry
+                entries.remove(storeKey, created);
+                created.response.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if (!existing.fingerprint.equals(fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key was already used for a different request");
+        }
+        return replay(existing);
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        try {
+            ResponseEntity<?> original = entry.response.get(waitSeconds, TimeUnit.SECONDS);
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxKeys) {
+            return;
+        }
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(ttlMinutes));
+        int excess = entries.size() - maxKeys;
+        if (excess <= 0) {
+            return;
+        }
+        // Still full: drop the oldest finished entries, never ones that are in flight
+        entries.entrySet().stream()
+                .filter(e -> e.getValue().response.isDone())
+                .sorted(Comparator.comparingLong(e -> e.getValue().createdAt))
+                .limit(excess + maxKeys / 10)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+        log.debug("Evicted idempotency keys, {} remaining", entries.size());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final String fingerprint;
+        private final long createdAt = System.currentTimeMillis();
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint != null ? fingerprint : "";
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return response.isDone() && System.currentTimeMillis() - createdAt > TimeUnit.MINUTES.toMillis(ttlMinutes);
+        }
+    }
+}
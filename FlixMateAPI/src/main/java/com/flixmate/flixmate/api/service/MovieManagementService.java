@@ -37,6 +37,12 @@ public class MovieManagementService {
     @Autowired
     private CinemaHallRepository cinemaHallRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
     // ========== MOVIE CRUD OPERATIONS ==========
 
     public List<Movie> getAllMovies() {
@@ -187,6 +193,9 @@ public class MovieManagementService {
                 System.out.println("Successfully deleted " + deletedCount + " bookings");
             }
 
+            // Drop the per-showtime seat inventory before the showtimes it references
+            seatInventoryService.deleteInventoryForMovie(id);
+
             // Delete all showtimes for this movie
             for (ShowTime showtime : showtimes) {
                 System.out.println("Deleting showtime: " + showtime.getShowtimeId());
@@ -285,6 +294,7 @@ public class MovieManagementService {
 
             showtime.setMovie(movie);
             ShowTime savedShowtime = showTimeRepository.save(showtime);
+            seatInventoryService.ensureInventory(savedShowtime);
             System.out.println("Showtime created successfully with ID: " + savedShowtime.getShowtimeId());
             return savedShowtime;
         } catch (Exception e) {
@@ -344,6 +354,8 @@ public class MovieManagementService {
                 throw new IllegalStateException("Cannot delete showtime with active bookings. Please cancel bookings first.");
             }
 
+            seatInventoryService.deleteInventory(showtimeId);
+            seatMapEngine.invalidate(showtimeId);
             showTimeRepository.deleteById(showtimeId);
             System.out.println("Showtime deleted successfully");
             return true;
@@ -366,12 +378,12 @@ public class MovieManagementService {
                     .orElseThrow(() -> new IllegalArgumentException("Showtime not found with ID: " + showtimeId));
 
             List<Booking> bookings = bookingRepository.findByShowtime(showtime);
-            List<Seat> allSeats = seatRepository.findByCinemaHall(showtime.getCinemaHall());
+            List<Seat> allSeats = seatInventoryService.getSeatMap(showtime);
             
-            // Get booked seats
-            Set<Seat> bookedSeats = bookings.stream()
-                    .flatMap(booking -> booking.getSeats().stream())
-                    .collect(Collectors.toSet());
+            // Get booked seats from the showtime's inventory
+            List<Seat> bookedSeats = allSeats.stream()
+                    .filter(seat -> !SeatInventoryService.AVAILABLE.equals(seat.getStatus()))
+                    .collect(Collectors.toList());
 
             Map<String, Object> result = new HashMap<>();
             result.put("showtime", showtime);
@@ -400,24 +412,10 @@ public class MovieManagementService {
             ShowTime showtime = showTimeRepository.findById(showtimeId)
                     .orElseThrow(() -> new IllegalArgumentException("Showtime not found with ID: " + showtimeId));
 
-            List<Seat> seats = seatRepository.findByCinemaHall(showtime.getCinemaHall());
-            List<Booking> bookings = bookingRepository.findByShowtime(showtime);
-            
-            // Get booked seats
-            Set<Seat> bookedSeats = bookings.stream()
-                    .flatMap(booking -> booking.getSeats().stream())
-                    .collect(Collectors.toSet());
-
-            // Update seat status
-            for (Seat seat : seats) {
-                if (bookedSeats.contains(seat)) {
-                    seat.setStatus("RESERVED");
-                } else {
-                    seat.setStatus("AVAILABLE");
-                }
-            }
+            // Status comes straight from the showtime's seat inventory
+            List<Seat> seats = seatInventoryService.getSeatMap(showtime);
 
-            System.out.println("Retrieved " + seats.size() + " seats with updated status");
+            System.out.println("Retrieved " + seats.size() + " seats with showtime status");
             return seats;
         } catch (Exception e) {
             System.err.println("=== MOVIE MANAGEMENT SERVICE ERROR: getSeatStatusForShowtime ===");
@@ -0,0 +1,27 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.GatewayResult;
+
+/**
+ * A payment provider. Implementations are Spring beans picked up by
+ * {@link PaymentGatewayRouter}, which calls them on their own bulkhead with a
+ * timeout and a circuit breaker, so they only need to make the call itself.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Short name used in logs and in {@code flixmate.payments.gateways.<name>.*}
+     * settings.
+     */
+    String getName();
+
+    boolean supports(String paymentMethod);
+
+    /**
+     * Charges the amount. Should return a FAILED result for a decline and throw
+     * when the provider could not be reached or answered with an error.
+     *
+     * @param transactionId idempotency key; a repeated call with the same id must not charge twice
+     */
+    GatewayResult charge(String transactionId, String paymentMethod, Double amount);
+}
@@ -0,0 +1,197 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.GatewayResult;
+import com.flixmate.flixmate.api.util.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends each charge to the first {@link PaymentGateway} that supports its
+ * payment method. Every gateway runs on its own small thread pool (a
+ * bulkhead) with a timeout and a {@link CircuitBreaker}, so a provider that
+ * slows down can only tie up its own threads: callers wait at most the
+ * timeout, and once the provider keeps failing they are turned away at once
+ * until it recovers. Checkouts for methods served by other gateways are not
+ * affected.
+ *
+ * Defaults come from {@code flixmate.payments.gateway.*} and can be set per
+ * gateway as {@code flixmate.payments.gateways.<name>.*}.
+ */
+@Service
+public class PaymentGatewayRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentGatewayRouter.class);
+
+    @Autowired
+    private List<PaymentGateway> gateways;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${flixmate.payments.gateway.timeout-ms:5000}")
+    private long defaultTimeoutMs;
+
+    @Value("${flixmate.payments.gateway.bulkhead-threads:10}")
+    private int defaultBulkheadThreads;
+
+    @Value("${flixmate.payments.gateway.bulkhead-queue:20}")
+    private int defaultBulkheadQueue;
+
+    @Value("${flixmate.payments.gateway.breaker-window:20}")
+    private int defaultBreakerWindow;
+
+    @Value("${flixmate.payments.gateway.breaker-min-calls:10}")
+    private int defaultBreakerMinCalls;
+
+    @Value("${flixmate.payments.gateway.breaker-failure-rate:0.5}")
+    private double defaultBreakerFailureRate;
+
+    @Value("${flixmate.payments.gateway.breaker-open-seconds:30}")
+    private long defaultBreakerOpenSeconds;
+
+    private final Map<String, GuardedGateway> guarded = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (PaymentGateway gateway : gateways) {
+            String name = gateway.getName();
+            int threads = setting(name, "bulkhead-threads", Integer.class, defaultBulkheadThreads);
+            int queue = setting(name, "bulkhead-queue", Integer.class, defaultBulkheadQueue);
+            CircuitBreaker breaker = new CircuitBreaker(
+                    setting(name, "breaker-window", Integer.class, defaultBreakerWindow),
+                    setting(name, "breaker-min-calls", Integer.class, defaultBreakerMinCalls),
+                    setting(name, "breaker-failure-rate", Double.class, defaultBreakerFailureRate),
+                    TimeUnit.SECONDS.toMillis(setting(name, "breaker-open-seconds", Long.class, defaultBreakerOpenSeconds)));
+            long timeoutMs = setting(name, "timeout-ms", Long.class, defaultTimeoutMs);
+            guarded.put(name, new GuardedGateway(gateway, bulkhead(name, threads, queue), breaker, timeoutMs));
+            log.info("Payment gateway '{}' registered: timeout {} ms, {} threads, queue {}", name, timeoutMs, threads, queue);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        guarded.values().forEach(g -> g.executor.shutdownNow());
+    }
+
+    /**
+     * Charges through the gateway for the payment method.
+     *
+     * @throws PaymentGatewayUnavailableException if the gateway is open, busy, timed out or failed
+     */
+    public GatewayResult charge(String transactionId, String paymentMethod, Double amount) {
+        GuardedGateway target = route(paymentMethod);
+        String name = target.gateway.getName();
+        if (!target.breaker.tryAcquire()) {
+            throw new PaymentGatewayUnavailableException(name, "Payment gateway " + name + " is temporarily unavailable");
+        }
+
+        Future<GatewayResult> call;
+        try {
+            call = target.executor.submit(() -> target.gateway.charge(transactionId, paymentMethod, amount));
+        } catch (RejectedExecutionException e) {
+            target.breaker.release();
+            throw new PaymentGatewayUnavailableException(name, "Payment gateway " + name + " is busy");
+        }
+
+        try {
+            GatewayResult result = call.get(target.timeoutMs, TimeUnit.MILLISECONDS);
+            target.breaker.onSuccess();
+            return result;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            recordFailure(target);
+            throw new PaymentGatewayUnavailableException(name, "Payment gateway " + name + " timed out");
+        } catch (ExecutionException e) {
+            recordFailure(target);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new PaymentGatewayUnavailableException(name, "Payment gateway " + name + " failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            target.breaker.release();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayUnavailableException(name, "Interrupted while waiting for payment gateway " + name);
+        }
+    }
+
+    /**
+     * Circuit state and load per gateway, for monitoring.
+     */
+    public List<Map<String, Object>> getGatewayHealth() {
+        List<Map<String, Object>> health = new ArrayList<>();
+        for (GuardedGateway target : guarded.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", target.gateway.getName());
+            entry.put("circuit", target.breaker.getState().name());
+            entry.put("failureRate", target.breaker.getFailureRate());
+            entry.put("activeCalls", target.executor.getActiveCount());
+            entry.put("queuedCalls", target.executor.getQueue().size());
+            entry.put("timeoutMs", target.timeoutMs);
+            health.add(entry);
+        }
+        return health;
+    }
+
+    private GuardedGateway route(String paymentMethod) {
+        for (GuardedGateway target : guarded.values()) {
+            if (target.gateway.supports(paymentMethod)) {
+                return target;
+            }
+        }
+        throw new RuntimeException("No payment gateway for payment method: " + paymentMethod);
+    }
+
+    private void recordFailure(GuardedGateway target) {
+        CircuitBreaker.State before = target.breaker.getState();
+        target.breaker.onFailure();
+        if (before != CircuitBreaker.State.OPEN && target.breaker.getState() == CircuitBreaker.State.OPEN) {
+            log.warn("Circuit for payment gateway '{}' opened", target.gateway.getName());
+        }
+    }
+
+    private <T> T setting(String gateway, String key, Class<T> type, T defaultValue) {
+        return environment.getProperty("flixmate.payments.gateways." + gateway + "." + key, type, defaultValue);
+    }
+
+    private static ThreadPoolExecutor bulkhead(String name, int threads, int queue) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queue)), runnable -> {
+                    Thread thread = new Thread(runnable, "gateway-" + name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static class GuardedGateway {
+        private final PaymentGateway gateway;
+        private final ThreadPoolExecutor executor;
+        private final CircuitBreaker breaker;
+        private final long timeoutMs;
+
+        private GuardedGateway(PaymentGateway gateway, ThreadPoolExecutor executor, CircuitBreaker breaker, long timeoutMs) {
+            this.gateway = gateway;
+            this.executor = executor;
+            this.breaker = breaker;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.flixmate.flixmate.api.service;
+
+/**
+ * Thrown when a payment gateway gives no answer: its circuit is open, its
+ * bulkhead is full, it timed out or it failed. Unlike a decline, the outcome
+ * is unknown, so the payment should be retried with the same transaction id.
+ */
+public class PaymentGatewayUnavailableException extends RuntimeException {
+
+    private final String gateway;
+
+    public PaymentGatewayUnavailableException(String gateway, String message) {
+        super(message);
+        this.gateway = gateway;
+    }
+
+    public PaymentGatewayUnavailableException(String gateway, String message, Throwable cause) {
+        super(message, cause);
+        this.gateway = gateway;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+}
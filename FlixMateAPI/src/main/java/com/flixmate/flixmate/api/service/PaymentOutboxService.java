@@ -0,0 +1,294 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.Payment;
+import com.flixmate.flixmate.api.entity.PaymentOutbox;
+import com.flixmate.flixmate.api.model.GatewayResult;
+import com.flixmate.flixmate.api.model.PaymentStatus;
+import com.flixmate.flixmate.api.repository.BookingRepository;
+import com.flixmate.flixmate.api.repository.PaymentOutboxRepository;
+import com.flixmate.flixmate.api.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous payments. A request is accepted by writing a PENDING payment
+ * and a {@link PaymentOutbox} entry in one short transaction; a bounded pool
+ * of workers then calls the gateway, with no transaction or connection held
+ * while it waits, and records the outcome in a second transaction.
+ *
+ * Entries are claimed with a conditional update so each is charged by one
+ * worker. A sweeper re-dispatches entries that were never picked up, e.g.
+ * after a restart or when the pool was full, and retries entries whose
+ * worker stopped responding until they run out of attempts. Results are
+ * published on {@code /topic/payments/{transactionId}} and can be polled.
+ */
+@Service
+public class PaymentOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentOutboxService.class);
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    public static final String TOPIC_PREFIX = "/topic/payments/";
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatHoldManager seatHoldManager;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flixmate.payments.async.workers:8}")
+    private int workerCount;
+
+    @Value("${flixmate.payments.async.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${flixmate.payments.async.redispatch-after-seconds:30}")
+    private long redispatchAfterSeconds;
+
+    @Value("${flixmate.payments.async.processing-timeout-seconds:120}")
+    private long processingTimeoutSeconds;
+
+    @Value("${flixmate.payments.async.max-attempts:3}")
+    private int maxAttempts;
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "payment-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Queued entries stay PENDING in the outbox and are picked up after the restart
+        workers.shutdownNow();
+    }
+
+    /**
+     * Whether the worker queue has room; when it is full, callers should ask
+     * the client to retry instead of accepting more payments.
+     */
+    public boolean isAccepting() {
+        return workers.getQueue().remainingCapacity() > 0;
+    }
+
+    /**
+     * Accepts a payment for processing in the background.
+     *
+     * @return the PENDING payment; its id and transaction id identify the result
+     */
+    @Transactional
+    public Payment submitPayment(Integer bookingId, String paymentMethod, Double amount) {
+        if (outboxRepository.existsByBookingIdAndStatusIn(bookingId, List.of(PENDING, PROCESSING))) {
+            throw new RuntimeException("A payment for this booking is already being processed");
+        }
+        Booking booking = paymentService.claimForPayment(bookingId, paymentMethod, amount);
+        afterCompletion(committed -> {
+            if (!committed) {
+                // Nothing was accepted, so the hold goes back on the timer
+                seatHoldManager.restoreHold(booking);
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        Payment payment = new Payment(UUID.randomUUID().toString(), now, paymentMethod, amount, PENDING, booking);
+        payment.setGatewayResponse("Awaiting payment gateway");
+        payment = paymentRepository.save(payment);
+        PaymentOutbox entry = outboxRepository.save(new PaymentOutbox(payment.getPaymentId(), bookingId, PENDING, now));
+
+        Integer outboxId = entry.getOutboxId();
+        afterCompletion(committed -> {
+            if (committed) {
+                dispatch(outboxId);
+            }
+        });
+        System.out.println("Accepted payment " + payment.getPaymentId() + " for booking " + bookingId);
+        return payment;
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentStatus getStatus(Integer paymentId) {
+        return paymentRepository.findById(paymentId).map(PaymentOutboxService::toStatus).orElse(null);
+    }
+
+    /**
+     * Charges one outbox entry. Does nothing if the entry is not PENDING,
+     * e.g. because another worker already claimed it.
+     */
+    public void process(Integer outboxId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer claimed = transaction.execute(status -> outboxRepository.claim(outboxId, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        Payment payment = outboxRepository.findById(outboxId)
+                .flatMap(entry -> paymentRepository.findById(entry.getPaymentId()))
+                .orElse(null);
+        if (payment == null) {
+            transaction.executeWithoutResult(status ->
+                    outboxRepository.finish(outboxId, FAILED, "Payment not found", LocalDateTime.now()));
+            return;
+        }
+
+        GatewayResult result;
+        try {
+            result = paymentService.chargeGateway(payment.getTransactionId(), payment.getPaymentMethod(), payment.getAmount());
+        } catch (RuntimeException e) {
+            // Left PROCESSING; the sweeper retries it once the processing timeout has passed
+            log.warn("Gateway call for payment {} failed: {}", payment.getPaymentId(), e.getMessage());
+            return;
+        }
+        complete(outboxId, result, DONE, null);
+    }
+
+    /**
+     * Re-dispatches entries that were never picked up and retries, or gives up
+     * on, entries whose worker stopped responding. A real gateway must be
+     * called with the payment's transaction id as its idempotency key so a
+     * retry never charges twice.
+     */
+    @Scheduled(fixedDelayString = "${flixmate.payments.async.sweep-interval-ms:15000}",
+               initialDelayString = "${flixmate.payments.async.sweep-interval-ms:15000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Integer outboxId : outboxRepository.findIdsByStatusUpdatedBefore(PENDING, now.minusSeconds(redispatchAfterSeconds))) {
+            dispatch(outboxId);
+        }
+        LocalDateTime stuckBefore = now.minusSeconds(processingTimeoutSeconds);
+        for (Integer outboxId : outboxRepository.findIdsByStatusUpdatedBefore(PROCESSING, stuckBefore)) {
+            PaymentOutbox entry = outboxRepository.findById(outboxId).orElse(null);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.getAttempts() >= maxAttempts) {
+                log.warn("Giving up on payment {} after {} attempts", entry.getPaymentId(), entry.getAttempts());
+                complete(outboxId, GatewayResult.failed("Payment could not be processed",
+                        "Payment gateway did not respond"), FAILED, "No result after " + entry.getAttempts() + " attempts");
+                continue;
+            }
+            Integer requeued = new TransactionTemplate(transactionManager).execute(status ->
+                    outboxRepository.requeue(outboxId, stuckBefore, LocalDateTime.now()));
+            if (requeued != null && requeued > 0) {
+                dispatch(outboxId);
+            }
+        }
+    }
+
+    private void complete(Integer outboxId, GatewayResult result, String outboxStatus, String error) {
+        PaymentStatus status;
+        try {
+            status = new TransactionTemplate(transactionManager).execute(tx -> {
+                // Only the worker that still holds the entry records a result
+                if (outboxRepository.finish(outboxId, outboxStatus, error, LocalDateTime.now()) == 0) {
+                    return null;
+                }
+                PaymentOutbox entry = outboxRepository.findById(outboxId)
+                        .orElseThrow(() -> new RuntimeException("Outbox entry not found"));
+                Payment payment = paymentRepository.findById(entry.getPaymentId())
+                        .orElseThrow(() -> new RuntimeException("Payment not found"));
+                Booking booking = bookingRepository.findById(entry.getBookingId())
+                        .orElseThrow(() -> new RuntimeException("Booking not found"));
+                return toStatus(paymentService.completePayment(payment, booking, result));
+            });
+        } catch (RuntimeException e) {
+            // Rolled back, so the entry is still PROCESSING and the sweeper retries it
+            log.warn("Failed to record result of outbox entry {}: {}", outboxId, e.getMessage());
+            return;
+        }
+        if (status != null) {
+            publish(status);
+        }
+    }
+
+    private void dispatch(Integer outboxId) {
+        try {
+            workers.execute(() -> process(outboxId));
+        } catch (RejectedExecutionException e) {
+            log.debug("Payment worker queue full, outbox entry {} waits for the sweeper", outboxId);
+        }
+    }
+
+    private void publish(PaymentStatus status) {
+        try {
+            messagingTemplate.convertAndSend(topicFor(status.getTransactionId()), status);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish result of payment {}: {}", status.getPaymentId(), e.getMessage());
+        }
+    }
+
+    public static String topicFor(String transactionId) {
+        return TOPIC_PREFIX + transactionId;
+    }
+
+    private static PaymentStatus toStatus(Payment payment) {
+        PaymentStatus status = new PaymentStatus();
+        status.setPaymentId(payment.getPaymentId());
+        status.setTransactionId(payment.getTransactionId());
+        status.setBookingId(payment.getBooking() != null ? payment.getBooking().getBookingId() : null);
+        status.setStatus(payment.getStatus());
+        status.setGatewayResponse(payment.getGatewayResponse());
+        status.setFailureReason(payment.getFailureReason());
+        return status;
+    }
+
+    private void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -2,12 +2,24 @@ package com.flixmate.flixmate.api.service;
 
 import com.flixmate.flixmate.api.entity.Booking;
 import com.flixmate.flixmate.api.entity.Payment;
+import com.flixmate.flixmate.api.entity.Refund;
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.model.GatewayResult;
 import com.flixmate.flixmate.api.repository.BookingRepository;
 import com.flixmate.flixmate.api.repository.PaymentRepository;
+import com.flixmate.flixmate.api.repository.RefundRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -15,12 +27,39 @@ import java.util.UUID;
 @Service
 public class PaymentService {
 
+    // Same shape as the payment date converter writes, so bounds compare correctly against string columns
+    private static final DateTimeFormatter STATISTICS_BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     @Autowired
     private PaymentRepository paymentRepository;
 
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private SeatHoldManager seatHoldManager;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private PdfRenderService pdfRenderService;
+
+    @Autowired
+    private PaymentGatewayRouter paymentGatewayRouter;
+
+    @Autowired
+    private PaymentTotals paymentTotals;
+
     public List<Payment> getPaymentLogs() {
         return paymentRepository.findAll();
     }
@@ -33,80 +72,101 @@ public class PaymentService {
     
     public Payment processPayment(Integer bookingId, String paymentMethod, Double amount) {
         try {
-            Booking booking = bookingRepository.findById(bookingId)
-                    .orElseThrow(() -> new RuntimeException("Booking not found"));
-
-            // Validate payment method
-            if (!isValidPaymentMethod(paymentMethod)) {
-                throw new RuntimeException("Invalid payment method: " + paymentMethod);
+            Booking booking = claimForPayment(bookingId, paymentMethod, amount);
+            String transactionId = UUID.randomUUID().toString();
+            GatewayResult result;
+            try {
+                result = chargeGateway(transactionId, paymentMethod, amount);
+            } catch (PaymentGatewayUnavailableException e) {
+                // Nothing was recorded, so the customer can retry until the original hold runs out
+                seatHoldManager.restoreHold(booking);
+                throw e;
             }
+            Payment payment = new Payment(transactionId, LocalDateTime.now(), paymentMethod, amount,
+                    result.getStatus(), booking);
+            return completePayment(payment, booking, result);
+        } catch (PaymentGatewayUnavailableException e) {
+            System.err.println("Payment gateway unavailable: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error processing payment: " + e.getMessage());
+            throw new RuntimeException("Payment processing failed: " + e.getMessage());
+        }
+    }
 
-            // Validate amount
-            if (amount <= 0) {
-                throw new RuntimeException("Invalid payment amount: " + amount);
-            }
+    /**
+     * Validates a payment request and takes the booking's seat hold off the
+     * timer so it cannot expire while the payment is processed.
+     *
+     * @return the booking to charge
+     */
+    public Booking claimForPayment(Integer bookingId, String paymentMethod, Double amount) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-            // Mock payment gateway logic with some failure scenarios
-            String transactionId = UUID.randomUUID().toString();
-            LocalDateTime paymentDate = LocalDateTime.now();
-            String status;
-            String gatewayResponse;
-            String failureReason = null;
-
-            // Simulate different payment outcomes based on payment method
-            if ("CREDIT_CARD".equals(paymentMethod)) {
-                // Simulate 90% success rate for credit cards
-                if (Math.random() < 0.9) {
-                    status = "SUCCESS";
-                    gatewayResponse = "Payment processed successfully";
-                } else {
-                    status = "FAILED";
-                    gatewayResponse = "Payment declined";
-                    failureReason = "Insufficient funds or invalid card";
-                }
-            } else if ("PAYPAL".equals(paymentMethod)) {
-                // Simulate 95% success rate for PayPal
-                if (Math.random() < 0.95) {
-                    status = "SUCCESS";
-                    gatewayResponse = "PayPal payment completed";
-                } else {
-                    status = "FAILED";
-                    gatewayResponse = "PayPal payment failed";
-                    failureReason = "PayPal account issue";
-                }
-            } else if ("E_WALLET".equals(paymentMethod)) {
-                // Simulate 85% success rate for e-wallet
-                if (Math.random() < 0.85) {
-                    status = "SUCCESS";
-                    gatewayResponse = "E-wallet payment completed";
-                } else {
-                    status = "FAILED";
-                    gatewayResponse = "E-wallet payment failed";
-                    failureReason = "Insufficient wallet balance";
-                }
-            } else {
-                // Default to success for other methods
-                status = "SUCCESS";
-                gatewayResponse = "Payment processed successfully";
-            }
+        // Validate payment method
+        if (!isValidPaymentMethod(paymentMethod)) {
+            throw new RuntimeException("Invalid payment method: " + paymentMethod);
+        }
+
+        // Validate amount
+        if (amount == null || amount <= 0) {
+            throw new RuntimeException("Invalid payment amount: " + amount);
+        }
 
-            Payment payment = new Payment(transactionId, paymentDate, paymentMethod, amount, status, booking);
-            payment.setGatewayResponse(gatewayResponse);
-            payment.setFailureReason(failureReason);
+        // A booking is charged once; a paid, cancelled or refunded one has nothing left to pay for
+        String status = booking.getStatus();
+        if ("CONFIRMED".equals(status) || "CANCELLED".equals(status) || "REFUNDED".equals(status)) {
+            throw new RuntimeException("Booking is " + status.toLowerCase() + " and cannot be paid");
+        }
 
-            if ("SUCCESS".equals(status)) {
-                booking.setStatus("CONFIRMED");
-                bookingRepository.save(booking);
-            } else {
-                booking.setStatus("PAYMENT_FAILED");
-                bookingRepository.save(booking);
-            }
+        // Take the seat hold off the timer so it cannot expire while the payment is processed
+        if (SeatHoldManager.EXPIRED.equals(status) || !seatHoldManager.claimHold(bookingId)) {
+            throw new RuntimeException("Seat hold for this booking has expired");
+        }
+        return booking;
+    }
 
-            return paymentRepository.save(payment);
-        } catch (Exception e) {
-            System.err.println("Error processing payment: " + e.getMessage());
-            throw new RuntimeException("Payment processing failed: " + e.getMessage());
+    /**
+     * Calls the payment gateway for the method. Touches no database state, so
+     * callers can run it outside any transaction. The transaction id is the
+     * gateway's idempotency key, so a retry with the same id charges once.
+     *
+     * @throws PaymentGatewayUnavailableException if the gateway did not answer
+     */
+    public GatewayResult chargeGateway(String transactionId, String paymentMethod, Double amount) {
+        return paymentGatewayRouter.charge(transactionId, paymentMethod, amount);
+    }
+
+    /**
+     * Records the gateway's outcome on the payment and moves the booking on:
+     * confirmed with its seats sold and tickets issued, or back on its seat
+     * hold so the customer can retry.
+     */
+    public Payment completePayment(Payment payment, Booking booking, GatewayResult result) {
+        payment.setStatus(result.getStatus());
+        payment.setGatewayResponse(result.getGatewayResponse());
+        payment.setFailureReason(result.getFailureReason());
+
+        if ("SUCCESS".equals(result.getStatus())) {
+            booking.setStatus("CONFIRMED");
+            bookingRepository.save(booking);
+            seatHoldManager.convertToSale(booking);
+            try {
+                ticketService.issueTickets(booking);
+            } catch (Exception ticketError) {
+                // The payment stands; tickets are issued again when the customer opens them
+                System.err.println("Failed to issue tickets: " + ticketError.getMessage());
+            }
+            pdfRenderService.emailTicketsAfterCommit(booking.getBookingId());
+        } else {
+            booking.setStatus("PAYMENT_FAILED");
+            bookingRepository.save(booking);
+            // Let the customer retry until the original hold runs out
+            seatHoldManager.restoreHold(booking);
         }
+
+        return paymentRepository.save(payment);
     }
 
     private boolean isValidPaymentMethod(String paymentMethod) {
@@ -141,6 +201,7 @@ public class PaymentService {
         return false;
     }
 
+    @Transactional
     public Payment processRefund(Integer paymentId, Double refundAmount, String reason) {
         try {
             Payment payment = paymentRepository.findById(paymentId)
@@ -150,20 +211,33 @@ public class PaymentService {
                 throw new RuntimeException("Cannot refund a failed payment");
             }
 
-            if (refundAmount > payment.getAmount()) {
+            // Seat-level refunds may already have paid part of the amount back
+            double alreadyRefunded = payment.getRefundAmount() != null ? payment.getRefundAmount() : 0.0;
+            if (refundAmount > payment.getAmount() - alreadyRefunded) {
                 throw new RuntimeException("Refund amount cannot exceed original payment amount");
             }
 
             // Mock refund processing
             payment.setStatus("REFUNDED");
-            payment.setRefundAmount(refundAmount);
+            payment.setRefundAmount(alreadyRefunded + refundAmount);
             payment.setRefundDate(LocalDateTime.now());
             payment.setFailureReason(reason);
-
-            // Update booking status
             if (payment.getBooking() != null) {
-                payment.getBooking().setStatus("REFUNDED");
-                bookingRepository.save(payment.getBooking());
+                refundRepository.save(new Refund(payment.getPaymentId(), payment.getBooking().getBookingId(),
+                        refundAmount, null, null, reason));
+            }
+
+            // Update booking status and give its seats back, which offers them to the waitlist
+            Booking booking = payment.getBooking();
+            if (booking != null) {
+                booking.setStatus("REFUNDED");
+                bookingRepository.save(booking);
+                ticketService.voidTickets(booking.getBookingId(), null);
+                seatInventoryService.releaseSeats(booking.getBookingId());
+                if (booking.getSeats() != null && booking.getShowtime() != null) {
+                    seatMapEngine.releaseSeats(booking.getShowtime().getShowtimeId(),
+                            booking.getSeats().stream().map(Seat::getSeatId).toList());
+                }
             }
 
             return paymentRepository.save(payment);
@@ -173,6 +247,34 @@ public class PaymentService {
         }
     }
 
+    /**
+     * Refunds the share of a paid booking belonging to cancelled seats. The
+     * payment stays SUCCESS for the seats that are kept; its refund amount
+     * accumulates across partial refunds.
+     *
+     * @return the refund, or null if the booking has no successful payment
+     */
+    public Refund refundSeats(Booking booking, Collection<Integer> seatIds, Double amount, String reason) {
+        Payment payment = paymentRepository.findFirstByBooking_BookingIdAndStatus(booking.getBookingId(), "SUCCESS")
+                .orElse(null);
+        if (payment == null) {
+            return null;
+        }
+        double alreadyRefunded = payment.getRefundAmount() != null ? payment.getRefundAmount() : 0.0;
+        double refundAmount = Math.min(amount, payment.getAmount() - alreadyRefunded);
+        payment.setRefundAmount(alreadyRefunded + refundAmount);
+        payment.setRefundDate(LocalDateTime.now());
+        paymentRepository.save(payment);
+
+        String seats = String.join(",", seatIds.stream().sorted().map(String::valueOf).toList());
+        return refundRepository.save(new Refund(payment.getPaymentId(), booking.getBookingId(),
+                refundAmount, seatIds.size(), seats, reason));
+    }
+
+    public List<Refund> getRefunds(Integer paymentId) {
+        return refundRepository.findByPaymentId(paymentId);
+    }
+
     public List<Payment> getPaymentLogsByUser(String email) {
         try {
             return paymentRepository.findByBooking_User_Email(email);
@@ -193,25 +295,18 @@ public class PaymentService {
 
     public Map<String, Object> getPaymentStatistics() {
         try {
-            List<Payment> allPayments = paymentRepository.findAll();
-            
-            long totalPayments = allPayments.size();
-            long successfulPayments = allPayments.stream()
-                    .filter(p -> "SUCCESS".equals(p.getStatus()))
-                    .count();
-            long failedPayments = allPayments.stream()
-                    .filter(p -> "FAILED".equals(p.getStatus()))
-                    .count();
-            
-            double totalRevenue = allPayments.stream()
-                    .filter(p -> "SUCCESS".equals(p.getStatus()))
-                    .mapToDouble(Payment::getAmount)
-                    .sum();
-            
-            double totalRefunded = allPayments.stream()
-                    .filter(p -> "REFUNDED".equals(p.getStatus()))
-                    .mapToDouble(Payment::getRefundAmount)
-                    .sum();
+            if (!paymentTotals.isSeeded()) {
+                reconcilePaymentTotals();
+            }
+            Map<String, PaymentTotals.StatusTotals> byStatus = paymentTotals.snapshot();
+
+            long totalPayments = byStatus.values().stream().mapToLong(PaymentTotals.StatusTotals::getCount).sum();
+            PaymentTotals.StatusTotals successful = paymentTotals.get("SUCCESS");
+            long successfulPayments = successful.getCount();
+            long failedPayments = paymentTotals.get("FAILED").getCount();
+            double totalRevenue = successful.getAmount();
+            // Seat-level refunds leave the payment SUCCESS, so count refunds under every status
+            double totalRefunded = byStatus.values().stream().mapToDouble(PaymentTotals.StatusTotals::getRefunded).sum();
 
             return Map.of(
                 "totalPayments", totalPayments,
@@ -220,11 +315,44 @@ public class PaymentService {
                 "successRate", totalPayments > 0 ? (double) successfulPayments / totalPayments * 100 : 0,
                 "totalRevenue", totalRevenue,
                 "totalRefunded", totalRefunded,
-                "netRevenue", totalRevenue - totalRefunded
+                "netRevenue", totalRevenue - totalRefunded,
+                "byStatus", byStatus
             );
         } catch (Exception e) {
             System.err.println("Error calculating payment statistics: " + e.getMessage());
             return Map.of();
         }
     }
+
+    /**
+     * Payment count, amount and refunded amount per day and status, aggregated
+     * in the database for payments from start (inclusive) to end (exclusive).
+     */
+    public List<Map<String, Object>> getPaymentStatistics(LocalDateTime start, LocalDateTime end) {
+        System.out.println("=== SERVICE: getPaymentStatistics ===");
+        System.out.println("Range: " + start + " to " + end);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] row : paymentRepository.aggregateByDayAndStatus(
+                start.format(STATISTICS_BOUND), end.format(STATISTICS_BOUND))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("date", String.valueOf(row[0]));
+            entry.put("status", row[1]);
+            entry.put("count", ((Number) row[2]).longValue());
+            entry.put("amount", ((Number) row[3]).doubleValue());
+            entry.put("refunded", ((Number) row[4]).doubleValue());
+            rows.add(entry);
+        }
+        return rows;
+    }
+
+    /**
+     * Rebuilds the running payment totals from the database, correcting drift
+     * from writes the entity listener did not see.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${flixmate.payments.statistics.reconcile-interval-ms:600000}",
+               initialDelayString = "${flixmate.payments.statistics.reconcile-interval-ms:600000}")
+    public void reconcilePaymentTotals() {
+        paymentTotals.reseed(paymentRepository::aggregateByStatus, 3);
+    }
 }
@@ -0,0 +1,176 @@
+package com.flixmate.flixmate.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Running count, amount and refunded amount of payments per status, so the
+ * headline statistics cost O(1) instead of a scan of the payments table.
+ *
+ * {@link PaymentTotalsListener} reports every insert, update and delete of a
+ * payment with its before and after state; the change is applied once the
+ * transaction commits. The totals are seeded from a GROUP BY query and
+ * periodically reseeded to correct drift from writes that bypass the entity
+ * lifecycle, such as bulk queries or other application instances.
+ */
+@Component
+public class PaymentTotals {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentTotals.class);
+
+    private final Map<String, StatusTotals> totals = new HashMap<>();
+    private long version;
+    private boolean seeded;
+
+    /**
+     * Records a payment's change from one state to another; pass null status
+     * for the side that does not exist (insert or delete).
+     */
+    public void record(String oldStatus, Double oldAmount, Double oldRefunded,
+                       String newStatus, Double newAmount, Double newRefunded) {
+        if (Objects.equals(oldStatus, newStatus) && Objects.equals(oldAmount, newAmount)
+                && Objects.equals(oldRefunded, newRefunded)) {
+            return;
+        }
+        Runnable apply = () -> apply(oldStatus, oldAmount, oldRefunded, newStatus, newAmount, newRefunded);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+
+    /**
+     * Replaces the totals with freshly aggregated rows of [status, count,
+     * amount, refunded]. If a change is recorded while the query runs, the
+     * result may already be stale, so it is retried.
+     *
+     * @return whether the totals were replaced
+     */
+    public boolean reseed(Supplier<List<Object[]>> aggregate, int attempts) {
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            long before;
+            synchronized (this) {
+                before = version;
+            }
+            List<Object[]> rows = aggregate.get();
+            synchronized (this) {
+                if (version != before) {
+                    continue;
+                }
+                Map<String, StatusTotals> fresh = new HashMap<>();
+                for (Object[] row : rows) {
+                    fresh.put((String) row[0], new StatusTotals(((Number) row[1]).longValue(),
+                            toDouble(row[2]), toDouble(row[3])));
+                }
+                if (seeded && !fresh.equals(totals)) {
+                    log.info("Payment totals drifted from the database and were corrected");
+                }
+                totals.clear();
+                totals.putAll(fresh);
+                seeded = true;
+                return true;
+            }
+        }
+        log.debug("Payment totals not reseeded, payments kept changing during {} attempts", attempts);
+        return false;
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Copy of the current totals by status.
+     */
+    public synchronized Map<String, StatusTotals> snapshot() {
+        Map<String, StatusTotals> copy = new HashMap<>();
+        totals.forEach((status, t) -> copy.put(status, new StatusTotals(t.count, t.amount, t.refunded)));
+        return copy;
+    }
+
+    public synchronized StatusTotals get(String status) {
+        StatusTotals t = totals.get(status);
+        return t != null ? new StatusTotals(t.count, t.amount, t.refunded) : new StatusTotals(0, 0.0, 0.0);
+    }
+
+    private synchronized void apply(String oldStatus, Double oldAmount, Double oldRefunded,
+                                    String newStatus, Double newAmount, Double newRefunded) {
+        if (oldStatus != null) {
+            StatusTotals old = totals.computeIfAbsent(oldStatus, s -> new StatusTotals(0, 0.0, 0.0));
+            old.add(-1, -value(oldAmount), -value(oldRefunded));
+            // The aggregate query has no row for a status without payments
+            if (old.count == 0) {
+                totals.remove(oldStatus);
+            }
+        }
+        if (newStatus != null) {
+            totals.computeIfAbsent(newStatus, s -> new StatusTotals(0, 0.0, 0.0))
+                    .add(1, value(newAmount), value(newRefunded));
+        }
+        version++;
+    }
+
+    private static double value(Double amount) {
+        return amount != null ? amount : 0.0;
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    /**
+     * Count and sums of the payments in one status.
+     */
+    public static class StatusTotals {
+        private long count;
+        private double amount;
+        private double refunded;
+
+        public StatusTotals(long count, double amount, double refunded) {
+            this.count = count;
+            this.amount = amount;
+            this.refunded = refunded;
+        }
+
+        private void add(long count, double amount, double refunded) {
+            this.count += count;
+            this.amount += amount;
+            this.refunded += refunded;
+        }
+
+        public long getCount() { return count; }
+        public double getAmount() { return amount; }
+        public double getRefunded() { return refunded; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatusTotals other)) {
+                return false;
+            }
+            // Sums are built in a different order than the database adds them up
+            return count == other.count
+                    && Math.abs(amount - other.amount) < 0.005
+                    && Math.abs(refunded - other.refunded) < 0.005;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(count);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Payment;
+import com.flixmate.flixmate.api.model.PaymentChange;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Reports payment inserts, updates and deletes to {@link PaymentTotals} and
+ * publishes them as {@link PaymentChange} events. Runs before the entity's
+ * own callbacks, so {@link Payment#getPersistedStatus} and friends still
+ * hold the state the row had before this write.
+ */
+public class PaymentTotalsListener {
+
+    @Autowired
+    private PaymentTotals paymentTotals;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void paymentAdded(Payment payment) {
+        changed(payment, null, null, null, payment.getStatus(), payment.getAmount(), payment.getRefundAmount());
+    }
+
+    @PostUpdate
+    public void paymentChanged(Payment payment) {
+        changed(payment, payment.getPersistedStatus(), payment.getPersistedAmount(), payment.getPersistedRefundAmount(),
+                payment.getStatus(), payment.getAmount(), payment.getRefundAmount());
+    }
+
+    @PostRemove
+    public void paymentRemoved(Payment payment) {
+        changed(payment, payment.getPersistedStatus(), payment.getPersistedAmount(), payment.getPersistedRefundAmount(),
+                null, null, null);
+    }
+
+    private void changed(Payment payment, String oldStatus, Double oldAmount, Double oldRefundAmount,
+                         String newStatus, Double newAmount, Double newRefundAmount) {
+        paymentTotals.record(oldStatus, oldAmount, oldRefundAmount, newStatus, newAmount, newRefundAmount);
+        // The booking is a lazy proxy; reading its id does not load it mid-flush
+        Integer bookingId = payment.getBooking() != null ? payment.getBooking().getBookingId() : null;
+        eventPublisher.publishEvent(new PaymentChange(payment.getPaymentId(), bookingId, payment.getPaymentDate(),
+                oldStatus, oldAmount, oldRefundAmount, newStatus, newAmount, newRefundAmount));
+    }
+}
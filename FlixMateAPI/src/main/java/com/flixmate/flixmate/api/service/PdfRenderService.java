@@ -0,0 +1,542 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.entity.Ticket;
+import com.flixmate.flixmate.api.repository.BookingRepository;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BarcodeQRCode;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfImportedPage;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.qrcode.EncodeHintType;
+import com.itextpdf.text.pdf.qrcode.ErrorCorrectionLevel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Renders ticket and report PDFs on a dedicated pool of
+ * {@code flixmate.pdf.threads} workers, so PDF generation never runs on
+ * request threads and cannot use more CPU than the pool allows.
+ * <ul>
+ *   <li>Fonts are loaded once at startup. The static parts of a ticket and
+ *       of a report page are rendered once into template PDFs, which each
+ *       document imports as a single form that every page draws.</li>
+ *   <li>The PDF of a confirmed booking's tickets does not change until its
+ *       tickets or showtime do, so the bytes are cached, up to
+ *       {@code ticket-cache-mb}, keyed by exactly those.</li>
+ *   <li>Reports are written as a table that is flushed every few rows, so
+ *       finished pages go to the output stream while the rest are read.</li>
+ * </ul>
+ */
+@Service
+public class PdfRenderService {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfRenderService.class);
+
+    private static final Rectangle TICKET_PAGE = PageSize.A6.rotate();
+    private static final Rectangle REPORT_PAGE = PageSize.A4.rotate();
+    private static final float QR_SIZE = 130f;
+    private static final float TICKET_TEXT_WIDTH = 230f;
+    private static final int REPORT_ROWS_PER_FLUSH = 50;
+    private static final BaseColor LABEL_COLOR = new BaseColor(110, 110, 110);
+    private static final BaseColor HEADER_BACKGROUND = new BaseColor(230, 230, 230);
+    private static final DateTimeFormatter SHOWTIME_FORMAT = DateTimeFormatter.ofPattern("EEE d MMM yyyy, HH:mm");
+    private static final DateTimeFormatter CELL_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flixmate.pdf.threads:4}")
+    private int threadCount;
+
+    @Value("${flixmate.pdf.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${flixmate.pdf.ticket-cache-mb:64}")
+    private long ticketCacheMb;
+
+    // A TrueType font to embed, for titles outside Latin-1; the built-in Helvetica is used when empty
+    @Value("${flixmate.pdf.font-path:}")
+    private String fontPath;
+
+    @Value("${flixmate.pdf.bold-font-path:}")
+    private String boldFontPath;
+
+    @Value("${flixmate.pdf.email-tickets:false}")
+    private boolean emailTickets;
+
+    private BaseFont regular;
+    private BaseFont bold;
+    private Font cellFont;
+    private Font headerFont;
+    private Font titleFont;
+    private Font subtitleFont;
+    private byte[] ticketTemplate;
+    private byte[] reportTemplate;
+
+    private ThreadPoolExecutor workers;
+
+    private final ExecutorService mailExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pdf-mail");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, byte[]> ticketCache = new LinkedHashMap<>(256, 0.75f, true);
+    private long ticketCacheBytes;
+
+    @PostConstruct
+    public void init() {
+        try {
+            regular = loadFont(fontPath, BaseFont.HELVETICA);
+            bold = loadFont(boldFontPath.isBlank() ? fontPath : boldFontPath, BaseFont.HELVETICA_BOLD);
+            ticketTemplate = renderTicketTemplate();
+            reportTemplate = renderReportTemplate();
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("Failed to prepare PDF fonts and templates: " + e.getMessage(), e);
+        }
+        cellFont = new Font(regular, 8);
+        headerFont = new Font(bold, 8);
+        titleFont = new Font(bold, 12);
+        subtitleFont = new Font(regular, 9);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        mailExecutor.shutdown();
+    }
+
+    /**
+     * Runs the task on the PDF workers. The future fails with a
+     * {@link RejectedExecutionException} when their queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, workers);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Loads what a booking's ticket PDF shows, issuing the tickets first if
+     * that failed at payment time. Returns null for an unknown booking.
+     */
+    public TicketSheet loadTicketSheet(Integer bookingId) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Booking booking = bookingRepository.findById(bookingId).orElse(null);
+            if (booking == null) {
+                return null;
+            }
+            Map<Integer, Seat> seats = new HashMap<>();
+            if (booking.getSeats() != null) {
+                booking.getSeats().forEach(seat -> seats.put(seat.getSeatId(), seat));
+            }
+            TicketSheet sheet = new TicketSheet();
+            sheet.bookingId = booking.getBookingId();
+            sheet.status = booking.getStatus();
+            sheet.email = booking.getUser().getEmail();
+            sheet.movieTitle = booking.getShowtime().getMovie().getTitle();
+            sheet.hallName = booking.getShowtime().getCinemaHall().getName();
+            sheet.startTime = booking.getShowtime().getStartTime();
+            for (Ticket ticket : ticketService.getTickets(booking)) {
+                Seat seat = seats.get(ticket.getSeatId());
+                String label = seat != null ? "Row " + seat.getRow() + ", Seat " + seat.getNumber() : "Seat " + ticket.getSeatId();
+                sheet.tickets.add(new TicketLine(ticket.getTicketId(), ticket.getCode(), label));
+            }
+            sheet.tickets.sort(Comparator.comparing(line -> line.ticketId));
+            return sheet;
+        });
+    }
+
+    /**
+     * The booking's tickets as one PDF, a page per ticket. Served from the
+     * cache when possible, otherwise rendered on the PDF workers.
+     */
+    public CompletableFuture<byte[]> renderTickets(TicketSheet sheet) {
+        if (!sheet.hasTickets()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Booking has no valid tickets"));
+        }
+        String key = sheet.cacheKey();
+        byte[] cached = cachedTickets(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return submit(() -> {
+            byte[] pdf = renderTicketDocument(sheet);
+            if ("CONFIRMED".equals(sheet.status)) {
+                cacheTickets(key, pdf);
+            }
+            return pdf;
+        });
+    }
+
+    /**
+     * Emails the booking's tickets as a PDF once the current transaction has
+     * committed. Rendering and sending both happen in the background.
+     */
+    public void emailTicketsAfterCommit(Integer bookingId) {
+        if (!emailTickets) {
+            return;
+        }
+        Runnable send = () -> submit(() -> loadTicketSheet(bookingId))
+                .thenCompose(sheet -> sheet != null ? renderTickets(sheet).thenApply(pdf -> Map.entry(sheet, pdf))
+                        : CompletableFuture.failedFuture(new RuntimeException("Booking not found")))
+                .thenAcceptAsync(rendered -> {
+                    TicketSheet sheet = rendered.getKey();
+                    emailService.sendTickets(sheet.email, sheet.bookingId.toString(), sheet.movieTitle,
+                            sheet.startTime.format(SHOWTIME_FORMAT), rendered.getValue());
+                }, mailExecutor)
+                .exceptionally(e -> {
+                    log.warn("Failed to email tickets for booking {}: {}", bookingId, e.getMessage());
+                    return null;
+                });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+
+    byte[] renderTicketDocument(TicketSheet sheet) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sheet.tickets.size() * 8 * 1024);
+        Document document = new Document(TICKET_PAGE, 0, 0, 0, 0);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setFullCompression();
+            document.open();
+            PdfReader reader = new PdfReader(ticketTemplate);
+            // Written to the file once and drawn by every page
+            PdfImportedPage stationery = writer.getImportedPage(reader, 1);
+            Map<EncodeHintType, Object> hints = Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
+            String showtime = sheet.startTime != null ? sheet.startTime.format(SHOWTIME_FORMAT) : "";
+
+            for (TicketLine ticket : sheet.tickets) {
+                document.newPage();
+                PdfContentByte canvas = writer.getDirectContent();
+                canvas.addTemplate(stationery, 0, 0);
+                text(canvas, bold, fitSize(bold, sheet.movieTitle, 14, 9), fit(bold, sheet.movieTitle, 9), 24, 214);
+                text(canvas, regular, 11, fit(regular, sheet.hallName, 11), 24, 166);
+                text(canvas, regular, 11, showtime, 24, 126);
+                text(canvas, bold, 16, ticket.seatLabel, 24, 84);
+                text(canvas, regular, 10, "#" + sheet.bookingId + "  /  Ticket " + ticket.ticketId, 24, 46);
+
+                Image qr = new BarcodeQRCode(ticket.code, 1, 1, hints).getImage();
+                qr.scaleAbsolute(QR_SIZE, QR_SIZE);
+                qr.setAbsolutePosition(TICKET_PAGE.getWidth() - QR_SIZE - 20, 70);
+                canvas.addImage(qr);
+            }
+            document.close();
+            reader.close();
+        } catch (DocumentException | IOException e) {
+            throw new RuntimeException("Failed to render tickets: " + e.getMessage());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes rows as a PDF table on landscape pages, flushing completed pages
+     * to {@code out} as it goes. Runs on the calling thread; callers wanting
+     * the PDF workers go through {@link #submit}. Does not close the stream.
+     */
+    public long writeTable(String title, String subtitle, List<String> headers, Iterator<Object[]> rows,
+                           OutputStream out) throws IOException {
+        Document document = new Document(REPORT_PAGE, 36, 36, 72, 48);
+        PdfReader reader = new PdfReader(reportTemplate);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            // Page streams are still compressed, but not full compression: its object streams are
+            // buffered until close(), which would hold back every page
+            document.open();
+            writer.setPageEvent(new ReportPageEvent(writer.getImportedPage(reader, 1), title, subtitle));
+
+            PdfPTable table = new PdfPTable(headers.size());
+            table.setWidthPercentage(100);
+            table.setHeaderRows(1);
+            // Lets document.add() lay out and release the rows added so far
+            table.setComplete(false);
+            for (String header : headers) {
+                PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
+                cell.setBackgroundColor(HEADER_BACKGROUND);
+                table.addCell(cell);
+            }
+
+            long count = 0;
+            while (rows.hasNext()) {
+                for (Object value : rows.next()) {
+                    PdfPCell cell = new PdfPCell(new Phrase(cellText(value), cellFont));
+                    if (value instanceof Number) {
+                        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+                    }
+                    table.addCell(cell);
+                }
+                if (++count % REPORT_ROWS_PER_FLUSH == 0) {
+                    document.add(table);
+                    // Pushes the pages finished so far out to the client
+                    writer.flush();
+                }
+            }
+            table.setComplete(true);
+            document.add(table);
+            document.close();
+            return count;
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render report: " + e.getMessage(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String cellText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return String.format("%.2f", ((Number) value).doubleValue());
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(CELL_DATE_TIME_FORMAT);
+        }
+        if (value instanceof LocalDate date) {
+            return date.toString();
+        }
+        return value.toString();
+    }
+
+    private synchronized byte[] cachedTickets(String key) {
+        return ticketCache.get(key);
+    }
+
+    private synchronized void cacheTickets(String key, byte[] pdf) {
+        long maxBytes = ticketCacheMb * 1024 * 1024;
+        if (pdf.length > maxBytes) {
+            return;
+        }
+        byte[] previous = ticketCache.put(key, pdf);
+        ticketCacheBytes += pdf.length - (previous != null ? previous.length : 0);
+        Iterator<byte[]> eldest = ticketCache.values().iterator();
+        while (ticketCacheBytes > maxBytes && eldest.hasNext()) {
+            ticketCacheBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private static BaseFont loadFont(String path, String builtIn) throws DocumentException, IOException {
+        if (path == null || path.isBlank()) {
+            return BaseFont.createFont(builtIn, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        }
+        // Embedded as a subset; the parsed font is shared by every document
+        return BaseFont.createFont(path, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+    }
+
+    private byte[] renderTicketTemplate() throws DocumentException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(TICKET_PAGE, 0, 0, 0, 0);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+        PdfContentByte canvas = writer.getDirectContent();
+        float width = TICKET_PAGE.getWidth();
+        float height = TICKET_PAGE.getHeight();
+
+        canvas.setLineWidth(1.5f);
+        canvas.roundRectangle(10, 10, width - 20, height - 20, 8);
+        canvas.stroke();
+        canvas.setLineWidth(0.5f);
+        canvas.moveTo(20, height - 45);
+        canvas.lineTo(width - 20, height - 45);
+        canvas.stroke();
+
+        text(canvas, bold, 16, "FlixMate", 24, height - 35);
+        ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, new Phrase("ADMIT ONE", new Font(bold, 10)),
+                width - 24, height - 33, 0);
+        canvas.setColorFill(LABEL_COLOR);
+        text(canvas, regular, 7, "MOVIE", 24, 232);
+        text(canvas, regular, 7, "SCREEN", 24, 182);
+        text(canvas, regular, 7, "SHOWTIME", 24, 142);
+        text(canvas, regular, 7, "SEAT", 24, 102);
+        text(canvas, regular, 7, "BOOKING", 24, 62);
+        text(canvas, regular, 6, "Present this ticket at the entrance. Valid for one admission only.", 24, 20);
+        document.close();
+        return out.toByteArray();
+    }
+
+    private byte[] renderReportTemplate() throws DocumentException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(REPORT_PAGE);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+        PdfContentByte canvas = writer.getDirectContent();
+        float width = REPORT_PAGE.getWidth();
+        float height = REPORT_PAGE.getHeight();
+
+        text(canvas, bold, 14, "FlixMate", 36, height - 36);
+        canvas.setLineWidth(0.75f);
+        canvas.moveTo(36, height - 60);
+        canvas.lineTo(width - 36, height - 60);
+        canvas.moveTo(36, 36);
+        canvas.lineTo(width - 36, 36);
+        canvas.stroke();
+        document.close();
+        return out.toByteArray();
+    }
+
+    private static void text(PdfContentByte canvas, BaseFont font, float size, String value, float x, float y) {
+        canvas.beginText();
+        canvas.setFontAndSize(font, size);
+        canvas.setTextMatrix(x, y);
+        canvas.showText(value != null ? value : "");
+        canvas.endText();
+    }
+
+    // Largest size from max down to min at which the text fits the ticket's text column
+    private static float fitSize(BaseFont font, String value, float max, float min) {
+        float size = max;
+        while (size > min && font.getWidthPoint(value != null ? value : "", size) > TICKET_TEXT_WIDTH) {
+            size -= 0.5f;
+        }
+        return size;
+    }
+
+    // The text, cut short with an ellipsis if it is too wide even at the given size
+    private static String fit(BaseFont font, String value, float size) {
+        if (value == null || font.getWidthPoint(value, size) <= TICKET_TEXT_WIDTH) {
+            return value;
+        }
+        String text = value;
+        while (!text.isEmpty() && font.getWidthPoint(text + "...", size) > TICKET_TEXT_WIDTH) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return text + "...";
+    }
+
+    /** Draws the preloaded report template, the report's title and the page number on every page. */
+    private class ReportPageEvent extends PdfPageEventHelper {
+        private final PdfImportedPage template;
+        private final String title;
+        private final String subtitle;
+
+        ReportPageEvent(PdfImportedPage template, String title, String subtitle) {
+            this.template = template;
+            this.title = title;
+            this.subtitle = subtitle;
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            PdfContentByte canvas = writer.getDirectContentUnder();
+            canvas.addTemplate(template, 0, 0);
+            float width = REPORT_PAGE.getWidth();
+            float height = REPORT_PAGE.getHeight();
+            ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, new Phrase(title, titleFont),
+                    width - 36, height - 36, 0);
+            ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, new Phrase(subtitle, subtitleFont),
+                    width - 36, height - 52, 0);
+            ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, new Phrase("Page " + writer.getPageNumber(), cellFont),
+                    width - 36, 24, 0);
+        }
+    }
+
+    /** What a booking's ticket PDF shows. */
+    public static class TicketSheet {
+        Integer bookingId;
+        String status;
+        String email;
+        String movieTitle;
+        String hallName;
+        LocalDateTime startTime;
+        final List<TicketLine> tickets = new ArrayList<>();
+
+        // Changes whenever the PDF would: tickets voided or reissued, or the showtime moved
+        String cacheKey() {
+            return bookingId + "@" + startTime + ":"
+                    + tickets.stream().map(line -> String.valueOf(line.ticketId)).collect(Collectors.joining(","));
+        }
+
+        public boolean hasTickets() { return !tickets.isEmpty(); }
+    }
+
+    static class TicketLine {
+        final Integer ticketId;
+        final String code;
+        final String seatLabel;
+
+        TicketLine(Integer ticketId, String code, String seatLabel) {
+            this.ticketId = ticketId;
+            this.code = code;
+            this.seatLabel = seatLabel;
+        }
+    }
+}
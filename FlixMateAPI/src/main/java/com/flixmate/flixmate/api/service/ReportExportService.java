@@ -0,0 +1,253 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.repository.BookingRepository;
+import com.flixmate.flixmate.api.repository.PaymentRepository;
+import com.flixmate.flixmate.api.repository.SalesDailyRollupRepository;
+import com.flixmate.flixmate.api.util.CsvWriter;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Streams booking, payment and sales exports as CSV, XLSX or PDF straight
+ * to an output stream. Rows are read through a forward-only cursor as scalar
+ * projections, so no entities pile up in the persistence context. Each row
+ * is written as soon as it is read: CSV goes through a small buffered
+ * writer, and XLSX goes through POI's streaming workbook, which keeps only
+ * a window of rows in memory and spills the rest to a compressed temp file.
+ * PDF pages are written out as soon as they are full.
+ * Memory use therefore does not grow with the size of the export.
+ */
+@Service
+public class ReportExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportExportService.class);
+
+    public static final String BOOKINGS = "bookings";
+    public static final String PAYMENTS = "payments";
+    public static final String SALES = "sales";
+
+    public static final String CSV = "csv";
+    public static final String XLSX = "xlsx";
+    public static final String PDF = "pdf";
+
+    private static final int XLSX_MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository salesDailyRollupRepository;
+
+    @Autowired
+    private PdfRenderService pdfRenderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flixmate.reports.export.xlsx-window-rows:100}")
+    private int xlsxWindowRows;
+
+    @Value("${flixmate.reports.export.max-days:400}")
+    private int maxDays;
+
+    /**
+     * Checks an export request before any output is written, so errors can
+     * still be reported with a proper status.
+     */
+    public void validate(String type, String format, LocalDate from, LocalDate to) {
+        headers(type);
+        contentType(format);
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Export range ends before it starts");
+        }
+        if (from.plusDays(maxDays).isBefore(to)) {
+            throw new RuntimeException("Export range cannot exceed " + maxDays + " days");
+        }
+    }
+
+    public String contentType(String format) {
+        if (CSV.equals(format)) {
+            return "text/csv; charset=UTF-8";
+        } else if (XLSX.equals(format)) {
+            return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+        } else if (PDF.equals(format)) {
+            return "application/pdf";
+        }
+        throw new RuntimeException("Unsupported export format: " + format);
+    }
+
+    public String fileName(String type, String format, LocalDate from, LocalDate to) {
+        return type + "-" + from + "-to-" + to + "." + format;
+    }
+
+    /**
+     * Writes the export for the days from {@code from} to {@code to}, both
+     * inclusive. Does not close the output stream. PDFs are rendered on the
+     * PDF workers while the calling thread waits.
+     */
+    public void export(String type, String format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        validate(type, format, from, to);
+        long started = System.currentTimeMillis();
+        try {
+            long rows = PDF.equals(format)
+                    ? pdfRenderService.submit(() -> write(type, format, from, to, out)).join()
+                    : write(type, format, from, to, out);
+            log.info("Exported {} {} rows as {} in {} ms", rows, type, format, System.currentTimeMillis() - started);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw cause instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException(cause);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long write(String type, String format, LocalDate from, LocalDate to, OutputStream out) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            try (Stream<Object[]> stream = rows(type, from, to)) {
+                switch (format) {
+                    case XLSX: return writeXlsx(type, headers(type), stream.iterator(), out);
+                    case PDF: return pdfRenderService.writeTable(title(type), from + " to " + to, headers(type), stream.iterator(), out);
+                    default: return writeCsv(headers(type), stream.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String title(String type) {
+        return Character.toUpperCase(type.charAt(0)) + type.substring(1) + " report";
+    }
+
+    private Stream<Object[]> rows(String type, LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        switch (type) {
+            case BOOKINGS: return bookingRepository.streamForExport(start, end);
+            case PAYMENTS: return paymentRepository.streamForExport(start, end);
+            case SALES: return salesDailyRollupRepository.streamForExport(from, to);
+            default: throw new RuntimeException("Unsupported export type: " + type);
+        }
+    }
+
+    private static List<String> headers(String type) {
+        switch (type) {
+            case BOOKINGS:
+                return List.of("Booking ID", "Booking Date", "Customer Email", "Movie", "Hall", "Showtime",
+                        "Seats", "Total Amount", "Status");
+            case PAYMENTS:
+                return List.of("Payment ID", "Transaction ID", "Payment Date", "Booking ID", "Method", "Amount",
+                        "Status", "Refunded", "Refund Date");
+            case SALES:
+                return List.of("Date", "Movie", "Hall", "Revenue", "Refunded", "Tickets", "Bookings");
+            default:
+                throw new RuntimeException("Unsupported export type: " + type);
+        }
+    }
+
+    private static long writeCsv(List<String> headers, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        // Not closed: closing would close the response stream, which belongs to the caller
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024));
+        csv.writeRow(headers.toArray());
+        long count = 0;
+        while (rows.hasNext()) {
+            csv.writeRow(rows.next());
+            count++;
+        }
+        csv.flush();
+        return count;
+    }
+
+    private long writeXlsx(String type, List<String> headers, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(xlsxWindowRows);
+        workbook.setCompressTempFiles(true);
+        try {
+            // Styles belong to the workbook; one per kind, never one per cell
+            CellStyle dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+
+            int sheetNumber = 1;
+            SXSSFSheet sheet = newSheet(workbook, type, sheetNumber, headers);
+            long count = 0;
+            while (rows.hasNext()) {
+                // A sheet holds about a million rows; carry on in the next one
+                if (sheet.getLastRowNum() + 1 >= XLSX_MAX_ROWS) {
+                    sheet = newSheet(workbook, type, ++sheetNumber, headers);
+                }
+                Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+                Object[] values = rows.next();
+                for (int i = 0; i < values.length; i++) {
+                    setCell(row.createCell(i), values[i], dateTimeStyle, dateStyle);
+                }
+                count++;
+            }
+            workbook.write(out);
+            out.flush();
+            return count;
+        } finally {
+            // Deletes the temp files holding the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static SXSSFSheet newSheet(SXSSFWorkbook workbook, String type, int number, List<String> headers) {
+        SXSSFSheet sheet = workbook.createSheet(number == 1 ? type : type + " " + number);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); i++) {
+            header.createCell(i).setCellValue(headers.get(i));
+        }
+        return sheet;
+    }
+
+    private static void setCell(Cell cell, Object value, CellStyle dateTimeStyle, CellStyle dateStyle) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else if (value instanceof LocalDateTime dateTime) {
+            cell.setCellValue(dateTime);
+            cell.setCellStyle(dateTimeStyle);
+        } else if (value instanceof LocalDate date) {
+            cell.setCellValue(date);
+            cell.setCellStyle(dateStyle);
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+}
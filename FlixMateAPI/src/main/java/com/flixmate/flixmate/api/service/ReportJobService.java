@@ -0,0 +1,182 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Report;
+import com.flixmate.flixmate.api.model.ReportJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs admin reports in the background. A submission returns a job at once;
+ * the report is built on a small bounded pool, so heavy reports use at most
+ * {@code flixmate.reports.jobs.threads} database connections and never run
+ * on request threads that customers are waiting on.
+ * <ul>
+ *   <li>A report of the same type and parameters generated within the cache
+ *       TTL is returned as a finished job without running anything.</li>
+ *   <li>Submissions equal to a job that is still queued or running get that
+ *       job, so repeated "refresh" clicks share one execution.</li>
+ *   <li>When the queue is full, submissions are rejected rather than piling
+ *       up behind slow reports.</li>
+ * </ul>
+ * Jobs live in memory and are forgotten {@code retention-minutes} after they
+ * finish; the reports they produced are stored as usual.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Value("${flixmate.reports.jobs.threads:2}")
+    private int threadCount;
+
+    @Value("${flixmate.reports.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${flixmate.reports.jobs.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Value("${flixmate.reports.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // Queued or running jobs by report type and parameters
+    private final Map<String, ReportJob> activeJobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submits a report.
+     *
+     * @return a COMPLETED job when a fresh report was cached, otherwise the
+     *         queued or running job producing it
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public ReportJob submit(String email, String type, Map<String, String> params) {
+        String reportType = type.toUpperCase();
+        Map<String, String> normalized = reportService.normalizeParams(reportType, params);
+
+        Report cached = findFresh(reportType, normalized);
+        if (cached != null) {
+            ReportJob job = newJob(reportType, normalized);
+            finish(job, cached, true);
+            jobs.put(job.getJobId(), job);
+            return job;
+        }
+
+        String key = reportType + "?" + ReportService.paramsKey(normalized);
+        ReportJob[] created = new ReportJob[1];
+        ReportJob job = activeJobs.computeIfAbsent(key, k -> created[0] = newJob(reportType, normalized));
+        if (created[0] == null) {
+            log.debug("Report {} already in progress as job {}", key, job.getJobId());
+            return job;
+        }
+
+        jobs.put(job.getJobId(), job);
+        try {
+            executor.execute(() -> run(job, key, email));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(key, job);
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+        return job;
+    }
+
+    public ReportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    @Scheduled(fixedDelayString = "${flixmate.reports.jobs.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private void run(ReportJob job, String key, String email) {
+        job.setStatus(RUNNING);
+        try {
+            // An equal job may have finished between the submitter's cache check and this one being queued
+            Report report = findFresh(job.getType(), job.getParams());
+            boolean cached = report != null;
+            if (!cached) {
+                long started = System.currentTimeMillis();
+                report = reportService.generateReport(email, job.getType(), job.getParams(), job::setProgress);
+                log.info("Report job {} ({}) finished in {} ms", job.getJobId(), key, System.currentTimeMillis() - started);
+            }
+            finish(job, report, cached);
+        } catch (Exception e) {
+            log.warn("Report job {} ({}) failed: {}", job.getJobId(), key, e.getMessage());
+            job.setError(e.getMessage());
+            job.setFinishedAt(LocalDateTime.now());
+            job.setStatus(FAILED);
+        } finally {
+            // Only after the report is stored, so later submissions find it in the cache
+            activeJobs.remove(key, job);
+            job.whenFinished().complete(job);
+        }
+    }
+
+    private Report findFresh(String type, Map<String, String> params) {
+        return reportService.findCachedReport(type, params, LocalDateTime.now().minusSeconds(cacheTtlSeconds));
+    }
+
+    private static ReportJob newJob(String type, Map<String, String> params) {
+        ReportJob job = new ReportJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setParams(params);
+        job.setStatus(QUEUED);
+        job.setSubmittedAt(LocalDateTime.now());
+        return job;
+    }
+
+    private static void finish(ReportJob job, Report report, boolean cached) {
+        job.setReportId(report.getReportId());
+        job.setCached(cached);
+        job.setProgress(100);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setStatus(COMPLETED);
+        job.whenFinished().complete(job);
+    }
+}
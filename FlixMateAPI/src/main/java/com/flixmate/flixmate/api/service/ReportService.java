@@ -9,13 +9,28 @@ import com.flixmate.flixmate.api.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    // Parameters each report type takes; anything else is ignored so it cannot defeat the result cache
+    private static final Map<String, List<String>> REPORT_PARAMS = Map.of(
+            "REVENUE", List.of(),
+            "POPULARITY", List.of(),
+            "TICKET_SALES", List.of(),
+            "DAILY_SALES", List.of("date"),
+            "MONTHLY_SALES", List.of("year", "month"),
+            "MOVIE_PERFORMANCE", List.of(),
+            "USER_ACTIVITY", List.of());
+
     @Autowired
     private ReportRepository reportRepository;
 
@@ -28,35 +43,21 @@ public class ReportService {
     public Report generateRevenueReport(String email) {
         User admin = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        List<Booking> bookings = bookingRepository.findAll();
-        Double totalRevenue = bookings.stream()
-                .filter(b -> "PAID".equals(b.getStatus()))
-                .mapToDouble(Booking::getTotalAmount)
-                .sum();
-        String data = "{\"totalRevenue\": " + totalRevenue + "}";
-        Report report = new Report("REVENUE", data, LocalDateTime.now(), admin);
+        Report report = new Report("REVENUE", buildRevenueData(), LocalDateTime.now(), admin);
         return reportRepository.save(report);
     }
 
     public Report generatePopularityReport(String email) {
         User admin = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        // Mock popularity (e.g., count bookings per movie)
-        String data = "{\"popularMovie\": \"Inception\", \"bookingCount\": 5}";
-        Report report = new Report("POPULARITY", data, LocalDateTime.now(), admin);
+        Report report = new Report("POPULARITY", buildPopularityData(), LocalDateTime.now(), admin);
         return reportRepository.save(report);
     }
 
     public Report generateTicketSalesReport(String email) {
         User admin = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        List<Booking> bookings = bookingRepository.findAll();
-        Long totalTickets = bookings.stream()
-                .filter(b -> "PAID".equals(b.getStatus()))
-                .mapToLong(Booking::getTotalSeats)
-                .sum();
-        String data = "{\"totalTickets\": " + totalTickets + "}";
-        Report report = new Report("TICKET_SALES", data, LocalDateTime.now(), admin);
+        Report report = new Report("TICKET_SALES", buildTicketSalesData(), LocalDateTime.now(), admin);
         return reportRepository.save(report);
     }
 
@@ -99,19 +100,7 @@ public class ReportService {
             User admin = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
-            LocalDateTime startDate = LocalDateTime.parse(date + "T00:00:00");
-            LocalDateTime endDate = startDate.plusDays(1);
-            
-            List<Booking> dailyBookings = bookingRepository.findByBookingDateBetween(startDate, endDate);
-            Double dailyRevenue = dailyBookings.stream()
-                    .filter(b -> "CONFIRMED".equals(b.getStatus()))
-                    .mapToDouble(Booking::getTotalAmount)
-                    .sum();
-            
-            String data = String.format("{\"date\": \"%s\", \"totalRevenue\": %f, \"totalBookings\": %d}", 
-                    date, dailyRevenue, dailyBookings.size());
-            
-            Report report = new Report("DAILY_SALES", data, LocalDateTime.now(), admin);
+            Report report = new Report("DAILY_SALES", buildDailySalesData(date), LocalDateTime.now(), admin);
             return reportRepository.save(report);
         } catch (Exception e) {
             System.err.println("Error generating daily sales report: " + e.getMessage());
@@ -124,19 +113,7 @@ public class ReportService {
             User admin = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
-            LocalDateTime startDate = LocalDateTime.of(year, month, 1, 0, 0);
-            LocalDateTime endDate = startDate.plusMonths(1);
-            
-            List<Booking> monthlyBookings = bookingRepository.findByBookingDateBetween(startDate, endDate);
-            Double monthlyRevenue = monthlyBookings.stream()
-                    .filter(b -> "CONFIRMED".equals(b.getStatus()))
-                    .mapToDouble(Booking::getTotalAmount)
-                    .sum();
-            
-            String data = String.format("{\"year\": %d, \"month\": %d, \"totalRevenue\": %f, \"totalBookings\": %d}", 
-                    year, month, monthlyRevenue, monthlyBookings.size());
-            
-            Report report = new Report("MONTHLY_SALES", data, LocalDateTime.now(), admin);
+            Report report = new Report("MONTHLY_SALES", buildMonthlyData(year, month), LocalDateTime.now(), admin);
             return reportRepository.save(report);
         } catch (Exception e) {
             System.err.println("Error generating monthly report: " + e.getMessage());
@@ -149,16 +126,7 @@ public class ReportService {
             User admin = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
-            List<Booking> allBookings = bookingRepository.findAll();
-            Map<String, Double> movieStats = allBookings.stream()
-                    .filter(b -> "CONFIRMED".equals(b.getStatus()))
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            b -> b.getShowtime().getMovie().getTitle(),
-                            java.util.stream.Collectors.summingDouble(Booking::getTotalAmount)
-                    ));
-            
-            String data = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(movieStats);
-            Report report = new Report("MOVIE_PERFORMANCE", data, LocalDateTime.now(), admin);
+            Report report = new Report("MOVIE_PERFORMANCE", buildMoviePerformanceData(), LocalDateTime.now(), admin);
             return reportRepository.save(report);
         } catch (Exception e) {
             System.err.println("Error generating movie performance report: " + e.getMessage());
@@ -171,22 +139,155 @@ public class ReportService {
             User admin = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
-            List<Booking> allBookings = bookingRepository.findAll();
-            long totalUsers = allBookings.stream()
-                    .map(Booking::getUser)
-                    .distinct()
-                    .count();
-            
-            double avgBookingsPerUser = totalUsers > 0 ? (double) allBookings.size() / totalUsers : 0;
-            
-            String data = String.format("{\"totalUsers\": %d, \"totalBookings\": %d, \"avgBookingsPerUser\": %f}", 
-                    totalUsers, allBookings.size(), avgBookingsPerUser);
-            
-            Report report = new Report("USER_ACTIVITY", data, LocalDateTime.now(), admin);
+            Report report = new Report("USER_ACTIVITY", buildUserActivityData(), LocalDateTime.now(), admin);
             return reportRepository.save(report);
         } catch (Exception e) {
             System.err.println("Error generating user activity report: " + e.getMessage());
             throw new RuntimeException("Failed to generate user activity report: " + e.getMessage());
         }
     }
+
+    /**
+     * Validates the parameters of a report request and returns only those
+     * the type uses, sorted by name, so equal requests compare equal.
+     */
+    public Map<String, String> normalizeParams(String type, Map<String, String> params) {
+        List<String> names = REPORT_PARAMS.get(type);
+        if (names == null) {
+            throw new RuntimeException("Invalid report type: " + type);
+        }
+        Map<String, String> normalized = new TreeMap<>();
+        for (String name : names) {
+            String value = params.get(name);
+            if (value == null || value.isBlank()) {
+                throw new RuntimeException("Missing report parameter: " + name);
+            }
+            normalized.put(name, value.trim());
+        }
+        try {
+            if (normalized.containsKey("date")) {
+                normalized.put("date", LocalDate.parse(normalized.get("date")).toString());
+            }
+            if (normalized.containsKey("month")) {
+                LocalDate.of(Integer.parseInt(normalized.get("year")), Integer.parseInt(normalized.get("month")), 1);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid report parameters: " + e.getMessage());
+        }
+        return normalized;
+    }
+
+    public static String paramsKey(Map<String, String> params) {
+        return params.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * The newest report of this type and parameters generated after the given
+     * time, or null.
+     */
+    public Report findCachedReport(String type, Map<String, String> params, LocalDateTime after) {
+        return reportRepository
+                .findFirstByTypeAndParamsAndGeneratedDateAfterOrderByGeneratedDateDesc(type, paramsKey(params), after)
+                .orElse(null);
+    }
+
+    /**
+     * Builds and stores a report for a job. Parameters must have been through
+     * {@link #normalizeParams}; they are stored with the report so later
+     * requests can reuse it.
+     */
+    public Report generateReport(String email, String type, Map<String, String> params, IntConsumer progress) {
+        User admin = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        progress.accept(10);
+
+        String data;
+        switch (type) {
+            case "REVENUE": data = buildRevenueData(); break;
+            case "POPULARITY": data = buildPopularityData(); break;
+            case "TICKET_SALES": data = buildTicketSalesData(); break;
+            case "DAILY_SALES": data = buildDailySalesData(params.get("date")); break;
+            case "MONTHLY_SALES":
+                data = buildMonthlyData(Integer.parseInt(params.get("year")), Integer.parseInt(params.get("month")));
+                break;
+            case "MOVIE_PERFORMANCE": data = buildMoviePerformanceData(); break;
+            case "USER_ACTIVITY": data = buildUserActivityData(); break;
+            default: throw new RuntimeException("Invalid report type: " + type);
+        }
+        progress.accept(90);
+
+        Report report = new Report(type, data, LocalDateTime.now(), admin);
+        report.setParams(paramsKey(params));
+        report = reportRepository.save(report);
+        progress.accept(100);
+        return report;
+    }
+
+    private String buildRevenueData() {
+        Double totalRevenue = bookingRepository.sumTotalAmountByStatus("PAID");
+        return "{\"totalRevenue\": " + totalRevenue + "}";
+    }
+
+    private String buildPopularityData() {
+        // Mock popularity (e.g., count bookings per movie)
+        return "{\"popularMovie\": \"Inception\", \"bookingCount\": 5}";
+    }
+
+    private String buildTicketSalesData() {
+        Long totalTickets = bookingRepository.sumTotalSeatsByStatus("PAID");
+        return "{\"totalTickets\": " + totalTickets + "}";
+    }
+
+    private String buildDailySalesData(String date) {
+        LocalDateTime startDate = LocalDateTime.parse(date + "T00:00:00");
+        LocalDateTime endDate = startDate.plusDays(1);
+
+        List<Booking> dailyBookings = bookingRepository.findByBookingDateBetween(startDate, endDate);
+        Double dailyRevenue = dailyBookings.stream()
+                .filter(b -> "CONFIRMED".equals(b.getStatus()))
+                .mapToDouble(Booking::getTotalAmount)
+                .sum();
+
+        return String.format("{\"date\": \"%s\", \"totalRevenue\": %f, \"totalBookings\": %d}",
+                date, dailyRevenue, dailyBookings.size());
+    }
+
+    private String buildMonthlyData(int year, int month) {
+        LocalDateTime startDate = LocalDateTime.of(year, month, 1, 0, 0);
+        LocalDateTime endDate = startDate.plusMonths(1);
+
+        List<Booking> monthlyBookings = bookingRepository.findByBookingDateBetween(startDate, endDate);
+        Double monthlyRevenue = monthlyBookings.stream()
+                .filter(b -> "CONFIRMED".equals(b.getStatus()))
+                .mapToDouble(Booking::getTotalAmount)
+                .sum();
+
+        return String.format("{\"year\": %d, \"month\": %d, \"totalRevenue\": %f, \"totalBookings\": %d}",
+                year, month, monthlyRevenue, monthlyBookings.size());
+    }
+
+    private String buildMoviePerformanceData() {
+        // Summed per movie in the database rather than loading every booking with its showtime and movie
+        Map<String, Double> movieStats = new LinkedHashMap<>();
+        for (Object[] row : bookingRepository.sumTotalAmountByMovieTitle("CONFIRMED")) {
+            movieStats.put((String) row[0], ((Number) row[1]).doubleValue());
+        }
+        try {
+            return new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(movieStats);
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private String buildUserActivityData() {
+        long totalUsers = bookingRepository.countDistinctUsers();
+        long totalBookings = bookingRepository.count();
+
+        double avgBookingsPerUser = totalUsers > 0 ? (double) totalBookings / totalUsers : 0;
+
+        return String.format("{\"totalUsers\": %d, \"totalBookings\": %d, \"avgBookingsPerUser\": %f}",
+                totalUsers, totalBookings, avgBookingsPerUser);
+    }
 }
@@ -0,0 +1,278 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.SalesDailyRollup;
+import com.flixmate.flixmate.api.entity.SalesHourlyRollup;
+import com.flixmate.flixmate.api.model.PaymentChange;
+import com.flixmate.flixmate.api.repository.BookingRepository;
+import com.flixmate.flixmate.api.repository.PaymentRepository;
+import com.flixmate.flixmate.api.repository.SalesDailyRollupRepository;
+import com.flixmate.flixmate.api.repository.SalesHourlyRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the hourly and daily sales rollups that back the admin reports.
+ *
+ * A payment counts as a sale while it is SUCCESS or REFUNDED: its amount is
+ * revenue, its refund amount is refunded, and its booking adds one booking
+ * and its seats as tickets, all in the hour the payment was made. Every
+ * committed {@link PaymentChange} adds the difference between the payment's
+ * old and new contribution to the rows for its movie, hall, hour and day.
+ *
+ * Updates are applied on one background thread, off the booking path. The
+ * backfill rebuilds whole days from the payments table, one transaction per
+ * day; it runs on the same thread so it never interleaves with incremental
+ * updates. It seeds empty rollups at startup and re-runs nightly over the
+ * last few days, which also picks up changes the incremental path cannot
+ * see, such as seats cancelled from a booking after it was paid.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    static final List<String> SOLD_STATUSES = List.of("SUCCESS", "REFUNDED");
+
+    @Autowired
+    private SalesHourlyRollupRepository hourlyRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository dailyRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flixmate.reports.rollup.backfill-page-size:1000}")
+    private int backfillPageSize;
+
+    @Value("${flixmate.reports.rollup.reconcile-days:2}")
+    private int reconcileDays;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sales-rollup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChange(PaymentChange change) {
+        if (change.getPaymentDate() == null || change.getBookingId() == null) {
+            return;
+        }
+        Sale before = Sale.of(change.getOldStatus(), change.getOldAmount(), change.getOldRefundAmount());
+        Sale after = Sale.of(change.getNewStatus(), change.getNewAmount(), change.getNewRefundAmount());
+        if (before.equals(after)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                apply(change.getBookingId(), change.getPaymentDate(), before, after);
+            } catch (RuntimeException e) {
+                // The nightly backfill rebuilds the day
+                log.warn("Failed to update sales rollups for payment {}: {}", change.getPaymentId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the rollups of every day from {@code from} to {@code to}, both
+     * inclusive, from the payments table.
+     *
+     * @return completes once every day is rebuilt
+     */
+    public CompletableFuture<Void> backfill(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Backfill range ends before it starts");
+        }
+        return CompletableFuture.runAsync(() -> {
+            log.info("Rebuilding sales rollups from {} to {}", from, to);
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                rebuildDay(day);
+            }
+            log.info("Rebuilt sales rollups from {} to {}", from, to);
+        }, executor);
+    }
+
+    /**
+     * Completes once every rollup update queued so far has been applied.
+     */
+    public CompletableFuture<Void> whenIdle() {
+        return CompletableFuture.runAsync(() -> { }, executor);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (hourlyRepository.count() > 0) {
+            return;
+        }
+        paymentRepository.findFirstByOrderByPaymentIdAsc()
+                .filter(first -> first.getPaymentDate() != null)
+                .ifPresent(first -> backfill(first.getPaymentDate().toLocalDate(), LocalDate.now()));
+    }
+
+    @Scheduled(cron = "${flixmate.reports.rollup.reconcile-cron:0 30 3 * * *}")
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        backfill(today.minusDays(reconcileDays), today);
+    }
+
+    private void apply(Integer bookingId, LocalDateTime paymentDate, Sale before, Sale after) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Object[]> keys = bookingRepository.findSalesKey(bookingId);
+            if (keys.isEmpty()) {
+                return;
+            }
+            Object[] key = keys.get(0);
+            int seats = key[2] != null ? ((Number) key[2]).intValue() : 0;
+            add(paymentDate.truncatedTo(ChronoUnit.HOURS), (Integer) key[0], (Integer) key[1],
+                    after.revenue - before.revenue, after.refunded - before.refunded,
+                    (after.sold - before.sold) * seats, after.sold - before.sold);
+        });
+    }
+
+    private void add(LocalDateTime hour, Integer movieId, Integer hallId,
+                     double revenue, double refunded, int tickets, int bookings) {
+        if (hourlyRepository.increment(hour, movieId, hallId, revenue, refunded, tickets, bookings) == 0) {
+            hourlyRepository.save(new SalesHourlyRollup(hour, movieId, hallId, revenue, refunded, tickets, bookings));
+        }
+        LocalDate day = hour.toLocalDate();
+        if (dailyRepository.increment(day, movieId, hallId, revenue, refunded, tickets, bookings) == 0) {
+            dailyRepository.save(new SalesDailyRollup(day, movieId, hallId, revenue, refunded, tickets, bookings));
+        }
+    }
+
+    private void rebuildDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            hourlyRepository.deleteByBucketHourRange(from, to);
+            dailyRepository.deleteBySalesDate(day);
+
+            Map<RollupKey, SalesHourlyRollup> hours = new HashMap<>();
+            Integer afterPaymentId = 0;
+            List<Object[]> page;
+            do {
+                page = paymentRepository.findSalesPage(from, to, SOLD_STATUSES, afterPaymentId,
+                        PageRequest.of(0, backfillPageSize));
+                for (Object[] row : page) {
+                    afterPaymentId = (Integer) row[0];
+                    LocalDateTime hour = ((LocalDateTime) row[1]).truncatedTo(ChronoUnit.HOURS);
+                    SalesHourlyRollup rollup = hours.computeIfAbsent(new RollupKey(hour, (Integer) row[4], (Integer) row[5]),
+                            k -> new SalesHourlyRollup(k.hour, k.movieId, k.hallId, 0.0, 0.0, 0, 0));
+                    rollup.setRevenue(rollup.getRevenue() + value(row[2]));
+                    rollup.setRefunded(rollup.getRefunded() + value(row[3]));
+                    rollup.setTickets(rollup.getTickets() + (row[6] != null ? ((Number) row[6]).intValue() : 0));
+                    rollup.setBookings(rollup.getBookings() + 1);
+                }
+            } while (page.size() == backfillPageSize);
+
+            Map<RollupKey, SalesDailyRollup> days = new HashMap<>();
+            for (SalesHourlyRollup hour : hours.values()) {
+                SalesDailyRollup daily = days.computeIfAbsent(new RollupKey(from, hour.getMovieId(), hour.getHallId()),
+                        k -> new SalesDailyRollup(day, k.movieId, k.hallId, 0.0, 0.0, 0, 0));
+                daily.setRevenue(daily.getRevenue() + hour.getRevenue());
+                daily.setRefunded(daily.getRefunded() + hour.getRefunded());
+                daily.setTickets(daily.getTickets() + hour.getTickets());
+                daily.setBookings(daily.getBookings() + hour.getBookings());
+            }
+            hourlyRepository.saveAll(new ArrayList<>(hours.values()));
+            dailyRepository.saveAll(new ArrayList<>(days.values()));
+        });
+    }
+
+    private static double value(Object amount) {
+        return amount != null ? ((Number) amount).doubleValue() : 0.0;
+    }
+
+    /**
+     * What one payment contributes to the rollups in a given state.
+     */
+    private static final class Sale {
+        private static final Sale NONE = new Sale(0, 0.0, 0.0);
+
+        private final int sold;
+        private final double revenue;
+        private final double refunded;
+
+        private Sale(int sold, double revenue, double refunded) {
+            this.sold = sold;
+            this.revenue = revenue;
+            this.refunded = refunded;
+        }
+
+        static Sale of(String status, Double amount, Double refundAmount) {
+            if (status == null || !SOLD_STATUSES.contains(status)) {
+                return NONE;
+            }
+            return new Sale(1, amount != null ? amount : 0.0, refundAmount != null ? refundAmount : 0.0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Sale other && sold == other.sold
+                    && Double.compare(revenue, other.revenue) == 0 && Double.compare(refunded, other.refunded) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sold, revenue, refunded);
+        }
+    }
+
+    private static final class RollupKey {
+        private final LocalDateTime hour;
+        private final Integer movieId;
+        private final Integer hallId;
+
+        private RollupKey(LocalDateTime hour, Integer movieId, Integer hallId) {
+            this.hour = hour;
+            this.movieId = movieId;
+            this.hallId = hallId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RollupKey other && hour.equals(other.hour)
+                    && Objects.equals(movieId, other.movieId) && Objects.equals(hallId, other.hallId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hour, movieId, hallId);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.repository.BookingRepository;
+import com.flixmate.flixmate.api.util.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Time-limited holds on the seats of unpaid bookings. Each hold is a timeout
+ * on a {@link HashedTimingWheel}; when it fires before payment the booking is
+ * marked EXPIRED and its seats go back on sale. A successful payment converts
+ * the hold into a sale and cancels the timeout.
+ */
+@Service
+public class SeatHoldManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldManager.class);
+
+    public static final String EXPIRED = "EXPIRED";
+    private static final List<String> HELD_STATUSES = List.of("PENDING", "UPDATED", "PAYMENT_FAILED");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flixmate.hold.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${flixmate.hold.tick-millis:1000}")
+    private long tickMillis;
+
+    @Value("${flixmate.hold.wheel-size:512}")
+    private int wheelSize;
+
+    private final ConcurrentHashMap<Integer, Hold> holds = new ConcurrentHashMap<>();
+    private final ExecutorService expiryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seat-hold-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile HashedTimingWheel<Integer> wheel;
+
+    /**
+     * Re-arms holds for bookings that were still unpaid when the application
+     * stopped. Holds that ran out while it was down expire straight away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverHolds() {
+        int recovered = 0;
+        for (String status : HELD_STATUSES) {
+            for (Booking booking : bookingRepository.findByStatus(status)) {
+                schedule(booking.getBookingId(), deadlineOf(booking));
+                recovered++;
+            }
+        }
+        log.info("Recovered {} seat holds", recovered);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (wheel != null) {
+            wheel.stop();
+        }
+        expiryExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts the hold for a newly created booking once its transaction commits.
+     */
+    public void startHold(Booking booking) {
+        startHold(booking, ttlSeconds);
+    }
+
+    /**
+     * Starts a hold with its own length, e.g. the shorter exclusive hold of a
+     * waitlist offer. The deadline is stored on the booking, which the caller's
+     * transaction saves, so restarts and payment retries keep the same length.
+     */
+    public void startHold(Booking booking, long holdSeconds) {
+        Integer bookingId = booking.getBookingId();
+        LocalDateTime created = booking.getBookingDate() != null ? booking.getBookingDate() : LocalDateTime.now();
+        LocalDateTime deadline = created.plusSeconds(holdSeconds);
+        booking.setHoldExpiresAt(deadline);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(bookingId, deadline);
+                }
+            });
+        } else {
+            schedule(bookingId, deadline);
+        }
+    }
+
+    /**
+     * Takes the hold away from the timer so it can no longer expire, e.g. before
+     * charging the customer or when the booking is cancelled.
+     *
+     * @return false if the hold is already expiring; the caller must not proceed
+     */
+    public boolean claimHold(Integer bookingId) {
+        AtomicReference<Hold> claimed = new AtomicReference<>();
+        holds.computeIfPresent(bookingId, (id, hold) -> {
+            if (hold.expiring) {
+                return hold;
+            }
+            claimed.set(hold);
+            return null;
+        });
+        Hold hold = claimed.get();
+        if (hold != null) {
+            hold.timeout.cancel();
+            return true;
+        }
+        return !holds.containsKey(bookingId);
+    }
+
+    /**
+     * Puts a claimed hold back on the timer with its original deadline, e.g.
+     * after a failed payment so the customer can retry until the hold runs out.
+     */
+    public void restoreHold(Booking booking) {
+        schedule(booking.getBookingId(), deadlineOf(booking));
+    }
+
+    /**
+     * Marks the booking's seats as sold after a successful payment.
+     */
+    public void convertToSale(Booking booking) {
+        claimHold(booking.getBookingId());
+        seatInventoryService.markSold(booking.getBookingId());
+        if (booking.getSeats() != null) {
+            seatMapEngine.markSold(booking.getShowtime().getShowtimeId(),
+                    booking.getSeats().stream().map(Seat::getSeatId).toList());
+        }
+    }
+
+    public boolean isHeld(Integer bookingId) {
+        return holds.containsKey(bookingId);
+    }
+
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    private LocalDateTime deadlineOf(Booking booking) {
+        if (booking.getHoldExpiresAt() != null) {
+            return booking.getHoldExpiresAt();
+        }
+        // Bookings held before the deadline was stored get the default length
+        LocalDateTime created = booking.getBookingDate() != null ? booking.getBookingDate() : LocalDateTime.now();
+        return created.plusSeconds(ttlSeconds);
+    }
+
+    private void schedule(Integer bookingId, LocalDateTime deadline) {
+        long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), deadline).toMillis());
+        HashedTimingWheel.Timeout<Integer> timeout = wheel().schedule(bookingId, delayMillis, TimeUnit.MILLISECONDS);
+        Hold previous = holds.put(bookingId, new Hold(timeout, false));
+        if (previous != null) {
+            previous.timeout.cancel();
+        }
+    }
+
+    private HashedTimingWheel<Integer> wheel() {
+        if (wheel == null) {
+            synchronized (this) {
+                if (wheel == null) {
+                    HashedTimingWheel<Integer> created = new HashedTimingWheel<>("seat-hold-timer",
+                            tickMillis, TimeUnit.MILLISECONDS, wheelSize, this::onTimeout);
+                    created.start();
+                    wheel = created;
+                }
+            }
+        }
+        return wheel;
+    }
+
+    private void onTimeout(Integer bookingId) {
+        // Mark the hold as expiring so a concurrent payment cannot claim it any more
+        AtomicReference<Hold> expiring = new AtomicReference<>();
+        holds.computeIfPresent(bookingId, (id, hold) -> {
+            if (hold.expiring || hold.timeout.isCancelled()) {
+                return hold;
+            }
+            Hold marked = new Hold(hold.timeout, true);
+            expiring.set(marked);
+            return marked;
+        });
+        if (expiring.get() != null) {
+            expiryExecutor.execute(() -> expire(bookingId, expiring.get()));
+        }
+    }
+
+    private void expire(Integer bookingId, Hold hold) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Booking booking = bookingRepository.findById(bookingId).orElse(null);
+                if (booking == null || bookingRepository.expireBooking(bookingId, HELD_STATUSES) == 0) {
+                    return;
+                }
+                seatInventoryService.releaseSeats(bookingId);
+                if (booking.getSeats() != null) {
+                    seatMapEngine.releaseSeats(booking.getShowtime().getShowtimeId(),
+                            booking.getSeats().stream().map(Seat::getSeatId).toList());
+                }
+                log.info("Seat hold for booking {} expired, released {} seats", bookingId,
+                        booking.getSeats() != null ? booking.getSeats().size() : 0);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to expire seat hold for booking {}: {}", bookingId, e.getMessage());
+        } finally {
+            holds.remove(bookingId, hold);
+        }
+    }
+
+    private static class Hold {
+        private final HashedTimingWheel.Timeout<Integer> timeout;
+        private final boolean expiring;
+
+        Hold(HashedTimingWheel.Timeout<Integer> timeout, boolean expiring) {
+            this.timeout = timeout;
+            this.expiring = expiring;
+        }
+    }
+}
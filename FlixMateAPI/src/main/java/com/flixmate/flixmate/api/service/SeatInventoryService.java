@@ -0,0 +1,276 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.CinemaHall;
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.entity.ShowTime;
+import com.flixmate.flixmate.api.entity.ShowtimeSeat;
+import com.flixmate.flixmate.api.repository.CinemaHallRepository;
+import com.flixmate.flixmate.api.repository.SeatRepository;
+import com.flixmate.flixmate.api.repository.ShowtimeSeatRepository;
+import com.flixmate.flixmate.api.util.HallLayoutParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Owns the per-showtime seat inventory (showtime x seat state). Booking, update,
+ * cancellation and the admin seat views all read and write seat state through
+ * this service instead of the hall-level {@code Seat.status}.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatInventoryService.class);
+
+    public static final String AVAILABLE = "AVAILABLE";
+    public static final String RESERVED = "RESERVED";
+    public static final String SOLD = "SOLD";
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    /**
+     * Creates the inventory rows for a showtime if they do not exist yet. Showtimes
+     * created before the inventory existed are initialised lazily on first access.
+     * Concurrent first requests are serialised on the hall row, so the rows (and
+     * the hall's seats, if it has none yet) are created exactly once.
+     */
+    @Transactional
+    public void ensureInventory(ShowTime showtime) {
+        if (showtimeSeatRepository.existsByShowtime_ShowtimeId(showtime.getShowtimeId())) {
+            return;
+        }
+        if (showtime.getCinemaHall() == null) {
+            throw new RuntimeException("Showtime has no associated cinema hall");
+        }
+        CinemaHall hall = cinemaHallRepository.lockById(showtime.getCinemaHall().getHallId())
+                .orElseThrow(() -> new RuntimeException("Cinema hall not found"));
+        // Whoever held the lock before us may have created the rows already
+        if (showtimeSeatRepository.existsByShowtime_ShowtimeId(showtime.getShowtimeId())) {
+            return;
+        }
+
+        List<Seat> hallSeats = seatRepository.findByCinemaHall(hall);
+        if (hallSeats.isEmpty()) {
+            log.info("No seats found for hall {}, creating them", hall.getHallId());
+            hallSeats = createSeatsForHall(hall);
+        }
+
+        List<ShowtimeSeat> inventory = new ArrayList<>(hallSeats.size());
+        for (Seat seat : hallSeats) {
+            inventory.add(new ShowtimeSeat(showtime, seat, AVAILABLE));
+        }
+        showtimeSeatRepository.saveAll(inventory);
+        log.info("Initialised seat inventory for showtime {} with {} seats", showtime.getShowtimeId(), inventory.size());
+    }
+
+    @Transactional
+    public List<Seat> getAvailableSeats(ShowTime showtime) {
+        ensureInventory(showtime);
+        return showtimeSeatRepository.findSeatsByShowtimeAndStatus(showtime.getShowtimeId(), AVAILABLE);
+    }
+
+    /**
+     * Returns every seat of the showtime's hall with its status for this showtime.
+     * The returned seats are detached copies so callers can never write the
+     * showtime-specific status back to the hall-level seat row.
+     */
+    @Transactional
+    public List<Seat> getSeatMap(ShowTime showtime) {
+        ensureInventory(showtime);
+        List<Seat> seats = new ArrayList<>();
+        for (ShowtimeSeat row : showtimeSeatRepository.findByShowtime_ShowtimeId(showtime.getShowtimeId())) {
+            Seat source = row.getSeat();
+            Seat copy = new Seat(source.getRow(), source.getNumber(), row.getStatus(), source.getCinemaHall());
+            copy.setSeatId(source.getSeatId());
+            copy.setSeatType(source.getSeatType());
+            copy.setSection(source.getSection());
+            copy.setPosition(source.getPosition());
+            seats.add(copy);
+        }
+        return seats;
+    }
+
+    public long countByStatus(Integer showtimeId, String status) {
+        return showtimeSeatRepository.countByShowtime_ShowtimeIdAndStatus(showtimeId, status);
+    }
+
+    /**
+     * Reserves the given seats of a showtime for a booking with a single
+     * conditional update. If fewer rows change than were requested, some seat
+     * was taken or does not belong to the showtime's hall; the exception rolls
+     * the partial update back with the surrounding transaction.
+     */
+    @Transactional
+    public Set<Seat> reserveSeats(ShowTime showtime, Set<Integer> seatIds, Integer bookingId) {
+        Integer showtimeId = showtime.getShowtimeId();
+        int reserved = showtimeSeatRepository.reserveIfAvailable(showtimeId, seatIds, bookingId);
+        if (reserved == 0 && !showtimeSeatRepository.existsByShowtime_ShowtimeId(showtimeId)) {
+            // Showtime created before per-showtime inventory existed
+            ensureInventory(showtime);
+            reserved = showtimeSeatRepository.reserveIfAvailable(showtimeId, seatIds, bookingId);
+        }
+        if (reserved != seatIds.size()) {
+            throw reservationConflict(showtimeId, seatIds, bookingId);
+        }
+        return new HashSet<>(seatRepository.findAllById(seatIds));
+    }
+
+    private RuntimeException reservationConflict(Integer showtimeId, Set<Integer> seatIds, Integer bookingId) {
+        List<ShowtimeSeat> rows = showtimeSeatRepository.findByShowtimeAndSeatIds(showtimeId, seatIds);
+        Set<Integer> missing = new HashSet<>(seatIds);
+        rows.forEach(row -> missing.remove(row.getSeat().getSeatId()));
+        if (!missing.isEmpty()) {
+            return new RuntimeException("Seat " + missing.iterator().next() + " not found for this showtime");
+        }
+        for (ShowtimeSeat row : rows) {
+            if (!bookingId.equals(row.getBookingId())) {
+                Seat seat = row.getSeat();
+                return new SeatUnavailableException(seat.getSeatId(), "Seat " + seat.getSeatId() + " (Row: " + seat.getRow() + seat.getNumber() + ") is not available");
+            }
+        }
+        return new SeatUnavailableException(null, "One or more selected seats are not available");
+    }
+
+    /**
+     * Changes a booking's seats by touching only the difference: {@code added}
+     * is reserved all-or-nothing like {@link #reserveSeats}, then {@code removed}
+     * is freed. Seats the booking keeps are never released in between.
+     *
+     * @return the added seats
+     */
+    @Transactional
+    public Set<Seat> swapSeats(ShowTime showtime, Integer bookingId, Set<Integer> added, Set<Integer> removed) {
+        Set<Seat> addedSeats = added.isEmpty() ? new HashSet<>() : reserveSeats(showtime, added, bookingId);
+        if (!removed.isEmpty()) {
+            releaseSeats(bookingId, removed);
+        }
+        return addedSeats;
+    }
+
+    @Transactional
+    public int releaseSeats(Integer bookingId) {
+        return showtimeSeatRepository.releaseSeatsForBooking(bookingId);
+    }
+
+    /**
+     * Frees only the given seats of a booking in one statement.
+     *
+     * @return number of seats freed
+     */
+    @Transactional
+    public int releaseSeats(Integer bookingId, Collection<Integer> seatIds) {
+        return showtimeSeatRepository.releaseSeatsForBooking(bookingId, seatIds);
+    }
+
+    @Transactional
+    public int markSold(Integer bookingId) {
+        return showtimeSeatRepository.markSoldForBooking(bookingId);
+    }
+
+    @Transactional
+    public void deleteInventory(Integer showtimeId) {
+        showtimeSeatRepository.deleteByShowtimeId(showtimeId);
+    }
+
+    @Transactional
+    public void deleteInventoryForMovie(Integer movieId) {
+        showtimeSeatRepository.deleteByMovieId(movieId);
+    }
+
+    /**
+     * Sets the hall's layout and rebuilds its seats from it. Once any showtime
+     * has inventory for the hall its seats are kept: the layout must then have
+     * exactly the same rows and seat numbers and only seat types, sections and
+     * positions are updated.
+     *
+     * @throws IllegalArgumentException if the layout is malformed or changes
+     *                                  seats that are already in use
+     */
+    @Transactional
+    public List<Seat> applyHallLayout(CinemaHall cinemaHall, String layout) {
+        List<HallLayoutParser.SeatSpec> specs = HallLayoutParser.parse(layout);
+        List<Seat> existing = seatRepository.findByCinemaHall(cinemaHall);
+        List<Seat> seats;
+        if (!existing.isEmpty() && showtimeSeatRepository.existsBySeat_CinemaHall_HallId(cinemaHall.getHallId())) {
+            if (existing.size() != specs.size()) {
+                throw new IllegalArgumentException("Hall " + cinemaHall.getHallId() + " has showtimes; the layout must keep its "
+                        + existing.size() + " seats");
+            }
+            Map<String, Seat> byPlace = new HashMap<>();
+            for (Seat seat : existing) {
+                byPlace.put(seat.getRow() + seat.getNumber(), seat);
+            }
+            for (HallLayoutParser.SeatSpec spec : specs) {
+                Seat seat = byPlace.get(spec.getRow() + spec.getNumber());
+                if (seat == null) {
+                    throw new IllegalArgumentException("Hall " + cinemaHall.getHallId() + " has showtimes; seat "
+                            + spec.getRow() + spec.getNumber() + " cannot be added");
+                }
+                applySpec(seat, spec);
+            }
+            seats = seatRepository.saveAll(existing);
+        } else {
+            seatRepository.deleteAll(existing);
+            // Flush the deletes first so re-created seats do not hit the row/number unique key
+            seatRepository.flush();
+            seats = saveSeats(cinemaHall, specs);
+        }
+        cinemaHall.setLayout(layout);
+        cinemaHall.setCapacity(seats.size());
+        cinemaHallRepository.save(cinemaHall);
+        log.info("Applied layout with {} seats to hall {}", seats.size(), cinemaHall.getHallId());
+        return seats;
+    }
+
+    private List<Seat> saveSeats(CinemaHall cinemaHall, List<HallLayoutParser.SeatSpec> specs) {
+        List<Seat> seats = new ArrayList<>(specs.size());
+        for (HallLayoutParser.SeatSpec spec : specs) {
+            Seat seat = new Seat(spec.getRow(), spec.getNumber(), AVAILABLE, cinemaHall);
+            applySpec(seat, spec);
+            seats.add(seat);
+        }
+        return seatRepository.saveAll(seats);
+    }
+
+    private static void applySpec(Seat seat, HallLayoutParser.SeatSpec spec) {
+        seat.setSeatType(spec.getSeatType());
+        seat.setSection(spec.getSection());
+        seat.setPosition(spec.getPosition());
+    }
+
+    private List<Seat> createSeatsForHall(CinemaHall cinemaHall) {
+        if (cinemaHall.getLayout() != null && !cinemaHall.getLayout().isBlank()) {
+            List<Seat> seats = saveSeats(cinemaHall, HallLayoutParser.parse(cinemaHall.getLayout()));
+            log.info("Created {} seats for hall {} from its layout", seats.size(), cinemaHall.getHallId());
+            return seats;
+        }
+        List<Seat> seats = new ArrayList<>();
+        int capacity = cinemaHall.getCapacity() != null ? cinemaHall.getCapacity() : 100;
+        int seatsPerRow = 10;
+        int totalRows = (int) Math.ceil((double) capacity / seatsPerRow);
+
+        for (int rowIndex = 0; rowIndex < totalRows; rowIndex++) {
+            String row = String.valueOf((char) ('A' + rowIndex));
+            int seatsInThisRow = Math.min(seatsPerRow, capacity - (rowIndex * seatsPerRow));
+
+            for (int seatNum = 1; seatNum <= seatsInThisRow; seatNum++) {
+                seats.add(new Seat(row, seatNum, AVAILABLE, cinemaHall));
+            }
+        }
+
+        seats = seatRepository.saveAll(seats);
+        log.info("Created {} seats for hall {}", seats.size(), cinemaHall.getHallId());
+        return seats;
+    }
+}
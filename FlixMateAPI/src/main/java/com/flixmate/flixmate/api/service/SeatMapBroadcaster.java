@@ -0,0 +1,29 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.SeatStateDelta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Forwards seat state changes from {@link SeatMapEngine} to the showtime's
+ * seat map topic.
+ */
+@Service
+public class SeatMapBroadcaster {
+
+    public static final String TOPIC_PREFIX = "/topic/showtimes/";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @EventListener
+    public void onSeatStateChanged(SeatStateDelta delta) {
+        messagingTemplate.convertAndSend(topicFor(delta.getShowtimeId()), delta);
+    }
+
+    public static String topicFor(Integer showtimeId) {
+        return TOPIC_PREFIX + showtimeId + "/seats";
+    }
+}
@@ -0,0 +1,812 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.entity.ShowTime;
+import com.flixmate.flixmate.api.entity.ShowtimePrice;
+import com.flixmate.flixmate.api.model.SeatAvailability;
+import com.flixmate.flixmate.api.model.SeatLayout;
+import com.flixmate.flixmate.api.model.SeatMapSnapshot;
+import com.flixmate.flixmate.api.model.SeatStateDelta;
+import com.flixmate.flixmate.api.repository.ShowTimeRepository;
+import com.flixmate.flixmate.api.repository.ShowtimePriceRepository;
+import com.flixmate.flixmate.api.util.BestSeatAllocator;
+import com.flixmate.flixmate.api.util.HallLayoutParser;
+import com.flixmate.flixmate.api.util.SeatMapCodec;
+import com.flixmate.flixmate.api.util.SeatStateBitmap;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-memory seat availability for active showtimes. Each showtime's seats are
+ * kept as a {@link SeatStateBitmap}; seats are claimed by compare-and-set so
+ * conflicting requests are rejected before they touch the database.
+ *
+ * The database inventory stays the source of truth: every claim is written
+ * through {@link SeatInventoryService} in the caller's transaction and the
+ * in-memory state is only finalised once that transaction completes. Maps are
+ * reloaded from the database when they go stale or when the database disagrees.
+ *
+ * Every state change is published as a {@link SeatStateDelta} event so seat
+ * map subscribers can be updated without polling.
+ *
+ * A hall's layout (seat order, types, adjacency) is built once and shared
+ * read-only by the maps of all its showtimes, which only add their seat states
+ * and a {@link PriceMatrix}, so a booking total is a sum of array lookups.
+ * The {@link DynamicPricingEngine} quote on top is re-evaluated as seat states
+ * change, and only when occupancy crosses one of its thresholds.
+ */
+@Service
+public class SeatMapEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatMapEngine.class);
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ShowtimePriceRepository showtimePriceRepository;
+
+    @Autowired
+    private DynamicPricingEngine dynamicPricingEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${flixmate.seatmap.refresh-seconds:60}")
+    private long refreshSeconds;
+
+    @Value("${flixmate.seatmap.max-showtimes:500}")
+    private int maxShowtimes;
+
+    @Value("${flixmate.pricing.premium-multiplier:1.5}")
+    private double premiumMultiplier;
+
+    @Value("${flixmate.pricing.wheelchair-multiplier:1.0}")
+    private double wheelchairMultiplier;
+
+    @Value("${flixmate.pricing.couple-multiplier:2.0}")
+    private double coupleMultiplier;
+
+    private static final int MAX_ALLOCATION_ATTEMPTS = 8;
+
+    private final ConcurrentHashMap<Integer, ShowtimeSeatMap> seatMaps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, HallLayout> hallLayouts = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seat-map-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public List<Seat> getAvailableSeats(Integer showtimeId) {
+        return getSeatMap(showtimeId).availableSeats();
+    }
+
+    public ShowtimeSeatMap getSeatMap(Integer showtimeId) {
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap != null && !seatMap.isStale(refreshSeconds)) {
+            return seatMap;
+        }
+        ShowTime showtime = showTimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new RuntimeException("Showtime not found"));
+        return getSeatMap(showtime);
+    }
+
+    public ShowtimeSeatMap getSeatMap(ShowTime showtime) {
+        Integer showtimeId = showtime.getShowtimeId();
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap != null && !seatMap.isStale(refreshSeconds)) {
+            return seatMap;
+        }
+        ShowtimeSeatMap loaded = seatMaps.compute(showtimeId, (id, current) ->
+                current != null && current != seatMap ? current : load(showtime));
+        if (seatMap != null && loaded != seatMap) {
+            publishDifferences(seatMap, loaded);
+        }
+        evictIfNeeded();
+        return loaded;
+    }
+
+    public SeatMapSnapshot snapshot(Integer showtimeId) {
+        ShowtimeSeatMap seatMap = getSeatMap(showtimeId);
+        List<SeatMapSnapshot.SeatView> seats = new ArrayList<>(seatMap.size());
+        for (int i = 0; i < seatMap.size(); i++) {
+            Seat seat = seatMap.layout.availableView[i];
+            seats.add(new SeatMapSnapshot.SeatView(seat.getSeatId(), seat.getRow(), seat.getNumber(),
+                    statusName(seatMap.stateAt(i))));
+        }
+        return new SeatMapSnapshot(showtimeId, seats);
+    }
+
+    /**
+     * Hall layout in the seat order used by {@link #availability}. Changes only
+     * when the hall's seats change, so clients can cache it by layout version.
+     */
+    public SeatLayout layout(Integer showtimeId) {
+        HallLayout hallLayout = getSeatMap(showtimeId).layout;
+        List<SeatLayout.LayoutRow> rows = new ArrayList<>();
+        SeatLayout.LayoutRow current = null;
+        for (int i = 0; i < hallLayout.size(); i++) {
+            Seat seat = hallLayout.availableView[i];
+            if (current == null || !Objects.equals(current.getRow(), seat.getRow())) {
+                current = new SeatLayout.LayoutRow(seat.getRow(), seat.getSection(), new ArrayList<>(), new ArrayList<>(),
+                        new ArrayList<>(), new ArrayList<>());
+                rows.add(current);
+            }
+            current.getNumbers().add(seat.getNumber());
+            current.getSeatIds().add(seat.getSeatId());
+            current.getSeatTypes().add(HallLayoutParser.SEAT_TYPES.get(hallLayout.typeCodes[i]));
+            current.getPositions().add(hallLayout.positions[i]);
+        }
+        return new SeatLayout(hallLayout.hallId, hallLayout.version, hallLayout.size(), rows);
+    }
+
+    /**
+     * Seat counts of the showtime, plus the availability encoded in the given
+     * {@link SeatMapCodec} format when {@code encoding} is not null.
+     */
+    public SeatAvailability availability(Integer showtimeId, String encoding) {
+        ShowtimeSeatMap seatMap = getSeatMap(showtimeId);
+        long[] masks = seatMap.availabilityMasks();
+        int available = 0;
+        for (long mask : masks) {
+            available += Long.bitCount(mask);
+        }
+
+        SeatAvailability availability = new SeatAvailability();
+        availability.setShowtimeId(showtimeId);
+        availability.setLayoutVersion(seatMap.layout.version);
+        availability.setTotalSeats(seatMap.size());
+        availability.setAvailableSeats(available);
+        availability.setOccupiedSeats(seatMap.size() - available);
+        availability.setHeldSeats(seatMap.count(SeatStateBitmap.HELD));
+        availability.setReservedSeats(seatMap.count(SeatStateBitmap.RESERVED));
+        availability.setSoldSeats(seatMap.count(SeatStateBitmap.SOLD));
+        double multiplier = currentQuote(seatMap).getMultiplier();
+        long[] cents = seatMap.prices.scaled(multiplier);
+        Map<String, Double> typePrices = new LinkedHashMap<>();
+        for (int code = 0; code < cents.length; code++) {
+            if (seatMap.layout.hasType(code)) {
+                typePrices.put(HallLayoutParser.SEAT_TYPES.get(code), cents[code] / 100.0);
+            }
+        }
+        availability.setPrices(typePrices);
+        availability.setPriceMultiplier(multiplier);
+        if (SeatMapCodec.BITMAP.equals(encoding)) {
+            availability.setEncoding(SeatMapCodec.BITMAP);
+            availability.setData(SeatMapCodec.encodeBitmap(masks, seatMap.size()));
+        } else if (SeatMapCodec.RLE.equals(encoding)) {
+            availability.setEncoding(SeatMapCodec.RLE);
+            availability.setData(SeatMapCodec.encodeRunLength(masks, seatMap.size()));
+        } else if (encoding != null) {
+            throw new RuntimeException("Unsupported seat map encoding: " + encoding);
+        }
+        return availability;
+    }
+
+    /**
+     * Claims the seats in memory. On commit of the surrounding transaction they
+     * become RESERVED, on rollback they are freed again.
+     *
+     * @throws SeatUnavailableException if any seat is already taken
+     */
+    public void holdSeats(ShowTime showtime, Collection<Integer> seatIds) {
+        ShowtimeSeatMap seatMap = getSeatMap(showtime);
+        int[] indexes = seatMap.indexesOf(seatIds);
+        int conflict = seatMap.states.transitionAll(indexes, SeatStateBitmap.FREE, SeatStateBitmap.HELD);
+        if (conflict >= 0) {
+            Integer seatId = seatMap.layout.seatIds[indexes[conflict]];
+            throw new SeatUnavailableException(seatId, "Seat " + seatId + " is not available");
+        }
+        onHeld(seatMap, new ArrayList<>(seatIds));
+    }
+
+    /**
+     * Finds the best block of {@code quantity} adjacent free seats and claims it
+     * like {@link #holdSeats}. If another request takes one of the seats first,
+     * the search is repeated on the updated map.
+     *
+     * @param preferredRow row letter to favour, or null for the default
+     * @return ids of the held seats, left to right
+     * @throws SeatUnavailableException if no row has enough adjacent free seats
+     */
+    public List<Integer> holdBestAvailable(ShowTime showtime, int quantity, String preferredRow) {
+        ShowtimeSeatMap seatMap = getSeatMap(showtime);
+        int preferredRowIndex = seatMap.rowIndexOf(preferredRow);
+        for (int attempt = 0; attempt < MAX_ALLOCATION_ATTEMPTS; attempt++) {
+            int[] indexes = seatMap.layout.allocator.allocate(seatMap.states, quantity, preferredRowIndex);
+            if (indexes == null) {
+                break;
+            }
+            if (seatMap.states.transitionAll(indexes, SeatStateBitmap.FREE, SeatStateBitmap.HELD) < 0) {
+                List<Integer> held = new ArrayList<>(indexes.length);
+                for (int index : indexes) {
+                    held.add(seatMap.layout.seatIds[index]);
+                }
+                onHeld(seatMap, held);
+                return held;
+            }
+        }
+        throw new SeatUnavailableException(null, "No " + quantity + " adjacent seats available for this showtime");
+    }
+
+    /**
+     * Claims any {@code quantity} free seats, front rows first, for when no
+     * adjacent block is left; otherwise like {@link #holdSeats}. Like the best
+     * available search it never picks wheelchair spaces or couple seats.
+     *
+     * @throws SeatUnavailableException if fewer seats are free
+     */
+    public List<Integer> holdAnyAvailable(ShowTime showtime, int quantity) {
+        return holdAnyAvailable(showtime, quantity, null);
+    }
+
+    /**
+     * Like {@link #holdAnyAvailable(ShowTime, int)}, but only picks seats of the
+     * given type, e.g. wheelchair spaces for a user who asked for them.
+     *
+     * @param seatType one of {@link HallLayoutParser#SEAT_TYPES}, or null for
+     *                 the seats the best available search would pick
+     */
+    public List<Integer> holdAnyAvailable(ShowTime showtime, int quantity, String seatType) {
+        ShowtimeSeatMap seatMap = getSeatMap(showtime);
+        int typeCode = ShowtimeSeatMap.typeCodeOf(seatType);
+        for (int attempt = 0; attempt < MAX_ALLOCATION_ATTEMPTS; attempt++) {
+            int[] indexes = new int[quantity];
+            int found = 0;
+            for (int i = 0; i < seatMap.size() && found < quantity; i++) {
+                if (seatMap.layout.matches(i, typeCode) && seatMap.states.get(i) == SeatStateBitmap.FREE) {
+                    indexes[found++] = i;
+                }
+            }
+            if (found < quantity) {
+                break;
+            }
+            if (seatMap.states.transitionAll(indexes, SeatStateBitmap.FREE, SeatStateBitmap.HELD) < 0) {
+                List<Integer> held = new ArrayList<>(quantity);
+                for (int index : indexes) {
+                    held.add(seatMap.layout.seatIds[index]);
+                }
+                onHeld(seatMap, held);
+                return held;
+            }
+        }
+        throw new SeatUnavailableException(null, "Not enough seats available for this showtime");
+    }
+
+    private void onHeld(ShowtimeSeatMap seatMap, List<Integer> held) {
+        Integer showtimeId = seatMap.showtimeId;
+        publish(showtimeId, held, SeatStateBitmap.HELD);
+        afterCompletion(committed -> {
+            if (committed) {
+                // Unconditional: the map may have been reloaded while the write was in flight
+                setState(showtimeId, held, SeatStateBitmap.RESERVED);
+            } else {
+                transition(showtimeId, held, SeatStateBitmap.HELD, SeatStateBitmap.FREE);
+            }
+        });
+    }
+
+    /**
+     * Total price of the given seats of the showtime: each seat is priced by
+     * its type from the showtime's {@link PriceMatrix}, scaled by the current
+     * dynamic pricing quote. Reads only in-memory state.
+     */
+    public double priceOf(ShowTime showtime, Collection<Integer> seatIds) {
+        ShowtimeSeatMap seatMap = getSeatMap(showtime);
+        PriceMatrix prices = seatMap.prices;
+        double basePrice = showtime.getPrice() != null ? showtime.getPrice() : 0.0;
+        if (prices.basePrice != basePrice) {
+            // The showtime was repriced since the map was loaded
+            prices = priceMatrix(showtime);
+            seatMap.prices = prices;
+        }
+        long[] seatCents = prices.scaled(currentQuote(seatMap).getMultiplier());
+        long cents = 0;
+        for (int index : seatMap.indexesOf(seatIds)) {
+            cents += seatCents[seatMap.layout.typeCodes[index]];
+        }
+        return cents / 100.0;
+    }
+
+    /**
+     * Replaces the showtime's per-seat-type price overrides. Types left out are
+     * priced from the showtime's base price and the configured multipliers.
+     */
+    @Transactional
+    public void setPrices(ShowTime showtime, Map<String, Double> prices) {
+        Integer showtimeId = showtime.getShowtimeId();
+        List<ShowtimePrice> overrides = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : prices.entrySet()) {
+            if (!HallLayoutParser.SEAT_TYPES.contains(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown seat type: " + entry.getKey());
+            }
+            if (entry.getValue() == null || entry.getValue() < 0) {
+                throw new IllegalArgumentException("Price for " + entry.getKey() + " must be zero or more");
+            }
+            overrides.add(new ShowtimePrice(showtimeId, entry.getKey(), entry.getValue()));
+        }
+        showtimePriceRepository.deleteByShowtimeId(showtimeId);
+        showtimePriceRepository.saveAll(overrides);
+        afterCompletion(committed -> {
+            ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+            if (committed && seatMap != null) {
+                seatMap.prices = priceMatrix(showtime);
+            }
+        });
+    }
+
+    /**
+     * Drops the cached layout of a hall whose seats changed and reloads the
+     * maps of its showtimes.
+     */
+    public void invalidateHall(Integer hallId) {
+        hallLayouts.remove(hallId);
+        for (ShowtimeSeatMap seatMap : seatMaps.values()) {
+            if (Objects.equals(seatMap.layout.hallId, hallId)) {
+                invalidate(seatMap.showtimeId);
+            }
+        }
+    }
+
+    /**
+     * Marks the seats free once the surrounding transaction commits.
+     */
+    public void releaseSeats(Integer showtimeId, Collection<Integer> seatIds) {
+        List<Integer> released = new ArrayList<>(seatIds);
+        afterCompletion(committed -> {
+            if (committed) {
+                setState(showtimeId, released, SeatStateBitmap.FREE);
+            }
+        });
+    }
+
+    /**
+     * Marks the seats sold once the surrounding transaction commits.
+     */
+    public void markSold(Integer showtimeId, Collection<Integer> seatIds) {
+        List<Integer> sold = new ArrayList<>(seatIds);
+        afterCompletion(committed -> {
+            if (committed) {
+                setState(showtimeId, sold, SeatStateBitmap.SOLD);
+            }
+        });
+    }
+
+    /**
+     * Marks the cached map stale once the surrounding transaction completes and
+     * reloads it in the background, publishing whatever changed.
+     */
+    public void invalidate(Integer showtimeId) {
+        afterCompletion(committed -> {
+            ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+            if (seatMap != null) {
+                seatMap.invalidated = true;
+                refreshExecutor.execute(() -> refresh(showtimeId));
+            }
+        });
+    }
+
+    private void refresh(Integer showtimeId) {
+        try {
+            Optional<ShowTime> showtime = showTimeRepository.findById(showtimeId);
+            if (showtime.isPresent()) {
+                getSeatMap(showtime.get());
+            } else {
+                seatMaps.remove(showtimeId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh seat map for showtime {}: {}", showtimeId, e.getMessage());
+            seatMaps.remove(showtimeId);
+        }
+    }
+
+    private void transition(Integer showtimeId, Collection<Integer> seatIds, int expect, int update) {
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap == null) {
+            return;
+        }
+        List<Integer> changed = new ArrayList<>(seatIds.size());
+        for (Integer seatId : seatIds) {
+            Integer index = seatMap.layout.indexBySeatId.get(seatId);
+            if (index != null && seatMap.states.compareAndSet(index, expect, update)) {
+                changed.add(seatId);
+            }
+        }
+        publish(showtimeId, changed, update);
+    }
+
+    private void setState(Integer showtimeId, Collection<Integer> seatIds, int state) {
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap == null) {
+            return;
+        }
+        List<Integer> changed = new ArrayList<>(seatIds.size());
+        for (Integer seatId : seatIds) {
+            Integer index = seatMap.layout.indexBySeatId.get(seatId);
+            if (index != null && seatMap.states.getAndSet(index, state) != state) {
+                changed.add(seatId);
+            }
+        }
+        publish(showtimeId, changed, state);
+    }
+
+    private void publish(Integer showtimeId, Collection<Integer> seatIds, int state) {
+        if (seatIds.isEmpty()) {
+            return;
+        }
+        String status = statusName(state);
+        List<SeatStateDelta.SeatChange> changes = new ArrayList<>(seatIds.size());
+        for (Integer seatId : seatIds) {
+            changes.add(new SeatStateDelta.SeatChange(seatId, status));
+        }
+        eventPublisher.publishEvent(new SeatStateDelta(showtimeId, changes));
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap != null) {
+            requote(seatMap);
+        }
+    }
+
+    // Called on every seat state change; a new quote is only built when occupancy crossed a rule threshold
+    private void requote(ShowtimeSeatMap seatMap) {
+        if (!dynamicPricingEngine.isEnabled()) {
+            return;
+        }
+        DynamicPricingEngine.Quote previous = seatMap.quote;
+        DynamicPricingEngine.Quote quote = dynamicPricingEngine.quote(seatMap.startTime, seatMap.occupancy(), previous);
+        if (quote != previous) {
+            seatMap.quote = quote;
+            if (previous == null || quote.getMultiplier() != previous.getMultiplier()) {
+                log.debug("Showtime {} repriced at x{}", seatMap.showtimeId, quote.getMultiplier());
+            }
+        }
+    }
+
+    private DynamicPricingEngine.Quote currentQuote(ShowtimeSeatMap seatMap) {
+        DynamicPricingEngine.Quote quote = dynamicPricingEngine.refresh(seatMap.startTime, seatMap.quote);
+        seatMap.quote = quote;
+        return quote;
+    }
+
+    private void publishDifferences(ShowtimeSeatMap previous, ShowtimeSeatMap current) {
+        List<SeatStateDelta.SeatChange> changes = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++) {
+            Integer previousIndex = previous.layout.indexBySeatId.get(current.seatIdAt(i));
+            int state = current.stateAt(i);
+            if (previousIndex == null || previous.stateAt(previousIndex) != state) {
+                changes.add(new SeatStateDelta.SeatChange(current.seatIdAt(i), statusName(state)));
+            }
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new SeatStateDelta(current.showtimeId, changes));
+        }
+    }
+
+    static String statusName(int state) {
+        switch (state) {
+            case SeatStateBitmap.FREE: return SeatInventoryService.AVAILABLE;
+            case SeatStateBitmap.HELD: return "HELD";
+            case SeatStateBitmap.RESERVED: return SeatInventoryService.RESERVED;
+            default: return SeatInventoryService.SOLD;
+        }
+    }
+
+    private void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private ShowtimeSeatMap load(ShowTime showtime) {
+        List<Seat> seats = new ArrayList<>(seatInventoryService.getSeatMap(showtime));
+        seats.sort(SEAT_ORDER);
+        log.debug("Loaded seat map for showtime {} ({} seats)", showtime.getShowtimeId(), seats.size());
+        ShowtimeSeatMap seatMap = new ShowtimeSeatMap(showtime, hallLayoutFor(showtime, seats), seats, priceMatrix(showtime));
+        seatMap.quote = dynamicPricingEngine.quote(seatMap.startTime, seatMap.occupancy(), null);
+        return seatMap;
+    }
+
+    /**
+     * Returns the cached layout of the showtime's hall if it still matches the
+     * loaded seats, otherwise builds and caches a new one.
+     */
+    private HallLayout hallLayoutFor(ShowTime showtime, List<Seat> seats) {
+        Integer hallId = showtime.getCinemaHall() != null ? showtime.getCinemaHall().getHallId() : null;
+        String version = HallLayout.fingerprint(seats);
+        HallLayout cached = hallId != null ? hallLayouts.get(hallId) : null;
+        if (cached != null && cached.version.equals(version)) {
+            return cached;
+        }
+        HallLayout built = new HallLayout(hallId, version, seats);
+        if (hallId != null) {
+            hallLayouts.put(hallId, built);
+        }
+        return built;
+    }
+
+    private PriceMatrix priceMatrix(ShowTime showtime) {
+        double basePrice = showtime.getPrice() != null ? showtime.getPrice() : 0.0;
+        double[] multipliers = {1.0, premiumMultiplier, wheelchairMultiplier, coupleMultiplier};
+        long[] cents = new long[HallLayoutParser.SEAT_TYPES.size()];
+        for (int code = 0; code < cents.length; code++) {
+            cents[code] = Math.round(basePrice * multipliers[code] * 100);
+        }
+        if (showtime.getShowtimeId() != null) {
+            for (ShowtimePrice override : showtimePriceRepository.findByShowtimeId(showtime.getShowtimeId())) {
+                cents[HallLayoutParser.typeCode(override.getSeatType())] = Math.round(override.getPrice() * 100);
+            }
+        }
+        return new PriceMatrix(basePrice, cents);
+    }
+
+    private void evictIfNeeded() {
+        if (seatMaps.size() <= maxShowtimes) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        seatMaps.values().removeIf(seatMap -> seatMap.endTime != null && seatMap.endTime.isBefore(now));
+        while (seatMaps.size() > maxShowtimes) {
+            seatMaps.values().stream()
+                    .min(Comparator.comparingLong(seatMap -> seatMap.loadedAt))
+                    .ifPresent(oldest -> seatMaps.remove(oldest.showtimeId, oldest));
+        }
+    }
+
+    // Rows in hall order (A..Z, then AA..), seats left to right
+    private static final Comparator<Seat> SEAT_ORDER = Comparator
+            .comparing((Seat seat) -> seat.getRow().length())
+            .thenComparing(Seat::getRow)
+            .thenComparing(Seat::getNumber);
+
+    /**
+     * Seat layout of one hall, shared read-only by the seat maps of all its
+     * showtimes. Seats are indexed in row/number order so seats that sit next
+     * to each other share a bitmap word.
+     */
+    public static class HallLayout {
+        private final Integer hallId;
+        private final String version;
+        private final int[] seatIds;
+        private final int[] positions;
+        private final byte[] typeCodes;
+        private final boolean[] allocatable;
+        private final Seat[] availableView;
+        private final Map<Integer, Integer> indexBySeatId;
+        private final BestSeatAllocator allocator;
+        private final List<String> rowNames = new ArrayList<>();
+        private final int typeMask;
+
+        HallLayout(Integer hallId, String version, List<Seat> seats) {
+            this.hallId = hallId;
+            this.version = version;
+            this.seatIds = new int[seats.size()];
+            this.positions = new int[seats.size()];
+            this.typeCodes = new byte[seats.size()];
+            this.allocatable = new boolean[seats.size()];
+            this.availableView = new Seat[seats.size()];
+            this.indexBySeatId = new HashMap<>(seats.size() * 2);
+
+            List<Integer> rowStarts = new ArrayList<>();
+            boolean anyExcluded = false;
+            int types = 0;
+            for (int i = 0; i < seats.size(); i++) {
+                Seat seat = seats.get(i);
+                seatIds[i] = seat.getSeatId();
+                indexBySeatId.put(seat.getSeatId(), i);
+                positions[i] = positionOf(seat);
+                typeCodes[i] = (byte) HallLayoutParser.typeCode(seat.getSeatType());
+                types |= 1 << typeCodes[i];
+                // Wheelchair spaces and couple seats are only ever picked explicitly
+                allocatable[i] = typeCodes[i] == HallLayoutParser.typeCode(HallLayoutParser.STANDARD)
+                        || typeCodes[i] == HallLayoutParser.typeCode(HallLayoutParser.PREMIUM);
+                anyExcluded |= !allocatable[i];
+
+                Seat view = new Seat(seat.getRow(), seat.getNumber(), SeatInventoryService.AVAILABLE, seat.getCinemaHall());
+                view.setSeatId(seat.getSeatId());
+                view.setSeatType(HallLayoutParser.SEAT_TYPES.get(typeCodes[i]));
+                view.setSection(seat.getSection());
+                view.setPosition(seat.getPosition());
+                availableView[i] = view;
+
+                if (i == 0 || !Objects.equals(seat.getRow(), seats.get(i - 1).getRow())) {
+                    rowStarts.add(i);
+                    rowNames.add(seat.getRow());
+                }
+            }
+            rowStarts.add(seats.size());
+            this.typeMask = types;
+            // Positions include aisles, so seats either side of one are not adjacent
+            this.allocator = new BestSeatAllocator(rowStarts.stream().mapToInt(Integer::intValue).toArray(), positions,
+                    anyExcluded ? allocatable : null);
+        }
+
+        static String fingerprint(List<Seat> seats) {
+            int hash = 1;
+            for (Seat seat : seats) {
+                hash = 31 * hash + Objects.hash(seat.getSeatId(), seat.getRow(), seat.getNumber(),
+                        seat.getSeatType(), seat.getSection(), seat.getPosition());
+            }
+            return Integer.toHexString(hash);
+        }
+
+        private static int positionOf(Seat seat) {
+            if (seat.getPosition() != null) {
+                return seat.getPosition();
+            }
+            return seat.getNumber() != null ? seat.getNumber() : 0;
+        }
+
+        boolean isAllocatable(int index) {
+            return allocatable[index];
+        }
+
+        /** Whether the seat is of the type, or allocatable if the type code is negative. */
+        boolean matches(int index, int typeCode) {
+            return typeCode < 0 ? allocatable[index] : typeCodes[index] == typeCode;
+        }
+
+        boolean hasType(int typeCode) {
+            return (typeMask & (1 << typeCode)) != 0;
+        }
+
+        public Integer getHallId() { return hallId; }
+        public String getVersion() { return version; }
+        public int size() { return seatIds.length; }
+    }
+
+    /**
+     * Seat prices of one showtime in cents, indexed by seat type code.
+     */
+    static class PriceMatrix {
+        private final double basePrice;
+        private final long[] cents;
+
+        PriceMatrix(double basePrice, long[] cents) {
+            this.basePrice = basePrice;
+            this.cents = cents;
+        }
+
+        long[] scaled(double multiplier) {
+            if (multiplier == 1.0) {
+                return cents;
+            }
+            long[] scaled = new long[cents.length];
+            for (int code = 0; code < cents.length; code++) {
+                scaled[code] = Math.round(cents[code] * multiplier);
+            }
+            return scaled;
+        }
+    }
+
+    /**
+     * Seat state and prices of one showtime on top of its hall's shared layout.
+     */
+    public static class ShowtimeSeatMap {
+        private final Integer showtimeId;
+        private final HallLayout layout;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final long loadedAt = System.currentTimeMillis();
+        private final SeatStateBitmap states;
+        private volatile PriceMatrix prices;
+        private volatile DynamicPricingEngine.Quote quote;
+        private volatile boolean invalidated;
+
+        ShowtimeSeatMap(ShowTime showtime, HallLayout layout, List<Seat> seats, PriceMatrix prices) {
+            this.showtimeId = showtime.getShowtimeId();
+            this.layout = layout;
+            this.startTime = showtime.getStartTime();
+            this.endTime = showtime.getEndTime();
+            this.prices = prices;
+            this.states = new SeatStateBitmap(seats.size());
+            for (int i = 0; i < seats.size(); i++) {
+                String status = seats.get(i).getStatus();
+                if (SeatInventoryService.SOLD.equals(status)) {
+                    states.set(i, SeatStateBitmap.SOLD);
+                } else if (!SeatInventoryService.AVAILABLE.equals(status)) {
+                    states.set(i, SeatStateBitmap.RESERVED);
+                }
+            }
+        }
+
+        boolean isStale(long refreshSeconds) {
+            return invalidated || (refreshSeconds > 0 && System.currentTimeMillis() - loadedAt > refreshSeconds * 1000);
+        }
+
+        int[] indexesOf(Collection<Integer> requestedSeatIds) {
+            int[] indexes = new int[requestedSeatIds.size()];
+            int i = 0;
+            for (Integer seatId : requestedSeatIds) {
+                Integer index = layout.indexBySeatId.get(seatId);
+                if (index == null) {
+                    throw new RuntimeException("Seat " + seatId + " not found for this showtime");
+                }
+                indexes[i++] = index;
+            }
+            return indexes;
+        }
+
+        public List<Seat> availableSeats() {
+            List<Seat> available = new ArrayList<>();
+            for (int w = 0; w < states.wordCount(); w++) {
+                long free = states.stateMask(w, SeatStateBitmap.FREE);
+                for (long bits = free; bits != 0; bits &= bits - 1) {
+                    available.add(layout.availableView[w * SeatStateBitmap.SEATS_PER_WORD + Long.numberOfTrailingZeros(bits)]);
+                }
+            }
+            return available;
+        }
+
+        /**
+         * Number of free seats of the given type; null counts the seats the best
+         * available search would pick, leaving out wheelchair spaces and couple seats.
+         */
+        public int countFree(String seatType) {
+            int typeCode = typeCodeOf(seatType);
+            int free = 0;
+            for (int i = 0; i < size(); i++) {
+                if (layout.matches(i, typeCode) && states.get(i) == SeatStateBitmap.FREE) {
+                    free++;
+                }
+            }
+            return free;
+        }
+
+        static int typeCodeOf(String seatType) {
+            return seatType != null ? HallLayoutParser.typeCode(seatType) : -1;
+        }
+
+        int rowIndexOf(String row) {
+            return row != null ? layout.rowNames.indexOf(row) : -1;
+        }
+
+        double occupancy() {
+            return size() == 0 ? 0.0 : 1.0 - (double) states.count(SeatStateBitmap.FREE) / size();
+        }
+
+        long[] availabilityMasks() {
+            long[] masks = new long[states.wordCount()];
+            for (int w = 0; w < masks.length; w++) {
+                masks[w] = states.stateMask(w, SeatStateBitmap.FREE);
+            }
+            return masks;
+        }
+
+        public Integer getShowtimeId() { return showtimeId; }
+        public HallLayout getLayout() { return layout; }
+        public int size() { return layout.size(); }
+        public int seatIdAt(int index) { return layout.seatIds[index]; }
+        public String rowAt(int index) { return layout.availableView[index].getRow(); }
+        public int stateAt(int index) { return states.get(index); }
+        public int count(int state) { return states.count(state); }
+    }
+}
@@ -0,0 +1,19 @@
+package com.flixmate.flixmate.api.service;
+
+/**
+ * Thrown when a requested seat is already taken for the showtime, either by the
+ * in-memory seat map or by the database reservation.
+ */
+public class SeatUnavailableException extends RuntimeException {
+
+    private final Integer seatId;
+
+    public SeatUnavailableException(Integer seatId, String message) {
+        super(message);
+        this.seatId = seatId;
+    }
+
+    public Integer getSeatId() {
+        return seatId;
+    }
+}
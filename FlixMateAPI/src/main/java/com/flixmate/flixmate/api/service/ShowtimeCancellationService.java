@@ -0,0 +1,324 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.ShowTime;
+import com.flixmate.flixmate.api.entity.ShowtimeCancellationJob;
+import com.flixmate.flixmate.api.model.PaymentChange;
+import com.flixmate.flixmate.api.repository.BookingRepository;
+import com.flixmate.flixmate.api.repository.PaymentRepository;
+import com.flixmate.flixmate.api.repository.ShowTimeRepository;
+import com.flixmate.flixmate.api.repository.ShowtimeCancellationJobRepository;
+import com.flixmate.flixmate.api.repository.ShowtimeSeatRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cancels every booking of a showtime, e.g. when a hall breaks down. The job
+ * first takes the showtime's free seats off sale, then works through its open
+ * bookings in pages of {@code flixmate.showtime-cancellation.page-size}, one
+ * short transaction per page:
+ * <ul>
+ *   <li>the page's bookings are cancelled and their seats closed with one
+ *       set-based update each,</li>
+ *   <li>their successful payments are refunded in full with JDBC batches,</li>
+ *   <li>the job's cursor and counters are saved with the page.</li>
+ * </ul>
+ * Only the rows of the current page are locked, so bookings for other
+ * showtimes carry on as normal. Customers are emailed from a separate queue
+ * once their page has committed. Jobs still RUNNING when the application
+ * stopped resume from their cursor on startup.
+ */
+@Service
+public class ShowtimeCancellationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowtimeCancellationService.class);
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private static final Set<String> CLOSED_BOOKING_STATUSES = Set.of("CANCELLED", "EXPIRED", "REFUNDED");
+
+    private static final String INSERT_REFUND =
+            "INSERT INTO refunds (payment_id, booking_id, amount, seat_count, seat_ids, reason, refund_date, status) " +
+            "VALUES (?, ?, ?, NULL, NULL, ?, ?, 'PROCESSED')";
+    private static final String REFUND_PAYMENT =
+            "UPDATE payments SET status = 'REFUNDED', refund_amount = ?, refund_date = ?, failure_reason = ? " +
+            "WHERE payment_id = ? AND status = 'SUCCESS'";
+
+    @Autowired
+    private ShowtimeCancellationJobRepository jobRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    @Autowired
+    private SeatHoldManager seatHoldManager;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PaymentTotals paymentTotals;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flixmate.showtime-cancellation.page-size:100}")
+    private int pageSize;
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "showtime-cancellation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService notificationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "showtime-cancellation-mail");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        notificationExecutor.shutdown();
+    }
+
+    /**
+     * Starts cancelling the showtime in the background, or returns the job
+     * already doing so.
+     */
+    public ShowtimeCancellationJob cancelShowtime(Integer showtimeId, String reason, String requestedBy) {
+        ShowtimeCancellationJob job = createJob(showtimeId, reason, requestedBy);
+        jobExecutor.execute(() -> run(job.getJobId()));
+        return job;
+    }
+
+    public ShowtimeCancellationJob getJob(Integer jobId) {
+        return jobRepository.findById(jobId).orElse(null);
+    }
+
+    public List<ShowtimeCancellationJob> getJobsForShowtime(Integer showtimeId) {
+        return jobRepository.findByShowtimeIdOrderByJobIdDesc(showtimeId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        List<ShowtimeCancellationJob> interrupted = jobRepository.findByStatus(RUNNING);
+        for (ShowtimeCancellationJob job : interrupted) {
+            log.info("Resuming cancellation of showtime {} after booking {}", job.getShowtimeId(), job.getLastBookingId());
+            jobExecutor.execute(() -> run(job.getJobId()));
+        }
+    }
+
+    ShowtimeCancellationJob createJob(Integer showtimeId, String reason, String requestedBy) {
+        synchronized (this) {
+            ShowtimeCancellationJob running = jobRepository.findFirstByShowtimeIdAndStatus(showtimeId, RUNNING).orElse(null);
+            if (running != null) {
+                return running;
+            }
+            showTimeRepository.findById(showtimeId)
+                    .orElseThrow(() -> new RuntimeException("Showtime not found"));
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                // Nothing can be sold from here on; bookings made before this are picked up by the pages
+                int closed = showtimeSeatRepository.closeAvailableSeats(showtimeId);
+                long open = bookingRepository.countOpenBookings(showtimeId, CLOSED_BOOKING_STATUSES);
+                log.info("Cancelling showtime {}: {} open bookings, {} unsold seats closed", showtimeId, open, closed);
+                return jobRepository.save(new ShowtimeCancellationJob(showtimeId, reason, requestedBy, (int) open));
+            });
+        }
+    }
+
+    void run(Integer jobId) {
+        ShowtimeCancellationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !RUNNING.equals(job.getStatus())) {
+            return;
+        }
+        Integer showtimeId = job.getShowtimeId();
+        try {
+            seatMapEngine.invalidate(showtimeId);
+            waitlistService.clear(showtimeId);
+            ShowTime showtime = showTimeRepository.findById(showtimeId)
+                    .orElseThrow(() -> new RuntimeException("Showtime not found"));
+            String movieTitle = showtime.getMovie() != null ? showtime.getMovie().getTitle() : "your movie";
+            String startTime = String.valueOf(showtime.getStartTime());
+
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            List<Notification> notifications;
+            do {
+                notifications = transaction.execute(status -> processPage(jobId));
+                for (Notification notification : notifications) {
+                    notificationExecutor.execute(() -> emailService.sendShowtimeCancellation(
+                            notification.email, movieTitle, startTime, notification.refund));
+                }
+            } while (!notifications.isEmpty());
+
+            transaction.executeWithoutResult(status -> {
+                ShowtimeCancellationJob done = jobRepository.findById(jobId).orElseThrow();
+                done.setStatus(COMPLETED);
+                done.setCompletedAt(LocalDateTime.now());
+                done.setUpdatedAt(done.getCompletedAt());
+                jobRepository.save(done);
+            });
+            // The seat map was reloaded while seats were still being closed
+            seatMapEngine.invalidate(showtimeId);
+            log.info("Cancellation of showtime {} completed", showtimeId);
+        } catch (RuntimeException e) {
+            log.error("Cancellation of showtime {} failed: {}", showtimeId, e.getMessage(), e);
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                        jobRepository.findById(jobId).ifPresent(failed -> {
+                            failed.setStatus(FAILED);
+                            failed.setErrorMessage(e.getMessage());
+                            failed.setUpdatedAt(LocalDateTime.now());
+                            jobRepository.save(failed);
+                        }));
+            } catch (RuntimeException ignored) {
+                // Left RUNNING, so it is retried on the next startup
+            }
+        }
+    }
+
+    /**
+     * Cancels and refunds the next page of bookings and advances the job's
+     * cursor, all in the caller's transaction.
+     *
+     * @return one notification per cancelled booking; empty once no open bookings are left
+     */
+    private List<Notification> processPage(Integer jobId) {
+        ShowtimeCancellationJob job = jobRepository.findById(jobId).orElseThrow();
+        List<Object[]> page = bookingRepository.findOpenBookingPage(job.getShowtimeId(), job.getLastBookingId(),
+                CLOSED_BOOKING_STATUSES, PageRequest.of(0, pageSize));
+        if (page.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> bookingIds = new ArrayList<>(page.size());
+        for (Object[] row : page) {
+            bookingIds.add((Integer) row[0]);
+        }
+        // Unpaid holds must not expire later and free the closed seats in the seat map. They are only taken
+        // off the timer once the page commits; a hold firing before then finds the booking cancelled and does nothing
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookingIds.forEach(seatHoldManager::claimHold);
+            }
+        });
+        bookingRepository.cancelBookings(bookingIds, CLOSED_BOOKING_STATUSES);
+        showtimeSeatRepository.closeSeatsForBookings(bookingIds);
+        ticketService.voidTicketsForBookings(bookingIds);
+
+        String now = LocalDateTime.now().toString();
+        String reason = job.getReason() != null ? job.getReason() : "Showtime cancelled";
+        List<Object[]> paymentRows = new ArrayList<>();
+        List<PaymentChange> changes = new ArrayList<>();
+        List<Double> refunds = new ArrayList<>();
+        for (Object[] payment : paymentRepository.findRefundablePayments(bookingIds)) {
+            Integer paymentId = (Integer) payment[0];
+            Integer bookingId = (Integer) payment[1];
+            double amount = ((Number) payment[2]).doubleValue();
+            double alreadyRefunded = payment[3] != null ? ((Number) payment[3]).doubleValue() : 0.0;
+            double refund = Math.round((amount - alreadyRefunded) * 100.0) / 100.0;
+            if (refund <= 0) {
+                continue;
+            }
+            paymentRows.add(new Object[]{amount, now, reason, paymentId});
+            changes.add(new PaymentChange(paymentId, bookingId, (LocalDateTime) payment[4],
+                    "SUCCESS", amount, payment[3] != null ? alreadyRefunded : null, "REFUNDED", amount, amount));
+            refunds.add(refund);
+        }
+
+        // Only payments this page actually moved to REFUNDED get a refund; one refunded meanwhile matches no row
+        List<Object[]> refundRows = new ArrayList<>();
+        Map<Integer, Double> refundsByBooking = new HashMap<>();
+        double pageTotal = 0;
+        int[] updated = paymentRows.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(REFUND_PAYMENT, paymentRows);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                continue;
+            }
+            PaymentChange change = changes.get(i);
+            double refund = refunds.get(i);
+            refundRows.add(new Object[]{change.getPaymentId(), change.getBookingId(), refund, reason, now});
+            refundsByBooking.merge(change.getBookingId(), refund, Double::sum);
+            pageTotal += refund;
+            // The JDBC update bypasses PaymentTotalsListener, so do its work here; both apply once the page commits
+            paymentTotals.record(change.getOldStatus(), change.getOldAmount(), change.getOldRefundAmount(),
+                    change.getNewStatus(), change.getNewAmount(), change.getNewRefundAmount());
+            eventPublisher.publishEvent(change);
+        }
+        if (!refundRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_REFUND, refundRows);
+        }
+
+        job.setLastBookingId(bookingIds.get(bookingIds.size() - 1));
+        job.setProcessedBookings(job.getProcessedBookings() + bookingIds.size());
+        job.setRefundCount(job.getRefundCount() + refundRows.size());
+        job.setRefundedAmount(Math.round((job.getRefundedAmount() + pageTotal) * 100.0) / 100.0);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        List<Notification> notifications = new ArrayList<>(page.size());
+        for (Object[] row : page) {
+            notifications.add(new Notification((String) row[1], refundsByBooking.get((Integer) row[0])));
+        }
+        return notifications;
+    }
+
+    private static class Notification {
+        private final String email;
+        private final Double refund;
+
+        Notification(String email, Double refund) {
+            this.email = email;
+            this.refund = refund;
+        }
+    }
+}
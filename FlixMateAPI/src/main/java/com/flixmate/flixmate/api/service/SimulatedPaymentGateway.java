@@ -0,0 +1,118 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.GatewayResult;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local stand-in for a payment provider, for development, tests and load
+ * tests. Outcomes are derived from the transaction id rather than drawn at
+ * random, so a run is reproducible and a retry gets the same answer.
+ * Latency, declines per payment method and provider errors can be injected
+ * through {@code flixmate.payments.simulator.*}.
+ */
+@Component
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    public static final String NAME = "simulator";
+
+    @Value("${flixmate.payments.simulator.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${flixmate.payments.simulator.latency-jitter-ms:0}")
+    private long latencyJitterMs;
+
+    // e.g. CREDIT_CARD:0.1,PAYPAL:0.05
+    @Value("${flixmate.payments.simulator.decline-rates:}")
+    private String declineRatesSpec;
+
+    @Value("${flixmate.payments.simulator.error-rate:0.0}")
+    private double errorRate;
+
+    private Map<String, Double> declineRates = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        declineRates = parseRates(declineRatesSpec);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(String paymentMethod) {
+        return true;
+    }
+
+    @Override
+    public GatewayResult charge(String transactionId, String paymentMethod, Double amount) {
+        int roll = roll(transactionId);
+        long delay = latencyMs + (latencyJitterMs > 0 ? roll % (latencyJitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulated gateway call interrupted");
+            }
+        }
+
+        // Errors and declines use separate slices of the roll so their rates do not overlap
+        if (roll % 10_000 < errorRate * 10_000) {
+            throw new IllegalStateException("Simulated gateway error");
+        }
+        double declineRate = declineRates.getOrDefault(paymentMethod, 0.0);
+        if ((roll / 10_000) % 10_000 < declineRate * 10_000) {
+            return GatewayResult.failed("Payment declined", declineReason(paymentMethod));
+        }
+        return GatewayResult.success(successResponse(paymentMethod));
+    }
+
+    private static int roll(String transactionId) {
+        // Spread the String hash so similar ids do not get similar outcomes
+        int h = transactionId != null ? transactionId.hashCode() : 0;
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        h ^= (h >>> 16);
+        return h & Integer.MAX_VALUE;
+    }
+
+    private static String successResponse(String paymentMethod) {
+        if ("PAYPAL".equals(paymentMethod)) {
+            return "PayPal payment completed";
+        } else if ("E_WALLET".equals(paymentMethod)) {
+            return "E-wallet payment completed";
+        }
+        return "Payment processed successfully";
+    }
+
+    private static String declineReason(String paymentMethod) {
+        if ("PAYPAL".equals(paymentMethod)) {
+            return "PayPal account issue";
+        } else if ("E_WALLET".equals(paymentMethod)) {
+            return "Insufficient wallet balance";
+        }
+        return "Insufficient funds or invalid card";
+    }
+
+    static Map<String, Double> parseRates(String spec) {
+        Map<String, Double> rates = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return rates;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid decline rate '" + entry.trim() + "', expected METHOD:rate");
+            }
+            rates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        return rates;
+    }
+}
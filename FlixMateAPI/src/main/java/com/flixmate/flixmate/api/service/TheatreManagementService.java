@@ -26,6 +26,9 @@ public class TheatreManagementService {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
     public List<Seat> getAvailableSeatsByHall(Integer hallId) {
         return seatRepository.findByCinemaHall_HallIdAndStatus(hallId, "AVAILABLE");
     }
@@ -40,7 +43,9 @@ public class TheatreManagementService {
         LocalDateTime parsedEnd = LocalDateTime.parse(endTime);
 
         ShowTime showtime = new ShowTime(parsedStart, parsedEnd, price, hall, movie);
-        return showTimeRepository.save(showtime);
+        ShowTime savedShowtime = showTimeRepository.save(showtime);
+        seatInventoryService.ensureInventory(savedShowtime);
+        return savedShowtime;
     }
     public StaffSchedule addStaffSchedule(String staffName, LocalDateTime startTime, LocalDateTime endTime, Integer hallId) {
         StaffSchedule schedule = new StaffSchedule(staffName, startTime, endTime, hallId);
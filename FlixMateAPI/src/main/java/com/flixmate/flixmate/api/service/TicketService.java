@@ -0,0 +1,387 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.Seat;
+import com.flixmate.flixmate.api.entity.Ticket;
+import com.flixmate.flixmate.api.entity.TicketCheckIn;
+import com.flixmate.flixmate.api.model.CheckInResult;
+import com.flixmate.flixmate.api.repository.TicketCheckInRepository;
+import com.flixmate.flixmate.api.repository.TicketRepository;
+import com.itextpdf.text.pdf.BarcodeQRCode;
+import com.itextpdf.text.pdf.qrcode.EncodeHintType;
+import com.itextpdf.text.pdf.qrcode.ErrorCorrectionLevel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Issues tickets for confirmed bookings and checks them in at the door.
+ *
+ * A ticket's code is a compact signed payload, version + booking id +
+ * showtime id + seat id followed by a truncated HMAC-SHA256, encoded as
+ * base64url and shown as a QR code. Check-in verifies the signature and
+ * answers from memory: admitted tickets go into a per-showtime set that
+ * rejects second scans, and the admissions are written to the database in
+ * batches by a scheduled flush. Voided tickets (refunds, cancellations,
+ * swapped seats) are kept in an in-memory revocation set loaded at startup.
+ */
+@Service
+public class TicketService {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketService.class);
+
+    public static final String ISSUED = "ISSUED";
+    public static final String VOID = "VOID";
+
+    public static final String ADMITTED = "ADMITTED";
+    public static final String ALREADY_ADMITTED = "ALREADY_ADMITTED";
+    public static final String WRONG_SHOWTIME = "WRONG_SHOWTIME";
+    public static final String INVALID = "INVALID";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_BYTES = 13;
+    private static final int MAC_BYTES = 10;
+
+    private static final String INSERT_CHECK_IN =
+            "INSERT INTO ticket_checkins (booking_id, showtime_id, seat_id, gate, checked_in_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCheckInRepository checkInRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${flixmate.tickets.secret:}")
+    private String secret;
+
+    // Tickets must stay valid across restarts, so without a ticket secret they are signed with the JWT secret
+    @Value("${jwt.secret:FlixMateSecretKeyForJWTTokenGeneration123456789}")
+    private String jwtSecret;
+
+    @Value("${flixmate.tickets.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${flixmate.tickets.admission-retention-hours:12}")
+    private long admissionRetentionHours;
+
+    private SecretKeySpec key;
+    private final Set<Long> revoked = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Integer, Admissions> admissions = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Object[]> pendingCheckIns = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        String keyMaterial = secret != null && !secret.isBlank() ? secret : jwtSecret;
+        key = new SecretKeySpec(keyMaterial.getBytes(StandardCharsets.UTF_8), HMAC);
+    }
+
+    /** Restores revoked tickets and recent admissions, so a restart mid-showing admits no one twice. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadState() {
+        for (Object[] row : ticketRepository.findKeysByStatus(VOID)) {
+            revoked.add(keyOf((Integer) row[0], (Integer) row[1]));
+        }
+        List<TicketCheckIn> recent = checkInRepository.findByCheckedInAtAfter(
+                LocalDateTime.now().minusHours(admissionRetentionHours));
+        for (TicketCheckIn checkIn : recent) {
+            admissionsFor(checkIn.getShowtimeId()).tickets.add(keyOf(checkIn.getBookingId(), checkIn.getSeatId()));
+        }
+        log.info("Loaded {} revoked tickets and {} recent check-ins", revoked.size(), recent.size());
+    }
+
+    /** Issues a ticket for every seat of the booking. */
+    public List<Ticket> issueTickets(Booking booking) {
+        List<Integer> seatIds = booking.getSeats() != null
+                ? booking.getSeats().stream().map(Seat::getSeatId).toList()
+                : List.of();
+        return issueTickets(booking.getBookingId(), booking.getShowtime().getShowtimeId(), seatIds);
+    }
+
+    /** Issues tickets for the seats, reissuing any that were voided before. */
+    public List<Ticket> issueTickets(Integer bookingId, Integer showtimeId, Collection<Integer> seatIds) {
+        if (seatIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Ticket> existing = ticketRepository.findByBookingId(bookingId).stream()
+                .collect(Collectors.toMap(Ticket::getSeatId, ticket -> ticket));
+        List<Ticket> tickets = new ArrayList<>(seatIds.size());
+        List<Long> reinstated = new ArrayList<>();
+        for (Integer seatId : seatIds) {
+            Ticket ticket = existing.get(seatId);
+            if (ticket == null) {
+                ticket = new Ticket(bookingId, showtimeId, seatId, code(bookingId, showtimeId, seatId));
+            } else if (VOID.equals(ticket.getStatus())) {
+                ticket.setStatus(ISSUED);
+                ticket.setIssuedAt(LocalDateTime.now());
+                reinstated.add(keyOf(bookingId, seatId));
+            }
+            tickets.add(ticket);
+        }
+        List<Ticket> saved = ticketRepository.saveAll(tickets);
+        afterCommit(() -> reinstated.forEach(revoked::remove));
+        log.info("Issued {} ticket(s) for booking {}", saved.size(), bookingId);
+        return saved;
+    }
+
+    /** The booking's valid tickets, issuing them first if issuance failed at payment time. */
+    public List<Ticket> getTickets(Booking booking) {
+        List<Ticket> tickets = ticketRepository.findByBookingId(booking.getBookingId()).stream()
+                .filter(ticket -> ISSUED.equals(ticket.getStatus()))
+                .toList();
+        if (tickets.isEmpty() && "CONFIRMED".equals(booking.getStatus())) {
+            return issueTickets(booking);
+        }
+        return tickets;
+    }
+
+    public Ticket getTicket(Integer ticketId) {
+        return ticketRepository.findById(ticketId).orElse(null);
+    }
+
+    /**
+     * Voids the booking's tickets for the seats, or all of them if
+     * {@code seatIds} is null.
+     */
+    public int voidTickets(Integer bookingId, Collection<Integer> seatIds) {
+        List<Ticket> tickets = ticketRepository.findByBookingId(bookingId).stream()
+                .filter(ticket -> ISSUED.equals(ticket.getStatus()))
+                .filter(ticket -> seatIds == null || seatIds.contains(ticket.getSeatId()))
+                .toList();
+        tickets.forEach(ticket -> ticket.setStatus(VOID));
+        ticketRepository.saveAll(tickets);
+        List<Long> keys = tickets.stream().map(ticket -> keyOf(ticket.getBookingId(), ticket.getSeatId())).toList();
+        afterCommit(() -> revoked.addAll(keys));
+        return tickets.size();
+    }
+
+    /** Voids every ticket of the bookings with one update. */
+    public int voidTicketsForBookings(Collection<Integer> bookingIds) {
+        List<Long> keys = ticketRepository.findIssuedKeysForBookings(bookingIds).stream()
+                .map(row -> keyOf((Integer) row[0], (Integer) row[1]))
+                .toList();
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        int voided = ticketRepository.voidTicketsForBookings(bookingIds);
+        afterCommit(() -> revoked.addAll(keys));
+        return voided;
+    }
+
+    public String code(Integer bookingId, Integer showtimeId, Integer seatId) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_BYTES + MAC_BYTES);
+        buffer.put(VERSION).putInt(bookingId).putInt(showtimeId).putInt(seatId);
+        byte[] mac = mac(buffer.array(), PAYLOAD_BYTES);
+        buffer.put(mac, 0, MAC_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /** Renders the ticket code as a square PNG QR code. */
+    public byte[] renderQrCode(String code, int size) {
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
+        Image qr = new BarcodeQRCode(code, size, size, hints).createAwtImage(Color.BLACK, Color.WHITE);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.drawImage(qr, 0, 0, size, size, null);
+        graphics.dispose();
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to render QR code: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks a scanned ticket in at the door of the showtime. Answered from
+     * memory; the admission is queued for the next batch flush.
+     */
+    public CheckInResult checkIn(Integer showtimeId, String code, String gate) {
+        ByteBuffer payload = verify(code);
+        if (payload == null) {
+            return new CheckInResult(INVALID, showtimeId);
+        }
+        int bookingId = payload.getInt(1);
+        int ticketShowtimeId = payload.getInt(5);
+        int seatId = payload.getInt(9);
+
+        CheckInResult result = new CheckInResult(null, showtimeId);
+        result.setBookingId(bookingId);
+        result.setSeatId(seatId);
+        if (ticketShowtimeId != showtimeId) {
+            result.setStatus(WRONG_SHOWTIME);
+            return result;
+        }
+        long ticketKey = keyOf(bookingId, seatId);
+        if (revoked.contains(ticketKey)) {
+            result.setStatus(VOID);
+            return result;
+        }
+        Admissions admitted = admissionsFor(showtimeId);
+        admitted.lastScan = System.currentTimeMillis();
+        if (admitted.tickets.add(ticketKey)) {
+            pendingCheckIns.add(new Object[]{bookingId, showtimeId, seatId, gate, LocalDateTime.now().toString()});
+            result.setStatus(ADMITTED);
+        } else {
+            result.setStatus(ALREADY_ADMITTED);
+        }
+        result.setAdmittedCount(admitted.tickets.size());
+        return result;
+    }
+
+    public int admittedCount(Integer showtimeId) {
+        Admissions admitted = admissions.get(showtimeId);
+        return admitted != null ? admitted.tickets.size() : 0;
+    }
+
+    public int pendingCheckIns() {
+        return pendingCheckIns.size();
+    }
+
+    /** Writes queued check-ins in JDBC batches and forgets admissions for showtimes long over. */
+    @Scheduled(fixedDelayString = "${flixmate.tickets.flush-interval-ms:2000}")
+    public void flushCheckIns() {
+        int written = 0;
+        List<Object[]> batch = new ArrayList<>(flushBatchSize);
+        Object[] row;
+        while ((row = pendingCheckIns.poll()) != null) {
+            batch.add(row);
+            if (batch.size() == flushBatchSize) {
+                if (!write(batch)) {
+                    return;
+                }
+                written += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty() && write(batch)) {
+            written += batch.size();
+        }
+        if (written > 0) {
+            log.debug("Flushed {} check-ins", written);
+        }
+
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(admissionRetentionHours);
+        admissions.entrySet().removeIf(entry -> entry.getValue().lastScan < cutoff);
+    }
+
+    private boolean write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_CHECK_IN, batch);
+            return true;
+        } catch (DuplicateKeyException duplicate) {
+            // Admitted before a restart or by another instance; write the rest one by one
+            for (Object[] row : batch) {
+                try {
+                    jdbcTemplate.update(INSERT_CHECK_IN, row);
+                } catch (DuplicateKeyException ignored) {
+                    // Already recorded
+                }
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Failed to write {} check-ins, will retry: {}", batch.size(), e.getMessage());
+            pendingCheckIns.addAll(batch);
+            return false;
+        }
+    }
+
+    /** @return the payload of a genuine ticket code, or null */
+    private ByteBuffer verify(String code) {
+        if (code == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(code.trim());
+        } catch (IllegalArgumentException malformed) {
+            return null;
+        }
+        if (bytes.length != PAYLOAD_BYTES + MAC_BYTES || bytes[0] != VERSION) {
+            return null;
+        }
+        byte[] expected = new byte[MAC_BYTES];
+        System.arraycopy(mac(bytes, PAYLOAD_BYTES), 0, expected, 0, MAC_BYTES);
+        byte[] actual = new byte[MAC_BYTES];
+        System.arraycopy(bytes, PAYLOAD_BYTES, actual, 0, MAC_BYTES);
+        return MessageDigest.isEqual(expected, actual) ? ByteBuffer.wrap(bytes) : null;
+    }
+
+    private byte[] mac(byte[] data, int length) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(data, 0, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign ticket", e);
+        }
+    }
+
+    private Admissions admissionsFor(Integer showtimeId) {
+        return admissions.computeIfAbsent(showtimeId, id -> new Admissions());
+    }
+
+    private static long keyOf(int bookingId, int seatId) {
+        return ((long) bookingId << 32) | (seatId & 0xffffffffL);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Admissions {
+        private final Set<Long> tickets = ConcurrentHashMap.newKeySet();
+        private volatile long lastScan = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,296 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.QueueStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room for high-demand showtimes. While a room is open for a
+ * showtime, users have to join it before they can book: each gets a numbered
+ * ticket in a signed token, and tickets are admitted in order at a fixed rate
+ * per showtime after an initial burst. Booking requests without an admitted
+ * token are turned away by {@link com.flixmate.flixmate.api.config.WaitingRoomFilter}
+ * before they reach the database.
+ *
+ * Everything is answered from memory: a ticket's position is its number minus
+ * the number admitted so far, which follows from the time the room opened, so
+ * polling never needs a lookup. Tokens are HMAC-signed and carry the room's
+ * opening time, so closing and reopening a room invalidates old tokens.
+ */
+@Service
+public class WaitingRoomService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitingRoomService.class);
+
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+
+    private static final String HMAC = "HmacSHA256";
+
+    @Value("${flixmate.waiting-room.secret:}")
+    private String secret;
+
+    @Value("${flixmate.waiting-room.admit-per-minute:120}")
+    private int defaultAdmitPerMinute;
+
+    @Value("${flixmate.waiting-room.burst:50}")
+    private int defaultBurst;
+
+    @Value("${flixmate.waiting-room.max-queue:20000}")
+    private int maxQueue;
+
+    @Value("${flixmate.waiting-room.admission-window-minutes:10}")
+    private long admissionWindowMinutes;
+
+    private final ConcurrentHashMap<Integer, Room> rooms = new ConcurrentHashMap<>();
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        byte[] bytes;
+        if (secret != null && !secret.isBlank()) {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+        } else {
+            // Rooms only live in memory, so a per-process key loses nothing on restart
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+        }
+        key = new SecretKeySpec(bytes, HMAC);
+    }
+
+    public void open(Integer showtimeId, Integer admitPerMinute, Integer burst) {
+        int rate = admitPerMinute != null ? admitPerMinute : defaultAdmitPerMinute;
+        int initial = burst != null ? burst : defaultBurst;
+        if (rate <= 0 || initial < 0) {
+            throw new RuntimeException("Admission rate must be positive and burst must not be negative");
+        }
+        rooms.put(showtimeId, new Room(showtimeId, rate, initial, System.currentTimeMillis()));
+        log.info("Waiting room opened for showtime {} ({} per minute, burst {})", showtimeId, rate, initial);
+    }
+
+    public boolean close(Integer showtimeId) {
+        boolean closed = rooms.remove(showtimeId) != null;
+        if (closed) {
+            log.info("Waiting room closed for showtime {}", showtimeId);
+        }
+        return closed;
+    }
+
+    public boolean isOpen(Integer showtimeId) {
+        return rooms.containsKey(showtimeId);
+    }
+
+    /**
+     * Gives the user a ticket, or their existing one if they already joined.
+     *
+     * @throws AdmissionDeniedException if the queue is full
+     */
+    public QueueStatus join(Integer showtimeId, String email) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            QueueStatus status = new QueueStatus();
+            status.setShowtimeId(showtimeId);
+            status.setAdmitted(true);
+            return status;
+        }
+        long now = System.currentTimeMillis();
+        Long ticket = room.tickets.get(email);
+        if (ticket != null && now > room.admissionTime(ticket) + TimeUnit.MINUTES.toMillis(admissionWindowMinutes)) {
+            // Missed their turn: back to the end of the queue
+            room.tickets.remove(email, ticket);
+            ticket = null;
+        }
+        if (ticket == null) {
+            if (room.issued.get() - room.admitted(now) >= maxQueue) {
+                throw new AdmissionDeniedException(503, room.secondsUntil(room.issued.get() - maxQueue / 2, now),
+                        "The waiting room for this showtime is full, please try again later");
+            }
+            ticket = room.tickets.computeIfAbsent(email, user -> room.issued.incrementAndGet());
+        }
+        QueueStatus status = status(room, ticket, now);
+        status.setToken(sign(showtimeId + ":" + room.openedAt + ":" + ticket + ":" + email));
+        return status;
+    }
+
+    public QueueStatus status(Integer showtimeId, String token) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            QueueStatus status = new QueueStatus();
+            status.setShowtimeId(showtimeId);
+            status.setAdmitted(true);
+            return status;
+        }
+        return status(room, ticketOf(room, token, null), System.currentTimeMillis());
+    }
+
+    /**
+     * Lets a booking request through if the showtime has no open waiting room,
+     * or if the token belongs to this user and its ticket has been admitted
+     * within the admission window.
+     *
+     * @throws AdmissionDeniedException otherwise
+     */
+    public void checkAdmission(Integer showtimeId, String email, String token) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            return;
+        }
+        long ticket = ticketOf(room, token, email);
+        long now = System.currentTimeMillis();
+        long position = ticket - room.admitted(now);
+        if (position > 0) {
+            throw new AdmissionDeniedException(429, room.secondsUntil(ticket, now),
+                    "You are in the waiting room for this showtime, position " + position);
+        }
+        long admittedAt = room.admissionTime(ticket);
+        if (now > admittedAt + TimeUnit.MINUTES.toMillis(admissionWindowMinutes)) {
+            throw new AdmissionDeniedException(403, 0, "Your turn in the waiting room has passed, please join again");
+        }
+    }
+
+    /**
+     * {@link #checkAdmission(Integer, String, String)} for a request booking
+     * several showtimes at once. {@code tokens} holds one token per showtime
+     * with an open waiting room, separated by commas, in any order.
+     *
+     * @throws AdmissionDeniedException if any of the showtimes does not admit the user
+     */
+    public void checkAdmission(Collection<Integer> showtimeIds, String email, String tokens) {
+        String[] candidates = tokens != null ? tokens.split(",") : new String[0];
+        for (Integer showtimeId : new LinkedHashSet<>(showtimeIds)) {
+            if (!isOpen(showtimeId)) {
+                continue;
+            }
+            String token = null;
+            for (String candidate : candidates) {
+                String payload = verify(candidate.trim());
+                if (payload != null && payload.startsWith(showtimeId + ":")) {
+                    token = candidate.trim();
+                    break;
+                }
+            }
+            checkAdmission(showtimeId, email, token);
+        }
+    }
+
+    public List<QueueStatus> openRooms() {
+        long now = System.currentTimeMillis();
+        List<QueueStatus> statuses = new ArrayList<>();
+        for (Room room : rooms.values()) {
+            QueueStatus status = new QueueStatus();
+            status.setShowtimeId(room.showtimeId);
+            status.setWaitingRoomOpen(true);
+            status.setPosition(Math.max(0, room.issued.get() - room.admitted(now)));
+            status.setEstimatedWaitSeconds(room.secondsUntil(room.issued.get(), now));
+            statuses.add(status);
+        }
+        return statuses;
+    }
+
+    private QueueStatus status(Room room, long ticket, long now) {
+        long position = Math.max(0, ticket - room.admitted(now));
+        QueueStatus status = new QueueStatus();
+        status.setShowtimeId(room.showtimeId);
+        status.setWaitingRoomOpen(true);
+        status.setPosition(position);
+        status.setEstimatedWaitSeconds(room.secondsUntil(ticket, now));
+        status.setAdmitted(position == 0);
+        return status;
+    }
+
+    /**
+     * Verifies the token and returns its ticket number.
+     *
+     * @param email user the token must belong to, or null to accept any user
+     */
+    private long ticketOf(Room room, String token, String email) {
+        String payload = verify(token);
+        String[] parts = payload != null ? payload.split(":", 4) : new String[0];
+        if (parts.length != 4
+                || !parts[0].equals(String.valueOf(room.showtimeId))
+                || !parts[1].equals(String.valueOf(room.openedAt))
+                || (email != null && !parts[3].equals(email))) {
+            throw new AdmissionDeniedException(403, 0, "A valid queue token is required, please join the waiting room");
+        }
+        return Long.parseLong(parts[2]);
+    }
+
+    private String sign(String payload) {
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(data) + "." + encoder.encodeToString(mac(data));
+    }
+
+    private String verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            byte[] data = Base64.getUrlDecoder().decode(token.substring(0, dot));
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            return MessageDigest.isEqual(mac(data), signature) ? new String(data, StandardCharsets.UTF_8) : null;
+        } catch (IllegalArgumentException malformed) {
+            return null;
+        }
+    }
+
+    private byte[] mac(byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign queue token", e);
+        }
+    }
+
+    private static class Room {
+        private final int showtimeId;
+        private final int admitPerMinute;
+        private final int burst;
+        private final long openedAt;
+        private final AtomicLong issued = new AtomicLong();
+        private final ConcurrentHashMap<String, Long> tickets = new ConcurrentHashMap<>();
+
+        Room(int showtimeId, int admitPerMinute, int burst, long openedAt) {
+            this.showtimeId = showtimeId;
+            this.admitPerMinute = admitPerMinute;
+            this.burst = burst;
+            this.openedAt = openedAt;
+        }
+
+        /** Number of tickets admitted by {@code now}. */
+        long admitted(long now) {
+            return burst + (now - openedAt) * admitPerMinute / 60_000;
+        }
+
+        long admissionTime(long ticket) {
+            return ticket <= burst ? openedAt : openedAt + ((ticket - burst) * 60_000 + admitPerMinute - 1) / admitPerMinute;
+        }
+
+        long secondsUntil(long ticket, long now) {
+            return Math.max(0, (admissionTime(ticket) - now + 999) / 1000);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.ShowTime;
+import com.flixmate.flixmate.api.model.SeatStateDelta;
+import com.flixmate.flixmate.api.model.WaitlistStatus;
+import com.flixmate.flixmate.api.repository.ShowTimeRepository;
+import com.flixmate.flixmate.api.util.HallLayoutParser;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-showtime waitlists for sold-out showtimes. Users join with the number of
+ * seats they want and, optionally, the seat type (e.g. wheelchair spaces);
+ * without one they are only offered the seats the best available search would
+ * pick, never wheelchair spaces or couple seats. When seats are released (cancelled bookings, expired holds,
+ * refunds) the seat map engine's state events trigger a promotion pass that
+ * books the freed seats for waitlisted users in order and holds them
+ * exclusively for a short time while the user pays.
+ *
+ * Waitlists live in memory and are matched from the release events alone, so
+ * no bookings are polled. The waitlist is strictly first come, first served:
+ * if the head of the queue wants more seats than are free, later entries wait
+ * too rather than jump ahead.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(entry -> entry.sequence);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatMapEngine seatMapEngine;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${flixmate.waitlist.offer-seconds:300}")
+    private long offerSeconds;
+
+    @Value("${flixmate.waitlist.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${flixmate.booking.max-group-size:20}")
+    private int maxGroupSize;
+
+    private final ConcurrentHashMap<Integer, Waitlist> waitlists = new ConcurrentHashMap<>();
+    private final Set<Integer> scheduled = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Bookings are made off the publishing thread, which may be finishing another transaction
+    private final ExecutorService promotionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-promotion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        promotionExecutor.shutdownNow();
+    }
+
+    /**
+     * Adds the user to the showtime's waitlist, or updates the number and type
+     * of seats they want if they are already on it (keeping their place).
+     *
+     * @param seatType one of {@link HallLayoutParser#SEAT_TYPES}, or null for any standard seats
+     */
+    public WaitlistStatus join(String email, Integer showtimeId, int quantity, String seatType) {
+        if (quantity <= 0 || quantity > maxGroupSize) {
+            throw new RuntimeException("Please request between 1 and " + maxGroupSize + " seats");
+        }
+        if (seatType != null && !HallLayoutParser.SEAT_TYPES.contains(seatType)) {
+            throw new RuntimeException("Unknown seat type " + seatType);
+        }
+        ShowTime showtime = showTimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new RuntimeException("Showtime not found"));
+        if (showtime.getStartTime() != null && showtime.getStartTime().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("This showtime has already started");
+        }
+
+        Waitlist waitlist = waitlists.computeIfAbsent(showtimeId, id -> new Waitlist());
+        WaitlistStatus status;
+        synchronized (waitlist) {
+            Entry existing = waitlist.byEmail.get(email);
+            if (existing != null) {
+                waitlist.queue.remove(existing);
+            } else if (waitlist.queue.size() >= maxEntries) {
+                throw new RuntimeException("The waitlist for this showtime is full");
+            }
+            Entry entry = existing != null
+                    ? new Entry(email, quantity, seatType, existing.joinedAt, existing.sequence)
+                    : new Entry(email, quantity, seatType, LocalDateTime.now(), sequence.incrementAndGet());
+            waitlist.queue.add(entry);
+            waitlist.byEmail.put(email, entry);
+            status = status(showtimeId, waitlist, entry);
+        }
+        log.info("{} joined the waitlist for showtime {} for {} {} seat(s)", email, showtimeId, quantity,
+                seatType != null ? seatType : "standard");
+        // Seats may already be free, e.g. released while the user was deciding
+        if (seatMapEngine.getSeatMap(showtimeId).countFree(seatType) > 0) {
+            schedulePromotion(showtimeId);
+        }
+        return status;
+    }
+
+    public boolean leave(String email, Integer showtimeId) {
+        Waitlist waitlist = waitlists.get(showtimeId);
+        if (waitlist == null) {
+            return false;
+        }
+        synchronized (waitlist) {
+            Entry entry = waitlist.byEmail.remove(email);
+            return entry != null && waitlist.queue.remove(entry);
+        }
+    }
+
+    /** @return the user's place on the waitlist, or null if they are not on it */
+    public WaitlistStatus getStatus(String email, Integer showtimeId) {
+        Waitlist waitlist = waitlists.get(showtimeId);
+        if (waitlist == null) {
+            return null;
+        }
+        synchronized (waitlist) {
+            Entry entry = waitlist.byEmail.get(email);
+            return entry != null ? status(showtimeId, waitlist, entry) : null;
+        }
+    }
+
+    /** Drops the whole waitlist, e.g. when the showtime is cancelled. */
+    public int clear(Integer showtimeId) {
+        Waitlist waitlist = waitlists.remove(showtimeId);
+        if (waitlist == null) {
+            return 0;
+        }
+        synchronized (waitlist) {
+            return waitlist.queue.size();
+        }
+    }
+
+    public int size(Integer showtimeId) {
+        Waitlist waitlist = waitlists.get(showtimeId);
+        if (waitlist == null) {
+            return 0;
+        }
+        synchronized (waitlist) {
+            return waitlist.queue.size();
+        }
+    }
+
+    @EventListener
+    public void onSeatStateChanged(SeatStateDelta delta) {
+        if (delta.getChanges() == null || size(delta.getShowtimeId()) == 0) {
+            return;
+        }
+        boolean released = delta.getChanges().stream()
+                .anyMatch(change -> SeatInventoryService.AVAILABLE.equals(change.getStatus()));
+        if (released) {
+            schedulePromotion(delta.getShowtimeId());
+        }
+    }
+
+    private void schedulePromotion(Integer showtimeId) {
+        // Releases in quick succession collapse into one pass per showtime
+        if (scheduled.add(showtimeId)) {
+            promotionExecutor.execute(() -> {
+                scheduled.remove(showtimeId);
+                try {
+                    promote(showtimeId);
+                } catch (RuntimeException e) {
+                    log.warn("Waitlist promotion failed for showtime {}: {}", showtimeId, e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Offers free seats to waitlisted users in order until the head of the
+     * queue no longer fits.
+     *
+     * @return the number of users offered seats
+     */
+    int promote(Integer showtimeId) {
+        Waitlist waitlist = waitlists.get(showtimeId);
+        if (waitlist == null) {
+            return 0;
+        }
+        int offered = 0;
+        while (true) {
+            Entry head;
+            synchronized (waitlist) {
+                head = waitlist.queue.peek();
+            }
+            if (head == null) {
+                break;
+            }
+            // Only seats the head would actually be offered count
+            int free = seatMapEngine.getSeatMap(showtimeId).countFree(head.seatType);
+            if (free < head.quantity) {
+                break;
+            }
+            Booking booking;
+            try {
+                booking = bookingService.createWaitlistBooking(head.email, showtimeId, head.quantity, head.seatType, offerSeconds);
+            } catch (SeatUnavailableException taken) {
+                // Someone else got there first; wait for the next release
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Dropping {} from the waitlist for showtime {}: {}", head.email, showtimeId, e.getMessage());
+                remove(waitlist, head);
+                continue;
+            }
+            remove(waitlist, head);
+            offered++;
+            log.info("Offered {} seat(s) for showtime {} to {} (booking {})",
+                    head.quantity, showtimeId, head.email, booking.getBookingId());
+            sendOffer(booking);
+        }
+        synchronized (waitlist) {
+            if (waitlist.queue.isEmpty()) {
+                waitlists.remove(showtimeId, waitlist);
+            }
+        }
+        return offered;
+    }
+
+    private void remove(Waitlist waitlist, Entry entry) {
+        synchronized (waitlist) {
+            waitlist.queue.remove(entry);
+            waitlist.byEmail.remove(entry.email, entry);
+        }
+    }
+
+    private void sendOffer(Booking booking) {
+        try {
+            emailService.sendWaitlistOffer(booking.getUser().getEmail(), booking.getBookingId().toString(),
+                    booking.getShowtime().getMovie().getTitle(), booking.getShowtime().getStartTime().toString(),
+                    Math.max(1, offerSeconds / 60));
+        } catch (Exception e) {
+            log.warn("Failed to send waitlist offer for booking {}: {}", booking.getBookingId(), e.getMessage());
+        }
+    }
+
+    private WaitlistStatus status(Integer showtimeId, Waitlist waitlist, Entry entry) {
+        int ahead = 0;
+        for (Entry other : waitlist.queue) {
+            if (ORDER.compare(other, entry) < 0) {
+                ahead++;
+            }
+        }
+        WaitlistStatus status = new WaitlistStatus();
+        status.setShowtimeId(showtimeId);
+        status.setQuantity(entry.quantity);
+        status.setSeatType(entry.seatType);
+        status.setPosition(ahead + 1);
+        status.setWaiting(waitlist.queue.size());
+        status.setJoinedAt(entry.joinedAt);
+        return status;
+    }
+
+    private static class Waitlist {
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>(ORDER);
+        private final Map<String, Entry> byEmail = new HashMap<>();
+    }
+
+    private static class Entry {
+        private final String email;
+        private final int quantity;
+        private final String seatType;
+        private final LocalDateTime joinedAt;
+        private final long sequence;
+
+        Entry(String email, int quantity, String seatType, LocalDateTime joinedAt, long sequence) {
+            this.email = email;
+            this.quantity = quantity;
+            this.seatType = seatType;
+            this.joinedAt = joinedAt;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.flixmate.flixmate.api.util;
+
+/**
+ * Finds the best block of N adjacent free seats in a hall. Built once per
+ * seat layout; each call works on whole 64-bit words of a row's availability:
+ * a block of N free seats starting at position j exists exactly when bit j
+ * survives N-1 rounds of {@code free &= free >>> 1}, so every candidate in a
+ * row is found with a handful of word operations instead of a per-seat scan.
+ *
+ * Candidates are scored by distance from the preferred row (by default about
+ * 60% of the way back from the screen, row A) and by distance of the block's
+ * centre from the row's centre; the lowest score wins.
+ */
+public class BestSeatAllocator {
+
+    public static final int MAX_BLOCK = 64;
+
+    private static final double ROW_WEIGHT = 1.0;
+    private static final double CENTER_WEIGHT = 1.0;
+    private static final double DEFAULT_PREFERRED_ROW = 0.6;
+
+    private final int[] rowStarts;
+    private final long[][] adjacency;
+    private final long[][] eligible;
+
+    /**
+     * @param rowStarts index of the first seat of each row, followed by the
+     *                  total seat count; seats of a row are ordered by number
+     * @param numbers   seat number of every seat index
+     */
+    public BestSeatAllocator(int[] rowStarts, int[] numbers) {
+        this(rowStarts, numbers, null);
+    }
+
+    /**
+     * @param numbers     seat number, or grid position, of every seat index;
+     *                    seats are adjacent when these are consecutive
+     * @param allocatable which seats may be handed out automatically, or null
+     *                    for all; e.g. wheelchair spaces are only ever chosen
+     */
+    public BestSeatAllocator(int[] rowStarts, int[] numbers, boolean[] allocatable) {
+        this.rowStarts = rowStarts;
+        this.adjacency = new long[rowStarts.length - 1][];
+        this.eligible = allocatable != null ? new long[rowStarts.length - 1][] : null;
+        for (int r = 0; r < adjacency.length; r++) {
+            int start = rowStarts[r];
+            int length = rowStarts[r + 1] - start;
+            if (eligible != null) {
+                long[] mask = new long[words(length)];
+                for (int j = 0; j < length; j++) {
+                    if (allocatable[start + j]) {
+                        mask[j >>> 6] |= 1L << j;
+                    }
+                }
+                eligible[r] = mask;
+            }
+            long[] adjacent = new long[words(length)];
+            // Bit j: seat j and seat j + 1 of the row sit next to each other (no aisle or gap)
+            for (int j = 0; j + 1 < length; j++) {
+                if (numbers[start + j + 1] == numbers[start + j] + 1) {
+                    adjacent[j >>> 6] |= 1L << j;
+                }
+            }
+            adjacency[r] = adjacent;
+        }
+    }
+
+    public int rowCount() {
+        return adjacency.length;
+    }
+
+    /**
+     * @param preferredRow row index to favour, or -1 for the default
+     * @return seat indexes of the best block, or null if no row has
+     *         {@code quantity} adjacent free seats
+     */
+    public int[] allocate(SeatStateBitmap states, int quantity, int preferredRow) {
+        if (quantity <= 0 || quantity > MAX_BLOCK) {
+            throw new IllegalArgumentException("Quantity must be between 1 and " + MAX_BLOCK);
+        }
+        int rows = rowCount();
+        double targetRow = preferredRow >= 0 ? preferredRow : Math.round((rows - 1) * DEFAULT_PREFERRED_ROW);
+
+        int bestStart = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int r = 0; r < rows; r++) {
+            int start = rowStarts[r];
+            int length = rowStarts[r + 1] - start;
+            if (length < quantity) {
+                continue;
+            }
+            double rowScore = ROW_WEIGHT * Math.abs(r - targetRow) / Math.max(1, rows - 1);
+            if (rowScore >= bestScore) {
+                continue;
+            }
+
+            long[] free = rowBits(states, start, length);
+            if (eligible != null) {
+                for (int w = 0; w < free.length; w++) {
+                    free[w] &= eligible[r][w];
+                }
+            }
+            long[] runs = free.clone();
+            long[] adjacent = adjacency[r].clone();
+            for (int k = 1; k < quantity; k++) {
+                andShifted(runs, free, k);
+                if (k < quantity - 1) {
+                    andShifted(adjacent, adjacency[r], k);
+                }
+            }
+            if (quantity > 1) {
+                for (int w = 0; w < runs.length; w++) {
+                    runs[w] &= adjacent[w];
+                }
+            }
+
+            double rowCentre = (length - 1) / 2.0;
+            for (int w = 0; w < runs.length; w++) {
+                for (long bits = runs[w]; bits != 0; bits &= bits - 1) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (j + quantity > length) {
+                        break;
+                    }
+                    double blockCentre = j + (quantity - 1) / 2.0;
+                    double score = rowScore + CENTER_WEIGHT * Math.abs(blockCentre - rowCentre) / Math.max(1.0, length / 2.0);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestStart = start + j;
+                    }
+                }
+            }
+        }
+
+        if (bestStart < 0) {
+            return null;
+        }
+        int[] indexes = new int[quantity];
+        for (int i = 0; i < quantity; i++) {
+            indexes[i] = bestStart + i;
+        }
+        return indexes;
+    }
+
+    /**
+     * Free seats of one row as a bit string, bit j for the row's j-th seat,
+     * gathered from the 32-seat state words.
+     */
+    private static long[] rowBits(SeatStateBitmap states, int start, int length) {
+        long[] bits = new long[words(length)];
+        int end = start + length;
+        for (int w = start >>> 5; w <= (end - 1) >>> 5; w++) {
+            long mask = states.stateMask(w, SeatStateBitmap.FREE);
+            int offset = (w << 5) - start;
+            if (offset < 0) {
+                mask >>>= -offset;
+                offset = 0;
+            }
+            bits[offset >>> 6] |= mask << (offset & 63);
+            if ((offset & 63) > 32 && (offset >>> 6) + 1 < bits.length) {
+                bits[(offset >>> 6) + 1] |= mask >>> (64 - (offset & 63));
+            }
+        }
+        if ((length & 63) != 0) {
+            bits[bits.length - 1] &= (1L << (length & 63)) - 1;
+        }
+        return bits;
+    }
+
+    /** target &= source >>> shift, across word boundaries (shift < 64). */
+    private static void andShifted(long[] target, long[] source, int shift) {
+        for (int w = 0; w < target.length; w++) {
+            long shifted = source[w] >>> shift;
+            if (w + 1 < source.length) {
+                shifted |= source[w + 1] << (64 - shift);
+            }
+            target[w] &= shifted;
+        }
+    }
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+}
@@ -0,0 +1,137 @@
+package com.flixmate.flixmate.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses hall layout definitions. A layout is plain text, one line per row
+ * from the screen backwards, one character per grid cell:
+ * <pre>
+ * [Stalls]
+ * SSSS..SSSSSS..SSSS
+ * W.SS..SSSSSS..SS.W
+ * [Balcony]
+ * PPPP..CCCCCC..PPPP
+ * </pre>
+ * {@code S} standard, {@code P} premium, {@code W} wheelchair space and
+ * {@code C} couple seat (one seat for two, sold as one); {@code .} or a space
+ * is an aisle or gap, and a line of gaps only a cross aisle. {@code [Name]}
+ * starts a section. Rows are lettered A, B, ... in order across sections, and
+ * seats are numbered from 1 within each row skipping gaps, so a seat's grid
+ * column is kept separately as its position.
+ */
+public final class HallLayoutParser {
+
+    public static final String STANDARD = "STANDARD";
+    public static final String PREMIUM = "PREMIUM";
+    public static final String WHEELCHAIR = "WHEELCHAIR";
+    public static final String COUPLE = "COUPLE";
+
+    /** Seat types in type-code order, as used by price matrices. */
+    public static final List<String> SEAT_TYPES = List.of(STANDARD, PREMIUM, WHEELCHAIR, COUPLE);
+
+    public static final int MAX_ROWS = 52;
+    public static final int MAX_ROW_WIDTH = 200;
+
+    private HallLayoutParser() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the layout is malformed or has no seats
+     */
+    public static List<SeatSpec> parse(String layout) {
+        if (layout == null || layout.isBlank()) {
+            throw new IllegalArgumentException("Layout is empty");
+        }
+        List<SeatSpec> seats = new ArrayList<>();
+        String section = null;
+        int rowIndex = 0;
+        String[] lines = layout.split("\\R");
+        for (int lineNumber = 1; lineNumber <= lines.length; lineNumber++) {
+            String line = lines[lineNumber - 1].stripTrailing();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String trimmed = line.trim();
+            if (trimmed.startsWith("[")) {
+                if (!trimmed.endsWith("]") || trimmed.length() < 3) {
+                    throw new IllegalArgumentException("Malformed section header on line " + lineNumber);
+                }
+                section = trimmed.substring(1, trimmed.length() - 1).trim();
+                continue;
+            }
+            if (rowIndex >= MAX_ROWS) {
+                throw new IllegalArgumentException("A hall can have at most " + MAX_ROWS + " rows");
+            }
+            if (line.length() > MAX_ROW_WIDTH) {
+                throw new IllegalArgumentException("Row on line " + lineNumber + " is wider than " + MAX_ROW_WIDTH + " cells");
+            }
+            String row = rowName(rowIndex);
+            int number = 0;
+            for (int column = 0; column < line.length(); column++) {
+                char cell = line.charAt(column);
+                if (cell == '.' || cell == ' ') {
+                    continue;
+                }
+                String type = typeOf(cell);
+                if (type == null) {
+                    throw new IllegalArgumentException("Unknown seat code '" + cell + "' on line " + lineNumber);
+                }
+                seats.add(new SeatSpec(row, ++number, type, section, column));
+            }
+            if (number > 0) {
+                // A line of gaps only is a cross aisle and takes no row letter
+                rowIndex++;
+            }
+        }
+        if (seats.isEmpty()) {
+            throw new IllegalArgumentException("Layout has no seats");
+        }
+        return seats;
+    }
+
+    /** Row letters: A to Z, then AA to AZ. */
+    public static String rowName(int rowIndex) {
+        return rowIndex < 26
+                ? String.valueOf((char) ('A' + rowIndex))
+                : "A" + (char) ('A' + rowIndex - 26);
+    }
+
+    /** Index of the type in {@link #SEAT_TYPES}; unknown or missing types count as standard. */
+    public static int typeCode(String seatType) {
+        int code = seatType != null ? SEAT_TYPES.indexOf(seatType) : -1;
+        return Math.max(code, 0);
+    }
+
+    private static String typeOf(char cell) {
+        switch (Character.toUpperCase(cell)) {
+            case 'S': return STANDARD;
+            case 'P': return PREMIUM;
+            case 'W': return WHEELCHAIR;
+            case 'C': return COUPLE;
+            default: return null;
+        }
+    }
+
+    public static class SeatSpec {
+        private final String row;
+        private final int number;
+        private final String seatType;
+        private final String section;
+        private final int position;
+
+        public SeatSpec(String row, int number, String seatType, String section, int position) {
+            this.row = row;
+            this.number = number;
+            this.seatType = seatType;
+            this.section = section;
+            this.position = position;
+        }
+
+        public String getRow() { return row; }
+        public int getNumber() { return number; }
+        public String getSeatType() { return seatType; }
+        public String getSection() { return section; }
+        public int getPosition() { return position; }
+    }
+}
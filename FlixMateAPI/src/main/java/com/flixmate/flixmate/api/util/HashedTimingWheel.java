@@ -0,0 +1,155 @@
+package com.flixmate.flixmate.api.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of coarse-grained timeouts. Scheduling
+ * and cancelling are O(1); a single worker thread advances one bucket per tick
+ * and only looks at the timeouts that hash into that bucket, so the cost of a
+ * tick does not grow with the total number of pending timeouts.
+ *
+ * Expired keys are passed to the callback on the worker thread. Callbacks that
+ * do real work (database updates) should hand it off to another executor.
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<LinkedList<Timeout<K>>> buckets;
+    private final Queue<Timeout<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<K> onExpiry;
+    private final Thread worker;
+
+    private volatile long startTime;
+    private volatile boolean running;
+    private long tick;
+
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize, Consumer<K> onExpiry) {
+        if (wheelSize <= 0 || (wheelSize & (wheelSize - 1)) != 0) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedList<>());
+        }
+        this.onExpiry = onExpiry;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        startTime = System.nanoTime();
+        running = true;
+        worker.start();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * Schedules {@code key} to expire after the given delay. The returned handle
+     * can be used to cancel the timeout before it fires.
+     */
+    public Timeout<K> schedule(K key, long delay, TimeUnit unit) {
+        Timeout<K> timeout = new Timeout<>(key, System.nanoTime() + Math.max(0, unit.toNanos(delay)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    public int pendingCount() {
+        int count = pending.size();
+        synchronized (buckets) {
+            for (LinkedList<Timeout<K>> bucket : buckets) {
+                count += bucket.size();
+            }
+        }
+        return count;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            synchronized (buckets) {
+                transferPending();
+                expireBucket(buckets.get((int) (tick & mask)));
+            }
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout<K> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long ticks = Math.max(tick, (timeout.deadline - startTime + tickNanos - 1) / tickNanos);
+            timeout.remainingRounds = (ticks - tick) / buckets.size();
+            buckets.get((int) (ticks & mask)).add(timeout);
+        }
+    }
+
+    private void expireBucket(LinkedList<Timeout<K>> bucket) {
+        Iterator<Timeout<K>> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout<K> timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                try {
+                    onExpiry.accept(timeout.key);
+                } catch (RuntimeException e) {
+                    System.err.println("Timer callback failed for " + timeout.key + ": " + e.getMessage());
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public static class Timeout<K> {
+        private final K key;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        Timeout(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        public K getKey() { return key; }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+    }
+}
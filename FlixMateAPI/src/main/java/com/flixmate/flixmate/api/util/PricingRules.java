@@ -0,0 +1,211 @@
+package com.flixmate.flixmate.api.util;
+
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled dynamic pricing rules. The source is a list of rules separated by
+ * {@code ;}, each {@code condition [& condition ...] => factor}:
+ * <pre>
+ * occupancy >= 0.8 => 1.25; occupancy < 0.3 & hours > 48 => 0.85; day = SAT|SUN => 1.1
+ * </pre>
+ * {@code occupancy} is the share of seats that are not free (0 to 1) and
+ * {@code hours} the time left until the showtime starts; both are compared
+ * with {@code <}, {@code <=}, {@code >} or {@code >=}. {@code day} matches
+ * the showtime's day of week. The factors of all matching rules multiply.
+ *
+ * Rules are parsed once into a tree of conditions. Conditions only compare
+ * against constants, so the result can only change when occupancy or hours
+ * cross one of them: {@link #occupancyBand} and {@link #hoursBand} name the
+ * interval a value falls in, and callers may cache a result per band pair.
+ */
+public final class PricingRules {
+
+    public static final PricingRules NONE = new PricingRules(List.of(), new TreeSet<>(), new TreeSet<>());
+
+    private static final Pattern THRESHOLD = Pattern.compile("(occupancy|hours)\\s*(<=|>=|<|>)\\s*(-?[0-9]+(?:\\.[0-9]+)?)");
+    private static final Pattern DAYS = Pattern.compile("day\\s*=\\s*([A-Za-z|]+)");
+
+    private final List<Rule> rules;
+    private final double[] occupancyThresholds;
+    private final double[] hoursThresholds;
+
+    private PricingRules(List<Rule> rules, SortedSet<Double> occupancyThresholds, SortedSet<Double> hoursThresholds) {
+        this.rules = rules;
+        this.occupancyThresholds = occupancyThresholds.stream().mapToDouble(Double::doubleValue).toArray();
+        this.hoursThresholds = hoursThresholds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static PricingRules compile(String source) {
+        if (source == null || source.isBlank()) {
+            return NONE;
+        }
+        List<Rule> rules = new ArrayList<>();
+        SortedSet<Double> occupancyThresholds = new TreeSet<>();
+        SortedSet<Double> hoursThresholds = new TreeSet<>();
+        for (String text : source.split(";")) {
+            if (text.isBlank()) {
+                continue;
+            }
+            String[] parts = text.split("=>");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Pricing rule must be 'conditions => factor': " + text.trim());
+            }
+            double factor;
+            try {
+                factor = Double.parseDouble(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid factor in pricing rule: " + text.trim());
+            }
+            if (factor <= 0) {
+                throw new IllegalArgumentException("Pricing rule factor must be positive: " + text.trim());
+            }
+            List<Condition> conditions = new ArrayList<>();
+            for (String conditionText : parts[0].split("&")) {
+                conditions.add(parseCondition(conditionText.trim(), occupancyThresholds, hoursThresholds));
+            }
+            Condition condition = conditions.size() == 1 ? conditions.get(0) : new AllOf(conditions.toArray(new Condition[0]));
+            rules.add(new Rule(condition, factor));
+        }
+        return new PricingRules(rules, occupancyThresholds, hoursThresholds);
+    }
+
+    private static Condition parseCondition(String text, Set<Double> occupancyThresholds, Set<Double> hoursThresholds) {
+        Matcher threshold = THRESHOLD.matcher(text);
+        if (threshold.matches()) {
+            boolean occupancy = "occupancy".equals(threshold.group(1));
+            double value = Double.parseDouble(threshold.group(3));
+            (occupancy ? occupancyThresholds : hoursThresholds).add(value);
+            return new Threshold(occupancy, threshold.group(2), value);
+        }
+        Matcher days = DAYS.matcher(text);
+        if (days.matches()) {
+            EnumSet<DayOfWeek> matching = EnumSet.noneOf(DayOfWeek.class);
+            for (String day : days.group(1).split("\\|")) {
+                matching.add(dayOf(day));
+            }
+            return new DayIn(matching);
+        }
+        throw new IllegalArgumentException("Unknown pricing condition: " + text);
+    }
+
+    private static DayOfWeek dayOf(String name) {
+        String upper = name.trim().toUpperCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (upper.length() >= 3 && day.name().startsWith(upper)) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day in pricing rule: " + name);
+    }
+
+    /**
+     * Product of the factors of every matching rule; 1 if none match.
+     *
+     * @param day the showtime's day, or null if unknown (day conditions fail)
+     */
+    public double evaluate(double occupancy, double hours, DayOfWeek day) {
+        double multiplier = 1.0;
+        for (Rule rule : rules) {
+            if (rule.condition.test(occupancy, hours, day)) {
+                multiplier *= rule.factor;
+            }
+        }
+        return multiplier;
+    }
+
+    public int occupancyBand(double occupancy) {
+        return band(occupancyThresholds, occupancy);
+    }
+
+    public int hoursBand(double hours) {
+        return band(hoursThresholds, hours);
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    // Even bands lie between thresholds, odd bands are exactly on one, so < and <= never share a band
+    private static int band(double[] thresholds, double value) {
+        int index = Arrays.binarySearch(thresholds, value);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    interface Condition {
+        boolean test(double occupancy, double hours, DayOfWeek day);
+    }
+
+    private static final class Threshold implements Condition {
+        private final boolean occupancy;
+        private final String operator;
+        private final double value;
+
+        Threshold(boolean occupancy, String operator, double value) {
+            this.occupancy = occupancy;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(double occupancy, double hours, DayOfWeek day) {
+            double actual = this.occupancy ? occupancy : hours;
+            switch (operator) {
+                case "<": return actual < value;
+                case "<=": return actual <= value;
+                case ">": return actual > value;
+                default: return actual >= value;
+            }
+        }
+    }
+
+    private static final class DayIn implements Condition {
+        private final Set<DayOfWeek> days;
+
+        DayIn(Set<DayOfWeek> days) {
+            this.days = days;
+        }
+
+        @Override
+        public boolean test(double occupancy, double hours, DayOfWeek day) {
+            return day != null && days.contains(day);
+        }
+    }
+
+    private static final class AllOf implements Condition {
+        private final Condition[] conditions;
+
+        AllOf(Condition[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        public boolean test(double occupancy, double hours, DayOfWeek day) {
+            for (Condition condition : conditions) {
+                if (!condition.test(occupancy, hours, day)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Rule {
+        private final Condition condition;
+        private final double factor;
+
+        Rule(Condition condition, double factor) {
+            this.condition = condition;
+            this.factor = factor;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.flixmate.flixmate.api.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+
+/**
+ * Compact wire formats for a showtime's seat availability. Seats are addressed
+ * by their position in the hall layout (row, then number), so only one bit or
+ * one run length per seat block has to travel instead of a JSON object per seat.
+ *
+ * <ul>
+ *   <li>{@code bitmap}: one bit per seat, bit set when available, seat {@code i}
+ *       in byte {@code i / 8} at bit {@code i % 8}; base64 encoded.</li>
+ *   <li>{@code rle}: alternating run lengths starting with an available run
+ *       (which may be empty), each as an unsigned varint; base64 encoded.
+ *       Smaller than the bitmap when availability comes in long blocks.</li>
+ * </ul>
+ */
+public final class SeatMapCodec {
+
+    public static final String BITMAP = "bitmap";
+    public static final String RLE = "rle";
+
+    private SeatMapCodec() {
+    }
+
+    /**
+     * @param masks availability masks of 32 seats each, as produced by
+     *              {@link SeatStateBitmap#stateMask(int, int)}
+     * @param size  number of seats
+     */
+    public static String encodeBitmap(long[] masks, int size) {
+        byte[] bytes = new byte[(size + 7) / 8];
+        for (int w = 0; w < masks.length; w++) {
+            long mask = masks[w];
+            int base = w * 4;
+            for (int b = 0; b < 4 && base + b < bytes.length; b++) {
+                bytes[base + b] = (byte) (mask >>> (b * 8));
+            }
+        }
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    public static boolean[] decodeBitmap(String encoded, int size) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        boolean[] available = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            available[i] = (bytes[i >>> 3] & (1 << (i & 7))) != 0;
+        }
+        return available;
+    }
+
+    public static String encodeRunLength(long[] masks, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        boolean runAvailable = true;
+        int run = 0;
+        for (int i = 0; i < size; i++) {
+            boolean available = (masks[i >>> 5] & (1L << (i & 31))) != 0;
+            if (available != runAvailable) {
+                writeVarint(out, run);
+                runAvailable = available;
+                run = 0;
+            }
+            run++;
+        }
+        writeVarint(out, run);
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    public static boolean[] decodeRunLength(String encoded, int size) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        boolean[] available = new boolean[size];
+        boolean runAvailable = true;
+        int seat = 0;
+        int pos = 0;
+        while (pos < bytes.length && seat < size) {
+            int run = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                run |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            int end = Math.min(size, seat + run);
+            if (runAvailable) {
+                for (int i = seat; i < end; i++) {
+                    available[i] = true;
+                }
+            }
+            seat = end;
+            runAvailable = !runAvailable;
+        }
+        return available;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
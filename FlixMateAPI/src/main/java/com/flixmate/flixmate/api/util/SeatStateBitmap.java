@@ -0,0 +1,124 @@
+package com.flixmate.flixmate.api.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact, lock-free seat state map: two bits per seat packed into 64-bit words
+ * (32 seats per word). State changes are compare-and-set on the containing word,
+ * so concurrent claims on the same showtime never block each other and a seat
+ * can only move out of a state once.
+ */
+public class SeatStateBitmap {
+
+    public static final int FREE = 0;     // Available for sale
+    public static final int HELD = 1;     // Claimed in memory, database write in flight
+    public static final int RESERVED = 2; // Committed to a booking, awaiting payment
+    public static final int SOLD = 3;     // Paid
+
+    public static final int SEATS_PER_WORD = 32;
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private final AtomicLongArray words;
+    private final int size;
+
+    public SeatStateBitmap(int size) {
+        this.size = size;
+        this.words = new AtomicLongArray((size + SEATS_PER_WORD - 1) / SEATS_PER_WORD);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int wordCount() {
+        return words.length();
+    }
+
+    public int get(int index) {
+        long word = words.get(index >>> 5);
+        return (int) ((word >>> ((index & 31) << 1)) & 3L);
+    }
+
+    public boolean compareAndSet(int index, int expect, int update) {
+        int wordIndex = index >>> 5;
+        int shift = (index & 31) << 1;
+        long mask = 3L << shift;
+        while (true) {
+            long current = words.get(wordIndex);
+            if (((current & mask) >>> shift) != expect) {
+                return false;
+            }
+            long next = (current & ~mask) | ((long) update << shift);
+            if (words.compareAndSet(wordIndex, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public void set(int index, int state) {
+        getAndSet(index, state);
+    }
+
+    /**
+     * Sets the state unconditionally and returns the previous one.
+     */
+    public int getAndSet(int index, int state) {
+        int wordIndex = index >>> 5;
+        int shift = (index & 31) << 1;
+        long mask = 3L << shift;
+        while (true) {
+            long current = words.get(wordIndex);
+            long next = (current & ~mask) | ((long) state << shift);
+            if (words.compareAndSet(wordIndex, current, next)) {
+                return (int) ((current & mask) >>> shift);
+            }
+        }
+    }
+
+    /**
+     * Moves every seat from {@code expect} to {@code update}, or none of them.
+     *
+     * @return -1 on success, otherwise the position in {@code indexes} of the
+     *         first seat that was not in the expected state
+     */
+    public int transitionAll(int[] indexes, int expect, int update) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (!compareAndSet(indexes[i], expect, update)) {
+                for (int j = 0; j < i; j++) {
+                    compareAndSet(indexes[j], update, expect);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bit {@code k} of the result is set when seat {@code wordIndex * 32 + k}
+     * is in the given state. Positions past the end of the map are never set.
+     */
+    public long stateMask(int wordIndex, int state) {
+        long word = words.get(wordIndex);
+        long low = word & LOW_BITS;
+        long high = (word >>> 1) & LOW_BITS;
+        long pairs;
+        switch (state) {
+            case FREE -> pairs = ~(low | high) & LOW_BITS;
+            case HELD -> pairs = low & ~high & LOW_BITS;
+            case RESERVED -> pairs = high & ~low & LOW_BITS;
+            default -> pairs = low & high;
+        }
+        // Gather every other bit so seat k maps to bit k
+        long mask = Long.compress(pairs, LOW_BITS);
+        int seatsInWord = Math.min(SEATS_PER_WORD, size - wordIndex * SEATS_PER_WORD);
+        return mask & ((1L << seatsInWord) - 1);
+    }
+
+    public int count(int state) {
+        int total = 0;
+        for (int w = 0; w < words.length(); w++) {
+            total += Long.bitCount(stateMask(w, state));
+        }
+        return total;
+    }
+}
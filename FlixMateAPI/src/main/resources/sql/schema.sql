@@ -4,6 +4,15 @@ GO
 USE FLIXMATE_2_0;
 GO
 
+IF OBJECT_ID('[dbo].[ticket_checkins]', 'U') IS NOT NULL DROP TABLE [dbo].[ticket_checkins];
+IF OBJECT_ID('[dbo].[tickets]', 'U') IS NOT NULL DROP TABLE [dbo].[tickets];
+IF OBJECT_ID('[dbo].[showtime_prices]', 'U') IS NOT NULL DROP TABLE [dbo].[showtime_prices];
+IF OBJECT_ID('[dbo].[showtime_cancellation_jobs]', 'U') IS NOT NULL DROP TABLE [dbo].[showtime_cancellation_jobs];
+IF OBJECT_ID('[dbo].[sales_hourly_rollups]', 'U') IS NOT NULL DROP TABLE [dbo].[sales_hourly_rollups];
+IF OBJECT_ID('[dbo].[sales_daily_rollups]', 'U') IS NOT NULL DROP TABLE [dbo].[sales_daily_rollups];
+IF OBJECT_ID('[dbo].[payment_outbox]', 'U') IS NOT NULL DROP TABLE [dbo].[payment_outbox];
+IF OBJECT_ID('[dbo].[refunds]', 'U') IS NOT NULL DROP TABLE [dbo].[refunds];
+IF OBJECT_ID('[dbo].[showtime_seats]', 'U') IS NOT NULL DROP TABLE [dbo].[showtime_seats];
 IF OBJECT_ID('[dbo].[booking_seats]', 'U') IS NOT NULL DROP TABLE [dbo].[booking_seats];
 IF OBJECT_ID('[dbo].[payments]', 'U') IS NOT NULL DROP TABLE [dbo].[payments];
 IF OBJECT_ID('[dbo].[bookings]', 'U') IS NOT NULL DROP TABLE [dbo].[bookings];
@@ -67,7 +76,8 @@ CREATE TABLE [dbo].[cinema_halls]
     [hall_id]  INT IDENTITY(1,1) CONSTRAINT PK_cinema_halls PRIMARY KEY,
     [name]     NVARCHAR(100) NOT NULL,
     [location] NVARCHAR(150) NULL,
-    [capacity] INT           NOT NULL CHECK ([capacity] > 0)
+    [capacity] INT           NOT NULL CHECK ([capacity] > 0),
+    [layout]   NVARCHAR(MAX) NULL
 );
 GO
 
@@ -86,16 +96,30 @@ GO
 
 CREATE TABLE [dbo].[seats]
 (
-    [seat_id]  INT IDENTITY(1,1) CONSTRAINT PK_seats PRIMARY KEY,
-    [hall_id]  INT           NOT NULL,
-    [row]      NVARCHAR(10)  NOT NULL,
-    [number]   INT           NOT NULL,
-    [status]   NVARCHAR(20)  NOT NULL DEFAULT('AVAILABLE'),
+    [seat_id]       INT IDENTITY(1,1) CONSTRAINT PK_seats PRIMARY KEY,
+    [hall_id]       INT           NOT NULL,
+    [row]           NVARCHAR(10)  NOT NULL,
+    [number]        INT           NOT NULL,
+    [status]        NVARCHAR(20)  NOT NULL DEFAULT('AVAILABLE'),
+    [seat_type]     NVARCHAR(20)  NULL,
+    [section_name]  NVARCHAR(50)  NULL,
+    [grid_position] INT           NULL,
     CONSTRAINT FK_seats_hall FOREIGN KEY ([hall_id]) REFERENCES [dbo].[cinema_halls]([hall_id]),
     CONSTRAINT UQ_seats_hall_row_number UNIQUE ([hall_id], [row], [number])
 );
 GO
 
+CREATE TABLE [dbo].[showtime_prices]
+(
+    [price_id]    INT IDENTITY(1,1) CONSTRAINT PK_showtime_prices PRIMARY KEY,
+    [showtime_id] INT           NOT NULL,
+    [seat_type]   NVARCHAR(20)  NOT NULL,
+    [price]       DECIMAL(10,2) NOT NULL CHECK ([price] >= 0),
+    CONSTRAINT FK_showtime_prices_showtime FOREIGN KEY ([showtime_id]) REFERENCES [dbo].[showtimes]([showtime_id]) ON DELETE CASCADE,
+    CONSTRAINT UQ_showtime_prices_type UNIQUE ([showtime_id], [seat_type])
+);
+GO
+
 CREATE TABLE [dbo].[bookings]
 (
     [booking_id]   INT IDENTITY(1,1) CONSTRAINT PK_bookings PRIMARY KEY,
@@ -103,6 +127,7 @@ CREATE TABLE [dbo].[bookings]
     [total_seats]  INT           NOT NULL CHECK ([total_seats] > 0),
     [total_amount] DECIMAL(10,2) NOT NULL CHECK ([total_amount] >= 0),
     [status]       NVARCHAR(30)  NOT NULL DEFAULT('PENDING'),
+    [hold_expires_at] DATETIME2  NULL,
     [user_id]      INT           NOT NULL,
     [showtime_id]  INT           NOT NULL,
     CONSTRAINT FK_bookings_user     FOREIGN KEY ([user_id])     REFERENCES [dbo].[users]([user_id]),
@@ -120,6 +145,19 @@ CREATE TABLE [dbo].[booking_seats]
 );
 GO
 
+CREATE TABLE [dbo].[showtime_seats]
+(
+    [showtime_seat_id] INT IDENTITY(1,1) CONSTRAINT PK_showtime_seats PRIMARY KEY,
+    [showtime_id]      INT          NOT NULL,
+    [seat_id]          INT          NOT NULL,
+    [status]           NVARCHAR(20) NOT NULL DEFAULT('AVAILABLE'),
+    [booking_id]       INT          NULL,
+    CONSTRAINT FK_showtime_seats_showtime FOREIGN KEY ([showtime_id]) REFERENCES [dbo].[showtimes]([showtime_id]),
+    CONSTRAINT FK_showtime_seats_seat     FOREIGN KEY ([seat_id])     REFERENCES [dbo].[seats]([seat_id]),
+    CONSTRAINT UQ_showtime_seats_showtime_seat UNIQUE ([showtime_id], [seat_id])
+);
+GO
+
 CREATE TABLE [dbo].[payments]
 (
     [payment_id]      INT IDENTITY(1,1) CONSTRAINT PK_payments PRIMARY KEY,
@@ -138,6 +176,111 @@ CREATE TABLE [dbo].[payments]
 );
 GO
 
+CREATE TABLE [dbo].[refunds]
+(
+    [refund_id]   INT IDENTITY(1,1) CONSTRAINT PK_refunds PRIMARY KEY,
+    [payment_id]  INT           NOT NULL,
+    [booking_id]  INT           NOT NULL,
+    [amount]      DECIMAL(10,2) NOT NULL CHECK ([amount] >= 0),
+    [seat_count]  INT           NULL,
+    [seat_ids]    NVARCHAR(500) NULL,
+    [reason]      NVARCHAR(255) NULL,
+    [refund_date] DATETIME2     NOT NULL DEFAULT(SYSDATETIME()),
+    [status]      NVARCHAR(20)  NOT NULL,
+    CONSTRAINT FK_refunds_payment FOREIGN KEY ([payment_id]) REFERENCES [dbo].[payments]([payment_id]),
+    CONSTRAINT FK_refunds_booking FOREIGN KEY ([booking_id]) REFERENCES [dbo].[bookings]([booking_id])
+);
+GO
+
+CREATE TABLE [dbo].[payment_outbox]
+(
+    [outbox_id]  INT IDENTITY(1,1) CONSTRAINT PK_payment_outbox PRIMARY KEY,
+    [payment_id] INT            NOT NULL,
+    [booking_id] INT            NOT NULL,
+    [status]     NVARCHAR(20)   NOT NULL,
+    [attempts]   INT            NOT NULL DEFAULT(0),
+    [last_error] NVARCHAR(500)  NULL,
+    [created_at] DATETIME2      NOT NULL DEFAULT(SYSDATETIME()),
+    [updated_at] DATETIME2      NOT NULL DEFAULT(SYSDATETIME()),
+    CONSTRAINT FK_payment_outbox_payment FOREIGN KEY ([payment_id]) REFERENCES [dbo].[payments]([payment_id]),
+    CONSTRAINT UQ_payment_outbox_payment UNIQUE ([payment_id])
+);
+GO
+
+CREATE TABLE [dbo].[sales_hourly_rollups]
+(
+    [rollup_id]   BIGINT IDENTITY(1,1) CONSTRAINT PK_sales_hourly_rollups PRIMARY KEY,
+    [bucket_hour] DATETIME2     NOT NULL,
+    [movie_id]    INT           NOT NULL,
+    [hall_id]     INT           NOT NULL,
+    [revenue]     DECIMAL(14,2) NOT NULL DEFAULT(0),
+    [refunded]    DECIMAL(14,2) NOT NULL DEFAULT(0),
+    [tickets]     INT           NOT NULL DEFAULT(0),
+    [bookings]    INT           NOT NULL DEFAULT(0),
+    CONSTRAINT UQ_sales_hourly_key UNIQUE ([bucket_hour], [movie_id], [hall_id])
+);
+GO
+
+CREATE TABLE [dbo].[sales_daily_rollups]
+(
+    [rollup_id]  BIGINT IDENTITY(1,1) CONSTRAINT PK_sales_daily_rollups PRIMARY KEY,
+    [sales_date] DATE          NOT NULL,
+    [movie_id]   INT           NOT NULL,
+    [hall_id]    INT           NOT NULL,
+    [revenue]    DECIMAL(14,2) NOT NULL DEFAULT(0),
+    [refunded]   DECIMAL(14,2) NOT NULL DEFAULT(0),
+    [tickets]    INT           NOT NULL DEFAULT(0),
+    [bookings]   INT           NOT NULL DEFAULT(0),
+    CONSTRAINT UQ_sales_daily_key UNIQUE ([sales_date], [movie_id], [hall_id])
+);
+GO
+
+CREATE TABLE [dbo].[showtime_cancellation_jobs]
+(
+    [job_id]             INT IDENTITY(1,1) CONSTRAINT PK_showtime_cancellation_jobs PRIMARY KEY,
+    [showtime_id]        INT           NOT NULL,
+    [status]             NVARCHAR(20)  NOT NULL,
+    [reason]             NVARCHAR(255) NULL,
+    [requested_by]       NVARCHAR(100) NULL,
+    [total_bookings]     INT           NULL,
+    [processed_bookings] INT           NULL,
+    [refund_count]       INT           NULL,
+    [refunded_amount]    DECIMAL(12,2) NULL,
+    [last_booking_id]    INT           NULL,
+    [error_message]      NVARCHAR(500) NULL,
+    [started_at]         DATETIME2     NOT NULL DEFAULT(SYSDATETIME()),
+    [updated_at]         DATETIME2     NULL,
+    [completed_at]       DATETIME2     NULL,
+    CONSTRAINT FK_showtime_cancellation_jobs_showtime FOREIGN KEY ([showtime_id]) REFERENCES [dbo].[showtimes]([showtime_id])
+);
+GO
+
+CREATE TABLE [dbo].[tickets]
+(
+    [ticket_id]   INT IDENTITY(1,1) CONSTRAINT PK_tickets PRIMARY KEY,
+    [booking_id]  INT           NOT NULL,
+    [showtime_id] INT           NOT NULL,
+    [seat_id]     INT           NOT NULL,
+    [code]        NVARCHAR(64)  NOT NULL,
+    [status]      NVARCHAR(20)  NOT NULL DEFAULT('ISSUED'),
+    [issued_at]   DATETIME2     NOT NULL DEFAULT(SYSDATETIME()),
+    CONSTRAINT FK_tickets_booking FOREIGN KEY ([booking_id]) REFERENCES [dbo].[bookings]([booking_id]),
+    CONSTRAINT UQ_tickets_booking_seat UNIQUE ([booking_id], [seat_id])
+);
+GO
+
+CREATE TABLE [dbo].[ticket_checkins]
+(
+    [checkin_id]    INT IDENTITY(1,1) CONSTRAINT PK_ticket_checkins PRIMARY KEY,
+    [booking_id]    INT           NOT NULL,
+    [showtime_id]   INT           NOT NULL,
+    [seat_id]       INT           NOT NULL,
+    [gate]          NVARCHAR(50)  NULL,
+    [checked_in_at] DATETIME2     NOT NULL DEFAULT(SYSDATETIME()),
+    CONSTRAINT UQ_ticket_checkins_booking_seat UNIQUE ([booking_id], [seat_id])
+);
+GO
+
 CREATE TABLE [dbo].[reviews]
 (
     [review_id]          INT IDENTITY(1,1) CONSTRAINT PK_reviews PRIMARY KEY,
@@ -206,6 +349,7 @@ CREATE TABLE [dbo].[reports]
     [report_id]      INT IDENTITY(1,1) CONSTRAINT PK_reports PRIMARY KEY,
     [type]           NVARCHAR(50)  NOT NULL,
     [data]           NVARCHAR(MAX) NOT NULL,
+    [params]         NVARCHAR(500) NULL,
     [generated_date] DATETIME2     NOT NULL DEFAULT(SYSDATETIME()),
     [user_id]        INT           NOT NULL,
     CONSTRAINT FK_reports_user FOREIGN KEY ([user_id]) REFERENCES [dbo].[users]([user_id])
@@ -227,4 +371,17 @@ CREATE INDEX IX_users_email ON [dbo].[users]([email]);
 CREATE INDEX IX_bookings_user ON [dbo].[bookings]([user_id], [status]);
 CREATE INDEX IX_showtimes_movie_time ON [dbo].[showtimes]([movie_id], [start_time]);
 CREATE INDEX IX_payments_booking ON [dbo].[payments]([booking_id], [status]);
+CREATE INDEX IX_showtime_seats_status ON [dbo].[showtime_seats]([showtime_id], [status]);
+CREATE INDEX IX_showtime_seats_booking ON [dbo].[showtime_seats]([booking_id]);
+CREATE INDEX IX_refunds_payment ON [dbo].[refunds]([payment_id]);
+CREATE INDEX IX_refunds_booking ON [dbo].[refunds]([booking_id]);
+CREATE INDEX IX_bookings_showtime ON [dbo].[bookings]([showtime_id], [booking_id]);
+CREATE INDEX IX_tickets_status ON [dbo].[tickets]([status]);
+CREATE INDEX IX_ticket_checkins_showtime ON [dbo].[ticket_checkins]([showtime_id]);
+CREATE INDEX IX_ticket_checkins_time ON [dbo].[ticket_checkins]([checked_in_at]);
+CREATE INDEX IX_payment_outbox_status ON [dbo].[payment_outbox]([status], [updated_at]);
+CREATE INDEX IX_payment_outbox_booking ON [dbo].[payment_outbox]([booking_id], [status]);
+CREATE INDEX IX_payments_date ON [dbo].[payments]([payment_date], [status]);
+CREATE INDEX IX_showtime_cancellation_jobs_showtime ON [dbo].[showtime_cancellation_jobs]([showtime_id], [status]);
+CREATE INDEX IX_reports_cache ON [dbo].[reports]([type], [params], [generated_date]);
 GO
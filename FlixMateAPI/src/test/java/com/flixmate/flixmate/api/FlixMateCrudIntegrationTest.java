@@ -49,6 +49,9 @@ class FlixMateCrudIntegrationTest {
     private CinemaHallRepository cinemaHallRepository;
     @Autowired
     private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
     @Autowired
     private ShowTimeRepository showTimeRepository;
     @Autowired
@@ -77,6 +80,7 @@ class FlixMateCrudIntegrationTest {
         // Clean up existing data
         paymentRepository.deleteAll();
         bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
         reviewRepository.deleteAll();
         reportRepository.deleteAll();
         seatRepository.deleteAll();
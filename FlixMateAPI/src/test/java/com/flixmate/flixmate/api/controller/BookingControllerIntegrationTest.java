@@ -37,6 +37,9 @@ public class BookingControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
     @Autowired
     private ShowTimeRepository showTimeRepository;
 
@@ -49,6 +52,9 @@ public class BookingControllerIntegrationTest {
     @Autowired
     private SeatRepository seatRepository;
 
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     private User testUser;
@@ -65,6 +71,7 @@ public class BookingControllerIntegrationTest {
         
         // Clean up test data
         bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
         seatRepository.deleteAll();
         showTimeRepository.deleteAll();
         cinemaHallRepository.deleteAll();
@@ -82,6 +89,8 @@ public class BookingControllerIntegrationTest {
         testUser.setEmail("test@example.com");
         testUser.setPassword("password");
         // testUser.setRole("USER"); // User entity uses status instead of role
+        testUser.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
         testUser = userRepository.save(testUser);
 
         // Create test movie
@@ -0,0 +1,193 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books through the per-showtime sequencer and checks that group-committed
+ * batches still never sell a seat twice.
+ */
+@SpringBootTest(properties = "flixmate.booking.sequencer.enabled=true")
+@ActiveProfiles("test")
+public class BookingSequencerTest {
+
+    private static final int HALL_CAPACITY = 60;
+    private static final int REQUESTS = 1000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingSequencer bookingSequencer;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User testUser;
+    private ShowTime testShowtime;
+    private List<Integer> seatIds;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+        showTimeRepository.deleteAll();
+        cinemaHallRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = new User();
+        testUser.setUserName("sequenceduser");
+        testUser.setEmail("sequenced@example.com");
+        testUser.setPassword("password");
+        testUser.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
+        testUser = userRepository.save(testUser);
+
+        Movie movie = new Movie();
+        movie.setTitle("Sequencer Test Movie");
+        movie.setDescription("Sequencer test");
+        movie.setReleaseYear(2025);
+        movie.setGenre("Action");
+        movie.setDuration(120);
+        movie.setLanguage("English");
+        movie.setDirector("Test Director");
+        movie.setIsActive(true);
+        movie = movieRepository.save(movie);
+
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Sequencer Hall");
+        hall.setCapacity(HALL_CAPACITY);
+        hall = cinemaHallRepository.save(hall);
+
+        testShowtime = new ShowTime();
+        testShowtime.setMovie(movie);
+        testShowtime.setCinemaHall(hall);
+        testShowtime.setStartTime(LocalDateTime.now().plusHours(2));
+        testShowtime.setEndTime(LocalDateTime.now().plusHours(4));
+        testShowtime.setPrice(10.0);
+        testShowtime = showTimeRepository.save(testShowtime);
+
+        seatInventoryService.ensureInventory(testShowtime);
+        seatIds = seatRepository.findByCinemaHall(hall).stream().map(Seat::getSeatId).toList();
+    }
+
+    @Test
+    void sequencedBooking_rejectsSeatAlreadyTaken() {
+        Set<Integer> seats = Set.of(seatIds.get(0), seatIds.get(1));
+        Booking booking = bookingSequencer.book(testUser.getEmail(), testShowtime.getShowtimeId(), seats);
+
+        assertEquals("PENDING", booking.getStatus());
+        assertEquals(2, booking.getSeats().size());
+        assertThrows(SeatUnavailableException.class,
+                () -> bookingSequencer.book(testUser.getEmail(), testShowtime.getShowtimeId(), Set.of(seatIds.get(1))));
+    }
+
+    @Test
+    void batchWithConflictingCommands_onlyFailsTheLoser() {
+        BookingSequencer.BookingCommand first = new BookingSequencer.BookingCommand(
+                testUser.getEmail(), testShowtime.getShowtimeId(), Set.of(seatIds.get(0), seatIds.get(1)));
+        BookingSequencer.BookingCommand second = new BookingSequencer.BookingCommand(
+                testUser.getEmail(), testShowtime.getShowtimeId(), Set.of(seatIds.get(1), seatIds.get(2)));
+        BookingSequencer.BookingCommand third = new BookingSequencer.BookingCommand(
+                testUser.getEmail(), testShowtime.getShowtimeId(), Set.of(seatIds.get(3)));
+
+        bookingService.createBookingBatch(testShowtime.getShowtimeId(), List.of(first, second, third));
+
+        assertNotNull(first.getBooking());
+        assertInstanceOf(SeatUnavailableException.class, second.getFailure());
+        assertNotNull(third.getBooking());
+        assertEquals(2, bookingRepository.findByShowtime(testShowtime).size());
+    }
+
+    @Test
+    void parallelSequencedBookings_neverSellSeatTwice() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            Set<Integer> requested = randomSeats(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookingSequencer.book(testUser.getEmail(), testShowtime.getShowtimeId(), requested);
+                    succeeded.incrementAndGet();
+                } catch (RuntimeException expected) {
+                    // Losing a seat to an earlier command is expected under this load
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        List<Booking> bookings = bookingRepository.findByShowtime(testShowtime);
+        assertEquals(succeeded.get(), bookings.size());
+        Set<Integer> sold = new HashSet<>();
+        for (Booking booking : bookings) {
+            for (Seat seat : booking.getSeats()) {
+                assertTrue(sold.add(seat.getSeatId()), "Seat " + seat.getSeatId() + " was sold twice");
+            }
+        }
+        long reserved = showtimeSeatRepository.findByShowtime_ShowtimeId(testShowtime.getShowtimeId()).stream()
+                .filter(row -> SeatInventoryService.RESERVED.equals(row.getStatus()))
+                .count();
+        assertEquals(sold.size(), reserved);
+    }
+
+    private Set<Integer> randomSeats(int request) {
+        Random random = new Random(request);
+        int count = 1 + random.nextInt(3);
+        Set<Integer> requested = new HashSet<>();
+        while (requested.size() < count) {
+            requested.add(seatIds.get(random.nextInt(seatIds.size())));
+        }
+        return requested;
+    }
+}
@@ -1,12 +1,14 @@
 package com.flixmate.flixmate.api.service;
 
 import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.model.ShowtimeSeatSelection;
 import com.flixmate.flixmate.api.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -16,7 +18,9 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class BookingServiceTest {
@@ -31,11 +35,23 @@ class BookingServiceTest {
     private ShowTimeRepository showTimeRepository;
 
     @Mock
-    private SeatRepository seatRepository;
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private SeatMapEngine seatMapEngine;
+
+    @Mock
+    private SeatHoldManager seatHoldManager;
 
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private TicketService ticketService;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -84,8 +100,8 @@ class BookingServiceTest {
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(showTimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
-        when(seatRepository.findById(1)).thenReturn(Optional.of(seat1));
-        when(seatRepository.findById(2)).thenReturn(Optional.of(seat2));
+        when(seatInventoryService.reserveSeats(showtime, seatIds, 1)).thenReturn(new HashSet<>(Set.of(seat1, seat2)));
+        when(seatMapEngine.priceOf(showtime, seatIds)).thenReturn(20.0);
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
             Booking booking = invocation.getArgument(0);
             booking.setBookingId(1);
@@ -105,10 +121,138 @@ class BookingServiceTest {
         assertEquals(2, result.getSeats().size());
 
         // Verify interactions
-        verify(seatRepository, times(2)).save(any(Seat.class));
+        verify(seatInventoryService).reserveSeats(showtime, seatIds, 1);
         verify(emailService).sendBookingConfirmation(eq(email), anyString(), eq("Test Movie"), anyString());
     }
 
+    @Test
+    void createBestAvailableBooking_Success() {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "maxGroupSize", 20);
+        String email = "user@example.com";
+        Integer showtimeId = 1;
+
+        User user = new User();
+        user.setEmail(email);
+
+        Movie movie = new Movie();
+        movie.setTitle("Test Movie");
+
+        ShowTime showtime = new ShowTime();
+        showtime.setShowtimeId(showtimeId);
+        showtime.setPrice(10.0);
+        showtime.setMovie(movie);
+        showtime.setStartTime(LocalDateTime.now().plusHours(1));
+
+        Seat seat1 = new Seat();
+        seat1.setSeatId(5);
+        Seat seat2 = new Seat();
+        seat2.setSeatId(6);
+        Set<Integer> allocated = Set.of(5, 6);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(showTimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
+        when(seatMapEngine.holdBestAvailable(showtime, 2, "C")).thenReturn(List.of(5, 6));
+        when(seatInventoryService.reserveSeats(showtime, allocated, 1)).thenReturn(new HashSet<>(Set.of(seat1, seat2)));
+        when(seatMapEngine.priceOf(showtime, allocated)).thenReturn(20.0);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setBookingId(1);
+            return booking;
+        });
+
+        // Act
+        Booking result = bookingService.createBestAvailableBooking(email, showtimeId, 2, "C");
+
+        // Assert
+        assertEquals(2, result.getTotalSeats());
+        assertEquals(20.0, result.getTotalAmount());
+        assertEquals(2, result.getSeats().size());
+        verify(seatMapEngine).holdBestAvailable(showtime, 2, "C");
+        verify(seatMapEngine, never()).holdSeats(any(), any());
+        verify(seatHoldManager).startHold(result);
+    }
+
+    @Test
+    void createBestAvailableBooking_QuantityTooLarge() {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "maxGroupSize", 20);
+        String email = "user@example.com";
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(new User()));
+        when(showTimeRepository.findById(1)).thenReturn(Optional.of(new ShowTime()));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> bookingService.createBestAvailableBooking(email, 1, 21, null));
+        assertEquals("Please request between 1 and 20 seats", exception.getMessage());
+        verifyNoInteractions(seatMapEngine);
+    }
+
+    @Test
+    void createMultiShowtimeBooking_OneBookingPerShowtime() {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "maxShowtimesPerRequest", 10);
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+        ShowTime first = new ShowTime();
+        first.setShowtimeId(1);
+        ShowTime second = new ShowTime();
+        second.setShowtimeId(2);
+        List<ShowtimeSeatSelection> selections = List.of(
+                new ShowtimeSeatSelection(2, Set.of(7)),
+                new ShowtimeSeatSelection(1, Set.of(3, 4)));
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(showTimeRepository.findAllById(Set.of(1, 2))).thenReturn(List.of(first, second));
+        when(seatMapEngine.priceOf(first, Set.of(3, 4))).thenReturn(20.0);
+        when(seatMapEngine.priceOf(second, Set.of(7))).thenReturn(12.0);
+        when(seatInventoryService.reserveSeats(any(ShowTime.class), any(), anyInt())).thenReturn(new HashSet<>());
+        int[] nextId = {100};
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            if (booking.getBookingId() == null) {
+                booking.setBookingId(nextId[0]++);
+            }
+            return booking;
+        });
+
+        // Act
+        List<Booking> bookings = bookingService.createMultiShowtimeBooking(email, selections);
+
+        // Assert
+        assertEquals(2, bookings.size());
+        assertSame(second, bookings.get(0).getShowtime());
+        assertEquals(12.0, bookings.get(0).getTotalAmount());
+        assertSame(first, bookings.get(1).getShowtime());
+        assertEquals(20.0, bookings.get(1).getTotalAmount());
+        verify(userRepository, times(1)).findByEmail(email);
+        verify(showTimeRepository, never()).findById(anyInt());
+        verify(seatMapEngine).holdSeats(first, Set.of(3, 4));
+        verify(seatMapEngine).holdSeats(second, Set.of(7));
+        verify(seatHoldManager, times(2)).startHold(any(Booking.class));
+    }
+
+    @Test
+    void createMultiShowtimeBooking_MissingShowtimeReservesNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "maxShowtimesPerRequest", 10);
+        String email = "user@example.com";
+        ShowTime first = new ShowTime();
+        first.setShowtimeId(1);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(new User()));
+        when(showTimeRepository.findAllById(Set.of(1, 2))).thenReturn(List.of(first));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> bookingService.createMultiShowtimeBooking(email, List.of(
+                    new ShowtimeSeatSelection(1, Set.of(3)),
+                    new ShowtimeSeatSelection(2, Set.of(7)))));
+        assertEquals("Showtime 2 not found", exception.getMessage());
+        verifyNoInteractions(seatMapEngine, seatInventoryService);
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void createBooking_UserNotFound() {
         // Arrange
@@ -153,13 +297,15 @@ class BookingServiceTest {
         showtime.setPrice(10.0);
         showtime.setStartTime(LocalDateTime.now().plusHours(1));
 
-        Seat seat = new Seat();
-        seat.setSeatId(1);
-        seat.setStatus("RESERVED"); // Not available
-
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(showTimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
-        when(seatRepository.findById(1)).thenReturn(Optional.of(seat));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setBookingId(1);
+            return booking;
+        });
+        when(seatInventoryService.reserveSeats(showtime, seatIds, 1))
+                .thenThrow(new RuntimeException("Seat 1 is not available")); // Reserved for this showtime
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
@@ -168,27 +314,268 @@ class BookingServiceTest {
     }
 
     @Test
-    void getAvailableSeats_Success() {
+    void updateBooking_OnlySwapsChangedSeats() {
         // Arrange
-        Integer showtimeId = 1;
-        CinemaHall hall = new CinemaHall();
-        hall.setHallId(1);
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
 
         ShowTime showtime = new ShowTime();
-        showtime.setShowtimeId(showtimeId);
-        showtime.setCinemaHall(hall);
+        showtime.setShowtimeId(1);
+        showtime.setPrice(10.0);
+
+        Seat kept = new Seat();
+        kept.setSeatId(1);
+        Seat dropped = new Seat();
+        dropped.setSeatId(2);
+        Seat added = new Seat();
+        added.setSeatId(3);
+
+        Booking booking = new Booking(LocalDateTime.now(), 2, 18.0, "PENDING", user, showtime,
+                new HashSet<>(Set.of(kept, dropped)));
+        booking.setBookingId(5);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+        when(seatInventoryService.swapSeats(showtime, 5, Set.of(3), Set.of(2)))
+                .thenReturn(new HashSet<>(Set.of(added)));
+        // Swapping a standard seat for a premium one; the two standard seats were booked with a discount
+        when(seatMapEngine.priceOf(showtime, Set.of(3))).thenReturn(15.0);
+        when(seatMapEngine.priceOf(showtime, Set.of(2))).thenReturn(10.0);
+        when(seatMapEngine.priceOf(showtime, Set.of(1, 2))).thenReturn(20.0);
+
+        // Act
+        boolean updated = bookingService.updateBooking(email, 5, Set.of(1, 3));
 
+        // Assert
+        assertTrue(updated);
+        assertEquals(Set.of(kept, added), booking.getSeats());
+        assertEquals(2, booking.getTotalSeats());
+        // The dropped seat takes its 9.0 share of what was charged, not its 10.0 list price
+        assertEquals(24.0, booking.getTotalAmount());
+        verify(seatMapEngine).holdSeats(showtime, Set.of(3));
+        verify(seatMapEngine).releaseSeats(1, Set.of(2));
+        verify(seatInventoryService, never()).releaseSeats(anyInt());
+    }
+
+    @Test
+    void updateBooking_PaidBookingRefundsRemovedSeatsAcrossUpdates() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        ShowTime showtime = new ShowTime();
+        showtime.setShowtimeId(1);
+        showtime.setPrice(10.0);
+
+        Set<Seat> seats = new HashSet<>();
+        for (int id = 1; id <= 3; id++) {
+            Seat seat = new Seat();
+            seat.setSeatId(id);
+            seats.add(seat);
+        }
+        // Booked with a discount: 3 seats for 27.0
+        Booking booking = new Booking(LocalDateTime.now(), 3, 27.0, "CONFIRMED", user, showtime, seats);
+        booking.setBookingId(5);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(seatInventoryService.swapSeats(eq(showtime), eq(5), eq(Set.of()), any())).thenReturn(new HashSet<>());
+
+        // Act
+        assertTrue(bookingService.updateBooking(email, 5, Set.of(1, 2)));
+        assertEquals("CONFIRMED", booking.getStatus());
+        assertTrue(bookingService.updateBooking(email, 5, Set.of(1)));
+
+        // Assert: the second update is still treated as paid
+        assertEquals("CONFIRMED", booking.getStatus());
+        assertEquals(1, booking.getTotalSeats());
+        assertEquals(9.0, booking.getTotalAmount());
+        verify(ticketService).voidTickets(5, Set.of(3));
+        verify(ticketService).voidTickets(5, Set.of(2));
+        verify(paymentService).refundSeats(booking, Set.of(3), 9.0, "Seats removed from booking");
+        verify(paymentService).refundSeats(booking, Set.of(2), 9.0, "Seats removed from booking");
+    }
+
+    @Test
+    void updateBooking_PaidBookingCannotGainSeats() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        Seat seat = new Seat();
+        seat.setSeatId(1);
+        Booking booking = new Booking(LocalDateTime.now(), 1, 10.0, "CONFIRMED", user, new ShowTime(),
+                new HashSet<>(Set.of(seat)));
+        booking.setBookingId(5);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> bookingService.updateBooking(email, 5, Set.of(1, 2)));
+        verifyNoInteractions(seatInventoryService, seatMapEngine, ticketService, paymentService);
+        assertEquals(10.0, booking.getTotalAmount());
+    }
+
+    @Test
+    void updateBooking_UnchangedSeatsTouchNothing() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        Seat seat = new Seat();
+        seat.setSeatId(1);
+        Booking booking = new Booking(LocalDateTime.now(), 1, 10.0, "PENDING", user, new ShowTime(),
+                new HashSet<>(Set.of(seat)));
+        booking.setBookingId(5);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+
+        // Act
+        assertTrue(bookingService.updateBooking(email, 5, Set.of(1)));
+
+        // Assert
+        verifyNoInteractions(seatInventoryService, seatMapEngine);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void updateBooking_CancelledBookingCannotBeUpdated() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        Seat seat = new Seat();
+        seat.setSeatId(1);
+        Booking booking = new Booking(LocalDateTime.now(), 1, 10.0, "CANCELLED", user, new ShowTime(),
+                new HashSet<>(Set.of(seat)));
+        booking.setBookingId(5);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> bookingService.updateBooking(email, 5, Set.of(2)));
+        assertEquals("Failed to update booking: Booking is cancelled", exception.getMessage());
+        verifyNoInteractions(seatInventoryService, seatMapEngine);
+        assertEquals("CANCELLED", booking.getStatus());
+    }
+
+    @Test
+    void cancelSeats_ReleasesSeatsAndRefundsShare() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        ShowTime showtime = new ShowTime();
+        showtime.setShowtimeId(1);
+        showtime.setPrice(10.0);
+
+        Set<Seat> seats = new HashSet<>();
+        for (int id = 1; id <= 4; id++) {
+            Seat seat = new Seat();
+            seat.setSeatId(id);
+            seats.add(seat);
+        }
+        // Booked with a discount: 4 seats for 36.0
+        Booking booking = new Booking(LocalDateTime.now(), 4, 36.0, "CONFIRMED", user, showtime, seats);
+        booking.setBookingId(5);
+
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(seatInventoryService.releaseSeats(5, Set.of(4))).thenReturn(1);
+
+        // Act
+        Booking result = bookingService.cancelSeats(email, 5, Set.of(4), "Dropped out");
+
+        // Assert
+        assertEquals(3, result.getTotalSeats());
+        assertEquals(3, result.getSeats().size());
+        assertEquals(27.0, result.getTotalAmount());
+        verify(seatMapEngine).releaseSeats(1, Set.of(4));
+        verify(paymentService).refundSeats(booking, Set.of(4), 9.0, "Dropped out");
+    }
+
+    @Test
+    void cancelSeats_RefundsShareByListPrice() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        ShowTime showtime = new ShowTime();
+        showtime.setShowtimeId(1);
+        showtime.setPrice(10.0);
+
+        Set<Seat> seats = new HashSet<>();
+        for (int id = 1; id <= 4; id++) {
+            Seat seat = new Seat();
+            seat.setSeatId(id);
+            seats.add(seat);
+        }
+        // Three standard seats and one premium seat, 45.0 list price, booked for 36.0
+        Booking booking = new Booking(LocalDateTime.now(), 4, 36.0, "CONFIRMED", user, showtime, seats);
+        booking.setBookingId(5);
+
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(seatInventoryService.releaseSeats(5, Set.of(4))).thenReturn(1);
+        when(seatMapEngine.priceOf(showtime, Set.of(1, 2, 3, 4))).thenReturn(45.0);
+        when(seatMapEngine.priceOf(showtime, Set.of(4))).thenReturn(15.0);
+
+        // Act
+        Booking result = bookingService.cancelSeats(email, 5, Set.of(4), null);
+
+        // Assert
+        assertEquals(24.0, result.getTotalAmount());
+        verify(paymentService).refundSeats(booking, Set.of(4), 12.0, null);
+    }
+
+    @Test
+    void cancelSeats_AllSeatsRequiresFullCancellation() {
+        // Arrange
+        String email = "user@example.com";
+        User user = new User();
+        user.setEmail(email);
+
+        Seat seat = new Seat();
+        seat.setSeatId(1);
+        Booking booking = new Booking(LocalDateTime.now(), 1, 10.0, "CONFIRMED", user, new ShowTime(),
+                new HashSet<>(Set.of(seat)));
+        booking.setBookingId(5);
+        when(bookingRepository.findById(5)).thenReturn(Optional.of(booking));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> bookingService.cancelSeats(email, 5, Set.of(1), null));
+        assertTrue(exception.getMessage().contains("cancel the whole booking"));
+        verifyNoInteractions(seatInventoryService, paymentService);
+    }
+
+    @Test
+    void getAvailableSeats_Success() {
+        // Arrange
+        Integer showtimeId = 1;
         List<Seat> expectedSeats = List.of(new Seat(), new Seat());
 
-        when(showTimeRepository.findById(showtimeId)).thenReturn(Optional.of(showtime));
-        when(seatRepository.findByCinemaHall_HallIdAndStatus(1, "AVAILABLE")).thenReturn(expectedSeats);
+        when(seatMapEngine.getAvailableSeats(showtimeId)).thenReturn(expectedSeats);
 
         // Act
         List<Seat> result = bookingService.getAvailableSeats(showtimeId);
 
         // Assert
         assertEquals(expectedSeats, result);
-        verify(seatRepository).findByCinemaHall_HallIdAndStatus(1, "AVAILABLE");
+        verify(seatMapEngine).getAvailableSeats(showtimeId);
+        verifyNoInteractions(seatInventoryService);
     }
 
     @Test
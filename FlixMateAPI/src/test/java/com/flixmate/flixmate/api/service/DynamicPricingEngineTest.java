@@ -0,0 +1,59 @@
+package com.flixmate.flixmate.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicPricingEngineTest {
+
+    private DynamicPricingEngine pricingEngine;
+
+    @BeforeEach
+    void setUp() {
+        pricingEngine = new DynamicPricingEngine();
+        ReflectionTestUtils.setField(pricingEngine, "rulesSource",
+                "occupancy >= 0.5 => 1.2; occupancy >= 0.9 => 1.5; hours <= 2 => 1.1; day = MON => 0.9");
+        ReflectionTestUtils.setField(pricingEngine, "minMultiplier", 0.5);
+        ReflectionTestUtils.setField(pricingEngine, "maxMultiplier", 1.6);
+        pricingEngine.compileRules();
+    }
+
+    @Test
+    void quoteIsReusedUntilAThresholdIsCrossed() {
+        LocalDateTime start = LocalDateTime.now().plusDays(3).with(TemporalAdjusters.next(DayOfWeek.FRIDAY));
+
+        DynamicPricingEngine.Quote empty = pricingEngine.quote(start, 0.1, null);
+        assertEquals(1.0, empty.getMultiplier(), 1e-9);
+        assertSame(empty, pricingEngine.quote(start, 0.4, empty));
+
+        DynamicPricingEngine.Quote busy = pricingEngine.quote(start, 0.5, empty);
+        assertNotSame(empty, busy);
+        assertEquals(1.2, busy.getMultiplier(), 1e-9);
+        assertSame(busy, pricingEngine.refresh(start, busy));
+    }
+
+    @Test
+    void multiplierIsClampedAndIncludesTimeAndDay() {
+        LocalDateTime soon = LocalDateTime.now().plusHours(1);
+        // 1.2 * 1.5 * 1.1 = 1.98, capped at 1.6
+        assertEquals(1.6, pricingEngine.quote(soon, 0.95, null).getMultiplier(), 1e-9);
+
+        LocalDateTime monday = LocalDateTime.now().plusDays(3).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        assertEquals(0.9, pricingEngine.quote(monday, 0.0, null).getMultiplier(), 1e-9);
+    }
+
+    @Test
+    void withoutRulesPricesAreFixed() {
+        ReflectionTestUtils.setField(pricingEngine, "rulesSource", "");
+        pricingEngine.compileRules();
+
+        assertFalse(pricingEngine.isEnabled());
+        assertEquals(1.0, pricingEngine.quote(LocalDateTime.now(), 1.0, null).getMultiplier(), 1e-9);
+    }
+}
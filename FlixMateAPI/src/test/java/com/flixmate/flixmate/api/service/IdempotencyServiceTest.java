@@ -0,0 +1,126 @@
+package com.flixmate.flixmate.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyServiceTest {
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 100);
+        ReflectionTestUtils.setField(idempotencyService, "waitSeconds", 5L);
+    }
+
+    @Test
+    void duplicateRequestReplaysFirstResponse() {
+        ResponseEntity<?> first = idempotencyService.execute("booking", "user@test.com", "key-1", "1:[1, 2]", this::book);
+        ResponseEntity<?> second = idempotencyService.execute("booking", "user@test.com", "key-1", "1:[1, 2]", this::book);
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void requestsWithoutKeyAlwaysRun() {
+        idempotencyService.execute("booking", "user@test.com", null, "1:[1, 2]", this::book);
+        idempotencyService.execute("booking", "user@test.com", " ", "1:[1, 2]", this::book);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, idempotencyService.size());
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        idempotencyService.execute("booking", "a@test.com", "key-1", "1:[1]", this::book);
+        idempotencyService.execute("booking", "b@test.com", "key-1", "1:[1]", this::book);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void reusedKeyWithDifferentRequestIsRejected() {
+        idempotencyService.execute("booking", "user@test.com", "key-1", "1:[1, 2]", this::book);
+        ResponseEntity<?> response = idempotencyService.execute("booking", "user@test.com", "key-1", "1:[3]", this::book);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedExecutionCanBeRetried() {
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("payment", "user@test.com", "key-1", "7",
+                () -> { throw new RuntimeException("gateway down"); }));
+
+        ResponseEntity<?> retry = idempotencyService.execute("payment", "user@test.com", "key-1", "7", this::book);
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<?>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return idempotencyService.execute("payment", "user@test.com", "key-1", "7", () -> {
+                        sleep(100);
+                        return book();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<?>> result : results) {
+                assertEquals("booking-1", result.get(5, TimeUnit.SECONDS).getBody());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void storeIsBounded() {
+        for (int i = 0; i < 500; i++) {
+            idempotencyService.execute("booking", "user@test.com", "key-" + i, "1", this::book);
+        }
+
+        assertTrue(idempotencyService.size() <= 101, "size was " + idempotencyService.size());
+    }
+
+    private ResponseEntity<?> book() {
+        return ResponseEntity.ok("booking-" + executions.incrementAndGet());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.GatewayResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentGatewayRouterTest {
+
+    private final CountDownLatch slowRelease = new CountDownLatch(1);
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    private PaymentGatewayRouter router;
+
+    @BeforeEach
+    void setUp() {
+        // PAYPAL hangs until the test ends, everything else answers at once
+        PaymentGateway slow = new StubGateway("slow", "PAYPAL") {
+            @Override
+            public GatewayResult charge(String transactionId, String paymentMethod, Double amount) {
+                slowCalls.incrementAndGet();
+                try {
+                    slowRelease.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return GatewayResult.success("late");
+            }
+        };
+        PaymentGateway fast = new StubGateway("fast", null);
+
+        router = new PaymentGatewayRouter();
+        ReflectionTestUtils.setField(router, "gateways", List.of(slow, fast));
+        ReflectionTestUtils.setField(router, "environment", new MockEnvironment()
+                .withProperty("flixmate.payments.gateways.slow.timeout-ms", "50"));
+        ReflectionTestUtils.setField(router, "defaultTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(router, "defaultBulkheadThreads", 2);
+        ReflectionTestUtils.setField(router, "defaultBulkheadQueue", 1);
+        ReflectionTestUtils.setField(router, "defaultBreakerWindow", 4);
+        ReflectionTestUtils.setField(router, "defaultBreakerMinCalls", 2);
+        ReflectionTestUtils.setField(router, "defaultBreakerFailureRate", 0.5);
+        ReflectionTestUtils.setField(router, "defaultBreakerOpenSeconds", 30L);
+        router.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowRelease.countDown();
+        router.shutdown();
+    }
+
+    @Test
+    void testRoutesByPaymentMethod() {
+        assertEquals("fast", router.charge("tx-1", "CREDIT_CARD", 10.0).getGatewayResponse());
+    }
+
+    @Test
+    void testSlowGatewayTimesOutThenFailsFast() {
+        assertThrows(PaymentGatewayUnavailableException.class, () -> router.charge("tx-1", "PAYPAL", 10.0));
+        assertThrows(PaymentGatewayUnavailableException.class, () -> router.charge("tx-2", "PAYPAL", 10.0));
+        assertEquals(2, slowCalls.get());
+
+        // The circuit is open now: rejected without reaching the gateway
+        long start = System.nanoTime();
+        PaymentGatewayUnavailableException e = assertThrows(PaymentGatewayUnavailableException.class,
+                () -> router.charge("tx-3", "PAYPAL", 10.0));
+        assertTrue(System.nanoTime() - start < 50_000_000L);
+        assertEquals("slow", e.getGateway());
+        assertEquals(2, slowCalls.get());
+        assertEquals("OPEN", router.getGatewayHealth().get(0).get("circuit"));
+
+        // Other payment methods keep working
+        assertEquals("SUCCESS", router.charge("tx-4", "CREDIT_CARD", 10.0).getStatus());
+        assertEquals("CLOSED", router.getGatewayHealth().get(1).get("circuit"));
+    }
+
+    private static class StubGateway implements PaymentGateway {
+        private final String name;
+        private final String method;
+
+        StubGateway(String name, String method) {
+            this.name = name;
+            this.method = method;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean supports(String paymentMethod) {
+            return method == null || method.equals(paymentMethod);
+        }
+
+        @Override
+        public GatewayResult charge(String transactionId, String paymentMethod, Double amount) {
+            return GatewayResult.success(name);
+        }
+    }
+}
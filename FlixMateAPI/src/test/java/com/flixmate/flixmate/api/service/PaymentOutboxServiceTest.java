@@ -0,0 +1,190 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.model.PaymentStatus;
+import com.flixmate.flixmate.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PaymentOutboxServiceTest {
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    private User testUser;
+    private Booking testBooking;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data
+        paymentOutboxRepository.deleteAll();
+        paymentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+        showTimeRepository.deleteAll();
+        cinemaHallRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Create test data
+        createTestData();
+    }
+
+    private void createTestData() {
+        // Create test user
+        testUser = new User();
+        testUser.setUserName("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setPassword("password");
+        // testUser.setRole("USER"); // User entity uses status instead of role
+        testUser.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
+        testUser = userRepository.save(testUser);
+
+        // Create test movie
+        Movie movie = new Movie();
+        movie.setTitle("Test Movie");
+        movie.setDescription("Test Description");
+        movie.setReleaseYear(2025);
+        movie.setGenre("Action");
+        movie.setDuration(120);
+        movie.setLanguage("English");
+        movie.setDirector("Test Director");
+        movie.setIsActive(true);
+        movie = movieRepository.save(movie);
+
+        // Create test cinema hall
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Test Hall");
+        hall.setCapacity(100);
+        hall = cinemaHallRepository.save(hall);
+
+        // Create test showtime
+        ShowTime showtime = new ShowTime();
+        showtime.setMovie(movie);
+        showtime.setCinemaHall(hall);
+        showtime.setStartTime(LocalDateTime.now().plusHours(2));
+        showtime.setEndTime(LocalDateTime.now().plusHours(4));
+        showtime.setPrice(15.0);
+        showtime = showTimeRepository.save(showtime);
+
+        // Create test seat
+        Seat seat = new Seat();
+        seat.setCinemaHall(hall);
+        seat.setRow("A");
+        seat.setNumber(1);
+        seat.setStatus("AVAILABLE");
+        seat = seatRepository.save(seat);
+
+        // Create test booking
+        testBooking = new Booking();
+        testBooking.setUser(testUser);
+        testBooking.setShowtime(showtime);
+        testBooking.setBookingDate(LocalDateTime.now());
+        testBooking.setTotalSeats(1);
+        testBooking.setTotalAmount(15.0);
+        testBooking.setStatus("PENDING");
+        Set<Seat> seats = new HashSet<>();
+        seats.add(seat);
+        testBooking.setSeats(seats);
+        testBooking = bookingRepository.save(testBooking);
+    }
+
+    @Test
+    void testSubmitPaymentCompletesInBackground() throws InterruptedException {
+        Payment payment = paymentOutboxService.submitPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+
+        assertEquals("PENDING", payment.getStatus());
+        assertNotNull(payment.getTransactionId());
+
+        PaymentStatus status = awaitResult(payment.getPaymentId());
+        assertEquals("SUCCESS", status.getStatus());
+        assertEquals(testBooking.getBookingId(), status.getBookingId());
+
+        Booking updatedBooking = bookingRepository.findById(testBooking.getBookingId()).orElse(null);
+        assertNotNull(updatedBooking);
+        assertEquals("CONFIRMED", updatedBooking.getStatus());
+
+        PaymentOutbox entry = paymentOutboxRepository.findByPaymentId(payment.getPaymentId()).orElse(null);
+        assertNotNull(entry);
+        assertEquals(PaymentOutboxService.DONE, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+    }
+
+    @Test
+    void testProcessIsNoOpOnceEntryIsDone() throws InterruptedException {
+        Payment payment = paymentOutboxService.submitPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        awaitResult(payment.getPaymentId());
+        PaymentOutbox entry = paymentOutboxRepository.findByPaymentId(payment.getPaymentId()).orElseThrow();
+
+        // A redelivered entry must not be charged again
+        paymentOutboxService.process(entry.getOutboxId());
+
+        PaymentOutbox after = paymentOutboxRepository.findById(entry.getOutboxId()).orElseThrow();
+        assertEquals(PaymentOutboxService.DONE, after.getStatus());
+        assertEquals(1, after.getAttempts());
+        assertEquals(1, paymentRepository.findAll().size());
+    }
+
+    @Test
+    void testSubmitPaymentRejectsInvalidAmount() {
+        assertThrows(RuntimeException.class, () -> {
+            paymentOutboxService.submitPayment(testBooking.getBookingId(), "CREDIT_CARD", -10.0);
+        });
+        assertTrue(paymentOutboxRepository.findAll().isEmpty());
+    }
+
+    private PaymentStatus awaitResult(Integer paymentId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            PaymentStatus status = paymentOutboxService.getStatus(paymentId);
+            if (status != null && !"PENDING".equals(status.getStatus())) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        fail("Payment " + paymentId + " was not processed");
+        return null;
+    }
+}
@@ -32,6 +32,9 @@ public class PaymentServiceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
     @Autowired
     private ShowTimeRepository showTimeRepository;
 
@@ -44,6 +47,9 @@ public class PaymentServiceTest {
     @Autowired
     private SeatRepository seatRepository;
 
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
     private User testUser;
     private Booking testBooking;
 
@@ -52,6 +58,7 @@ public class PaymentServiceTest {
         // Clean up test data
         paymentRepository.deleteAll();
         bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
         seatRepository.deleteAll();
         showTimeRepository.deleteAll();
         cinemaHallRepository.deleteAll();
@@ -69,6 +76,8 @@ public class PaymentServiceTest {
         testUser.setEmail("test@example.com");
         testUser.setPassword("password");
         // testUser.setRole("USER"); // User entity uses status instead of role
+        testUser.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
         testUser = userRepository.save(testUser);
 
         // Create test movie
@@ -138,6 +147,17 @@ public class PaymentServiceTest {
         assertEquals("CONFIRMED", updatedBooking.getStatus());
     }
 
+    @Test
+    void testProcessPaymentRejectsPaidBooking() {
+        paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+
+        // A confirmed booking is not charged a second time
+        assertThrows(RuntimeException.class, () -> {
+            paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        });
+        assertEquals(1, paymentRepository.findAll().size());
+    }
+
     @Test
     void testProcessPaymentFailed() {
         // Mock a failed payment by using an invalid payment method
@@ -252,6 +272,25 @@ public class PaymentServiceTest {
         assertEquals("REFUNDED", updatedBooking.getStatus());
     }
 
+    @Test
+    void testRefundSeatsAccumulatesPartialRefunds() {
+        Payment payment = paymentService.processPayment(testBooking.getBookingId(), "DEBIT_CARD", 15.0);
+
+        Refund first = paymentService.refundSeats(testBooking, Set.of(1), 5.0, "Dropped out");
+        Refund second = paymentService.refundSeats(testBooking, Set.of(2, 3), 20.0, null);
+
+        assertEquals(5.0, first.getAmount());
+        assertEquals("1", first.getSeatIds());
+        // Capped at what is left of the payment
+        assertEquals(10.0, second.getAmount());
+        assertEquals("2,3", second.getSeatIds());
+
+        Payment updated = paymentRepository.findById(payment.getPaymentId()).orElseThrow();
+        assertEquals("SUCCESS", updated.getStatus());
+        assertEquals(15.0, updated.getRefundAmount());
+        assertEquals(2, paymentService.getRefunds(payment.getPaymentId()).size());
+    }
+
     @Test
     void testProcessRefundInvalidAmount() {
         // Create a successful payment first
@@ -296,9 +335,39 @@ public class PaymentServiceTest {
         assertTrue(statistics.containsKey("totalRevenue"));
         assertTrue(statistics.containsKey("netRevenue"));
 
-        assertEquals(1, statistics.get("totalPayments"));
-        assertEquals(1, statistics.get("successfulPayments"));
-        assertEquals(0, statistics.get("failedPayments"));
+        assertEquals(1L, statistics.get("totalPayments"));
+        assertEquals(1L, statistics.get("successfulPayments"));
+        assertEquals(0L, statistics.get("failedPayments"));
         assertEquals(15.0, statistics.get("totalRevenue"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPaymentStatisticsFollowRefunds() {
+        Payment payment = paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        paymentService.processRefund(payment.getPaymentId(), 15.0, "Customer request");
+
+        Map<String, Object> statistics = paymentService.getPaymentStatistics();
+        assertEquals(0L, statistics.get("successfulPayments"));
+        assertEquals(0.0, statistics.get("totalRevenue"));
+        assertEquals(15.0, statistics.get("totalRefunded"));
+
+        // The running totals match a fresh aggregation of the table
+        paymentService.reconcilePaymentTotals();
+        assertEquals(statistics, paymentService.getPaymentStatistics());
+    }
+
+    @Test
+    void testGetPaymentStatisticsByDateRange() {
+        Payment payment = paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        LocalDateTime paidAt = payment.getPaymentDate();
+
+        List<Map<String, Object>> rows = paymentService.getPaymentStatistics(paidAt.minusDays(1), paidAt.plusDays(1));
+        assertEquals(1, rows.size());
+        assertEquals(paidAt.toLocalDate().toString(), rows.get(0).get("date"));
+        assertEquals("SUCCESS", rows.get(0).get("status"));
+        assertEquals(1L, rows.get(0).get("count"));
+        assertEquals(15.0, rows.get(0).get("amount"));
+
+        assertTrue(paymentService.getPaymentStatistics(paidAt.plusDays(1), paidAt.plusDays(2)).isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.flixmate.flixmate.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentTotalsTest {
+
+    @Test
+    void testRecordMovesPaymentBetweenStatuses() {
+        PaymentTotals totals = new PaymentTotals();
+
+        totals.record(null, null, null, "PENDING", 20.0, null);
+        totals.record("PENDING", 20.0, null, "SUCCESS", 20.0, null);
+        totals.record("SUCCESS", 20.0, null, "SUCCESS", 20.0, 5.0);
+
+        assertEquals(0, totals.get("PENDING").getCount());
+        assertEquals(0.0, totals.get("PENDING").getAmount(), 1e-9);
+        assertEquals(1, totals.get("SUCCESS").getCount());
+        assertEquals(20.0, totals.get("SUCCESS").getAmount(), 1e-9);
+        assertEquals(5.0, totals.get("SUCCESS").getRefunded(), 1e-9);
+
+        totals.record("SUCCESS", 20.0, 5.0, null, null, null);
+        assertEquals(0, totals.get("SUCCESS").getCount());
+        assertEquals(0.0, totals.get("SUCCESS").getRefunded(), 1e-9);
+        // Emptied statuses are dropped, as the aggregate query has no row for them
+        assertTrue(totals.snapshot().isEmpty());
+    }
+
+    @Test
+    void testReseedReplacesTotals() {
+        PaymentTotals totals = new PaymentTotals();
+        totals.record(null, null, null, "SUCCESS", 10.0, null);
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {"SUCCESS", 3L, 45.0, null});
+        rows.add(new Object[] {"FAILED", 1L, 15.0, 0.0});
+
+        assertTrue(totals.reseed(() -> rows, 1));
+        assertTrue(totals.isSeeded());
+        assertEquals(3, totals.get("SUCCESS").getCount());
+        assertEquals(45.0, totals.get("SUCCESS").getAmount(), 1e-9);
+        assertEquals(1, totals.get("FAILED").getCount());
+    }
+
+    @Test
+    void testReseedRetriesWhenPaymentsChangeMeanwhile() {
+        PaymentTotals totals = new PaymentTotals();
+        int[] queries = {0};
+
+        boolean reseeded = totals.reseed(() -> {
+            // A payment commits while the aggregate query runs
+            if (queries[0]++ == 0) {
+                totals.record(null, null, null, "SUCCESS", 10.0, null);
+            }
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[] {"SUCCESS", 1L, 10.0, 0.0});
+            return rows;
+        }, 3);
+
+        assertTrue(reseeded);
+        assertEquals(2, queries[0]);
+        assertEquals(1, totals.get("SUCCESS").getCount());
+    }
+}
@@ -0,0 +1,123 @@
+package com.flixmate.flixmate.api.service;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PdfRenderServiceTest {
+
+    private PdfRenderService pdfRenderService;
+
+    @BeforeEach
+    void setUp() {
+        pdfRenderService = new PdfRenderService();
+        ReflectionTestUtils.setField(pdfRenderService, "threadCount", 2);
+        ReflectionTestUtils.setField(pdfRenderService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(pdfRenderService, "ticketCacheMb", 1L);
+        ReflectionTestUtils.setField(pdfRenderService, "fontPath", "");
+        ReflectionTestUtils.setField(pdfRenderService, "boldFontPath", "");
+        pdfRenderService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pdfRenderService.shutdown();
+    }
+
+    @Test
+    void testRendersOnePagePerTicket() throws Exception {
+        PdfRenderService.TicketSheet sheet = sheet("CONFIRMED");
+
+        byte[] pdf = pdfRenderService.renderTickets(sheet).get(5, TimeUnit.SECONDS);
+
+        PdfReader reader = new PdfReader(pdf);
+        assertEquals(2, reader.getNumberOfPages());
+        String firstPage = PdfTextExtractor.getTextFromPage(reader, 1);
+        assertTrue(firstPage.contains("Test Movie"));
+        assertTrue(firstPage.contains("Row A, Seat 1"));
+        assertTrue(firstPage.contains("ADMIT ONE"));
+        assertTrue(PdfTextExtractor.getTextFromPage(reader, 2).contains("Row A, Seat 2"));
+        reader.close();
+    }
+
+    @Test
+    void testCachesConfirmedTicketsUntilTheyChange() throws Exception {
+        PdfRenderService.TicketSheet sheet = sheet("CONFIRMED");
+        byte[] first = pdfRenderService.renderTickets(sheet).get(5, TimeUnit.SECONDS);
+        assertSame(first, pdfRenderService.renderTickets(sheet("CONFIRMED")).get(5, TimeUnit.SECONDS));
+
+        // A voided ticket changes the document
+        PdfRenderService.TicketSheet changed = sheet("CONFIRMED");
+        changed.tickets.remove(1);
+        assertNotSame(first, pdfRenderService.renderTickets(changed).get(5, TimeUnit.SECONDS));
+
+        PdfRenderService.TicketSheet pending = sheet("PENDING");
+        pending.bookingId = 2;
+        byte[] uncached = pdfRenderService.renderTickets(pending).get(5, TimeUnit.SECONDS);
+        assertNotSame(uncached, pdfRenderService.renderTickets(pending).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testReportPagesAreWrittenBeforeAllRowsAreRead() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int rowCount = 300;
+        // Bytes written when the first row and when half the rows had been read
+        int[] written = new int[2];
+        Iterator<Object[]> rows = new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < rowCount;
+            }
+
+            @Override
+            public Object[] next() {
+                if (next == 0) {
+                    written[0] = out.size();
+                } else if (next == rowCount / 2) {
+                    written[1] = out.size();
+                }
+                next++;
+                return new Object[] {next, "Movie " + next, 12.5 * next, LocalDateTime.of(2025, 3, 1, 18, 0)};
+            }
+        };
+
+        long count = pdfRenderService.writeTable("Sales report", "2025-03-01 to 2025-03-31",
+                List.of("ID", "Movie", "Revenue", "Date"), rows, out);
+
+        assertEquals(rowCount, count);
+        assertTrue(written[1] > written[0], "pages should be flushed while rows are still being read");
+        PdfReader reader = new PdfReader(out.toByteArray());
+        assertTrue(reader.getNumberOfPages() > 1);
+        String firstPage = PdfTextExtractor.getTextFromPage(reader, 1);
+        assertTrue(firstPage.contains("Sales report"));
+        assertTrue(firstPage.contains("Revenue"));
+        assertTrue(PdfTextExtractor.getTextFromPage(reader, 2).contains("Revenue"));
+        reader.close();
+    }
+
+    private static PdfRenderService.TicketSheet sheet(String status) {
+        PdfRenderService.TicketSheet sheet = new PdfRenderService.TicketSheet();
+        sheet.bookingId = 1;
+        sheet.status = status;
+        sheet.email = "test@example.com";
+        sheet.movieTitle = "Test Movie";
+        sheet.hallName = "Test Hall";
+        sheet.startTime = LocalDateTime.of(2025, 3, 1, 18, 30);
+        sheet.tickets.add(new PdfRenderService.TicketLine(10, "code-10", "Row A, Seat 1"));
+        sheet.tickets.add(new PdfRenderService.TicketLine(11, "code-11", "Row A, Seat 2"));
+        return sheet;
+    }
+}
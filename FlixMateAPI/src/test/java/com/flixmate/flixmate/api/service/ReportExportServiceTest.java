@@ -0,0 +1,164 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.repository.*;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReportExportServiceTest {
+
+    @Autowired
+    private ReportExportService reportExportService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SalesHourlyRollupRepository hourlyRollupRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data; deleting payments queues rollup updates, so wait for them first
+        paymentRepository.deleteAll();
+        salesRollupService.whenIdle().join();
+        hourlyRollupRepository.deleteAll();
+        dailyRollupRepository.deleteAll();
+        bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+        showTimeRepository.deleteAll();
+        cinemaHallRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUserName("exportuser");
+        user.setEmail("export@example.com");
+        user.setPassword("password");
+        user.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
+        user = userRepository.save(user);
+
+        Movie movie = new Movie();
+        movie.setTitle("Export, The Movie");
+        movie.setGenre("Drama");
+        movie.setDuration(100);
+        movie.setIsActive(true);
+        movie = movieRepository.save(movie);
+
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Hall 1");
+        hall.setCapacity(50);
+        hall = cinemaHallRepository.save(hall);
+
+        ShowTime showtime = new ShowTime();
+        showtime.setMovie(movie);
+        showtime.setCinemaHall(hall);
+        showtime.setStartTime(LocalDateTime.now().plusHours(2));
+        showtime.setEndTime(LocalDateTime.now().plusHours(4));
+        showtime.setPrice(12.0);
+        showtime = showTimeRepository.save(showtime);
+
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setShowtime(showtime);
+        booking.setBookingDate(LocalDateTime.now());
+        booking.setTotalSeats(2);
+        booking.setTotalAmount(24.0);
+        booking.setStatus("PENDING");
+        booking = bookingRepository.save(booking);
+
+        payment = paymentService.processPayment(booking.getBookingId(), "CREDIT_CARD", 24.0);
+        salesRollupService.whenIdle().join();
+    }
+
+    @Test
+    void testPaymentsExportAsCsv() throws Exception {
+        LocalDate today = payment.getPaymentDate().toLocalDate();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.export(ReportExportService.PAYMENTS, ReportExportService.CSV, today, today, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("Payment ID,Transaction ID"));
+        assertTrue(lines[1].startsWith(payment.getPaymentId() + "," + payment.getTransactionId()));
+        assertTrue(lines[1].contains(",CREDIT_CARD,24,"));
+    }
+
+    @Test
+    void testSalesExportAsXlsx() throws Exception {
+        LocalDate today = payment.getPaymentDate().toLocalDate();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.export(ReportExportService.SALES, ReportExportService.XLSX, today.minusDays(1), today, out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(1, sheet.getLastRowNum());
+            assertEquals("Movie", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("Export, The Movie", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals(24.0, sheet.getRow(1).getCell(3).getNumericCellValue(), 1e-9);
+            assertEquals(2.0, sheet.getRow(1).getCell(5).getNumericCellValue(), 1e-9);
+        }
+    }
+
+    @Test
+    void testRejectsUnknownTypeAndReversedRange() {
+        LocalDate today = LocalDate.now();
+        assertThrows(RuntimeException.class,
+                () -> reportExportService.validate("users", ReportExportService.CSV, today, today));
+        assertThrows(RuntimeException.class,
+                () -> reportExportService.validate(ReportExportService.BOOKINGS, ReportExportService.CSV, today, today.minusDays(1)));
+    }
+}
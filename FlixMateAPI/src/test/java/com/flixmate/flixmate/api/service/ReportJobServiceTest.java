@@ -0,0 +1,114 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Report;
+import com.flixmate.flixmate.api.model.ReportJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger generated = new AtomicInteger();
+    private final Map<String, Report> stored = new ConcurrentHashMap<>();
+
+    private ReportJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        // Generation blocks until released; finished reports go into an in-memory store
+        ReportService reportService = new ReportService() {
+            @Override
+            public Report generateReport(String email, String type, Map<String, String> params, IntConsumer progress) {
+                generated.incrementAndGet();
+                progress.accept(50);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Report report = new Report(type, "{}", LocalDateTime.now(), null);
+                report.setReportId(generated.get());
+                report.setParams(paramsKey(params));
+                stored.put(type + "?" + report.getParams(), report);
+                return report;
+            }
+
+            @Override
+            public Report findCachedReport(String type, Map<String, String> params, LocalDateTime after) {
+                Report report = stored.get(type + "?" + paramsKey(params));
+                return report != null && report.getGeneratedDate().isAfter(after) ? report : null;
+            }
+        };
+
+        jobService = new ReportJobService();
+        ReflectionTestUtils.setField(jobService, "reportService", reportService);
+        ReflectionTestUtils.setField(jobService, "threadCount", 1);
+        ReflectionTestUtils.setField(jobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(jobService, "cacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(jobService, "retentionMinutes", 60L);
+        jobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void testEqualSubmissionsShareOneJob() throws Exception {
+        ReportJob first = jobService.submit("admin@example.com", "movie_performance", Map.of());
+        ReportJob second = jobService.submit("other@example.com", "MOVIE_PERFORMANCE", Map.of("ignored", "x"));
+
+        assertSame(first, second);
+        release.countDown();
+        ReportJob done = first.whenFinished().get(5, TimeUnit.SECONDS);
+
+        assertEquals(ReportJobService.COMPLETED, done.getStatus());
+        assertEquals(100, done.getProgress());
+        assertEquals(1, generated.get());
+        assertSame(done, jobService.getJob(first.getJobId()));
+    }
+
+    @Test
+    void testFreshReportIsServedFromCache() throws Exception {
+        release.countDown();
+        ReportJob first = jobService.submit("admin@example.com", "DAILY_SALES", Map.of("date", "2025-03-01"));
+        first.whenFinished().get(5, TimeUnit.SECONDS);
+
+        ReportJob again = jobService.submit("admin@example.com", "DAILY_SALES", Map.of("date", "2025-03-01"));
+        assertEquals(ReportJobService.COMPLETED, again.getStatus());
+        assertTrue(again.isCached());
+        assertEquals(first.getReportId(), again.getReportId());
+
+        // Different parameters are a different report
+        jobService.submit("admin@example.com", "DAILY_SALES", Map.of("date", "2025-03-02"))
+                .whenFinished().get(5, TimeUnit.SECONDS);
+        assertEquals(2, generated.get());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFullAndInvalidRequests() {
+        jobService.submit("admin@example.com", "REVENUE", Map.of());
+        // One running, one queued, the third does not fit
+        jobService.submit("admin@example.com", "TICKET_SALES", Map.of());
+        assertThrows(RejectedExecutionException.class,
+                () -> jobService.submit("admin@example.com", "USER_ACTIVITY", Map.of()));
+
+        assertThrows(RuntimeException.class, () -> jobService.submit("admin@example.com", "UNKNOWN", Map.of()));
+        assertThrows(RuntimeException.class, () -> jobService.submit("admin@example.com", "DAILY_SALES", Map.of()));
+    }
+}
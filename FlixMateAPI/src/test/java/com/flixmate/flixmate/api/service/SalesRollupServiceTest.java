@@ -0,0 +1,209 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SalesRollupServiceTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private AdminReportsService adminReportsService;
+
+    @Autowired
+    private SalesHourlyRollupRepository hourlyRollupRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    private User testUser;
+    private Booking testBooking;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up test data; deleting payments queues rollup updates, so wait for them first
+        paymentRepository.deleteAll();
+        salesRollupService.whenIdle().join();
+        hourlyRollupRepository.deleteAll();
+        dailyRollupRepository.deleteAll();
+        bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+        showTimeRepository.deleteAll();
+        cinemaHallRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Create test data
+        createTestData();
+    }
+
+    private void createTestData() {
+        // Create test user
+        testUser = new User();
+        testUser.setUserName("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setPassword("password");
+        // testUser.setRole("USER"); // User entity uses status instead of role
+        testUser.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
+        testUser = userRepository.save(testUser);
+
+        // Create test movie
+        Movie movie = new Movie();
+        movie.setTitle("Test Movie");
+        movie.setDescription("Test Description");
+        movie.setReleaseYear(2025);
+        movie.setGenre("Action");
+        movie.setDuration(120);
+        movie.setLanguage("English");
+        movie.setDirector("Test Director");
+        movie.setIsActive(true);
+        movie = movieRepository.save(movie);
+
+        // Create test cinema hall
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Test Hall");
+        hall.setCapacity(100);
+        hall = cinemaHallRepository.save(hall);
+
+        // Create test showtime
+        ShowTime showtime = new ShowTime();
+        showtime.setMovie(movie);
+        showtime.setCinemaHall(hall);
+        showtime.setStartTime(LocalDateTime.now().plusHours(2));
+        showtime.setEndTime(LocalDateTime.now().plusHours(4));
+        showtime.setPrice(15.0);
+        showtime = showTimeRepository.save(showtime);
+
+        // Create test seat
+        Seat seat = new Seat();
+        seat.setCinemaHall(hall);
+        seat.setRow("A");
+        seat.setNumber(1);
+        seat.setStatus("AVAILABLE");
+        seat = seatRepository.save(seat);
+
+        // Create test booking
+        testBooking = new Booking();
+        testBooking.setUser(testUser);
+        testBooking.setShowtime(showtime);
+        testBooking.setBookingDate(LocalDateTime.now());
+        testBooking.setTotalSeats(1);
+        testBooking.setTotalAmount(15.0);
+        testBooking.setStatus("PENDING");
+        Set<Seat> seats = new HashSet<>();
+        seats.add(seat);
+        testBooking.setSeats(seats);
+        testBooking = bookingRepository.save(testBooking);
+    }
+
+    @Test
+    void testPaymentsUpdateRollups() {
+        Payment payment = paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        salesRollupService.whenIdle().join();
+
+        List<SalesDailyRollup> days = dailyRollupRepository.findAll();
+        assertEquals(1, days.size());
+        assertEquals(payment.getPaymentDate().toLocalDate(), days.get(0).getSalesDate());
+        assertEquals(15.0, days.get(0).getRevenue(), 1e-9);
+        assertEquals(1, days.get(0).getTickets());
+        assertEquals(1, days.get(0).getBookings());
+
+        List<SalesHourlyRollup> hours = hourlyRollupRepository.findAll();
+        assertEquals(1, hours.size());
+        assertEquals(payment.getPaymentDate().truncatedTo(ChronoUnit.HOURS), hours.get(0).getBucketHour());
+
+        paymentService.processRefund(payment.getPaymentId(), 5.0, "Partial refund");
+        salesRollupService.whenIdle().join();
+
+        SalesDailyRollup refunded = dailyRollupRepository.findAll().get(0);
+        assertEquals(15.0, refunded.getRevenue(), 1e-9);
+        assertEquals(5.0, refunded.getRefunded(), 1e-9);
+        assertEquals(1, refunded.getBookings());
+    }
+
+    @Test
+    void testBackfillMatchesIncrementalRollups() {
+        Payment payment = paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        salesRollupService.whenIdle().join();
+        SalesDailyRollup incremental = dailyRollupRepository.findAll().get(0);
+
+        LocalDate day = payment.getPaymentDate().toLocalDate();
+        dailyRollupRepository.deleteAll();
+        hourlyRollupRepository.deleteAll();
+        salesRollupService.backfill(day.minusDays(1), day).join();
+
+        List<SalesDailyRollup> rebuilt = dailyRollupRepository.findAll();
+        assertEquals(1, rebuilt.size());
+        assertEquals(incremental.getMovieId(), rebuilt.get(0).getMovieId());
+        assertEquals(incremental.getHallId(), rebuilt.get(0).getHallId());
+        assertEquals(incremental.getRevenue(), rebuilt.get(0).getRevenue(), 1e-9);
+        assertEquals(incremental.getTickets(), rebuilt.get(0).getTickets());
+        assertEquals(incremental.getBookings(), rebuilt.get(0).getBookings());
+        assertEquals(1, hourlyRollupRepository.count());
+    }
+
+    @Test
+    void testSalesReportReadsRollups() {
+        Payment payment = paymentService.processPayment(testBooking.getBookingId(), "CREDIT_CARD", 15.0);
+        salesRollupService.whenIdle().join();
+        LocalDate day = payment.getPaymentDate().toLocalDate();
+
+        Map<String, Object> report = adminReportsService.generateSalesReport("daily",
+                day.minusDays(2).toString(), day.toString());
+
+        assertEquals(15.0, report.get("totalRevenue"));
+        assertEquals(1L, report.get("totalBookings"));
+        assertEquals(15.0, report.get("averageTicketPrice"));
+        assertEquals(List.of(0.0, 0.0, 15.0), report.get("revenueData"));
+    }
+}
@@ -0,0 +1,249 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires thousands of concurrent bookings at a single showtime and checks that
+ * no seat ever ends up reserved by more than one booking.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SeatReservationConcurrencyTest {
+
+    private static final int HALL_CAPACITY = 60;
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User testUser;
+    private ShowTime testShowtime;
+    private List<Integer> seatIds;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+        showTimeRepository.deleteAll();
+        cinemaHallRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = new User();
+        testUser.setUserName("loaduser");
+        testUser.setEmail("load@example.com");
+        testUser.setPassword("password");
+        testUser.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
+        testUser = userRepository.save(testUser);
+
+        Movie movie = new Movie();
+        movie.setTitle("Load Test Movie");
+        movie.setDescription("Concurrency test");
+        movie.setReleaseYear(2025);
+        movie.setGenre("Action");
+        movie.setDuration(120);
+        movie.setLanguage("English");
+        movie.setDirector("Test Director");
+        movie.setIsActive(true);
+        movie = movieRepository.save(movie);
+
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Load Hall");
+        hall.setCapacity(HALL_CAPACITY);
+        hall = cinemaHallRepository.save(hall);
+
+        testShowtime = new ShowTime();
+        testShowtime.setMovie(movie);
+        testShowtime.setCinemaHall(hall);
+        testShowtime.setStartTime(LocalDateTime.now().plusHours(2));
+        testShowtime.setEndTime(LocalDateTime.now().plusHours(4));
+        testShowtime.setPrice(10.0);
+        testShowtime = showTimeRepository.save(testShowtime);
+
+        seatInventoryService.ensureInventory(testShowtime);
+        seatIds = seatRepository.findByCinemaHall(hall).stream().map(Seat::getSeatId).toList();
+        assertEquals(HALL_CAPACITY, seatIds.size());
+    }
+
+    @Test
+    void parallelBookings_neverSellSeatTwice() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        runConcurrently(request -> {
+            bookingService.createBooking(testUser.getEmail(), testShowtime.getShowtimeId(), randomSeats(request));
+            succeeded.incrementAndGet();
+        });
+
+        assertTrue(succeeded.get() > 0, "Expected at least one booking to succeed");
+        assertNoSeatSoldTwice(succeeded.get());
+
+        // Every seat claimed in the database is also taken in the in-memory map
+        List<Integer> available = bookingService.getAvailableSeats(testShowtime.getShowtimeId())
+                .stream().map(Seat::getSeatId).toList();
+        assertEquals(HALL_CAPACITY - reservedRows().size(), available.size());
+        reservedRows().forEach(row -> assertFalse(available.contains(row.getSeat().getSeatId())));
+    }
+
+    @Test
+    void parallelDatabaseReservations_neverSellSeatTwice() throws Exception {
+        // Bypasses the in-memory seat map so every conflict has to be caught by the conditional update
+        AtomicInteger succeeded = new AtomicInteger();
+        Map<Integer, Set<Integer>> reservedByBooking = new ConcurrentHashMap<>();
+        runConcurrently(request -> {
+            Set<Integer> requested = randomSeats(request);
+            seatInventoryService.reserveSeats(testShowtime, requested, request + 1);
+            reservedByBooking.put(request + 1, requested);
+            succeeded.incrementAndGet();
+        });
+
+        assertTrue(succeeded.get() > 0, "Expected at least one reservation to succeed");
+        Set<Integer> seen = new HashSet<>();
+        reservedByBooking.values().forEach(seats -> seats.forEach(seatId ->
+                assertTrue(seen.add(seatId), "Seat " + seatId + " was reserved twice")));
+
+        List<ShowtimeSeat> reserved = reservedRows();
+        assertEquals(seen.size(), reserved.size());
+        for (ShowtimeSeat row : reserved) {
+            assertTrue(reservedByBooking.get(row.getBookingId()).contains(row.getSeat().getSeatId()));
+        }
+    }
+
+    @Test
+    void parallelFirstAccess_createsInventoryOnce() throws Exception {
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Fresh Hall");
+        hall.setCapacity(HALL_CAPACITY);
+        hall = cinemaHallRepository.save(hall);
+
+        ShowTime showtime = new ShowTime();
+        showtime.setMovie(testShowtime.getMovie());
+        showtime.setCinemaHall(hall);
+        showtime.setStartTime(LocalDateTime.now().plusHours(5));
+        showtime.setEndTime(LocalDateTime.now().plusHours(7));
+        showtime.setPrice(10.0);
+        ShowTime freshShowtime = showTimeRepository.save(showtime);
+
+        AtomicInteger failed = new AtomicInteger();
+        runConcurrently(request -> {
+            try {
+                seatInventoryService.getAvailableSeats(freshShowtime);
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+            }
+        });
+
+        assertEquals(0, failed.get());
+        assertEquals(HALL_CAPACITY, seatRepository.findByCinemaHall(hall).size());
+        assertEquals(HALL_CAPACITY, showtimeSeatRepository.findByShowtime_ShowtimeId(freshShowtime.getShowtimeId()).size());
+    }
+
+    private void runConcurrently(ReservationAttempt task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int request = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    task.run(request);
+                } catch (RuntimeException expected) {
+                    // Losing a race for a seat is expected under this load
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private Set<Integer> randomSeats(int request) {
+        Random random = new Random(request);
+        int count = 1 + random.nextInt(3);
+        Set<Integer> requested = new HashSet<>();
+        while (requested.size() < count) {
+            requested.add(seatIds.get(random.nextInt(seatIds.size())));
+        }
+        return requested;
+    }
+
+    private void assertNoSeatSoldTwice(int expectedBookings) {
+        List<Booking> bookings = bookingRepository.findByShowtime(testShowtime);
+        assertEquals(expectedBookings, bookings.size());
+
+        Map<Integer, Integer> bookingBySeat = new HashMap<>();
+        for (Booking booking : bookings) {
+            assertEquals(booking.getTotalSeats(), booking.getSeats().size());
+            for (Seat seat : booking.getSeats()) {
+                Integer previous = bookingBySeat.put(seat.getSeatId(), booking.getBookingId());
+                assertNull(previous, "Seat " + seat.getSeatId() + " sold to bookings " + previous + " and " + booking.getBookingId());
+            }
+        }
+
+        List<ShowtimeSeat> reserved = reservedRows();
+        assertEquals(bookingBySeat.size(), reserved.size());
+        for (ShowtimeSeat row : reserved) {
+            assertEquals(bookingBySeat.get(row.getSeat().getSeatId()), row.getBookingId());
+        }
+    }
+
+    private List<ShowtimeSeat> reservedRows() {
+        return showtimeSeatRepository.findByShowtime_ShowtimeId(testShowtime.getShowtimeId()).stream()
+                .filter(row -> SeatInventoryService.RESERVED.equals(row.getStatus()))
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface ReservationAttempt {
+        void run(int request);
+    }
+}
@@ -0,0 +1,240 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.*;
+import com.flixmate.flixmate.api.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ShowtimeCancellationServiceTest {
+
+    @Autowired
+    private ShowtimeCancellationService showtimeCancellationService;
+
+    @Autowired
+    private ShowtimeCancellationJobRepository jobRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private SeatHoldManager seatHoldManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatusRepository userStatusRepository;
+
+    @Autowired
+    private ShowTimeRepository showTimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CinemaHallRepository cinemaHallRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private ShowtimeSeatRepository showtimeSeatRepository;
+
+    private ShowTime showtime;
+    private Booking pendingBooking;
+    private Booking paidBooking;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository.deleteAll();
+        refundRepository.deleteAll();
+        paymentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        showtimeSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+        showTimeRepository.deleteAll();
+        cinemaHallRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // One booking per page so the tests cover the paging
+        ReflectionTestUtils.setField(showtimeCancellationService, "pageSize", 1);
+        createTestData();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(showtimeCancellationService, "pageSize", 100);
+    }
+
+    private void createTestData() {
+        User user = new User();
+        user.setUserName("canceluser");
+        user.setEmail("cancel@example.com");
+        user.setPassword("password");
+        user.setStatus(userStatusRepository.findByStatusName("user")
+                .orElseGet(() -> userStatusRepository.save(new UserStatus("user", "ROLE_USER"))));
+        user = userRepository.save(user);
+
+        Movie movie = new Movie();
+        movie.setTitle("Cancelled Movie");
+        movie.setDescription("Test Description");
+        movie.setReleaseYear(2025);
+        movie.setGenre("Drama");
+        movie.setDuration(100);
+        movie.setLanguage("English");
+        movie.setDirector("Test Director");
+        movie.setIsActive(true);
+        movie = movieRepository.save(movie);
+
+        CinemaHall hall = new CinemaHall();
+        hall.setHallName("Broken Hall");
+        hall.setCapacity(3);
+        hall = cinemaHallRepository.save(hall);
+
+        showtime = new ShowTime();
+        showtime.setMovie(movie);
+        showtime.setCinemaHall(hall);
+        showtime.setStartTime(LocalDateTime.now().plusHours(2));
+        showtime.setEndTime(LocalDateTime.now().plusHours(4));
+        showtime.setPrice(15.0);
+        showtime = showTimeRepository.save(showtime);
+
+        List<Seat> seats = new ArrayList<>();
+        for (int number = 1; number <= 3; number++) {
+            Seat seat = new Seat();
+            seat.setCinemaHall(hall);
+            seat.setRow("A");
+            seat.setNumber(number);
+            seat.setStatus("AVAILABLE");
+            seats.add(seatRepository.save(seat));
+        }
+
+        pendingBooking = booking(user, seats.get(0), "PENDING");
+        paidBooking = booking(user, seats.get(1), "CONFIRMED");
+        booking(user, seats.get(2), "CANCELLED");
+
+        showtimeSeatRepository.save(showtimeSeat(seats.get(0), SeatInventoryService.RESERVED, pendingBooking));
+        showtimeSeatRepository.save(showtimeSeat(seats.get(1), SeatInventoryService.SOLD, paidBooking));
+        showtimeSeatRepository.save(showtimeSeat(seats.get(2), SeatInventoryService.AVAILABLE, null));
+
+        payment = new Payment();
+        payment.setTransactionId("TXN_CANCEL");
+        payment.setPaymentDate(LocalDateTime.now());
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setAmount(15.0);
+        payment.setStatus("SUCCESS");
+        payment.setBooking(paidBooking);
+        payment = paymentRepository.save(payment);
+    }
+
+    private Booking booking(User user, Seat seat, String status) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setShowtime(showtime);
+        booking.setBookingDate(LocalDateTime.now());
+        booking.setTotalSeats(1);
+        booking.setTotalAmount(15.0);
+        booking.setStatus(status);
+        booking.setSeats(Set.of(seat));
+        return bookingRepository.save(booking);
+    }
+
+    private ShowtimeSeat showtimeSeat(Seat seat, String status, Booking booking) {
+        ShowtimeSeat showtimeSeat = new ShowtimeSeat(showtime, seat, status);
+        showtimeSeat.setBookingId(booking != null ? booking.getBookingId() : null);
+        return showtimeSeat;
+    }
+
+    @Test
+    void cancelsRefundsAndClosesEverySeat() {
+        seatHoldManager.startHold(pendingBooking);
+        ShowtimeCancellationJob job = showtimeCancellationService.createJob(showtime.getShowtimeId(), "Projector failure", "admin@test.com");
+        assertEquals(2, job.getTotalBookings());
+
+        showtimeCancellationService.run(job.getJobId());
+        // The unpaid booking's hold is off the timer once its page committed
+        assertFalse(seatHoldManager.isHeld(pendingBooking.getBookingId()));
+
+        ShowtimeCancellationJob done = jobRepository.findById(job.getJobId()).orElseThrow();
+        assertEquals(ShowtimeCancellationService.COMPLETED, done.getStatus());
+        assertEquals(2, done.getProcessedBookings());
+        assertEquals(1, done.getRefundCount());
+        assertEquals(15.0, done.getRefundedAmount());
+        assertEquals(paidBooking.getBookingId(), done.getLastBookingId());
+
+        assertEquals("CANCELLED", bookingRepository.findById(pendingBooking.getBookingId()).orElseThrow().getStatus());
+        assertEquals("CANCELLED", bookingRepository.findById(paidBooking.getBookingId()).orElseThrow().getStatus());
+
+        Payment refunded = paymentRepository.findById(payment.getPaymentId()).orElseThrow();
+        assertEquals("REFUNDED", refunded.getStatus());
+        assertEquals(15.0, refunded.getRefundAmount());
+        List<Refund> refunds = refundRepository.findByPaymentId(payment.getPaymentId());
+        assertEquals(1, refunds.size());
+        assertEquals(15.0, refunds.get(0).getAmount());
+        assertEquals("Projector failure", refunds.get(0).getReason());
+
+        // The payment totals saw the batch refund just as a fresh aggregation does
+        Map<String, Object> statistics = paymentService.getPaymentStatistics();
+        paymentService.reconcilePaymentTotals();
+        assertEquals(statistics, paymentService.getPaymentStatistics());
+
+        for (ShowtimeSeat seat : showtimeSeatRepository.findByShowtime_ShowtimeId(showtime.getShowtimeId())) {
+            assertEquals("CANCELLED", seat.getStatus());
+            assertNull(seat.getBookingId());
+        }
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedPage() {
+        ShowtimeCancellationJob job = showtimeCancellationService.createJob(showtime.getShowtimeId(), null, null);
+        // As if the application stopped after the first page
+        bookingRepository.findById(pendingBooking.getBookingId()).ifPresent(booking -> {
+            booking.setStatus("CANCELLED");
+            bookingRepository.save(booking);
+        });
+        job.setLastBookingId(pendingBooking.getBookingId());
+        job.setProcessedBookings(1);
+        jobRepository.save(job);
+
+        showtimeCancellationService.run(job.getJobId());
+
+        ShowtimeCancellationJob done = jobRepository.findById(job.getJobId()).orElseThrow();
+        assertEquals(ShowtimeCancellationService.COMPLETED, done.getStatus());
+        assertEquals(2, done.getProcessedBookings());
+        assertEquals(1, refundRepository.findByBookingId(paidBooking.getBookingId()).size());
+    }
+
+    @Test
+    void startingTwiceReturnsTheRunningJob() {
+        ShowtimeCancellationJob first = showtimeCancellationService.createJob(showtime.getShowtimeId(), null, null);
+        ShowtimeCancellationJob second = showtimeCancellationService.createJob(showtime.getShowtimeId(), null, null);
+
+        assertEquals(first.getJobId(), second.getJobId());
+    }
+}
@@ -0,0 +1,117 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.CheckInResult;
+import com.flixmate.flixmate.api.repository.TicketCheckInRepository;
+import com.flixmate.flixmate.api.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TicketServiceTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketCheckInRepository checkInRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(ticketService, "secret", "test-ticket-secret");
+        ReflectionTestUtils.setField(ticketService, "jwtSecret", "unused");
+        ReflectionTestUtils.setField(ticketService, "flushBatchSize", 2);
+        ReflectionTestUtils.setField(ticketService, "admissionRetentionHours", 12L);
+        ticketService.init();
+    }
+
+    @Test
+    void validTicketIsAdmittedOnce() {
+        String code = ticketService.code(10, 3, 42);
+
+        CheckInResult first = ticketService.checkIn(3, code, "A");
+        CheckInResult second = ticketService.checkIn(3, code, "B");
+
+        assertEquals(TicketService.ADMITTED, first.getStatus());
+        assertEquals(10, first.getBookingId());
+        assertEquals(42, first.getSeatId());
+        assertEquals(TicketService.ALREADY_ADMITTED, second.getStatus());
+        assertEquals(1, ticketService.admittedCount(3));
+        assertEquals(1, ticketService.pendingCheckIns());
+        verifyNoInteractions(ticketRepository, checkInRepository, jdbcTemplate);
+    }
+
+    @Test
+    void codesAreCompact() {
+        assertTrue(ticketService.code(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE).length() <= 32);
+    }
+
+    @Test
+    void forgedAndMisdirectedTicketsAreRejected() {
+        String code = ticketService.code(10, 3, 42);
+        String tampered = (code.charAt(2) == 'A' ? "B" : "A");
+        tampered = code.substring(0, 2) + tampered + code.substring(3);
+
+        assertEquals(TicketService.INVALID, ticketService.checkIn(3, tampered, null).getStatus());
+        assertEquals(TicketService.INVALID, ticketService.checkIn(3, "not a ticket", null).getStatus());
+        assertEquals(TicketService.WRONG_SHOWTIME, ticketService.checkIn(4, code, null).getStatus());
+
+        ReflectionTestUtils.setField(ticketService, "secret", "another-secret");
+        ticketService.init();
+        assertEquals(TicketService.INVALID, ticketService.checkIn(3, code, null).getStatus());
+    }
+
+    @Test
+    void voidedTicketsAreTurnedAway() {
+        when(ticketRepository.findIssuedKeysForBookings(List.of(10))).thenReturn(List.<Object[]>of(new Object[]{10, 42}));
+        when(ticketRepository.voidTicketsForBookings(List.of(10))).thenReturn(1);
+
+        assertEquals(1, ticketService.voidTicketsForBookings(List.of(10)));
+
+        assertEquals(TicketService.VOID, ticketService.checkIn(3, ticketService.code(10, 3, 42), null).getStatus());
+        assertEquals(TicketService.ADMITTED, ticketService.checkIn(3, ticketService.code(10, 3, 43), null).getStatus());
+    }
+
+    @Test
+    void checkInsAreFlushedInBatches() {
+        for (int seat = 1; seat <= 5; seat++) {
+            ticketService.checkIn(3, ticketService.code(10, 3, seat), "A");
+        }
+
+        ticketService.flushCheckIns();
+
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        assertEquals(0, ticketService.pendingCheckIns());
+    }
+
+    @Test
+    void failedFlushKeepsCheckInsForTheNextAttempt() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        ticketService.checkIn(3, ticketService.code(10, 3, 1), "A");
+
+        ticketService.flushCheckIns();
+
+        assertEquals(1, ticketService.pendingCheckIns());
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO ticket_checkins (booking_id, showtime_id, seat_id, gate, checked_in_at) VALUES (?, ?, ?, ?, ?)"), anyList());
+    }
+}
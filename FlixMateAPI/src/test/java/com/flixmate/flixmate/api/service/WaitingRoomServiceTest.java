@@ -0,0 +1,128 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.model.QueueStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitingRoomServiceTest {
+
+    private static final int SHOWTIME_ID = 7;
+
+    private WaitingRoomService waitingRoomService;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoomService = new WaitingRoomService();
+        ReflectionTestUtils.setField(waitingRoomService, "secret", "");
+        ReflectionTestUtils.setField(waitingRoomService, "defaultAdmitPerMinute", 1);
+        ReflectionTestUtils.setField(waitingRoomService, "defaultBurst", 2);
+        ReflectionTestUtils.setField(waitingRoomService, "maxQueue", 3);
+        ReflectionTestUtils.setField(waitingRoomService, "admissionWindowMinutes", 10L);
+        waitingRoomService.init();
+    }
+
+    @Test
+    void closedRoomAdmitsEveryone() {
+        assertDoesNotThrow(() -> waitingRoomService.checkAdmission(SHOWTIME_ID, "a@test.com", null));
+        assertTrue(waitingRoomService.join(SHOWTIME_ID, "a@test.com").isAdmitted());
+    }
+
+    @Test
+    void ticketsWithinBurstAreAdmittedAndLaterOnesWait() {
+        waitingRoomService.open(SHOWTIME_ID, null, null);
+
+        QueueStatus first = waitingRoomService.join(SHOWTIME_ID, "a@test.com");
+        QueueStatus second = waitingRoomService.join(SHOWTIME_ID, "b@test.com");
+        QueueStatus third = waitingRoomService.join(SHOWTIME_ID, "c@test.com");
+
+        assertTrue(first.isAdmitted());
+        assertTrue(second.isAdmitted());
+        assertFalse(third.isAdmitted());
+        assertEquals(1L, third.getPosition());
+        assertTrue(third.getEstimatedWaitSeconds() > 0);
+
+        assertDoesNotThrow(() -> waitingRoomService.checkAdmission(SHOWTIME_ID, "a@test.com", first.getToken()));
+        AdmissionDeniedException waiting = assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.checkAdmission(SHOWTIME_ID, "c@test.com", third.getToken()));
+        assertEquals(429, waiting.getStatus());
+        assertTrue(waiting.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void multiShowtimeRequestsNeedATokenForEveryOpenRoom() {
+        int otherShowtime = SHOWTIME_ID + 1;
+        int closedShowtime = SHOWTIME_ID + 2;
+        waitingRoomService.open(SHOWTIME_ID, null, null);
+        waitingRoomService.open(otherShowtime, null, null);
+        String token = waitingRoomService.join(SHOWTIME_ID, "a@test.com").getToken();
+        String otherToken = waitingRoomService.join(otherShowtime, "a@test.com").getToken();
+
+        List<Integer> showtimes = List.of(SHOWTIME_ID, otherShowtime, closedShowtime);
+        assertDoesNotThrow(() -> waitingRoomService.checkAdmission(showtimes, "a@test.com", otherToken + "," + token));
+        assertEquals(403, assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.checkAdmission(showtimes, "a@test.com", token)).getStatus());
+        assertDoesNotThrow(() -> waitingRoomService.checkAdmission(List.of(closedShowtime), "a@test.com", null));
+    }
+
+    @Test
+    void joiningTwiceKeepsThePlaceInTheQueue() {
+        waitingRoomService.open(SHOWTIME_ID, null, 0);
+        waitingRoomService.join(SHOWTIME_ID, "a@test.com");
+        waitingRoomService.join(SHOWTIME_ID, "b@test.com");
+
+        assertEquals(1L, waitingRoomService.join(SHOWTIME_ID, "a@test.com").getPosition());
+    }
+
+    @Test
+    void statusIsAnsweredFromTheToken() {
+        waitingRoomService.open(SHOWTIME_ID, null, 0);
+        String token = waitingRoomService.join(SHOWTIME_ID, "a@test.com").getToken();
+
+        QueueStatus status = waitingRoomService.status(SHOWTIME_ID, token);
+
+        assertEquals(1L, status.getPosition());
+        assertNull(status.getToken());
+    }
+
+    @Test
+    void tamperedOrForeignTokensAreRejected() {
+        waitingRoomService.open(SHOWTIME_ID, null, null);
+        String token = waitingRoomService.join(SHOWTIME_ID, "a@test.com").getToken();
+        String tampered = (token.charAt(0) == 'A' ? "B" : "A") + token.substring(1);
+
+        assertEquals(403, assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.checkAdmission(SHOWTIME_ID, "a@test.com", tampered)).getStatus());
+        assertEquals(403, assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.checkAdmission(SHOWTIME_ID, "b@test.com", token)).getStatus());
+        assertEquals(403, assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.checkAdmission(SHOWTIME_ID, "a@test.com", null)).getStatus());
+    }
+
+    @Test
+    void reopeningTheRoomInvalidatesOldTokens() throws InterruptedException {
+        waitingRoomService.open(SHOWTIME_ID, null, null);
+        String token = waitingRoomService.join(SHOWTIME_ID, "a@test.com").getToken();
+        Thread.sleep(5);
+        waitingRoomService.open(SHOWTIME_ID, null, null);
+
+        assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.checkAdmission(SHOWTIME_ID, "a@test.com", token));
+    }
+
+    @Test
+    void fullQueueTurnsNewUsersAway() {
+        waitingRoomService.open(SHOWTIME_ID, null, 0);
+        for (int i = 0; i < 3; i++) {
+            waitingRoomService.join(SHOWTIME_ID, "user" + i + "@test.com");
+        }
+
+        AdmissionDeniedException full = assertThrows(AdmissionDeniedException.class,
+                () -> waitingRoomService.join(SHOWTIME_ID, "late@test.com"));
+        assertEquals(503, full.getStatus());
+    }
+}
@@ -0,0 +1,190 @@
+package com.flixmate.flixmate.api.service;
+
+import com.flixmate.flixmate.api.entity.Booking;
+import com.flixmate.flixmate.api.entity.ShowTime;
+import com.flixmate.flixmate.api.model.SeatStateDelta;
+import com.flixmate.flixmate.api.model.WaitlistStatus;
+import com.flixmate.flixmate.api.repository.ShowTimeRepository;
+import com.flixmate.flixmate.api.util.HallLayoutParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WaitlistServiceTest {
+
+    private static final int SHOWTIME_ID = 5;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private SeatMapEngine seatMapEngine;
+
+    @Mock
+    private ShowTimeRepository showTimeRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private SeatMapEngine.ShowtimeSeatMap seatMap;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    // Free seats in the mocked seat map; every waitlist booking takes its quantity off
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final AtomicInteger freeWheelchairCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(waitlistService, "offerSeconds", 300L);
+        ReflectionTestUtils.setField(waitlistService, "maxEntries", 3);
+        ReflectionTestUtils.setField(waitlistService, "maxGroupSize", 10);
+
+        ShowTime showtime = new ShowTime();
+        showtime.setShowtimeId(SHOWTIME_ID);
+        showtime.setStartTime(LocalDateTime.now().plusDays(1));
+        when(showTimeRepository.findById(SHOWTIME_ID)).thenReturn(Optional.of(showtime));
+        when(seatMapEngine.getSeatMap(SHOWTIME_ID)).thenReturn(seatMap);
+        when(seatMap.countFree(any())).thenAnswer(invocation -> free(invocation.getArgument(0)).get());
+        when(bookingService.createWaitlistBooking(anyString(), eq(SHOWTIME_ID), anyInt(), any(), anyLong()))
+                .thenAnswer(invocation -> {
+                    free(invocation.getArgument(3)).addAndGet(-(Integer) invocation.getArgument(2));
+                    return new Booking();
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        waitlistService.shutdown();
+    }
+
+    @Test
+    void joinReportsPositionAndRejoinKeepsPlace() {
+        freeSeats(0);
+        waitlistService.join("a@test.com", SHOWTIME_ID, 2, null);
+        waitlistService.join("b@test.com", SHOWTIME_ID, 1, null);
+
+        WaitlistStatus rejoined = waitlistService.join("a@test.com", SHOWTIME_ID, 3, null);
+
+        assertEquals(1, rejoined.getPosition());
+        assertEquals(3, rejoined.getQuantity());
+        assertEquals(2, waitlistService.getStatus("b@test.com", SHOWTIME_ID).getPosition());
+    }
+
+    @Test
+    void releasedSeatsAreOfferedInOrder() {
+        freeSeats(0);
+        waitlistService.join("a@test.com", SHOWTIME_ID, 2, null);
+        waitlistService.join("b@test.com", SHOWTIME_ID, 1, null);
+        waitlistService.join("c@test.com", SHOWTIME_ID, 1, null);
+
+        freeSeats(3);
+        assertEquals(2, waitlistService.promote(SHOWTIME_ID));
+
+        verify(bookingService).createWaitlistBooking("a@test.com", SHOWTIME_ID, 2, null, 300L);
+        verify(bookingService).createWaitlistBooking("b@test.com", SHOWTIME_ID, 1, null, 300L);
+        assertEquals(1, waitlistService.getStatus("c@test.com", SHOWTIME_ID).getPosition());
+    }
+
+    @Test
+    void laterEntriesDoNotJumpAheadOfTheHead() {
+        freeSeats(0);
+        waitlistService.join("a@test.com", SHOWTIME_ID, 4, null);
+        waitlistService.join("b@test.com", SHOWTIME_ID, 1, null);
+
+        freeSeats(2);
+        assertEquals(0, waitlistService.promote(SHOWTIME_ID));
+
+        verify(bookingService, never()).createWaitlistBooking(anyString(), anyInt(), anyInt(), any(), anyLong());
+        assertEquals(2, waitlistService.size(SHOWTIME_ID));
+    }
+
+    @Test
+    void entriesAreOnlyOfferedSeatsOfTheirType() {
+        freeSeats(0);
+        waitlistService.join("a@test.com", SHOWTIME_ID, 2, null);
+        waitlistService.join("b@test.com", SHOWTIME_ID, 1, HallLayoutParser.WHEELCHAIR);
+
+        // Free wheelchair spaces do not count towards a standard request
+        freeWheelchairCount.set(2);
+        assertEquals(0, waitlistService.promote(SHOWTIME_ID));
+        verify(bookingService, never()).createWaitlistBooking(anyString(), anyInt(), anyInt(), any(), anyLong());
+
+        freeSeats(2);
+        assertEquals(2, waitlistService.promote(SHOWTIME_ID));
+        verify(bookingService).createWaitlistBooking("a@test.com", SHOWTIME_ID, 2, null, 300L);
+        verify(bookingService).createWaitlistBooking("b@test.com", SHOWTIME_ID, 1, HallLayoutParser.WHEELCHAIR, 300L);
+        assertEquals(0, freeCount.get());
+        assertEquals(1, freeWheelchairCount.get());
+        assertEquals(HallLayoutParser.WHEELCHAIR, waitlistService.join("c@test.com", SHOWTIME_ID, 1,
+                HallLayoutParser.WHEELCHAIR).getSeatType());
+    }
+
+    @Test
+    void lostRaceKeepsTheEntryForTheNextRelease() {
+        freeSeats(0);
+        waitlistService.join("a@test.com", SHOWTIME_ID, 1, null);
+        when(bookingService.createWaitlistBooking(anyString(), eq(SHOWTIME_ID), anyInt(), any(), anyLong()))
+                .thenThrow(new SeatUnavailableException(null, "Not enough seats available for this showtime"));
+
+        freeSeats(1);
+        assertEquals(0, waitlistService.promote(SHOWTIME_ID));
+        assertNotNull(waitlistService.getStatus("a@test.com", SHOWTIME_ID));
+    }
+
+    @Test
+    void onlyReleasesTriggerPromotion() {
+        freeSeats(0);
+        waitlistService.join("a@test.com", SHOWTIME_ID, 1, null);
+
+        waitlistService.onSeatStateChanged(new SeatStateDelta(SHOWTIME_ID,
+                List.of(new SeatStateDelta.SeatChange(1, "HELD"))));
+        freeSeats(1);
+        waitlistService.onSeatStateChanged(new SeatStateDelta(SHOWTIME_ID,
+                List.of(new SeatStateDelta.SeatChange(1, SeatInventoryService.AVAILABLE))));
+
+        verify(bookingService, timeout(1000)).createWaitlistBooking("a@test.com", SHOWTIME_ID, 1, null, 300L);
+    }
+
+    @Test
+    void fullWaitlistAndBadQuantitiesAreRejected() {
+        freeSeats(0);
+        assertThrows(RuntimeException.class, () -> waitlistService.join("a@test.com", SHOWTIME_ID, 0, null));
+        assertThrows(RuntimeException.class, () -> waitlistService.join("a@test.com", SHOWTIME_ID, 11, null));
+        assertThrows(RuntimeException.class, () -> waitlistService.join("a@test.com", SHOWTIME_ID, 1, "BALCONY"));
+        for (int i = 0; i < 3; i++) {
+            waitlistService.join("user" + i + "@test.com", SHOWTIME_ID, 1, null);
+        }
+        assertThrows(RuntimeException.class, () -> waitlistService.join("late@test.com", SHOWTIME_ID, 1, null));
+        assertTrue(waitlistService.leave("user0@test.com", SHOWTIME_ID));
+        assertFalse(waitlistService.leave("user0@test.com", SHOWTIME_ID));
+    }
+
+    private void freeSeats(int free) {
+        freeCount.set(free);
+    }
+
+    private AtomicInteger free(String seatType) {
+        return HallLayoutParser.WHEELCHAIR.equals(seatType) ? freeWheelchairCount : freeCount;
+    }
+}
@@ -0,0 +1,137 @@
+package com.flixmate.flixmate.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BestSeatAllocatorTest {
+
+    @Test
+    public void testPrefersCentreOfPreferredRow() {
+        // 5 rows of 10 seats, default preferred row is C (index 2)
+        BestSeatAllocator allocator = new BestSeatAllocator(rowStarts(5, 10), numbers(5, 10));
+        SeatStateBitmap states = new SeatStateBitmap(50);
+
+        assertArrayEquals(new int[] {24, 25}, allocator.allocate(states, 2, -1));
+        assertArrayEquals(new int[] {3, 4, 5, 6}, allocator.allocate(states, 4, 0));
+    }
+
+    @Test
+    public void testSkipsTakenSeatsAndGaps() {
+        BestSeatAllocator allocator = new BestSeatAllocator(rowStarts(1, 10), new int[] {1, 2, 3, 4, 5, 7, 8, 9, 10, 11});
+        SeatStateBitmap states = new SeatStateBitmap(10);
+        states.set(2, SeatStateBitmap.SOLD);
+
+        // Seats 5 and 7 are not next to each other, seat 3 is sold
+        assertArrayEquals(new int[] {5, 6, 7}, allocator.allocate(states, 3, -1));
+        assertNull(allocator.allocate(states, 6, -1));
+    }
+
+    @Test
+    public void testSkipsSeatsThatAreNotAllocatable() {
+        // Seats 1 and 6 are wheelchair spaces: free, but never picked automatically
+        boolean[] allocatable = {false, true, true, true, true, false, true, true, true, true};
+        BestSeatAllocator allocator = new BestSeatAllocator(rowStarts(1, 10), numbers(1, 10), allocatable);
+        SeatStateBitmap states = new SeatStateBitmap(10);
+
+        assertArrayEquals(new int[] {2, 3, 4}, allocator.allocate(states, 3, -1));
+        assertNull(allocator.allocate(states, 5, -1));
+    }
+
+    @Test
+    public void testFindsBlocksAcrossWordBoundaries() {
+        // One 100-seat row: its bits span several state words and two row words
+        BestSeatAllocator allocator = new BestSeatAllocator(new int[] {0, 100}, numbers(1, 100));
+        SeatStateBitmap states = new SeatStateBitmap(100);
+        for (int i = 0; i < 100; i++) {
+            if (i < 60 || i > 66) {
+                states.set(i, SeatStateBitmap.RESERVED);
+            }
+        }
+
+        assertArrayEquals(new int[] {60, 61, 62, 63, 64, 65, 66}, allocator.allocate(states, 7, -1));
+        assertNull(allocator.allocate(states, 8, -1));
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 500; trial++) {
+            int rows = 1 + random.nextInt(8);
+            int seatsPerRow = 1 + random.nextInt(80);
+            int size = rows * seatsPerRow;
+            BestSeatAllocator allocator = new BestSeatAllocator(rowStarts(rows, seatsPerRow), numbers(rows, seatsPerRow));
+            SeatStateBitmap states = new SeatStateBitmap(size);
+            for (int i = 0; i < size; i++) {
+                if (random.nextDouble() < 0.4) {
+                    states.set(i, SeatStateBitmap.RESERVED);
+                }
+            }
+            int quantity = 1 + random.nextInt(6);
+
+            int[] block = allocator.allocate(states, quantity, -1);
+
+            assertEquals(hasFreeBlock(states, rows, seatsPerRow, quantity), block != null);
+            if (block != null) {
+                assertEquals(block[0] / seatsPerRow, block[quantity - 1] / seatsPerRow);
+                for (int index : block) {
+                    assertEquals(SeatStateBitmap.FREE, states.get(index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkFiveHundredSeatHall() {
+        BestSeatAllocator allocator = new BestSeatAllocator(rowStarts(25, 20), numbers(25, 20));
+        SeatStateBitmap states = new SeatStateBitmap(500);
+        for (int i = 0; i < 500; i += 3) {
+            states.set(i, SeatStateBitmap.SOLD);
+        }
+
+        int iterations = 100_000;
+        for (int i = 0; i < iterations; i++) {
+            allocator.allocate(states, 2, -1);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            allocator.allocate(states, 2, -1);
+        }
+        long nanosPerOp = (System.nanoTime() - start) / iterations;
+        System.out.println("Best-available allocation (500 seats): " + nanosPerOp + " ns/op");
+        assertTrue(nanosPerOp < 100_000);
+    }
+
+    private static boolean hasFreeBlock(SeatStateBitmap states, int rows, int seatsPerRow, int quantity) {
+        for (int r = 0; r < rows; r++) {
+            for (int j = 0; j + quantity <= seatsPerRow; j++) {
+                boolean free = true;
+                for (int k = 0; k < quantity && free; k++) {
+                    free = states.get(r * seatsPerRow + j + k) == SeatStateBitmap.FREE;
+                }
+                if (free) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int[] rowStarts(int rows, int seatsPerRow) {
+        int[] starts = new int[rows + 1];
+        for (int r = 0; r <= rows; r++) {
+            starts[r] = r * seatsPerRow;
+        }
+        return starts;
+    }
+
+    private static int[] numbers(int rows, int seatsPerRow) {
+        int[] numbers = new int[rows * seatsPerRow];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i % seatsPerRow + 1;
+        }
+        return numbers;
+    }
+}
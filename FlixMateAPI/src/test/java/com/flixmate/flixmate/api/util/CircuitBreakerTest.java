@@ -0,0 +1,88 @@
+package com.flixmate.flixmate.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void testOpensOnceFailureRateReachedAfterMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 1000, now::get);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onSuccess();
+        // 3 of 4 failed
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testOldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, 1000, now::get);
+
+        breaker.onFailure();
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess();
+        }
+        assertEquals(0.0, breaker.getFailureRate(), 1e-9);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenLetsOneTrialThrough() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, 1000, now::get);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(1000);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate(), 1e-9);
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailedTrialReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, 1000, now::get);
+        breaker.onFailure();
+        breaker.onFailure();
+
+        now.addAndGet(1000);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(999);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testReleasedTrialCanBeRetaken() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, 1000, now::get);
+        breaker.onFailure();
+        breaker.onFailure();
+        now.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,38 @@
+package com.flixmate.flixmate.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvWriterTest {
+
+    @Test
+    public void testQuotesOnlyWhenNeeded() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.writeRow("plain", "a,b", "say \"hi\"", "two\nlines", null, 7);
+
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,7\r\n", out.toString());
+    }
+
+    @Test
+    public void testFormulaTextIsNeutralised() {
+        assertEquals("'=SUM(A1:A2)", CsvWriter.format("=SUM(A1:A2)"));
+        assertEquals("'@cmd", CsvWriter.format("@cmd"));
+        assertEquals("\"'+1,2\"", CsvWriter.format("+1,2"));
+        // Numbers are written as they are, negative ones included
+        assertEquals("-5", CsvWriter.format(-5));
+    }
+
+    @Test
+    public void testNumbersAndDatesArePlain() {
+        assertEquals("12500000", CsvWriter.format(12_500_000.0));
+        assertEquals("15.5", CsvWriter.format(15.50));
+        assertEquals("2025-03-01", CsvWriter.format(LocalDate.of(2025, 3, 1)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.flixmate.flixmate.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HallLayoutParserTest {
+
+    @Test
+    public void testParsesSectionsAislesAndSeatTypes() {
+        List<HallLayoutParser.SeatSpec> seats = HallLayoutParser.parse(
+                "[Stalls]\n" +
+                "SS..SS\n" +
+                "W.S..S\n" +
+                "\n" +
+                "[Balcony]\n" +
+                "PCCP\n");
+
+        assertEquals(11, seats.size());
+
+        HallLayoutParser.SeatSpec afterAisle = seats.get(2);
+        assertEquals("A", afterAisle.getRow());
+        assertEquals(3, afterAisle.getNumber());
+        assertEquals(4, afterAisle.getPosition());
+        assertEquals("Stalls", afterAisle.getSection());
+
+        HallLayoutParser.SeatSpec wheelchair = seats.get(4);
+        assertEquals("B", wheelchair.getRow());
+        assertEquals(1, wheelchair.getNumber());
+        assertEquals(HallLayoutParser.WHEELCHAIR, wheelchair.getSeatType());
+
+        HallLayoutParser.SeatSpec couple = seats.get(8);
+        assertEquals("C", couple.getRow());
+        assertEquals(2, couple.getNumber());
+        assertEquals(HallLayoutParser.COUPLE, couple.getSeatType());
+        assertEquals("Balcony", couple.getSection());
+        assertEquals(HallLayoutParser.PREMIUM, seats.get(7).getSeatType());
+    }
+
+    @Test
+    public void testRejectsMalformedLayouts() {
+        assertThrows(IllegalArgumentException.class, () -> HallLayoutParser.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> HallLayoutParser.parse("[Stalls]\n...\n"));
+        assertThrows(IllegalArgumentException.class, () -> HallLayoutParser.parse("SSXSS"));
+        assertThrows(IllegalArgumentException.class, () -> HallLayoutParser.parse("[Stalls\nSSS"));
+    }
+
+    @Test
+    public void testRowNamesAndTypeCodes() {
+        assertEquals("A", HallLayoutParser.rowName(0));
+        assertEquals("Z", HallLayoutParser.rowName(25));
+        assertEquals("AA", HallLayoutParser.rowName(26));
+        assertEquals(0, HallLayoutParser.typeCode(null));
+        assertEquals(0, HallLayoutParser.typeCode("UNKNOWN"));
+        assertEquals(3, HallLayoutParser.typeCode(HallLayoutParser.COUPLE));
+    }
+}
@@ -0,0 +1,90 @@
+package com.flixmate.flixmate.api.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    private final Set<Integer> expired = ConcurrentHashMap.newKeySet();
+    private CountDownLatch latch;
+    private HashedTimingWheel<Integer> wheel;
+
+    @AfterEach
+    public void tearDown() {
+        if (wheel != null) {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void testTimeoutFiresAfterDelay() throws InterruptedException {
+        startWheel(1, 8);
+        long start = System.nanoTime();
+
+        wheel.schedule(1, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(expired.contains(1));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    public void testDelayLongerThanOneRevolution() throws InterruptedException {
+        // 8 buckets of 10ms: a 200ms timeout has to survive two full turns of the wheel
+        startWheel(1, 8);
+        long start = System.nanoTime();
+
+        wheel.schedule(1, 200, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotFire() throws InterruptedException {
+        startWheel(1, 8);
+
+        HashedTimingWheel.Timeout<Integer> cancelled = wheel.schedule(1, 30, TimeUnit.MILLISECONDS);
+        wheel.schedule(2, 60, TimeUnit.MILLISECONDS);
+        cancelled.cancel();
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(Set.of(2), expired);
+    }
+
+    @Test
+    public void testManyTimeouts() throws InterruptedException {
+        int count = 10_000;
+        startWheel(count, 64);
+
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(i, i % 100, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(count, expired.size());
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    public void testWheelSizeMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HashedTimingWheel<Integer>("test", 10, TimeUnit.MILLISECONDS, 10, key -> { }));
+    }
+
+    private void startWheel(int expectedExpiries, int wheelSize) {
+        latch = new CountDownLatch(expectedExpiries);
+        wheel = new HashedTimingWheel<>("test-wheel", 10, TimeUnit.MILLISECONDS, wheelSize, key -> {
+            expired.add(key);
+            latch.countDown();
+        });
+        wheel.start();
+    }
+}
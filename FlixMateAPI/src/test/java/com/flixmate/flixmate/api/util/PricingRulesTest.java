@@ -0,0 +1,46 @@
+package com.flixmate.flixmate.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingRulesTest {
+
+    private static final String RULES =
+            "occupancy >= 0.8 => 1.25; occupancy < 0.3 & hours > 48 => 0.8; day = SAT|SUN => 1.1";
+
+    @Test
+    public void testMultipliesFactorsOfMatchingRules() {
+        PricingRules rules = PricingRules.compile(RULES);
+
+        assertEquals(3, rules.size());
+        assertEquals(1.0, rules.evaluate(0.5, 10, DayOfWeek.MONDAY), 1e-9);
+        assertEquals(1.25, rules.evaluate(0.8, 10, DayOfWeek.MONDAY), 1e-9);
+        assertEquals(1.375, rules.evaluate(0.9, 10, DayOfWeek.SUNDAY), 1e-9);
+        assertEquals(0.8, rules.evaluate(0.1, 72, DayOfWeek.FRIDAY), 1e-9);
+        assertEquals(1.0, rules.evaluate(0.1, 24, null), 1e-9);
+    }
+
+    @Test
+    public void testBandsChangeOnlyAtThresholds() {
+        PricingRules rules = PricingRules.compile(RULES);
+
+        assertEquals(rules.occupancyBand(0.4), rules.occupancyBand(0.79));
+        assertNotEquals(rules.occupancyBand(0.79), rules.occupancyBand(0.8));
+        assertNotEquals(rules.occupancyBand(0.8), rules.occupancyBand(0.81));
+        assertEquals(rules.occupancyBand(0.81), rules.occupancyBand(1.0));
+        assertEquals(rules.hoursBand(1), rules.hoursBand(47.5));
+        assertNotEquals(rules.hoursBand(47.5), rules.hoursBand(49));
+    }
+
+    @Test
+    public void testRejectsMalformedRules() {
+        assertTrue(PricingRules.compile("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.compile("occupancy >= 0.8"));
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.compile("seats > 3 => 1.2"));
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.compile("day = XYZ => 1.2"));
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.compile("hours < 2 => 0"));
+    }
+}
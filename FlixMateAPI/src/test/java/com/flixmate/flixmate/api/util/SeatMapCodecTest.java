@@ -0,0 +1,118 @@
+package com.flixmate.flixmate.api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flixmate.flixmate.api.entity.Seat;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatMapCodecTest {
+
+    private static final int HALL_SEATS = 300;
+    private static final int BENCHMARK_ITERATIONS = 200_000;
+
+    @Test
+    public void testBitmapRoundTrip() {
+        for (int size : new int[] {1, 31, 32, 33, 64, 300, 500}) {
+            SeatStateBitmap states = randomStates(size, 0.5, size);
+            boolean[] decoded = SeatMapCodec.decodeBitmap(SeatMapCodec.encodeBitmap(masks(states), size), size);
+            assertAvailability(states, decoded);
+        }
+    }
+
+    @Test
+    public void testRunLengthRoundTrip() {
+        for (int size : new int[] {1, 31, 32, 33, 64, 300, 500}) {
+            for (double taken : new double[] {0.0, 0.1, 0.5, 1.0}) {
+                SeatStateBitmap states = randomStates(size, taken, size);
+                boolean[] decoded = SeatMapCodec.decodeRunLength(SeatMapCodec.encodeRunLength(masks(states), size), size);
+                assertAvailability(states, decoded);
+            }
+        }
+    }
+
+    @Test
+    public void testRunLengthStartsWithAvailableRun() {
+        SeatStateBitmap states = new SeatStateBitmap(4);
+        states.set(0, SeatStateBitmap.SOLD);
+        boolean[] decoded = SeatMapCodec.decodeRunLength(SeatMapCodec.encodeRunLength(masks(states), 4), 4);
+        assertArrayEquals(new boolean[] {false, true, true, true}, decoded);
+    }
+
+    @Test
+    public void testPayloadSizeForThreeHundredSeatHall() throws Exception {
+        SeatStateBitmap states = randomStates(HALL_SEATS, 0.3, 42);
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < HALL_SEATS; i++) {
+            Seat seat = new Seat(String.valueOf((char) ('A' + i / 20)), i % 20 + 1,
+                    states.get(i) == SeatStateBitmap.FREE ? "AVAILABLE" : "RESERVED", null);
+            seat.setSeatId(1000 + i);
+            seats.add(seat);
+        }
+        int jsonBytes = new ObjectMapper().writeValueAsBytes(seats).length;
+        int bitmapBytes = SeatMapCodec.encodeBitmap(masks(states), HALL_SEATS).length();
+        int rleBytes = SeatMapCodec.encodeRunLength(masks(states), HALL_SEATS).length();
+
+        System.out.println("300 seats - JSON: " + jsonBytes + " bytes, bitmap: " + bitmapBytes + " bytes, rle: " + rleBytes + " bytes");
+        assertTrue(bitmapBytes < 100);
+        assertTrue(rleBytes < 1024);
+        assertTrue(jsonBytes > 10_000);
+    }
+
+    @Test
+    public void benchmarkEncodeAndDecode() {
+        SeatStateBitmap states = randomStates(HALL_SEATS, 0.3, 7);
+        long[] masks = masks(states);
+        String bitmap = SeatMapCodec.encodeBitmap(masks, HALL_SEATS);
+        String rle = SeatMapCodec.encodeRunLength(masks, HALL_SEATS);
+
+        report("bitmap encode", () -> SeatMapCodec.encodeBitmap(masks, HALL_SEATS));
+        report("bitmap decode", () -> SeatMapCodec.decodeBitmap(bitmap, HALL_SEATS));
+        report("rle encode", () -> SeatMapCodec.encodeRunLength(masks, HALL_SEATS));
+        report("rle decode", () -> SeatMapCodec.decodeRunLength(rle, HALL_SEATS));
+    }
+
+    private void report(String name, Runnable operation) {
+        // Warm up so the JIT has compiled the codec before timing it
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            operation.run();
+        }
+        long nanosPerOp = (System.nanoTime() - start) / BENCHMARK_ITERATIONS;
+        System.out.println(name + " (" + HALL_SEATS + " seats): " + nanosPerOp + " ns/op");
+        assertTrue(nanosPerOp < 100_000, name + " took " + nanosPerOp + " ns/op");
+    }
+
+    private static SeatStateBitmap randomStates(int size, double takenRatio, long seed) {
+        Random random = new Random(seed);
+        SeatStateBitmap states = new SeatStateBitmap(size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextDouble() < takenRatio) {
+                states.set(i, 1 + random.nextInt(3));
+            }
+        }
+        return states;
+    }
+
+    private static long[] masks(SeatStateBitmap states) {
+        long[] masks = new long[states.wordCount()];
+        for (int w = 0; w < masks.length; w++) {
+            masks[w] = states.stateMask(w, SeatStateBitmap.FREE);
+        }
+        return masks;
+    }
+
+    private static void assertAvailability(SeatStateBitmap states, boolean[] decoded) {
+        assertEquals(states.size(), decoded.length);
+        for (int i = 0; i < decoded.length; i++) {
+            assertEquals(states.get(i) == SeatStateBitmap.FREE, decoded[i], "seat " + i);
+        }
+    }
+}